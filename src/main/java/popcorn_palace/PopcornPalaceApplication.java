@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan(basePackages = "com.att.tdp.popcorn_palace.model") // Explicitly scan the model package for entities
 @EnableJpaRepositories(basePackages = "com.att.tdp.popcorn_palace.repository")  // Enable repository scanning
+@EnableScheduling // Background jobs such as the outbox relay
 public class PopcornPalaceApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(PopcornPalaceApplication.class, args);
@@ -0,0 +1,225 @@
+package popcorn_palace.config;
+
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Hand-written JSON serializers for the entities returned by the API: Booking, Showtime and Movie.
+ *
+ * They write exactly what Jackson's bean serializers would (same properties, order and formats), but call the
+ * generator directly with pre-encoded field names. Dates and UUIDs are formatted into one small char buffer per
+ * object instead of going through DateTimeFormatter and intermediate strings, which is most of what the bean
+ * serializers allocate per response. Prices are written from their cents without creating a BigDecimal. A booking embeds its showtime through the showtime serializer below,
+ * without a serializer lookup. Registered with Spring's ObjectMapper through @JsonComponent.
+ */
+@JsonComponent
+public class ApiJsonSerializers {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 36; // A UUID; a date-time up to nanoseconds needs 29, a price at most 20
+
+    public static class ShowtimeSerializer extends JsonSerializer<Showtime> {
+
+        private static final SerializedString MOVIE_TITLE = new SerializedString("movieTitle");
+        private static final SerializedString THEATER = new SerializedString("theater");
+        private static final SerializedString START_TIME = new SerializedString("startTime");
+        private static final SerializedString END_TIME = new SerializedString("endTime");
+        private static final SerializedString PRICE = new SerializedString("price");
+
+        @Override
+        public void serialize(Showtime showtime, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            serialize(showtime, gen, new char[BUFFER_SIZE]);
+        }
+
+        void serialize(Showtime showtime, JsonGenerator gen, char[] buffer) throws IOException {
+            gen.writeStartObject(showtime);
+            gen.writeFieldName(ID);
+            writeNumber(gen, showtime.getId());
+            gen.writeFieldName(MOVIE_TITLE);
+            gen.writeString(showtime.getMovieTitle());
+            gen.writeFieldName(THEATER);
+            gen.writeString(showtime.getTheater());
+            gen.writeFieldName(START_TIME);
+            writeDateTime(gen, showtime.getStartTime(), buffer);
+            gen.writeFieldName(END_TIME);
+            writeDateTime(gen, showtime.getEndTime(), buffer);
+            gen.writeFieldName(PRICE);
+            writeCents(gen, showtime.getPriceCents(), buffer);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class BookingSerializer extends JsonSerializer<Booking> {
+
+        private static final SerializedString BOOKING_ID = new SerializedString("bookingId");
+        private static final SerializedString SHOWTIME = new SerializedString("showtime");
+        private static final SerializedString SEAT_NUMBER = new SerializedString("seatNumber");
+        private static final SerializedString USER_ID = new SerializedString("userId");
+
+        private final ShowtimeSerializer showtimeSerializer = new ShowtimeSerializer();
+
+        @Override
+        public void serialize(Booking booking, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            char[] buffer = new char[BUFFER_SIZE];
+            gen.writeStartObject(booking);
+            gen.writeFieldName(BOOKING_ID);
+            writeUuid(gen, booking.getBookingId(), buffer);
+            gen.writeFieldName(SHOWTIME);
+            if (booking.getShowtime() == null) {
+                gen.writeNull();
+            } else {
+                showtimeSerializer.serialize(booking.getShowtime(), gen, buffer);
+            }
+            gen.writeFieldName(SEAT_NUMBER);
+            gen.writeNumber(booking.getSeatNumber());
+            gen.writeFieldName(USER_ID);
+            gen.writeString(booking.getUserId());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class MovieSerializer extends JsonSerializer<Movie> {
+
+        private static final SerializedString TITLE = new SerializedString("title");
+        private static final SerializedString GENRE = new SerializedString("genre");
+        private static final SerializedString DURATION = new SerializedString("duration");
+        private static final SerializedString RATING = new SerializedString("rating");
+        private static final SerializedString RELEASE_YEAR = new SerializedString("releaseYear");
+
+        @Override
+        public void serialize(Movie movie, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(movie);
+            gen.writeFieldName(ID);
+            writeNumber(gen, movie.getId());
+            gen.writeFieldName(TITLE);
+            gen.writeString(movie.getTitle());
+            gen.writeFieldName(GENRE);
+            gen.writeString(movie.getGenre());
+            gen.writeFieldName(DURATION);
+            gen.writeNumber(movie.getDuration());
+            gen.writeFieldName(RATING);
+            gen.writeNumber(movie.getRating());
+            gen.writeFieldName(RELEASE_YEAR);
+            gen.writeNumber(movie.getReleaseYear());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    /**
+     * Writes a date-time the way Jackson's default LocalDateTimeSerializer does (ISO_LOCAL_DATE_TIME: seconds
+     * always, fraction only when non-zero and without trailing zeros).
+     */
+    static void writeDateTime(JsonGenerator gen, LocalDateTime value, char[] buffer) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)); // Sign and extra digits; never happens in practice
+            return;
+        }
+        digits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        digits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        digits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        digits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        digits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        digits(buffer, 17, value.getSecond(), 2);
+        int length = 19;
+        int nano = value.getNano();
+        if (nano != 0) {
+            buffer[19] = '.';
+            digits(buffer, 20, nano, 9);
+            length = 29;
+            while (buffer[length - 1] == '0') {
+                length--;
+            }
+        }
+        gen.writeString(buffer, 0, length);
+    }
+
+    /**
+     * Writes an amount in cents as a decimal number with two fractional digits, as BigDecimal.valueOf(cents, 2)
+     * would be written, without creating the BigDecimal.
+     */
+    static void writeCents(JsonGenerator gen, long cents, char[] buffer) throws IOException {
+        if (cents < 0) {
+            gen.writeNumber(BigDecimal.valueOf(cents, 2)); // Never stored; prices are validated positive
+            return;
+        }
+        // Filled from the end: two fractional digits, the point, then the whole part (at least "0").
+        int pos = buffer.length;
+        buffer[--pos] = (char) ('0' + cents % 10);
+        cents /= 10;
+        buffer[--pos] = (char) ('0' + cents % 10);
+        cents /= 10;
+        buffer[--pos] = '.';
+        do {
+            buffer[--pos] = (char) ('0' + cents % 10);
+            cents /= 10;
+        } while (cents != 0);
+        gen.writeNumber(buffer, pos, buffer.length - pos);
+    }
+
+    /**
+     * Writes a UUID in its canonical lower-case form, as UUID.toString() would.
+     */
+    static void writeUuid(JsonGenerator gen, UUID value, char[] buffer) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        hex(buffer, 0, msb >>> 32, 8);
+        buffer[8] = '-';
+        hex(buffer, 9, msb >>> 16, 4);
+        buffer[13] = '-';
+        hex(buffer, 14, msb, 4);
+        buffer[18] = '-';
+        hex(buffer, 19, lsb >>> 48, 4);
+        buffer[23] = '-';
+        hex(buffer, 24, lsb, 12);
+        gen.writeString(buffer, 0, 36);
+    }
+
+    private static void digits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void hex(char[] buffer, int offset, long value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package popcorn_palace.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-replica routing, enabled with popcorn.datasource.replicas.enabled=true.
+ *
+ * Replaces the auto-configured DataSource with a LazyConnectionDataSourceProxy over the primary pool. The proxy
+ * only fetches a physical connection at the first statement, by which time a transaction has marked it read-only
+ * or not: read-only transactions (the @Transactional(readOnly = true) service reads) get a connection from
+ * ReplicaRoutingDataSource, everything else, including bookings, cancellations and schedule changes, from the
+ * primary. Replicas share the primary's credentials unless configured otherwise.
+ */
+@Configuration
+@ConditionalOnProperty(name = "popcorn.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private final List<DataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("${popcorn.datasource.replicas.urls:}") List<String> replicaUrls,
+                                 @Value("${popcorn.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                 @Value("${popcorn.datasource.replicas.password:${spring.datasource.password:}}") String password) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+        pools.add(primary);
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            DataSource replica = DataSourceBuilder.create().url(url).username(username).password(password).build();
+            replicas.add(replica);
+            pools.add(replica);
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicas));
+        return dataSource;
+    }
+
+    @PreDestroy
+    void closePools() throws IOException {
+        for (DataSource pool : pools) {
+            if (pool instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package popcorn_palace.config;
+
+import popcorn_palace.service.ReadYourWrites;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the database for a read-only connection: the replicas in turn, or the primary while the
+ * current thread is pinned to it by ReadYourWrites.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final int replicaCount;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        this.replicaCount = replicas.size();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaCount == 0 || ReadYourWrites.isPrimaryPinned()) {
+            return PRIMARY;
+        }
+        return replicaKey(Math.floorMod(next.getAndIncrement(), replicaCount));
+    }
+
+    private static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+}
@@ -0,0 +1,28 @@
+package popcorn_palace.config;
+
+import popcorn_palace.controller.BookingController;
+import popcorn_palace.service.BookingGroupCommitter;
+import popcorn_palace.service.BookingSequencer;
+import popcorn_palace.service.CatalogInvalidationBus;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup options. With spring.main.lazy-initialization=true every bean is created on first use, so an
+ * instance starts serving sooner and admin, reporting and catalog beans are only built when called.
+ *
+ * The beans below stay eager because nothing would create them in time otherwise: the booking path,
+ * so the first booking after a scale-out does not pay for building it, the booking writer threads, and
+ * the invalidation bus, which no other bean depends on. Spring Boot already keeps beans with @Scheduled
+ * methods eager.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(BookingController.class, BookingSequencer.class,
+                BookingGroupCommitter.class, CatalogInvalidationBus.class);
+    }
+}
@@ -0,0 +1,76 @@
+package popcorn_palace.config;
+
+import popcorn_palace.controller.AsyncTimeoutInterceptor;
+import popcorn_palace.controller.CatalogCacheInterceptor;
+import popcorn_palace.controller.CatalogSnapshotFilter;
+import popcorn_palace.controller.ClusterForwardingFilter;
+import popcorn_palace.service.BookingService;
+import popcorn_palace.service.CatalogVersions;
+import popcorn_palace.service.CatalogVersions.Catalog;
+import popcorn_palace.service.ClusterMembership;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Spring MVC configuration: conditional GET handling and pre-serialized snapshots for the catalog endpoints,
+ * per-endpoint async timeouts, and forwarding of booking requests to the showtime's owner in cluster mode.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogVersions catalogVersions;
+    private final String cacheControl;
+
+    public WebConfig(CatalogVersions catalogVersions,
+                     @Value("${popcorn.http-cache.max-age:PT0S}") Duration maxAge) {
+        this.catalogVersions = catalogVersions;
+        // Shared caches may keep responses for max-age, then must revalidate with the ETag.
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate().getHeaderValue();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new CatalogCacheInterceptor(catalogVersions, cacheControl, Catalog.MOVIES))
+                .addPathPatterns("/movies/**");
+        registry.addInterceptor(new CatalogCacheInterceptor(catalogVersions, cacheControl, Catalog.THEATERS))
+                .addPathPatterns("/theaters/**");
+        // Showtime responses include the movie title and theater name, so they depend on all three catalogs.
+        registry.addInterceptor(new CatalogCacheInterceptor(catalogVersions, cacheControl,
+                        Catalog.SHOWTIMES, Catalog.MOVIES, Catalog.THEATERS))
+                .addPathPatterns("/showtimes/**");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor());
+    }
+
+    @Bean
+    public FilterRegistrationBean<CatalogSnapshotFilter> catalogSnapshotFilter(
+            @Value("${popcorn.snapshots.max-entries:256}") int maxEntries) {
+        FilterRegistrationBean<CatalogSnapshotFilter> registration =
+                new FilterRegistrationBean<>(new CatalogSnapshotFilter(catalogVersions, cacheControl, maxEntries));
+        registration.addUrlPatterns("/movies/*", "/theaters/*", "/showtimes/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ClusterForwardingFilter> clusterForwardingFilter(
+            ClusterMembership clusterMembership, BookingService bookingService, ObjectMapper objectMapper,
+            @Value("${popcorn.cluster.forward-timeout:PT10S}") Duration forwardTimeout) {
+        FilterRegistrationBean<ClusterForwardingFilter> registration = new FilterRegistrationBean<>(
+                new ClusterForwardingFilter(clusterMembership, bookingService, objectMapper, forwardTimeout));
+        registration.addUrlPatterns("/bookings", "/bookings/*", "/waiting-room/*");
+        registration.setEnabled(clusterMembership.isEnabled());
+        return registration;
+    }
+}
@@ -0,0 +1,58 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.model.RevenueReport;
+import popcorn_palace.service.AnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST Controller for the managers' revenue and occupancy dashboard.
+ * Reads only the pre-aggregated rollups maintained by AnalyticsService.
+ */
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Retrieves revenue, seats sold and occupancy per movie, theater or day.
+     *
+     * @param groupBy movie (default), theater or day.
+     * @param from    The first showtime day, inclusive; defaults to 30 days ago.
+     * @param to      The last showtime day, inclusive; defaults to today.
+     * @return A response containing the report lines.
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueReport>> getRevenue(
+            @RequestParam(defaultValue = "movie") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(30);
+        return ResponseEntity.ok(analyticsService.getRevenueReport(groupBy, first, last));
+    }
+
+    /**
+     * Recomputes the rollups from the booking tables. A full scan; meant for maintenance windows.
+     *
+     * @return An empty response once the rollups are rebuilt.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups() {
+        analyticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
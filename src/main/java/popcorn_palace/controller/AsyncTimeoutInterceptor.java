@@ -0,0 +1,37 @@
+package popcorn_palace.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Gives single endpoints a longer async request timeout than spring.mvc.async.request-timeout.
+ *
+ * A handler that returns a StreamingResponseBody cannot pass a timeout along with it, so it marks its request
+ * with extendTimeout() instead, and this interceptor applies the timeout just before the async processing starts.
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    private static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    /**
+     * Sets the async timeout for the body the current handler returns.
+     * @param request The current request.
+     * @param timeout How long the body may take to write.
+     */
+    public static void extendTimeout(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, NativeWebRequest.SCOPE_REQUEST);
+        if (timeout instanceof Duration duration && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(duration.toMillis());
+        }
+    }
+}
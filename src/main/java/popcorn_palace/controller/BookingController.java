@@ -1,13 +1,31 @@
 package popcorn_palace.controller;
 
+import popcorn_palace.exception.BookingOutcomeUnknownException;
 import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.NotAdmittedException;
+import popcorn_palace.exception.RateLimitExceededException;
 import popcorn_palace.exception.ResourceNotFoundException;
 import popcorn_palace.exception.SeatAlreadyBookedException;
+import popcorn_palace.exception.SoldOutException;
+import popcorn_palace.model.ArchivedBooking;
 import popcorn_palace.model.Booking;
+import popcorn_palace.model.IdempotencyRecord;
+import popcorn_palace.model.SeatBlockRequest;
+import popcorn_palace.model.SeatMap;
+import popcorn_palace.service.BookingArchiveService;
+import popcorn_palace.service.BookingGroupCommitter;
+import popcorn_palace.service.BookingRateLimiter;
+import popcorn_palace.service.BookingSequencer;
 import popcorn_palace.service.BookingService;
+import popcorn_palace.service.IdempotencyService;
+import popcorn_palace.service.ReadYourWrites;
+import popcorn_palace.service.SeatEventBroadcaster;
+import popcorn_palace.service.WaitingRoomService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,42 +38,163 @@ import java.util.UUID;
 @RequestMapping("/bookings")
 public class BookingController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String QUEUE_TICKET_HEADER = "Queue-Ticket";
+
     private final BookingService bookingService;
+    private final SeatEventBroadcaster seatEventBroadcaster;
+    private final IdempotencyService idempotencyService;
+    private final BookingRateLimiter bookingRateLimiter;
+    private final WaitingRoomService waitingRoomService;
+    private final BookingSequencer bookingSequencer;
+    private final BookingGroupCommitter bookingGroupCommitter;
+    private final BookingArchiveService bookingArchiveService;
+    private final ReadYourWrites readYourWrites;
 
     /**
      * Constructor for BookingController.
      *
      * @param bookingService Service layer handling booking logic.
+     * @param seatEventBroadcaster Pushes seat changes to streaming clients.
+     * @param idempotencyService Stores responses of requests sent with an Idempotency-Key.
+     * @param bookingRateLimiter Throttles booking requests per user and per showtime.
+     * @param waitingRoomService Admits users to showtimes with an open waiting room.
+     * @param bookingSequencer Single-writer booking engine, used instead of BookingService when enabled.
+     * @param bookingGroupCommitter Batches concurrent booking inserts into one commit when enabled.
+     * @param bookingArchiveService Serves bookings of past showtimes from cold storage.
+     * @param readYourWrites Pins a user's reads to the primary database right after they booked.
      */
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, SeatEventBroadcaster seatEventBroadcaster,
+                             IdempotencyService idempotencyService, BookingRateLimiter bookingRateLimiter,
+                             WaitingRoomService waitingRoomService, BookingSequencer bookingSequencer,
+                             BookingGroupCommitter bookingGroupCommitter, BookingArchiveService bookingArchiveService,
+                             ReadYourWrites readYourWrites) {
         this.bookingService = bookingService;
+        this.seatEventBroadcaster = seatEventBroadcaster;
+        this.idempotencyService = idempotencyService;
+        this.bookingRateLimiter = bookingRateLimiter;
+        this.waitingRoomService = waitingRoomService;
+        this.bookingSequencer = bookingSequencer;
+        this.bookingGroupCommitter = bookingGroupCommitter;
+        this.bookingArchiveService = bookingArchiveService;
+        this.readYourWrites = readYourWrites;
     }
 
     /**
      * Books a ticket for a specific showtime.
+     * When an Idempotency-Key header is sent, a retry with the same key returns the original 201 response
+     * without booking again. Showtimes with an open waiting room also need an admitted Queue-Ticket header.
      *
+     * @param idempotencyKey Optional client-generated key identifying this booking attempt.
+     * @param queueTicket The admitted waiting room ticket, required only for showtimes with a waiting room.
      * @param bookingRequest The booking details received in the request body.
      * @return A response containing the created booking if successful.
      * @throws SeatAlreadyBookedException if the requested seat is already booked.
-     * @throws InvalidDataException if the booking request contains invalid data.
+     * @throws InvalidDataException if the booking request contains invalid data,
+     *                              or the idempotency key was used for a different request.
+     * @throws RateLimitExceededException if the user or the showtime exceeded its request rate.
+     * @throws NotAdmittedException if the showtime has a waiting room and the user was not admitted yet.
+     * @throws SoldOutException if the showtime has a waiting room and no seats left.
+     * @throws BookingOutcomeUnknownException if the booking writer did not finish the booking in time; it may still commit.
      */
     @PostMapping
-    public ResponseEntity<?> bookTicket(@Valid @RequestBody Booking bookingRequest) {
+    public ResponseEntity<?> bookTicket(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                        @RequestHeader(value = QUEUE_TICKET_HEADER, required = false) UUID queueTicket,
+                                        @Valid @RequestBody Booking bookingRequest) {
+        // A retry of a finished booking gets its stored response even once the showtime is sold out,
+        // and does not spend a rate limit token
+        if (idempotencyKey != null) {
+            ResponseEntity<String> replay = replay(idempotencyKey, bookingRequest);
+            if (replay != null) {
+                return replay;
+            }
+        }
+        // Throttle and admit before the booking touches the database
+        bookingRateLimiter.acquire(bookingRequest.getShowtime().getId(), bookingRequest.getUserId());
+        waitingRoomService.checkAdmission(bookingRequest.getShowtime().getId(), bookingRequest.getUserId(), queueTicket);
         try {
-            Booking booking = bookingService.bookTicket(
-                    bookingRequest.getShowtime().getId(),
-                    bookingRequest.getSeatNumber(),
-                    bookingRequest.getUserId());
+            Long showtimeId = bookingRequest.getShowtime().getId();
+            Booking booking;
+            if (bookingSequencer.isEnabled()) {
+                booking = bookingSequencer.book(showtimeId, bookingRequest.getSeatNumber(), bookingRequest.getUserId(), idempotencyKey);
+            } else if (bookingGroupCommitter.isEnabled()) {
+                booking = bookingGroupCommitter.book(showtimeId, bookingRequest.getSeatNumber(), bookingRequest.getUserId(), idempotencyKey);
+            } else if (idempotencyKey == null) {
+                booking = bookingService.bookTicket(showtimeId, bookingRequest.getSeatNumber(), bookingRequest.getUserId());
+            } else {
+                booking = bookingService.bookTicket(showtimeId, bookingRequest.getSeatNumber(), bookingRequest.getUserId(), idempotencyKey);
+            }
+            readYourWrites.recordWrite(bookingRequest.getUserId());
             return ResponseEntity.status(201).body(booking);
         } catch (SeatAlreadyBookedException e) {
+            // A concurrent retry with the same key may have committed first.
+            ResponseEntity<String> replay = idempotencyKey == null ? null : replay(idempotencyKey, bookingRequest);
+            if (replay != null) {
+                return replay;
+            }
             // Propagating the exception to be handled globally.
             throw e;
+        } catch (RateLimitExceededException e) {
+            // The sequencer's queue for this showtime is full.
+            throw e;
+        } catch (BookingOutcomeUnknownException e) {
+            // The booking may still commit; reported as 202 so the client does not book again.
+            readYourWrites.recordWrite(bookingRequest.getUserId());
+            throw e;
         } catch (Exception e) {
             // Catching any unexpected errors and returning a generic validation error.
             throw new InvalidDataException("Invalid data provided for the booking.");
         }
     }
 
+    /**
+     * Books the best available block of adjacent seats, closest to the center of the theater.
+     *
+     * @param request The showtime, number of seats and user.
+     * @return A response containing the created bookings, in seat order.
+     * @throws SeatAlreadyBookedException if no row has enough adjacent free seats.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     * @throws RateLimitExceededException if the user or the showtime exceeded its request rate.
+     * @throws BookingOutcomeUnknownException if the booking writer did not finish the block in time; it may still commit.
+     */
+    @PostMapping("/best-available")
+    public ResponseEntity<List<Booking>> bookBestAvailable(@RequestHeader(value = QUEUE_TICKET_HEADER, required = false) UUID queueTicket,
+                                                           @Valid @RequestBody SeatBlockRequest request) {
+        bookingRateLimiter.acquire(request.getShowtimeId(), request.getUserId());
+        waitingRoomService.checkAdmission(request.getShowtimeId(), request.getUserId(), queueTicket);
+        List<Booking> bookings;
+        try {
+            // The sequencer owns the seat maps in its mode, so the block must be chosen by its writer
+            bookings = bookingSequencer.isEnabled()
+                    ? bookingSequencer.bookBestAvailable(request.getShowtimeId(), request.getSeatCount(), request.getUserId())
+                    : bookingService.bookBestAvailable(request.getShowtimeId(), request.getSeatCount(), request.getUserId());
+        } catch (BookingOutcomeUnknownException e) {
+            // The block may still commit; reported as 202 so the client does not book again.
+            readYourWrites.recordWrite(request.getUserId());
+            throw e;
+        }
+        readYourWrites.recordWrite(request.getUserId());
+        return ResponseEntity.status(201).body(bookings);
+    }
+
+    /**
+     * Returns the stored response for an idempotency key, or null if there is none.
+     */
+    private ResponseEntity<String> replay(String idempotencyKey, Booking bookingRequest) {
+        IdempotencyRecord record = idempotencyService.find(idempotencyKey).orElse(null);
+        if (record == null) {
+            return null;
+        }
+        String fingerprint = IdempotencyService.bookingFingerprint(
+                bookingRequest.getShowtime().getId(), bookingRequest.getSeatNumber(), bookingRequest.getUserId());
+        if (!record.getRequestFingerprint().equals(fingerprint)) {
+            throw new InvalidDataException("Idempotency-Key " + idempotencyKey + " was already used for a different booking request.");
+        }
+        return ResponseEntity.status(record.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(record.getResponseBody());
+    }
+
     /**
      * Retrieves a specific booking by its unique ID.
      *
@@ -71,14 +210,54 @@ public class BookingController {
 
     /**
      * Retrieves all bookings associated with a specific user.
+     * Read from the primary database for a few seconds after the user booked, so the new booking is included.
      *
      * @param userId The ID of the user whose bookings are to be retrieved.
      * @return A list of bookings made by the specified user.
      */
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Booking>> getBookingsByUserId(@PathVariable String userId) {
-        List<Booking> bookings = bookingService.getBookingsByUserId(userId);
-        return ResponseEntity.ok(bookings);
+        try (ReadYourWrites.Pin pin = readYourWrites.pinIfRecentWriter(userId)) {
+            List<Booking> bookings = bookingService.getBookingsByUserId(userId);
+            return ResponseEntity.ok(bookings);
+        }
+    }
+
+    /**
+     * Retrieves the bookings of a user for past showtimes, which have been moved to the archive.
+     *
+     * @param userId The ID of the user whose archived bookings are to be retrieved.
+     * @return A list of archived bookings, most recent showtime first.
+     */
+    @GetMapping("/user/{userId}/archive")
+    public ResponseEntity<List<ArchivedBooking>> getArchivedBookingsByUserId(@PathVariable String userId) {
+        return ResponseEntity.ok(bookingArchiveService.getArchivedBookingsByUserId(userId));
+    }
+
+    /**
+     * Retrieves the seat map of a showtime: its theater layout and the seats already taken.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return A response containing the seat map.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     */
+    @GetMapping("/showtime/{showtimeId}/seats")
+    public ResponseEntity<SeatMap> getSeatMap(@PathVariable Long showtimeId) {
+        return ResponseEntity.ok(bookingService.getSeatMap(showtimeId));
+    }
+
+    /**
+     * Streams seat changes of a showtime as server-sent events.
+     * Sends a "snapshot" event with the full seat map, then "seats" events with the taken and released seats,
+     * and a "resync" event if the client fell behind and should reload the seat map.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return The event stream.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     */
+    @GetMapping(value = "/showtime/{showtimeId}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatChanges(@PathVariable Long showtimeId) {
+        return seatEventBroadcaster.subscribe(showtimeId);
     }
 
     /**
@@ -90,7 +269,11 @@ public class BookingController {
      */
     @DeleteMapping("/{bookingId}")
     public ResponseEntity<Void> cancelBooking(@PathVariable UUID bookingId) {
-        bookingService.cancelBooking(bookingId);
+        Booking cancelled = bookingSequencer.isEnabled()
+                ? bookingSequencer.cancel(bookingId)
+                : bookingService.cancelBooking(bookingId);
+        // The user's next reads must not find the booking on a lagging replica.
+        readYourWrites.recordWrite(cancelled.getUserId());
         return ResponseEntity.noContent().build();
     }
 }
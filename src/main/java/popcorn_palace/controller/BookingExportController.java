@@ -0,0 +1,64 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.service.BookingExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * REST Controller for the finance export of all bookings with their prices.
+ */
+@RestController
+@RequestMapping("/bookings/export")
+public class BookingExportController {
+
+    private final BookingExportService bookingExportService;
+    private final Duration timeout;
+
+    public BookingExportController(BookingExportService bookingExportService,
+                                   @Value("${popcorn.export.timeout:PT30M}") Duration timeout) {
+        this.bookingExportService = bookingExportService;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Streams all bookings, including archived ones, joined to their showtime's price, as a file download.
+     * The body is written while the rows are read from the database, so the export can be arbitrarily large;
+     * it may take up to popcorn.export.timeout instead of the usual async request timeout.
+     *
+     * @param format csv (default) or ndjson.
+     * @param gzip   Whether to gzip the file; the download is then named *.gz.
+     * @param request The current request.
+     * @return A streaming response with the export.
+     * @throws InvalidDataException if the format is unknown.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "csv") String format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                                HttpServletRequest request) {
+        BookingExportService.Format exportFormat;
+        try {
+            exportFormat = BookingExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Unknown export format '" + format + "'; use csv or ndjson.");
+        }
+        AsyncTimeoutInterceptor.extendTimeout(request, timeout);
+        String fileName = "bookings-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(out -> bookingExportService.export(exportFormat, gzip, out));
+    }
+}
@@ -0,0 +1,82 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.model.BookingShardSummary;
+import popcorn_palace.model.BucketMove;
+import popcorn_palace.repository.BookingShards;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.service.BookingShardRebalancer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Controller for operating the booking shards: how bookings are spread and moving buckets between shards.
+ * Moves are meant for maintenance windows; see BookingShardRebalancer.
+ */
+@RestController
+@RequestMapping("/booking-shards")
+public class BookingShardController {
+
+    private final BookingShards bookingShards;
+    private final ShardedBookingRepository shardedBookingRepository;
+    private final BookingShardRebalancer rebalancer;
+
+    public BookingShardController(BookingShards bookingShards, ShardedBookingRepository shardedBookingRepository,
+                                  BookingShardRebalancer rebalancer) {
+        this.bookingShards = bookingShards;
+        this.shardedBookingRepository = shardedBookingRepository;
+        this.rebalancer = rebalancer;
+    }
+
+    /**
+     * Retrieves the number of buckets and bookings of every shard.
+     *
+     * @return A response containing one line per shard; empty if sharding is not configured.
+     */
+    @GetMapping
+    public ResponseEntity<List<BookingShardSummary>> getShards() {
+        if (!bookingShards.isEnabled()) {
+            return ResponseEntity.ok(List.of());
+        }
+        int[] buckets = new int[bookingShards.size()];
+        for (int shard : bookingShards.assignment()) {
+            buckets[shard]++;
+        }
+        List<Long> bookings = shardedBookingRepository.countPerShard();
+        List<BookingShardSummary> summary = new ArrayList<>();
+        for (int shard = 0; shard < buckets.length; shard++) {
+            summary.add(new BookingShardSummary(shard, buckets[shard], bookings.get(shard)));
+        }
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Moves buckets from the fullest shard to the emptiest one until the bookings are evenly spread.
+     *
+     * @param maxMoves The maximum number of buckets to move; defaults to 64.
+     * @return A response containing the buckets moved.
+     */
+    @PostMapping("/rebalance")
+    public ResponseEntity<List<BucketMove>> rebalance(@RequestParam(defaultValue = "64") int maxMoves) {
+        return ResponseEntity.ok(rebalancer.rebalance(maxMoves));
+    }
+
+    /**
+     * Moves one bucket, with its bookings, to another shard.
+     *
+     * @param bucket The bucket to move.
+     * @param shard  The index of the new shard.
+     * @return A response containing the move.
+     */
+    @PostMapping("/buckets/{bucket}/move")
+    public ResponseEntity<BucketMove> moveBucket(@PathVariable int bucket, @RequestParam int shard) {
+        return ResponseEntity.ok(rebalancer.moveBucket(bucket, shard));
+    }
+}
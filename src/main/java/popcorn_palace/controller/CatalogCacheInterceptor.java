@@ -0,0 +1,50 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.service.CatalogVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional GETs of catalog endpoints before the controller runs.
+ *
+ * The ETag and Last-Modified validators come from the catalogs' change counters, not from the response body,
+ * so a request whose If-None-Match (or If-Modified-Since) still matches gets a 304 without any database
+ * access or serialization. Otherwise the validators are added to the response and the controller proceeds.
+ */
+public class CatalogCacheInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersions catalogVersions;
+    private final CatalogVersions.Catalog[] catalogs;
+    private final String cacheControl;
+
+    /**
+     * @param catalogVersions The change counters.
+     * @param cacheControl The Cache-Control header to send with responses, or null.
+     * @param catalogs The catalogs the intercepted responses are built from.
+     */
+    public CatalogCacheInterceptor(CatalogVersions catalogVersions, String cacheControl, CatalogVersions.Catalog... catalogs) {
+        this.catalogVersions = catalogVersions;
+        this.cacheControl = cacheControl;
+        this.catalogs = catalogs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        // Read the validators before the controller reads the catalog: the content can then only be newer,
+        // which at worst costs the client one extra 200 later on.
+        String etag = catalogVersions.etag(catalogs);
+        long lastModified = catalogVersions.lastModified(catalogs).toEpochMilli();
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+    }
+}
@@ -0,0 +1,160 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.service.CatalogVersions;
+import popcorn_palace.service.CatalogVersions.Catalog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves catalog GETs from pre-serialized snapshots.
+ *
+ * The first 200 response of a catalog URL is kept as raw JSON bytes plus a gzipped copy, tagged with the
+ * catalog version it was built from. Until that catalog changes, the same URL is answered straight from
+ * those bytes: no controller, no query, no Jackson, no compression work. A snapshot is only stored if the
+ * catalog did not change while the response was being built, and a changed catalog makes it stale on the
+ * next request. The number of snapshots is bounded; the least recently used one is dropped first.
+ */
+public class CatalogSnapshotFilter extends OncePerRequestFilter {
+
+    private final CatalogVersions catalogVersions;
+    private final String cacheControl;
+    private final Map<String, Snapshot> snapshots;
+
+    public CatalogSnapshotFilter(CatalogVersions catalogVersions, String cacheControl, int maxEntries) {
+        this.catalogVersions = catalogVersions;
+        this.cacheControl = cacheControl;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the catalogs a response under the given path is built from, or null for other paths.
+     * Showtime responses include the movie title and theater name, so they depend on all three catalogs.
+     */
+    static Catalog[] catalogsFor(String path) {
+        if (path.startsWith("/movies/")) {
+            return new Catalog[]{Catalog.MOVIES};
+        }
+        if (path.startsWith("/theaters/")) {
+            return new Catalog[]{Catalog.THEATERS};
+        }
+        if (path.startsWith("/showtimes/")) {
+            return new Catalog[]{Catalog.SHOWTIMES, Catalog.MOVIES, Catalog.THEATERS};
+        }
+        return null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Catalog[] catalogs = HttpMethod.GET.matches(request.getMethod()) ? catalogsFor(request.getRequestURI()) : null;
+        if (catalogs == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = request.getQueryString() == null ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        String etag = catalogVersions.etag(catalogs);
+        long lastModified = catalogVersions.lastModified(catalogs).toEpochMilli();
+
+        Snapshot snapshot = get(key);
+        if (snapshot != null && snapshot.etag.equals(etag)) {
+            if (cacheControl != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            }
+            if (!new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+                write(snapshot, request, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                && etag.equals(catalogVersions.etag(catalogs))) {
+            byte[] body = wrapper.getContentAsByteArray();
+            put(key, new Snapshot(etag, contentType, body, gzip(body)));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    private Snapshot get(String key) {
+        synchronized (snapshots) {
+            return snapshots.get(key);
+        }
+    }
+
+    private void put(String key, Snapshot snapshot) {
+        synchronized (snapshots) {
+            snapshots.put(key, snapshot);
+        }
+    }
+
+    private static void write(Snapshot snapshot, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(snapshot.contentType);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] bytes = snapshot.body;
+        if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip"); // Also stops the container from compressing again
+            bytes = snapshot.gzipped;
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen with an in-memory stream
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A serialized response and its gzipped copy. Never modified, so it is shared by all requests.
+     */
+    private record Snapshot(String etag, String contentType, byte[] body, byte[] gzipped) {
+    }
+}
@@ -0,0 +1,60 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.service.ClusterMembership;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST Controller for cluster mode: the heartbeat endpoint pinged by the other nodes, and this node's
+ * view of the members and showtime owners.
+ */
+@RestController
+@RequestMapping("/cluster")
+public class ClusterController {
+
+    private final ClusterMembership clusterMembership;
+
+    public ClusterController(ClusterMembership clusterMembership) {
+        this.clusterMembership = clusterMembership;
+    }
+
+    /**
+     * Answers the heartbeat of another node.
+     *
+     * @return A 200 response while this node is serving requests.
+     */
+    @GetMapping("/ping")
+    public ResponseEntity<String> ping() {
+        return ResponseEntity.ok("pong");
+    }
+
+    /**
+     * Retrieves this node's view of the cluster.
+     *
+     * @return A response containing this node, the live members and the membership epoch.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getCluster() {
+        return ResponseEntity.ok(Map.of(
+                "enabled", clusterMembership.isEnabled(),
+                "self", clusterMembership.self(),
+                "members", clusterMembership.members(),
+                "epoch", clusterMembership.epoch()));
+    }
+
+    /**
+     * Retrieves the node owning a showtime.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return A response containing the base URL of the owner.
+     */
+    @GetMapping("/showtimes/{showtimeId}/owner")
+    public ResponseEntity<Map<String, String>> getOwner(@PathVariable Long showtimeId) {
+        return ResponseEntity.ok(Map.of("owner", clusterMembership.ownerOf(showtimeId)));
+    }
+}
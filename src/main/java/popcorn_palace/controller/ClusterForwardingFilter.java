@@ -0,0 +1,258 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.exception.ErrorDetails;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.service.BookingService;
+import popcorn_palace.service.ClusterMembership;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends showtime-scoped booking requests to the cluster node owning the showtime (see ClusterMembership).
+ *
+ * The showtime is taken from the path (seat maps, seat streams, waiting rooms), the JSON body (bookings) or the
+ * booking being cancelled. Requests for showtimes owned by this node, requests without a showtime and requests
+ * already forwarded by another node are handled here. Everything else is proxied to the owner and its response
+ * streamed back as it arrives, so seat event streams work through any node. If the owner cannot be reached it
+ * is taken out of the ring and the request routed again. A forwarded booking the owner does not answer in time
+ * may still commit there, so it is reported as 202 Accepted, like a booking whose local writer timed out.
+ */
+public class ClusterForwardingFilter extends OncePerRequestFilter {
+
+    static final String FORWARDED_HEADER = "X-Popcorn-Forwarded-By";
+
+    private static final Pattern BOOKING_ID = Pattern.compile("/bookings/([0-9a-fA-F-]{36})");
+    private static final Pattern SHOWTIME_IN_PATH = Pattern.compile("/(?:bookings/showtime|waiting-room)/(\\d+)(?:/.*)?");
+    // Hop-by-hop headers, and headers the JDK client sets itself
+    private static final Set<String> NOT_FORWARDED = Set.of("connection", "content-length", "host", "transfer-encoding",
+            "upgrade", "keep-alive", "expect", "te", "trailer", "proxy-authorization", "proxy-authenticate", "http2-settings");
+
+    private final ClusterMembership membership;
+    private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+
+    public ClusterForwardingFilter(ClusterMembership membership, BookingService bookingService,
+                                   ObjectMapper objectMapper, Duration timeout) {
+        this.membership = membership;
+        this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1)).build();
+        this.timeout = timeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !membership.isEnabled() || request.getHeader(FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        byte[] body = HttpMethod.POST.matches(request.getMethod()) ? request.getInputStream().readAllBytes() : new byte[0];
+        HttpServletRequest replayable = new CachedBodyRequest(request, body);
+        Long showtimeId = showtimeOf(request.getMethod(), path, body);
+        if (showtimeId == null) {
+            chain.doFilter(replayable, response);
+            return;
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String owner = membership.ownerOf(showtimeId);
+            if (owner.equals(membership.self())) {
+                break;
+            }
+            try {
+                forward(owner, path, request, body, response);
+                return;
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                logger.warn("Cluster member " + owner + " is unreachable, taking it out of the ring");
+                membership.markDown(owner);
+            } catch (HttpTimeoutException e) {
+                if (!HttpMethod.POST.matches(request.getMethod())) {
+                    throw e;
+                }
+                // Sent, but unanswered: the owner may have booked the seat, so neither retry nor report a failure.
+                logger.warn("Cluster member " + owner + " did not answer a forwarded booking within " + timeout);
+                outcomeUnknown(path, showtimeId, response);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+        }
+        // Owned here, or here is as good as anywhere after two unreachable owners.
+        chain.doFilter(replayable, response);
+    }
+
+    /**
+     * Finds the showtime a request is about, or null if it is not showtime-scoped or malformed
+     * (malformed requests are rejected by the local controller).
+     */
+    Long showtimeOf(String method, String path, byte[] body) {
+        Matcher inPath = SHOWTIME_IN_PATH.matcher(path);
+        if (inPath.matches()) {
+            return Long.valueOf(inPath.group(1));
+        }
+        if (HttpMethod.POST.matches(method) && (path.equals("/bookings") || path.equals("/bookings/best-available"))) {
+            JsonNode json;
+            try {
+                json = objectMapper.readTree(body);
+            } catch (IOException e) {
+                return null;
+            }
+            JsonNode id = path.equals("/bookings") ? json.path("showtime").path("id") : json.path("showtimeId");
+            return id.canConvertToLong() && id.isIntegralNumber() ? id.asLong() : null;
+        }
+        Matcher bookingId = BOOKING_ID.matcher(path);
+        if (HttpMethod.DELETE.matches(method) && bookingId.matches()) {
+            try {
+                return bookingService.getBookingById(UUID.fromString(bookingId.group(1))).getShowtime().getId();
+            } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void forward(String owner, String path, HttpServletRequest request, byte[] body, HttpServletResponse response)
+            throws IOException, InterruptedException {
+        String query = request.getQueryString();
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(URI.create(owner + path + (query != null ? "?" + query : "")))
+                .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body))
+                .header(FORWARDED_HEADER, membership.self());
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!NOT_FORWARDED.contains(name.toLowerCase(Locale.ROOT))) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    forwarded.header(name, value);
+                }
+            }
+        }
+        if (!path.endsWith("/stream")) {
+            forwarded.timeout(timeout); // Seat event streams stay open as long as the client listens
+        }
+        HttpResponse<InputStream> upstream = httpClient.send(forwarded.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        response.setStatus(upstream.statusCode());
+        upstream.headers().map().forEach((name, values) -> {
+            if (!name.startsWith(":") && !NOT_FORWARDED.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        try (InputStream in = upstream.body()) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                out.flush(); // Pass server-sent events on as soon as they arrive
+            }
+        }
+    }
+
+    /**
+     * Answers like GlobalExceptionHandler does for a BookingOutcomeUnknownException without a booking ID.
+     */
+    private void outcomeUnknown(String path, Long showtimeId, HttpServletResponse response) throws IOException {
+        ErrorDetails errorDetails = new ErrorDetails(HttpStatus.ACCEPTED.value(), "Booking for showtime " + showtimeId
+                + " is still in progress on its owner; check the user's bookings before booking again.", "uri=" + path);
+        response.setStatus(HttpStatus.ACCEPTED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    /**
+     * A request whose body was read by the filter and can be read again by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body.length == 0) {
+                return super.getInputStream();
+            }
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new IllegalStateException("The request body was already read by ClusterForwardingFilter; "
+                            + "non-blocking reads are not supported");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (body.length == 0) {
+                return super.getReader();
+            }
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
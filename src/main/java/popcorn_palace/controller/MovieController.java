@@ -3,6 +3,7 @@ package popcorn_palace.controller;
 import popcorn_palace.exception.DuplicateMovieException;
 import popcorn_palace.exception.InvalidDataException;
 import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.CleanupResult;
 import popcorn_palace.model.Movie;
 import popcorn_palace.service.MovieService;
 import jakarta.validation.Valid;
@@ -91,4 +92,16 @@ public class MovieController {
         movieService.deleteMovie(title);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Retires a movie: deletes it together with all its showtimes and their bookings.
+     *
+     * @param title The title of the movie to retire.
+     * @return A response containing the number of deleted showtimes and bookings.
+     * @throws ResourceNotFoundException if the movie is not found.
+     */
+    @PostMapping("/{title}/retire")
+    public ResponseEntity<CleanupResult> retireMovie(@PathVariable String title) {
+        return ResponseEntity.ok(movieService.retireMovie(title));
+    }
 }
@@ -0,0 +1,36 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.model.NowShowingMovie;
+import popcorn_palace.service.NowShowingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST Controller for the home page "now showing" listing.
+ * Served entirely from the in-memory read model maintained by NowShowingService.
+ */
+@RestController
+@RequestMapping("/now-showing")
+public class NowShowingController {
+
+    private final NowShowingService nowShowingService;
+
+    public NowShowingController(NowShowingService nowShowingService) {
+        this.nowShowingService = nowShowingService;
+    }
+
+    /**
+     * Retrieves the movies with showtimes in the next seven days,
+     * including their cheapest ticket price and the theaters showing them.
+     *
+     * @return A response containing the now showing listing.
+     */
+    @GetMapping
+    public ResponseEntity<List<NowShowingMovie>> getNowShowing() {
+        return ResponseEntity.ok(nowShowingService.getNowShowing());
+    }
+}
@@ -3,12 +3,15 @@ package popcorn_palace.controller;
 import popcorn_palace.exception.OverlappingShowtimeException;
 import popcorn_palace.exception.ResourceNotFoundException;
 import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.CleanupResult;
 import popcorn_palace.model.Showtime;
 import popcorn_palace.service.ShowtimeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -82,6 +85,19 @@ public class ShowtimeController {
         return ResponseEntity.noContent().build(); // No Content status for successful deletion
     }
 
+    /**
+     * Deletes all showtimes that ended before the given time, together with their bookings.
+     * Runs as chunked set-based deletes, suitable for large cleanups.
+     *
+     * @param endingBefore Showtimes ending before this time (ISO date-time) are deleted.
+     * @return A response containing the number of deleted showtimes and bookings.
+     */
+    @DeleteMapping
+    public ResponseEntity<CleanupResult> deleteShowtimesEndingBefore(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endingBefore) {
+        return ResponseEntity.ok(showtimeService.deleteShowtimesEndingBefore(endingBefore));
+    }
+
     /**
      * Retrieves all showtimes for a specific movie in a theater.
      *
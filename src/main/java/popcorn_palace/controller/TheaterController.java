@@ -0,0 +1,60 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.Theater;
+import popcorn_palace.service.TheaterService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for managing theaters and their seat layouts.
+ */
+@RestController
+@RequestMapping("/theaters")
+public class TheaterController {
+
+    private final TheaterService theaterService;
+
+    public TheaterController(TheaterService theaterService) {
+        this.theaterService = theaterService;
+    }
+
+    /**
+     * Retrieves all theaters.
+     *
+     * @return A response containing a list of all theaters.
+     */
+    @GetMapping("/all")
+    public ResponseEntity<List<Theater>> getAllTheaters() {
+        return ResponseEntity.ok(theaterService.getAllTheaters());
+    }
+
+    /**
+     * Retrieves a specific theater by name.
+     *
+     * @param name The name of the theater.
+     * @return A response containing the theater if found.
+     * @throws ResourceNotFoundException if the theater is not found.
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<Theater> getTheaterByName(@PathVariable String name) {
+        return ResponseEntity.ok(theaterService.getTheaterByName(name));
+    }
+
+    /**
+     * Adds a new theater to the system.
+     *
+     * @param theater The theater details provided in the request body.
+     * @return A response containing the created theater.
+     * @throws InvalidDataException if the theater data is invalid or the name is taken.
+     */
+    @PostMapping
+    public ResponseEntity<Theater> addTheater(@RequestBody @Valid Theater theater) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(theaterService.addTheater(theater));
+    }
+}
@@ -0,0 +1,76 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.QueueTicket;
+import popcorn_palace.service.WaitingRoomService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * REST Controller for the virtual waiting rooms of high-demand showtimes.
+ * Provides endpoints to open and close a waiting room, join its queue and poll the queue position.
+ */
+@RestController
+@RequestMapping("/waiting-room")
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+
+    public WaitingRoomController(WaitingRoomService waitingRoomService) {
+        this.waitingRoomService = waitingRoomService;
+    }
+
+    /**
+     * Opens the waiting room of a showtime; from now on bookings need an admitted queue ticket.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return A 204 No Content response.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     */
+    @PostMapping("/{showtimeId}")
+    public ResponseEntity<Void> open(@PathVariable Long showtimeId) {
+        waitingRoomService.open(showtimeId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Closes the waiting room of a showtime.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return A 204 No Content response.
+     */
+    @DeleteMapping("/{showtimeId}")
+    public ResponseEntity<Void> close(@PathVariable Long showtimeId) {
+        waitingRoomService.close(showtimeId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Joins the queue of a showtime. Calling it again returns the user's existing ticket.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @param userId The ID of the user.
+     * @return A response containing the queue ticket and position.
+     * @throws ResourceNotFoundException if the showtime has no open waiting room.
+     */
+    @PostMapping("/{showtimeId}/tickets")
+    public ResponseEntity<QueueTicket> join(@PathVariable Long showtimeId, @RequestParam String userId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitingRoomService.join(showtimeId, userId));
+    }
+
+    /**
+     * Retrieves the current queue position of a ticket.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @param ticketId The ID of the queue ticket.
+     * @return A response containing the queue ticket and position.
+     * @throws ResourceNotFoundException if the room is not open or the ticket is unknown.
+     */
+    @GetMapping("/{showtimeId}/tickets/{ticketId}")
+    public ResponseEntity<QueueTicket> getTicket(@PathVariable Long showtimeId, @PathVariable UUID ticketId) {
+        return ResponseEntity.ok(waitingRoomService.getTicket(showtimeId, ticketId));
+    }
+}
@@ -0,0 +1,23 @@
+package popcorn_palace.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Payload of the booking events written to the outbox for downstream systems (email, payments, analytics).
+ *
+ * @param type        BOOKING_CREATED or BOOKING_CANCELLED.
+ * @param bookingId   The ID of the booking.
+ * @param showtimeId  The ID of the booked showtime.
+ * @param seatNumber  The booked seat.
+ * @param userId      The user who owns the booking.
+ * @param price       The ticket price at the time of the event.
+ * @param occurredAt  When the change was made.
+ */
+public record BookingEvent(String type, UUID bookingId, Long showtimeId, int seatNumber,
+                           String userId, BigDecimal price, Instant occurredAt) {
+
+    public static final String BOOKING_CREATED = "BOOKING_CREATED";
+    public static final String BOOKING_CANCELLED = "BOOKING_CANCELLED";
+}
@@ -0,0 +1,13 @@
+package popcorn_palace.event;
+
+import java.util.List;
+
+/**
+ * Application event published by ClusterMembership when a node joined or left the cluster.
+ * Showtimes may have changed owners: in-memory state of showtimes must be reloaded from the database.
+ *
+ * @param epoch   Increases with every change.
+ * @param members The base URLs of the live members, sorted.
+ */
+public record ClusterMembershipChangedEvent(long epoch, List<String> members) {
+}
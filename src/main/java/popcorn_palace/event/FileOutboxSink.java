@@ -0,0 +1,43 @@
+package popcorn_palace.event;
+
+import popcorn_palace.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Outbox sink that appends events as newline-delimited JSON to a local file.
+ * This is the default sink; downstream consumers can tail the file.
+ */
+@Component
+@ConditionalOnProperty(name = "popcorn.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+
+    public FileOutboxSink(@Value("${popcorn.outbox.file:outbox-events.ndjson}") Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+            for (OutboxEvent event : events) {
+                // The payload is already a JSON document; wrap it with the outbox metadata.
+                writer.write("{\"id\":" + event.getId()
+                        + ",\"type\":\"" + event.getEventType()
+                        + "\",\"aggregateId\":\"" + event.getAggregateId()
+                        + "\",\"payload\":" + event.getPayload() + "}\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package popcorn_palace.event;
+
+import popcorn_palace.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox sink that keeps published events in memory.
+ * Intended for tests and local development (popcorn.outbox.sink=memory).
+ */
+@Component
+@ConditionalOnProperty(name = "popcorn.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> published = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        published.addAll(events);
+    }
+
+    /**
+     * Returns a copy of everything published so far, in publishing order.
+     */
+    public synchronized List<OutboxEvent> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
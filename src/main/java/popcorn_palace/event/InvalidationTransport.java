@@ -0,0 +1,26 @@
+package popcorn_palace.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcast channel the CatalogInvalidationBus uses to tell the other instances about catalog changes.
+ * Delivery is best effort and messages may come back to their sender; the bus numbers its messages
+ * and drops its own.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends a message to every subscribed instance, including this one.
+     *
+     * @param message A short single-line text message.
+     * @throws Exception if the message could not be sent.
+     */
+    void publish(String message) throws Exception;
+
+    /**
+     * Registers a listener for the messages received. Listeners are called on the transport's receiving thread.
+     *
+     * @param listener The listener.
+     */
+    void subscribe(Consumer<String> listener);
+}
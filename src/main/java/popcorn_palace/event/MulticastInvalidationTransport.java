@@ -0,0 +1,99 @@
+package popcorn_palace.event;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation transport that sends each message as one UDP datagram to a multicast group
+ * (popcorn.invalidation.transport=multicast). Needs no broker, but only reaches instances in the same
+ * multicast domain, usually one LAN or VPC subnet with multicast enabled, and may lose datagrams.
+ */
+@Component
+@ConditionalOnProperty(name = "popcorn.invalidation.transport", havingValue = "multicast")
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+    private static final int MAX_MESSAGE_BYTES = 1024;
+
+    private final InetSocketAddress group;
+    private final MulticastSocket socket;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver = new Thread(this::receive, "invalidation-multicast");
+
+    public MulticastInvalidationTransport(@Value("${popcorn.invalidation.multicast.group:239.255.27.1}") String group,
+                                          @Value("${popcorn.invalidation.multicast.port:45271}") int port,
+                                          @Value("${popcorn.invalidation.multicast.ttl:1}") int ttl,
+                                          @Value("${popcorn.invalidation.multicast.interface:}") String interfaceName)
+            throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(group), port);
+        this.socket = new MulticastSocket(port);
+        socket.setTimeToLive(ttl);
+        NetworkInterface networkInterface = null;
+        if (!interfaceName.isBlank()) {
+            networkInterface = NetworkInterface.getByName(interfaceName);
+            if (networkInterface == null) {
+                socket.close();
+                throw new IllegalStateException("Unknown network interface " + interfaceName);
+            }
+            socket.setNetworkInterface(networkInterface);
+        }
+        socket.joinGroup(this.group, networkInterface);
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void publish(String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        socket.send(new DatagramPacket(bytes, bytes.length, group));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[MAX_MESSAGE_BYTES];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (SocketException e) {
+                return; // Closed on shutdown
+            } catch (IOException e) {
+                log.warn("Could not receive an invalidation datagram: {}", e.toString());
+                continue;
+            }
+            String message = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8);
+            for (Consumer<String> listener : listeners) {
+                try {
+                    listener.accept(message);
+                } catch (RuntimeException e) {
+                    log.warn("Invalidation listener failed on {}", message, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,21 @@
+package popcorn_palace.event;
+
+import popcorn_palace.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination the OutboxRelay publishes outbox events to.
+ * Implementations must be idempotent towards their consumers: a batch is redelivered
+ * if the relay fails after publishing but before removing it from the outbox.
+ */
+public interface OutboxSink {
+
+    /**
+     * Publishes a batch of events in outbox order.
+     *
+     * @param events The events to publish.
+     * @throws Exception if the batch could not be published; it will be retried.
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
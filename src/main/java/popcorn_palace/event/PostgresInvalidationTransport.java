@@ -0,0 +1,117 @@
+package popcorn_palace.event;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation transport built on PostgreSQL LISTEN/NOTIFY (popcorn.invalidation.transport=postgres).
+ * Reaches every instance connected to the same primary database, wherever it runs.
+ *
+ * Messages are sent with pg_notify through the application's data source. Each instance listens on one
+ * dedicated connection of its own, opened outside the pool, and reconnects if it is lost; notifications
+ * sent while it was disconnected are missed, which the bus notices from the message numbers.
+ */
+@Component
+@ConditionalOnProperty(name = "popcorn.invalidation.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    static final String CHANNEL = "popcorn_invalidation";
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMillis;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver = new Thread(this::receive, "invalidation-postgres");
+    private volatile boolean running = true;
+
+    public PostgresInvalidationTransport(DataSource dataSource,
+                                         @Value("${spring.datasource.url}") String url,
+                                         @Value("${spring.datasource.username:}") String username,
+                                         @Value("${spring.datasource.password:}") String password,
+                                         @Value("${popcorn.invalidation.postgres.poll-timeout-ms:500}") int pollTimeoutMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void publish(String message) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, CHANNEL, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private void receive() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    // Blocks for up to the poll timeout; returns the notifications received meanwhile, if any.
+                    PGNotification[] received = notifications.getNotifications(pollTimeoutMillis);
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost the invalidation listener connection, reconnecting: {}", e.toString());
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void deliver(String message) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed on {}", message, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        running = false;
+        receiver.join(pollTimeoutMillis * 2L);
+    }
+}
@@ -0,0 +1,12 @@
+package popcorn_palace.event;
+
+/**
+ * Application event published by BookingService whenever a seat is taken or released.
+ * Listeners registered with @TransactionalEventListener only see it once the booking change has committed.
+ *
+ * @param showtimeId The ID of the showtime the seat belongs to.
+ * @param seatNumber The seat number.
+ * @param taken      True if the seat was booked, false if the booking was cancelled.
+ */
+public record SeatChangedEvent(Long showtimeId, int seatNumber, boolean taken) {
+}
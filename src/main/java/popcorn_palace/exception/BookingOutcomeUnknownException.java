@@ -0,0 +1,19 @@
+package popcorn_palace.exception;
+
+import java.util.UUID;
+
+public class BookingOutcomeUnknownException extends RuntimeException {
+    private final UUID bookingId;
+
+    public BookingOutcomeUnknownException(String message, UUID bookingId) {
+        super(message);
+        this.bookingId = bookingId;
+    }
+
+    /**
+     * The ID the booking gets if it commits, or null if it is not known yet.
+     */
+    public UUID getBookingId() {
+        return bookingId;
+    }
+}
@@ -1,5 +1,6 @@
 package popcorn_palace.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.ObjectError;
@@ -89,6 +90,86 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles RateLimitExceededException.
+     * Occurs when a user or a showtime receives more booking requests than allowed.
+     *
+     * @param ex      The exception instance.
+     * @param request The current web request.
+     * @return A response entity with a TOO MANY REQUESTS (429) status, a Retry-After header and detailed error details.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorDetails> handleRateLimitExceededException(RateLimitExceededException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    /**
+     * Handles NotAdmittedException.
+     * Occurs when a booking for a showtime with a waiting room is made without an admitted queue ticket.
+     *
+     * @param ex      The exception instance.
+     * @param request The current web request.
+     * @return A response entity with a FORBIDDEN (403) status and detailed error details.
+     */
+    @ExceptionHandler(NotAdmittedException.class)
+    public ResponseEntity<ErrorDetails> handleNotAdmittedException(NotAdmittedException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.FORBIDDEN.value(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * Handles SoldOutException.
+     * Occurs when a showtime with a waiting room has no seats left.
+     *
+     * @param ex      The exception instance.
+     * @param request The current web request.
+     * @return A response entity with a CONFLICT (409) status and detailed error details.
+     */
+    @ExceptionHandler(SoldOutException.class)
+    public ResponseEntity<ErrorDetails> handleSoldOutException(SoldOutException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles BookingOutcomeUnknownException.
+     * Occurs when a booking was handed to a writer but did not finish in time, so it may still commit.
+     * The client should check the booking, or retry with the same Idempotency-Key, rather than book again.
+     *
+     * @param ex      The exception instance.
+     * @param request The current web request.
+     * @return A response entity with an ACCEPTED (202) status, a Location header for the booking if its ID is known
+     *         and detailed error details.
+     */
+    @ExceptionHandler(BookingOutcomeUnknownException.class)
+    public ResponseEntity<ErrorDetails> handleBookingOutcomeUnknownException(BookingOutcomeUnknownException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                HttpStatus.ACCEPTED.value(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.ACCEPTED);
+        if (ex.getBookingId() != null) {
+            response.header(HttpHeaders.LOCATION, "/bookings/" + ex.getBookingId());
+        }
+        return response.body(errorDetails);
+    }
+
     /**
      * Handles generic exceptions that are not specifically handled elsewhere.
      * This acts as a catch-all for unexpected errors.
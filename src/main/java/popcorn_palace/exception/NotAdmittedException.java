@@ -0,0 +1,7 @@
+package popcorn_palace.exception;
+
+public class NotAdmittedException extends RuntimeException {
+    public NotAdmittedException(String message) {
+        super(message);
+    }
+}
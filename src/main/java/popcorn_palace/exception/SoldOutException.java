@@ -0,0 +1,7 @@
+package popcorn_palace.exception;
+
+public class SoldOutException extends RuntimeException {
+    public SoldOutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,48 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Entity class representing a booking of a past showtime, moved to cold storage by BookingArchiveService.
+ * Keeps only the showtime's ID, not a reference, since the showtime itself may be deleted later on.
+ */
+@Entity
+@Table(name = "booking_archive", indexes = @Index(name = "idx_booking_archive_user", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ArchivedBooking {
+
+    @Id
+    private UUID bookingId;
+
+    @Column(nullable = false)
+    private Long showtimeId;
+
+    @Column(nullable = false)
+    private int seatNumber;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate showtimeDate;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -1,5 +1,6 @@
 package popcorn_palace.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -7,20 +8,25 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
 import java.util.UUID;
 
 /**
  * Entity class representing a Booking.
  * A booking is linked to a specific showtime and includes a seat number and user ID.
+ * The showtime's date is copied into the booking so the table can be partitioned (and archived) by it.
  */
 @Entity
-@Table(name = "booking")
+@Table(name = "booking", indexes = @Index(name = "idx_booking_showtime_date", columnList = "showtime_date"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,6 +51,10 @@ public class Booking {
     @NotNull(message = "User ID is required")
     private String userId;
 
+    @JsonIgnore
+    @Column(name = "showtime_date", nullable = false)
+    private LocalDate showtimeDate; // Partition key; always the date of showtime.startTime
+
     public Booking(Showtime showtime, int seatNumber, String userId) {
         this.bookingId = UUID.randomUUID(); // Generate a new unique booking ID
         this.showtime = showtime;
@@ -52,4 +62,10 @@ public class Booking {
         this.userId = userId;
     }
 
+    @PrePersist
+    void fillShowtimeDate() {
+        if (showtime != null && showtime.getStartTime() != null) {
+            showtimeDate = showtime.getStartTime().toLocalDate();
+        }
+    }
 }
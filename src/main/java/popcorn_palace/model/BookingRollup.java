@@ -0,0 +1,46 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity class representing the pre-aggregated sales of one day, movie and theater.
+ * Maintained incrementally by AnalyticsService, so reports never have to scan the booking table.
+ */
+@Entity
+@Table(name = "booking_rollup")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class BookingRollup {
+
+    @EmbeddedId
+    private BookingRollupId id;
+
+    @Column(nullable = false)
+    private int showtimeCount;
+
+    @Column(nullable = false)
+    private long capacity; // Seats offered by all showtimes of the row
+
+    @Column(nullable = false)
+    private long seatsSold;
+
+    @Column(precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+    public BookingRollup(BookingRollupId id) {
+        this(id, 0, 0, 0, BigDecimal.ZERO.setScale(2));
+    }
+}
@@ -0,0 +1,20 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The number of buckets assigned to a booking shard and the number of bookings it holds.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class BookingShardSummary {
+
+    private final int shard;
+
+    private final int buckets;
+
+    private final long bookings;
+}
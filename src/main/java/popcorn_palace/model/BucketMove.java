@@ -0,0 +1,22 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A bucket of showtimes moved from one booking shard to another, with the number of bookings copied.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class BucketMove {
+
+    private final int bucket;
+
+    private final int fromShard;
+
+    private final int toShard;
+
+    private final long bookingsMoved;
+}
@@ -0,0 +1,18 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Number of rows removed by a bulk cleanup operation.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class CleanupResult {
+
+    private final long showtimesDeleted;
+
+    private final long bookingsDeleted;
+}
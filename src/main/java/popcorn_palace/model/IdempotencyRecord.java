@@ -0,0 +1,47 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing the stored response of a request sent with an Idempotency-Key header.
+ * A retry with the same key is answered from this record instead of being executed again.
+ */
+@Entity
+@Table(name = "idempotency_record")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 255)
+    private String requestFingerprint; // Identifies the original request, so a key cannot be reused for another one
+
+    @Column(nullable = false)
+    private int statusCode;
+
+    @Column(nullable = false, length = 4000)
+    private String responseBody; // JSON document
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
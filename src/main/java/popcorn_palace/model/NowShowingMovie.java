@@ -0,0 +1,30 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read model entry for the "now showing" home page listing.
+ * One entry per movie that has at least one showtime starting within the listing window.
+ * Not persisted; instances are built by the NowShowingService from its in-memory snapshot.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class NowShowingMovie {
+
+    private final String movieTitle;
+
+    private final BigDecimal minPrice; // Cheapest ticket across the upcoming showtimes
+
+    private final List<String> theaters; // Sorted, distinct theater names
+
+    private final LocalDateTime nextShowtime; // Earliest upcoming start time
+
+    private final int showtimeCount;
+}
@@ -0,0 +1,33 @@
+package popcorn_palace.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Maps a price held as a number of cents to the DECIMAL(10,2) price column and back.
+ * Only runs when a row is read or written, never on access to the entity.
+ */
+@Converter
+public class PriceCentsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return cents == null ? null : BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal price) {
+        return price == null ? null : toCents(price);
+    }
+
+    /**
+     * Converts an amount to whole cents, rounding half up.
+     * @throws ArithmeticException if the amount does not fit in a long.
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,29 @@
+package popcorn_palace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Status of a user's place in the waiting room of a showtime.
+ * Not persisted; built by the WaitingRoomService from its in-memory queue.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class QueueTicket {
+
+    private final UUID ticketId; // Sent back in the Queue-Ticket header of POST /bookings once admitted
+
+    private final Long showtimeId;
+
+    private final String userId;
+
+    private final long position; // Users still ahead in the queue; 0 once admitted
+
+    private final boolean admitted;
+
+    private final boolean soldOut;
+}
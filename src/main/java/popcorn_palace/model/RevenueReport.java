@@ -0,0 +1,35 @@
+package popcorn_palace.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a revenue and occupancy report, for a movie, a theater or a day.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class RevenueReport {
+
+    private String key; // Movie title, theater name or ISO date, depending on the grouping
+
+    private Long showtimes;
+
+    private Long seatsSold;
+
+    private BigDecimal revenue;
+
+    private Long capacity;
+
+    /**
+     * Share of the offered seats that were sold, in percent with one decimal.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public double getOccupancyPercent() {
+        return capacity == null || capacity == 0 ? 0 : Math.round(seatsSold * 1000.0 / capacity) / 10.0;
+    }
+}
@@ -0,0 +1,32 @@
+package popcorn_palace.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Request body for booking the best available block of adjacent seats.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SeatBlockRequest {
+
+    @NotNull(message = "Showtime ID is required")
+    private Long showtimeId;
+
+    @Min(value = 1, message = "At least one seat is required")
+    @Max(value = 10, message = "At most 10 seats can be booked together")
+    private int seatCount;
+
+    @NotBlank(message = "User ID is required")
+    private String userId;
+}
@@ -0,0 +1,198 @@
+package popcorn_palace.model;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-length bitset of the taken seats of one showtime, sized exactly from the theater layout.
+ * Bit (seatNumber - 1) is set when the seat is taken. Not thread-safe; callers own the instance
+ * or guard it themselves.
+ */
+public class SeatMap {
+
+    private final int rows;
+    private final int seatsPerRow;
+    private final long[] words;
+    private int taken;
+
+    public SeatMap(int rows, int seatsPerRow) {
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.words = new long[(rows * seatsPerRow + 63) >>> 6];
+    }
+
+    /**
+     * Creates an empty seat map for the given theater's layout.
+     */
+    public static SeatMap forTheater(Theater theater) {
+        return new SeatMap(theater.getRows(), theater.getSeatsPerRow());
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return rows * seatsPerRow;
+    }
+
+    public int getTakenCount() {
+        return taken;
+    }
+
+    public int getAvailableCount() {
+        return getCapacity() - taken;
+    }
+
+    public boolean isTaken(int seatNumber) {
+        int bit = seatNumber - 1;
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Marks a seat as taken.
+     * @return true if the seat was free before.
+     */
+    public boolean take(int seatNumber) {
+        int bit = seatNumber - 1;
+        long mask = 1L << bit;
+        long word = words[bit >>> 6];
+        if ((word & mask) != 0) {
+            return false;
+        }
+        words[bit >>> 6] = word | mask;
+        taken++;
+        return true;
+    }
+
+    /**
+     * Marks a seat as free.
+     * @return true if the seat was taken before.
+     */
+    public boolean release(int seatNumber) {
+        int bit = seatNumber - 1;
+        long mask = 1L << bit;
+        long word = words[bit >>> 6];
+        if ((word & mask) == 0) {
+            return false;
+        }
+        words[bit >>> 6] = word & ~mask;
+        taken--;
+        return true;
+    }
+
+    /**
+     * Returns the taken seat numbers in ascending order.
+     */
+    public int[] getTakenSeats() {
+        int[] seats = new int[taken];
+        int i = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                seats[i++] = (w << 6) + Long.numberOfTrailingZeros(word) + 1;
+                word &= word - 1;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Finds the best block of adjacent free seats in one row.
+     * Blocks are scored by the distance of their center from the center of the row, plus twice the distance of
+     * their row from the middle row. Each row is examined as one 64-bit word (rows have at most 64 seats), so
+     * the search costs a few bit operations per row, never a loop over seats.
+     * @param count The number of adjacent seats.
+     * @return The first seat number of the best block, or -1 if no row has count adjacent free seats.
+     */
+    public int findBestBlock(int count) {
+        if (count <= 0 || count > seatsPerRow) {
+            return -1;
+        }
+        int bestSeat = -1;
+        long bestScore = Long.MAX_VALUE;
+        int centerStart = (seatsPerRow - count) >>> 1; // Start of the perfectly centered block, rounded down
+        for (int row = 0; row < rows; row++) {
+            long rowScore = 2L * Math.abs(2 * row - (rows - 1));
+            if (rowScore >= bestScore) {
+                continue; // Even a centered block in this row cannot win
+            }
+            long starts = blockStarts(~rowBits(row) & rowMask(), count);
+            if (starts == 0) {
+                continue;
+            }
+            // Closest start at or below the center, and closest start above it.
+            long below = starts & ((2L << centerStart) - 1);
+            long above = starts & (-1L << centerStart);
+            int start = -1;
+            long seatScore = Long.MAX_VALUE;
+            if (below != 0) {
+                start = 63 - Long.numberOfLeadingZeros(below);
+                seatScore = Math.abs(2 * start - (seatsPerRow - count));
+            }
+            if (above != 0) {
+                int candidate = Long.numberOfTrailingZeros(above);
+                long candidateScore = Math.abs(2 * candidate - (seatsPerRow - count));
+                if (candidateScore < seatScore) {
+                    start = candidate;
+                    seatScore = candidateScore;
+                }
+            }
+            if (rowScore + seatScore < bestScore) {
+                bestScore = rowScore + seatScore;
+                bestSeat = row * seatsPerRow + start + 1;
+            }
+        }
+        return bestSeat;
+    }
+
+    /**
+     * Returns the taken bits of one row, seat 1 of the row in bit 0. A row may straddle two words.
+     */
+    private long rowBits(int row) {
+        int start = row * seatsPerRow;
+        int offset = start & 63;
+        long bits = words[start >>> 6] >>> offset;
+        if (offset + seatsPerRow > 64) {
+            bits |= words[(start >>> 6) + 1] << (64 - offset);
+        }
+        return bits & rowMask();
+    }
+
+    private long rowMask() {
+        return seatsPerRow == 64 ? -1L : (1L << seatsPerRow) - 1;
+    }
+
+    /**
+     * Returns a mask with bit i set when bits i .. i+count-1 of free are all set, by repeatedly
+     * combining the mask with a shifted copy of itself (doubling the run length each step).
+     */
+    private static long blockStarts(long free, int count) {
+        long starts = free;
+        int length = 1;
+        while (length < count) {
+            int step = Math.min(length, count - length);
+            starts &= starts >>> step;
+            length += step;
+        }
+        return starts;
+    }
+
+    /**
+     * Returns a deep copy that can be read without coordinating with the owner of this map.
+     */
+    public SeatMap copy() {
+        SeatMap copy = new SeatMap(rows, seatsPerRow);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        copy.taken = taken;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatMap(rows=" + rows + ", seatsPerRow=" + seatsPerRow + ", taken=" + Arrays.toString(getTakenSeats()) + ")";
+    }
+}
@@ -1,6 +1,6 @@
 package popcorn_palace.model;
 
-import com.att.tdp.popcorn_palace.exception.InvalidDataException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -10,18 +10,22 @@ import java.time.LocalDateTime;
 
 /**
  * Entity class representing a Showtime.
- * A showtime is associated with a movie title and a theater,
+ * A showtime is associated with a movie and a theater,
  * and it has a start time, end time, and ticket price.
- * Utilized movie title rather than movie id as I believe it has
- * a better look and understanding to it when viewing the showtime table.
+ * The movie and theater are stored as movie_id and theater_id foreign keys; the API still
+ * exposes the movie title and theater name, which are derived from the referenced entities.
+ * The price is held as whole cents, rounded once when it is set; the API and the price column
+ * still carry it as a decimal amount.
  */
 
 @Entity
-@Table(name = "showtime")
+@Table(name = "showtime", indexes = {
+        @Index(name = "idx_showtime_movie", columnList = "movie_id"),
+        @Index(name = "idx_showtime_theater_time", columnList = "theater_id, start_time")
+})
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @ToString
 public class Showtime {
     /**
@@ -32,12 +36,21 @@ public class Showtime {
     private Long id;
 
 
-    @NotBlank(message = "Movie title is required")
-    @Column(name = "movie_title", nullable = false)
-    private String movieTitle; // Movie title associated with the showtime
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "movie_id", nullable = false)
+    @JsonIgnore
+    private Movie movie; // Movie associated with the showtime
 
-    @NotBlank(message = "Theater name is required")
-    private String theater;
+    @Transient
+    private String movieTitle; // Title supplied by API clients, resolved to a movie by ShowtimeService
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "theater_id", nullable = false)
+    @JsonIgnore
+    private Theater auditorium; // Theater (auditorium) the showtime plays in
+
+    @Transient
+    private String theater; // Theater name supplied by API clients, resolved to a theater by ShowtimeService
 
     @NotNull(message = "Start time is required")
     private LocalDateTime startTime;
@@ -46,17 +59,51 @@ public class Showtime {
     private LocalDateTime endTime;
 
     @Positive(message = "Price must be positive")
-    @Column(precision = 10, scale = 2, nullable = false)
-    private BigDecimal price;
+    @Column(name = "price", precision = 10, scale = 2, nullable = false)
+    @Convert(converter = PriceCentsConverter.class)
+    @JsonIgnore
+    private long priceCents; // Ticket price in cents; exposed to the API as the decimal "price"
+
+    public Showtime(Long id, String movieTitle, String theater,
+                    LocalDateTime startTime, LocalDateTime endTime, BigDecimal price) {
+        this.id = id;
+        this.movieTitle = movieTitle;
+        this.theater = theater;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        setPrice(price);
+    }
+
+    /**
+     * Returns the title of the referenced movie, or the title supplied by the client
+     * if the showtime has not been linked to a movie yet.
+     */
+    @NotBlank(message = "Movie title is required")
+    public String getMovieTitle() {
+        return movie != null ? movie.getTitle() : movieTitle;
+    }
 
     /**
-     * Ensures the price is always rounded to two decimal places when retrieved and stored.
+     * Returns the name of the referenced theater, or the name supplied by the client
+     * if the showtime has not been linked to a theater yet.
+     */
+    @NotBlank(message = "Theater name is required")
+    public String getTheater() {
+        return auditorium != null ? auditorium.getName() : theater;
+    }
+
+    /**
+     * Returns the price as an amount with two decimal places.
+     * Creates a new BigDecimal on every call; hot paths should use getPriceCents().
      */
     public BigDecimal getPrice() {
-        return price.setScale(2, BigDecimal.ROUND_HALF_UP);
+        return BigDecimal.valueOf(priceCents, 2);
     }
 
+    /**
+     * Sets the price, rounded half up to whole cents. A missing price is stored as 0 and rejected by validation.
+     */
     public void setPrice(BigDecimal price) {
-        this.price = price.setScale(2, BigDecimal.ROUND_HALF_UP);
+        this.priceCents = price == null ? 0 : PriceCentsConverter.toCents(price);
     }
 }
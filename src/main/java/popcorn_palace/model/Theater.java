@@ -0,0 +1,66 @@
+package popcorn_palace.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Entity class representing a Theater (auditorium) in the system.
+ * Each theater has a unique name and a rectangular seat layout of rows and seats per row.
+ * Seats are numbered 1..capacity, row by row, so seat n sits in row (n - 1) / seatsPerRow.
+ */
+@Entity
+@Table(name = "theater")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class Theater {
+    /**
+     * Initialize each theater related variable and make sure it is not blank and is valid
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Theater name is required")
+    @Column(unique = true, nullable = false)
+    private String name;
+
+    @Min(value = 1, message = "A theater needs at least one row")
+    @Column(name = "seat_rows", nullable = false)
+    private int rows;
+
+    @Min(value = 1, message = "A row needs at least one seat")
+    @Max(value = 64, message = "A row cannot have more than 64 seats") // A row fits in one 64-bit word of a seat map
+    @Column(nullable = false)
+    private int seatsPerRow;
+
+    /**
+     * Total number of seats in the theater.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public int getCapacity() {
+        return rows * seatsPerRow;
+    }
+
+    /**
+     * Checks whether a seat number exists in this theater's layout.
+     */
+    public boolean hasSeat(int seatNumber) {
+        return seatNumber >= 1 && seatNumber <= getCapacity();
+    }
+}
@@ -0,0 +1,43 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.ArchivedBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for ArchivedBooking entity.
+ * Extends JpaRepository to provide retrieval, creation, updating, and deletion operations.
+ */
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, UUID> {
+
+    /**
+     * Finds all archived bookings of a user, most recent showtime first.
+     *
+     * @param userId The unique identifier of the user.
+     * @return The archived bookings of the user.
+     */
+    List<ArchivedBooking> findByUserIdOrderByShowtimeDateDesc(String userId);
+
+    /**
+     * Copies bookings into the archive with one INSERT ... SELECT, without loading them.
+     * The caller deletes the originals in the same transaction.
+     *
+     * @param bookingIds The IDs of the bookings to copy.
+     * @param archivedAt The time recorded as archived_at.
+     * @return The number of archived bookings.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO booking_archive (booking_id, showtime_id, seat_number, user_id, showtime_date, archived_at) "
+            + "SELECT booking_id, showtime_id, seat_number, user_id, showtime_date, :archivedAt FROM booking "
+            + "WHERE booking_id IN (:bookingIds)", nativeQuery = true)
+    int archiveAllByIdIn(@Param("bookingIds") Collection<UUID> bookingIds, @Param("archivedAt") Instant archivedAt);
+}
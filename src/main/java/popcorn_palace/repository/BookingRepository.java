@@ -1,9 +1,15 @@
 package popcorn_palace.repository;
 
 import popcorn_palace.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
@@ -25,6 +31,17 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
      */
     Optional<Booking> findByShowtimeIdAndSeatNumber(Long showtimeId, int seatNumber);
 
+    /**
+     * Finds a booking by showtime ID and seat number within the partition of the showtime's date.
+     * Preferred on the booking path: on a partitioned table only that one partition is searched.
+     *
+     * @param showtimeId   The ID of the showtime.
+     * @param showtimeDate The date the showtime starts on.
+     * @param seatNumber   The seat number in the theater.
+     * @return An optional containing the booking if found, otherwise empty.
+     */
+    Optional<Booking> findByShowtimeIdAndShowtimeDateAndSeatNumber(Long showtimeId, LocalDate showtimeDate, int seatNumber);
+
     /**
      * Finds all bookings made by a specific user.
      *
@@ -40,4 +57,73 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
      * @return An optional containing the booking if found, otherwise empty.
      */
     Optional<Booking> findByBookingId(UUID bookingId);
+
+    /**
+     * Finds the seat numbers already booked for a showtime.
+     * Projects only the seat column so seat maps can be built without loading bookings.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return The booked seat numbers.
+     */
+    @Query("SELECT b.seatNumber FROM Booking b WHERE b.showtime.id = :showtimeId")
+    List<Integer> findSeatNumbersByShowtimeId(@Param("showtimeId") Long showtimeId);
+
+    /**
+     * Finds the seat numbers already booked for a showtime, searching only the partition of its date.
+     *
+     * @param showtimeId   The ID of the showtime.
+     * @param showtimeDate The date the showtime starts on.
+     * @return The booked seat numbers.
+     */
+    @Query("SELECT b.seatNumber FROM Booking b WHERE b.showtime.id = :showtimeId AND b.showtimeDate = :showtimeDate")
+    List<Integer> findSeatNumbersByShowtimeIdAndShowtimeDate(@Param("showtimeId") Long showtimeId,
+                                                             @Param("showtimeDate") LocalDate showtimeDate);
+
+    /**
+     * Finds the IDs of bookings for showtimes on dates before a cutoff, oldest first.
+     *
+     * @param cutoff   Bookings of showtimes on earlier dates are returned.
+     * @param pageable The maximum number of IDs to return.
+     * @return The booking IDs.
+     */
+    @Query("SELECT b.bookingId FROM Booking b WHERE b.showtimeDate < :cutoff ORDER BY b.showtimeDate")
+    List<UUID> findIdsByShowtimeDateBefore(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    /**
+     * Moves the showtime date of all bookings of a showtime, after the showtime was rescheduled.
+     *
+     * @param showtimeId   The ID of the showtime.
+     * @param showtimeDate The new date of the showtime.
+     * @return The number of updated bookings.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.showtimeDate = :showtimeDate WHERE b.showtime.id = :showtimeId AND b.showtimeDate <> :showtimeDate")
+    int updateShowtimeDate(@Param("showtimeId") Long showtimeId, @Param("showtimeDate") LocalDate showtimeDate);
+
+    /**
+     * Counts the bookings of a showtime.
+     *
+     * @param showtimeId The ID of the showtime.
+     * @return The number of booked seats.
+     */
+    long countByShowtimeId(Long showtimeId);
+
+    /**
+     * Finds the bookings of the given showtimes, with their showtimes fetched in the same query.
+     *
+     * @param showtimeIds The IDs of the showtimes.
+     * @return The bookings of those showtimes.
+     */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.showtime WHERE b.showtime.id IN :showtimeIds")
+    List<Booking> findByShowtimeIdIn(@Param("showtimeIds") Collection<Long> showtimeIds);
+
+    /**
+     * Deletes all bookings of the given showtimes in one statement, without loading them.
+     *
+     * @param showtimeIds The IDs of the showtimes.
+     * @return The number of deleted bookings.
+     */
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.showtime.id IN :showtimeIds")
+    int deleteByShowtimeIdIn(@Param("showtimeIds") Collection<Long> showtimeIds);
 }
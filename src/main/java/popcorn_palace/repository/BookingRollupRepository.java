@@ -0,0 +1,88 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.BookingRollup;
+import popcorn_palace.model.BookingRollupId;
+import popcorn_palace.model.RevenueReport;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for BookingRollup entity.
+ * The report queries only read the rollup table and the small movie and theater tables.
+ */
+@Repository
+public interface BookingRollupRepository extends JpaRepository<BookingRollup, BookingRollupId> {
+
+    /**
+     * Finds a rollup row and locks it, so concurrent flushes from several instances add up correctly.
+     *
+     * @param id The day, movie and theater.
+     * @return An optional containing the row if it exists, otherwise empty.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM BookingRollup r WHERE r.id = :id")
+    Optional<BookingRollup> findByIdForUpdate(@Param("id") BookingRollupId id);
+
+    /**
+     * Sums the rollups of a date range per movie, highest revenue first.
+     *
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return One report line per movie.
+     */
+    @Query("SELECT new popcorn_palace.model.RevenueReport(m.title, SUM(r.showtimeCount), SUM(r.seatsSold), SUM(r.revenue), SUM(r.capacity)) "
+            + "FROM BookingRollup r JOIN Movie m ON m.id = r.id.movieId "
+            + "WHERE r.id.showDate BETWEEN :from AND :to GROUP BY m.title ORDER BY SUM(r.revenue) DESC")
+    List<RevenueReport> sumByMovie(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums the rollups of a date range per theater, highest revenue first.
+     *
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return One report line per theater.
+     */
+    @Query("SELECT new popcorn_palace.model.RevenueReport(t.name, SUM(r.showtimeCount), SUM(r.seatsSold), SUM(r.revenue), SUM(r.capacity)) "
+            + "FROM BookingRollup r JOIN Theater t ON t.id = r.id.theaterId "
+            + "WHERE r.id.showDate BETWEEN :from AND :to GROUP BY t.name ORDER BY SUM(r.revenue) DESC")
+    List<RevenueReport> sumByTheater(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sums the rollups of a date range per day, in date order.
+     *
+     * @param from The first day, inclusive.
+     * @param to   The last day, inclusive.
+     * @return One report line per day with showtimes.
+     */
+    @Query("SELECT new popcorn_palace.model.RevenueReport(CAST(r.id.showDate AS String), SUM(r.showtimeCount), SUM(r.seatsSold), SUM(r.revenue), SUM(r.capacity)) "
+            + "FROM BookingRollup r "
+            + "WHERE r.id.showDate BETWEEN :from AND :to GROUP BY r.id.showDate ORDER BY r.id.showDate")
+    List<RevenueReport> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recomputes all rollups from the showtime, booking and booking_archive tables with one INSERT ... SELECT,
+     * so archived bookings stay counted. Bookings of showtimes that were deleted cannot be priced and are left out.
+     * A full scan, meant for the initial fill and for repairs; the caller empties the table first.
+     *
+     * @return The number of rollup rows written.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO booking_rollup (show_date, movie_id, theater_id, showtime_count, capacity, seats_sold, revenue) "
+            + "SELECT CAST(s.start_time AS DATE), s.movie_id, s.theater_id, COUNT(*), SUM(t.seat_rows * t.seats_per_row), "
+            + "SUM(COALESCE(b.sold, 0)), SUM(COALESCE(b.sold, 0) * s.price) "
+            + "FROM showtime s JOIN theater t ON t.id = s.theater_id "
+            + "LEFT JOIN (SELECT showtime_id, COUNT(*) AS sold FROM "
+            + "(SELECT showtime_id FROM booking UNION ALL SELECT showtime_id FROM booking_archive) a "
+            + "GROUP BY showtime_id) b ON b.showtime_id = s.id "
+            + "GROUP BY CAST(s.start_time AS DATE), s.movie_id, s.theater_id", nativeQuery = true)
+    int rebuildFromBookings();
+}
@@ -0,0 +1,193 @@
+package popcorn_palace.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The booking shards: N databases that each hold the bookings of part of the showtimes.
+ *
+ * Showtime IDs are hashed into a fixed number of buckets, and each bucket is assigned to one shard. The
+ * assignment is stored in booking_shard_bucket on the primary database and starts as bucket % N; moving a
+ * bucket (BookingShardRebalancer) changes one row, so shards can be added without rehashing everything.
+ * The number of buckets must never change once bookings exist.
+ *
+ * Sharding is enabled by listing the shard URLs in popcorn.booking.shards.urls. It only supports the direct
+ * booking mode, since the sequencer and the group committer write through JPA to the primary.
+ */
+@Component
+public class BookingShards {
+
+    private final JdbcTemplate primary;
+    private final List<DataSource> shards;
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+    private final List<DataSource> ownedPools = new ArrayList<>();
+    private final int bucketCount;
+    private final ReadWriteLock[] bucketLocks;
+
+    private volatile int[] assignment = new int[0]; // Shard of each bucket; replaced, never modified
+
+    @Autowired
+    public BookingShards(DataSource dataSource,
+                         @Value("${popcorn.booking.shards.urls:}") List<String> urls,
+                         @Value("${popcorn.booking.shards.username:${spring.datasource.username:}}") String username,
+                         @Value("${popcorn.booking.shards.password:${spring.datasource.password:}}") String password,
+                         @Value("${popcorn.booking.shards.buckets:1024}") int bucketCount,
+                         @Value("${popcorn.booking.mode:direct}") String bookingMode) {
+        this(dataSource, buildPools(urls, username, password), bucketCount);
+        ownedPools.addAll(shards);
+        if (isEnabled() && !"direct".equals(bookingMode)) {
+            throw new IllegalStateException("Booking shards require popcorn.booking.mode=direct, not " + bookingMode);
+        }
+    }
+
+    BookingShards(DataSource primary, List<DataSource> shards, int bucketCount) {
+        this.primary = new JdbcTemplate(primary);
+        this.shards = List.copyOf(shards);
+        this.bucketCount = bucketCount;
+        this.bucketLocks = new ReadWriteLock[bucketCount];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bucketLocks[bucket] = new ReentrantReadWriteLock();
+        }
+        for (DataSource shard : this.shards) {
+            jdbcTemplates.add(new JdbcTemplate(shard));
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(shard)));
+        }
+        if (isEnabled()) {
+            initialize();
+        }
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public int bucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Returns the bucket of a showtime. Depends only on the ID and the number of buckets.
+     */
+    public int bucketOf(Long showtimeId) {
+        long mixed = showtimeId * 0x9E3779B97F4A7C15L; // Spreads consecutive IDs over all buckets
+        return Math.floorMod((int) (mixed ^ (mixed >>> 32)), bucketCount);
+    }
+
+    public int shardOfBucket(int bucket) {
+        return assignment[bucket];
+    }
+
+    public int shardOf(Long showtimeId) {
+        return shardOfBucket(bucketOf(showtimeId));
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return jdbcTemplates.get(shard);
+    }
+
+    /**
+     * Returns a transaction template for local transactions on one shard.
+     */
+    public TransactionTemplate transaction(int shard) {
+        return transactionTemplates.get(shard);
+    }
+
+    /**
+     * Returns the lock of a bucket: booking writes hold the read lock, a bucket move holds the write lock
+     * while it switches the bucket to its new shard. Only guards writes made by this instance.
+     */
+    public ReadWriteLock lock(int bucket) {
+        return bucketLocks[bucket];
+    }
+
+    /**
+     * Returns a copy of the shard of every bucket.
+     */
+    public int[] assignment() {
+        return assignment.clone();
+    }
+
+    /**
+     * Assigns a bucket to a shard, in booking_shard_bucket and in memory.
+     */
+    public void assign(int bucket, int shard) {
+        primary.update("UPDATE booking_shard_bucket SET shard = ? WHERE bucket = ?", shard, bucket);
+        int[] updated = assignment.clone();
+        updated[bucket] = shard;
+        assignment = updated;
+    }
+
+    /**
+     * Creates the booking table on every shard and loads the bucket assignment, filling in buckets
+     * that have none yet with bucket % N.
+     */
+    private void initialize() {
+        ResourceDatabasePopulator shardSchema = new ResourceDatabasePopulator(new ClassPathResource("db/shard/booking.sql"));
+        shards.forEach(shardSchema::execute);
+        new ResourceDatabasePopulator(new ClassPathResource("db/shard/booking_shard_bucket.sql")).execute(primary.getDataSource());
+
+        int[] loaded = new int[bucketCount];
+        Arrays.fill(loaded, -1);
+        primary.query("SELECT bucket, shard FROM booking_shard_bucket", rs -> {
+            int bucket = rs.getInt(1);
+            if (bucket < bucketCount) {
+                loaded[bucket] = rs.getInt(2);
+            }
+        });
+        List<Object[]> missing = new ArrayList<>();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            if (loaded[bucket] < 0) {
+                loaded[bucket] = bucket % shards.size();
+                missing.add(new Object[]{bucket, loaded[bucket]});
+            } else if (loaded[bucket] >= shards.size()) {
+                throw new IllegalStateException("Bucket " + bucket + " is assigned to shard " + loaded[bucket]
+                        + ", but only " + shards.size() + " shards are configured");
+            }
+        }
+        if (!missing.isEmpty()) {
+            primary.batchUpdate("INSERT INTO booking_shard_bucket (bucket, shard) VALUES (?, ?)", missing);
+        }
+        assignment = loaded;
+    }
+
+    private static List<DataSource> buildPools(List<String> urls, String username, String password) {
+        List<DataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.isBlank()) {
+                pools.add(DataSourceBuilder.create().url(url.trim()).username(username).password(password).build());
+            }
+        }
+        return pools;
+    }
+
+    @PreDestroy
+    void closePools() throws IOException {
+        for (DataSource pool : ownedPools) {
+            if (pool instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity.
+ * Extends JpaRepository to provide retrieval, creation, updating, and deletion operations.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds the oldest pending events and locks them for the current transaction.
+     * Rows already locked by another relay are skipped where the database supports it (SKIP LOCKED),
+     * so several application instances can drain the outbox concurrently, though not in one global order.
+     *
+     * @param pageable The batch size (first page only).
+     * @return The oldest pending events in publishing order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+}
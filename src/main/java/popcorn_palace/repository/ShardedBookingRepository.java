@@ -0,0 +1,403 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.ArchivedBooking;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Showtime;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bookings stored on the booking shards instead of the primary booking table.
+ *
+ * Writes and seat lookups go to the one shard that owns the showtime's bucket. Lookups by user or booking ID
+ * cannot be routed, so they are sent to all shards at once on virtual threads and the results merged; they
+ * take as long as the slowest shard, not the sum of all shards. Showtimes stay on the primary database and
+ * are attached to the loaded bookings with one query.
+ *
+ * A shard insert, update or delete commits on its own. Called inside a primary transaction, it is undone when
+ * that transaction rolls back, so the booking and its outbox event still succeed or fail together (short of the
+ * instance dying between the two). The same holds for showtime changes and deletions, whose shard writes are
+ * grouped by bucket; all shard writes of one primary transaction are undone newest first.
+ */
+@Repository
+public class ShardedBookingRepository {
+
+    private static final String INSERT = "INSERT INTO booking (booking_id, showtime_id, showtime_date, seat_number, user_id, bucket) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS = "SELECT booking_id, showtime_id, showtime_date, seat_number, user_id FROM booking";
+
+    private final BookingShards shards;
+    private final ShowtimeRepository showtimeRepository;
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedBookingRepository(BookingShards shards, ShowtimeRepository showtimeRepository) {
+        this.shards = shards;
+        this.showtimeRepository = showtimeRepository;
+    }
+
+    public boolean isEnabled() {
+        return shards.isEnabled();
+    }
+
+    /**
+     * Inserts a booking on the shard of its showtime.
+     * @param booking The booking, with its showtime set.
+     * @return The booking.
+     * @throws org.springframework.dao.DuplicateKeyException if the seat is already booked.
+     */
+    public Booking insert(Booking booking) {
+        insertAll(List.of(booking));
+        return booking;
+    }
+
+    /**
+     * Inserts bookings of one showtime in one batch and one shard transaction: all or none are stored.
+     * @param bookings The bookings, all of the same showtime.
+     * @throws org.springframework.dao.DuplicateKeyException if any of the seats is already booked.
+     */
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        int bucket = shards.bucketOf(bookings.get(0).getShowtime().getId());
+        for (Booking booking : bookings) {
+            booking.setShowtimeDate(booking.getShowtime().getStartTime().toLocalDate());
+        }
+        List<Object[]> rows = bookings.stream().map(ShardedBookingRepository::row).toList();
+        withBucketShard(bucket, target -> {
+            shards.transaction(target).executeWithoutResult(status -> insertRows(target, bucket, rows));
+            return null;
+        });
+        onRollback(() -> withBucketShard(bucket, target -> {
+            deleteRows(target, bucket, rows);
+            return null;
+        }));
+    }
+
+    /**
+     * Deletes a booking from the shard of its showtime.
+     * @param booking The booking, as loaded by this repository.
+     */
+    public void delete(Booking booking) {
+        deleteAll(List.of(booking));
+    }
+
+    /**
+     * Deletes bookings from the shards of their showtimes, with one batch per bucket.
+     * @param bookings The bookings, as loaded by this repository.
+     */
+    public void deleteAll(Collection<Booking> bookings) {
+        deleteGrouped(bookings.stream().map(ShardedBookingRepository::row).toList());
+    }
+
+    /**
+     * Deletes the shard copies of bookings that were just copied to the archive.
+     * @param bookings The bookings, as returned by findByShowtimeDateBefore.
+     */
+    public void deleteArchived(Collection<ArchivedBooking> bookings) {
+        deleteGrouped(bookings.stream().map(booking -> new Object[]{booking.getBookingId(), booking.getShowtimeId(),
+                Date.valueOf(booking.getShowtimeDate()), booking.getSeatNumber(), booking.getUserId()}).toList());
+    }
+
+    /**
+     * Moves the bookings of a showtime to its new date, on its shard only.
+     * @param showtimeId The ID of the showtime.
+     * @param previousDate The date the bookings have now, restored if the caller's transaction rolls back.
+     * @param showtimeDate The new date of the showtime.
+     * @return The number of updated bookings.
+     */
+    public int updateShowtimeDate(Long showtimeId, LocalDate previousDate, LocalDate showtimeDate) {
+        int bucket = shards.bucketOf(showtimeId);
+        int updated = withBucketShard(bucket, target -> updateDate(target, showtimeId, showtimeDate));
+        onRollback(() -> withBucketShard(bucket, target -> updateDate(target, showtimeId, previousDate)));
+        return updated;
+    }
+
+    /**
+     * Counts the bookings of a showtime, on its shard only.
+     * @param showtimeId The ID of the showtime.
+     * @return The number of booked seats.
+     */
+    public long countByShowtimeId(Long showtimeId) {
+        return shards.jdbc(shards.shardOf(showtimeId))
+                .queryForObject("SELECT COUNT(*) FROM booking WHERE showtime_id = ?", Long.class, showtimeId);
+    }
+
+    /**
+     * Finds the bookings of several showtimes, asking only the shards that own them.
+     * @param showtimeIds The IDs of the showtimes, which must still exist on the primary.
+     * @return The bookings of those showtimes.
+     */
+    public List<Booking> findByShowtimeIdIn(Collection<Long> showtimeIds) {
+        Map<Integer, List<Long>> byShard = showtimeIds.stream().distinct().collect(Collectors.groupingBy(shards::shardOf));
+        List<Row> rows = new ArrayList<>();
+        byShard.forEach((shard, ids) -> rows.addAll(shards.jdbc(shard).query(COLUMNS + " WHERE showtime_id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ")", ROW, ids.toArray())));
+        return attachShowtimes(rows);
+    }
+
+    /**
+     * Finds bookings of showtimes on dates before a cutoff, asking all shards in parallel. Bookings whose
+     * showtime was deleted on the primary are included, since the archive only keeps the showtime's ID.
+     * @param cutoff Bookings of showtimes on earlier dates are returned.
+     * @param limit The maximum number of bookings taken from each shard.
+     * @return The bookings as archive rows, without archivedAt.
+     */
+    public List<ArchivedBooking> findByShowtimeDateBefore(LocalDate cutoff, int limit) {
+        return queryAll(COLUMNS + " WHERE showtime_date < ? ORDER BY showtime_date LIMIT ?", Date.valueOf(cutoff), limit)
+                .stream()
+                .map(row -> new ArchivedBooking(row.bookingId(), row.showtimeId(), row.seatNumber(), row.userId(),
+                        row.showtimeDate(), null))
+                .toList();
+    }
+
+    /**
+     * Counts the bookings of every showtime, asking all shards in parallel. A bucket being moved by the
+     * rebalancer at the same time may be counted twice.
+     * @return The number of bookings per showtime ID.
+     */
+    public Map<Long, Long> countByShowtime() {
+        List<CompletableFuture<List<Map.Entry<Long, Long>>>> results = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            results.add(CompletableFuture.supplyAsync(() -> shards.jdbc(target).query(
+                    "SELECT showtime_id, COUNT(*) FROM booking GROUP BY showtime_id",
+                    (rs, rowNum) -> Map.entry(rs.getLong(1), rs.getLong(2))), fanOut));
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        for (CompletableFuture<List<Map.Entry<Long, Long>>> result : results) {
+            join(result).forEach(count -> counts.merge(count.getKey(), count.getValue(), Long::sum));
+        }
+        return counts;
+    }
+
+    /**
+     * Streams the bookings of all shards, one shard after the other, each through a forward-only cursor in a
+     * read-only shard transaction. Rows are ordered by showtime and seat within each shard only.
+     * @param fetchSize The rows fetched per round trip.
+     * @param handler Called for each row of booking_id, showtime_id, showtime_date, seat_number and user_id.
+     */
+    public void streamAll(int fetchSize, RowCallbackHandler handler) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate cursor = new JdbcTemplate(shards.jdbc(shard).getDataSource());
+            cursor.setFetchSize(fetchSize);
+            TransactionTemplate readOnly = new TransactionTemplate(shards.transaction(shard).getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> cursor.query(COLUMNS + " ORDER BY showtime_id, seat_number", handler));
+        }
+    }
+
+    /**
+     * Finds the seat numbers booked for a showtime, on its shard only.
+     * @param showtimeId The ID of the showtime.
+     * @return The booked seat numbers.
+     */
+    public List<Integer> findSeatNumbers(Long showtimeId) {
+        return shards.jdbc(shards.shardOf(showtimeId))
+                .queryForList("SELECT seat_number FROM booking WHERE showtime_id = ?", Integer.class, showtimeId);
+    }
+
+    /**
+     * Finds a booking by its unique booking ID, asking all shards in parallel.
+     * @param bookingId The unique identifier of the booking.
+     * @return An optional containing the booking if found, otherwise empty.
+     */
+    public Optional<Booking> findByBookingId(UUID bookingId) {
+        List<Row> rows = queryAll(COLUMNS + " WHERE booking_id = ?", bookingId);
+        return attachShowtimes(rows).stream().findFirst();
+    }
+
+    /**
+     * Finds all bookings of a user, asking all shards in parallel.
+     * @param userId The unique identifier of the user.
+     * @return The bookings, ordered by showtime date, showtime and seat.
+     */
+    public List<Booking> findByUserId(String userId) {
+        List<Row> rows = new ArrayList<>(queryAll(COLUMNS + " WHERE user_id = ?", userId));
+        rows.sort(Comparator.comparing(Row::showtimeDate).thenComparing(Row::showtimeId).thenComparingInt(Row::seatNumber));
+        return attachShowtimes(rows);
+    }
+
+    /**
+     * Counts the bookings on each shard.
+     * @return The booking count per shard, by shard index.
+     */
+    public List<Long> countPerShard() {
+        List<CompletableFuture<Long>> counts = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            counts.add(CompletableFuture.supplyAsync(() ->
+                    shards.jdbc(target).queryForObject("SELECT COUNT(*) FROM booking", Long.class), fanOut));
+        }
+        return counts.stream().map(ShardedBookingRepository::join).toList();
+    }
+
+    /**
+     * Runs an action against the shard that currently owns a bucket, holding the bucket's read lock so a
+     * bucket move cannot switch owners halfway.
+     */
+    private <T> T withBucketShard(int bucket, Function<Integer, T> action) {
+        Lock lock = shards.lock(bucket).readLock();
+        lock.lock();
+        try {
+            return action.apply(shards.shardOfBucket(bucket));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes rows grouped by bucket, each group on the shard owning its bucket, and puts them back if the
+     * caller's transaction rolls back.
+     */
+    private void deleteGrouped(List<Object[]> rows) {
+        Map<Integer, List<Object[]>> byBucket = rows.stream().collect(Collectors.groupingBy(row -> shards.bucketOf((Long) row[1])));
+        byBucket.forEach((bucket, inBucket) -> {
+            withBucketShard(bucket, target -> {
+                deleteRows(target, bucket, inBucket);
+                return null;
+            });
+            onRollback(() -> withBucketShard(bucket, target -> {
+                insertRows(target, bucket, inBucket);
+                return null;
+            }));
+        });
+    }
+
+    private void insertRows(int shard, int bucket, List<Object[]> rows) {
+        shards.jdbc(shard).batchUpdate(INSERT, rows.stream().map(row -> new Object[]{row[0], row[1], row[2], row[3], row[4], bucket}).toList());
+    }
+
+    private void deleteRows(int shard, int bucket, List<Object[]> rows) {
+        List<Object[]> ids = rows.stream().map(row -> new Object[]{row[0], bucket}).toList();
+        shards.jdbc(shard).batchUpdate("DELETE FROM booking WHERE booking_id = ? AND bucket = ?", ids);
+    }
+
+    private int updateDate(int shard, Long showtimeId, LocalDate showtimeDate) {
+        return shards.jdbc(shard).update("UPDATE booking SET showtime_date = ? WHERE showtime_id = ? AND showtime_date <> ?",
+                Date.valueOf(showtimeDate), showtimeId, Date.valueOf(showtimeDate));
+    }
+
+    /**
+     * The values of a booking in the order of INSERT, without the bucket.
+     */
+    private static Object[] row(Booking booking) {
+        return new Object[]{booking.getBookingId(), booking.getShowtime().getId(), Date.valueOf(booking.getShowtimeDate()),
+                booking.getSeatNumber(), booking.getUserId()};
+    }
+
+    private List<Row> queryAll(String sql, Object... arguments) {
+        List<CompletableFuture<List<Row>>> results = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            results.add(CompletableFuture.supplyAsync(() -> shards.jdbc(target).query(sql, ROW, arguments), fanOut));
+        }
+        // A booking being moved by the rebalancer can briefly be on two shards; keep one copy.
+        Set<UUID> seen = new HashSet<>();
+        List<Row> rows = new ArrayList<>();
+        for (CompletableFuture<List<Row>> result : results) {
+            for (Row row : join(result)) {
+                if (seen.add(row.bookingId())) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private List<Booking> attachShowtimes(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> showtimeIds = rows.stream().map(Row::showtimeId).collect(Collectors.toSet());
+        Map<Long, Showtime> showtimes = showtimeRepository.findAllById(showtimeIds).stream()
+                .collect(Collectors.toMap(Showtime::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Showtime showtime = showtimes.get(row.showtimeId());
+            if (showtime != null) { // Bookings of a showtime deleted on the primary are orphans; skip them
+                bookings.add(new Booking(row.bookingId(), showtime, row.seatNumber(), row.userId(), row.showtimeDate()));
+            }
+        }
+        return bookings;
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            UndoLog undoLog = TransactionSynchronizationManager.getSynchronizations().stream()
+                    .filter(UndoLog.class::isInstance).map(UndoLog.class::cast).findFirst()
+                    .orElseGet(() -> {
+                        UndoLog created = new UndoLog();
+                        TransactionSynchronizationManager.registerSynchronization(created);
+                        return created;
+                    });
+            undoLog.compensations.push(compensation);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    private static final RowMapper<Row> ROW = (rs, rowNum) -> new Row(rs.getObject(1, UUID.class), rs.getLong(2),
+            rs.getDate(3).toLocalDate(), rs.getInt(4), rs.getString(5));
+
+    /**
+     * The shard writes of one primary transaction, undone newest first if it rolls back, so a booking that
+     * was moved to another date and then deleted comes back with its old date.
+     */
+    private static final class UndoLog implements TransactionSynchronization {
+        private final Deque<Runnable> compensations = new ArrayDeque<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+                compensations.forEach(Runnable::run);
+            }
+        }
+    }
+
+    private record Row(UUID bookingId, Long showtimeId, LocalDate showtimeDate, int seatNumber, String userId) {
+    }
+}
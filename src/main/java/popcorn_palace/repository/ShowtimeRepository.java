@@ -1,13 +1,19 @@
 package popcorn_palace.repository;
 
 import popcorn_palace.model.Showtime;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Showtime entity.
@@ -17,37 +23,99 @@ import java.util.List;
 public interface ShowtimeRepository extends JpaRepository<Showtime, Long> {
 
     /**
-     * Finds all showtimes for a given movie title and theater.
+     * Finds all showtimes for a given movie and theater.
+     * Filters on the movie_id and theater_id foreign keys rather than comparing names.
      *
-     * @param movieTitle The title of the movie.
-     * @param theater    The name of the theater.
+     * @param movieId   The ID of the movie.
+     * @param theaterId The ID of the theater.
      * @return A list of showtimes matching the criteria.
      */
-    List<Showtime> findByMovieTitleAndTheater(String movieTitle, String theater);
+    List<Showtime> findByMovieIdAndAuditoriumId(Long movieId, Long theaterId);
 
     /**
      * Finds all showtimes scheduled in a specific theater.
      *
-     * @param theater The name of the theater.
+     * @param theaterId The ID of the theater.
      * @return A list of showtimes for the specified theater.
      */
-    List<Showtime> findByTheater(String theater);
+    List<Showtime> findByAuditoriumId(Long theaterId);
+
+    /**
+     * Finds all showtimes that start after the given time.
+     * Used to seed in-memory read models with upcoming showtimes only.
+     *
+     * @param time The lower bound (exclusive) for the start time.
+     * @return A list of upcoming showtimes.
+     */
+    List<Showtime> findByStartTimeAfter(LocalDateTime time);
 
     /**
      * Checks if there are overlapping showtimes in the same theater.
      * An overlap occurs when an existing showtime's start or end time conflicts with a new showtime.
-     * @param theater   The theater name where the showtime is scheduled.
+     * @param theaterId The ID of the theater where the showtime is scheduled.
      * @param startTime The start time of the new showtime.
      * @param endTime   The end time of the new showtime.
      * @return True if an overlapping showtime exists, otherwise false.
      */
     @Query("""
         SELECT COUNT(s) > 0 FROM Showtime s
-        WHERE s.theater = :theater
+        WHERE s.auditorium.id = :theaterId
         AND s.startTime < :endTime
         AND s.endTime > :startTime
     """)
-    boolean existsByTheaterAndTimeOverlap(@Param("theater") String theater,
+    boolean existsByTheaterAndTimeOverlap(@Param("theaterId") Long theaterId,
                                           @Param("startTime") LocalDateTime startTime,
                                           @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Finds a showtime and locks its row until the end of the transaction.
+     * Serializes multi-seat allocations for one showtime.
+     *
+     * @param id The ID of the showtime.
+     * @return An optional containing the locked showtime if found, otherwise empty.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Showtime s WHERE s.id = :id")
+    Optional<Showtime> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Finds showtimes by ID and locks their rows until the end of the transaction.
+     * Keeps bookings from being added to showtimes that are being deleted.
+     *
+     * @param ids The IDs of the showtimes.
+     * @return The locked showtimes that still exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Showtime s WHERE s.id IN :ids ORDER BY s.id")
+    List<Showtime> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the IDs of showtimes that ended before a cutoff, oldest first.
+     *
+     * @param cutoff   Showtimes ending before this time are returned.
+     * @param pageable The chunk size (first page only).
+     * @return The IDs of the matching showtimes.
+     */
+    @Query("SELECT s.id FROM Showtime s WHERE s.endTime < :cutoff ORDER BY s.id")
+    List<Long> findIdsEndingBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Finds the IDs of the showtimes of a movie.
+     *
+     * @param movieId  The ID of the movie.
+     * @param pageable The chunk size (first page only).
+     * @return The IDs of the movie's showtimes.
+     */
+    @Query("SELECT s.id FROM Showtime s WHERE s.movie.id = :movieId ORDER BY s.id")
+    List<Long> findIdsByMovieId(@Param("movieId") Long movieId, Pageable pageable);
+
+    /**
+     * Deletes showtimes by ID in one statement, without loading them. Their bookings must be deleted first.
+     *
+     * @param ids The IDs of the showtimes.
+     * @return The number of deleted showtimes.
+     */
+    @Modifying
+    @Query("DELETE FROM Showtime s WHERE s.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
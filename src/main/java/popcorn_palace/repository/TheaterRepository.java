@@ -0,0 +1,31 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.Theater;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for Theater entity.
+ * Extends JpaRepository to provide retrieval, creation, updating, and deletion operations.
+ */
+@Repository
+public interface TheaterRepository extends JpaRepository<Theater, Long> {
+
+    /**
+     * Finds a theater by its unique name.
+     *
+     * @param name The name of the theater.
+     * @return An optional containing the theater if found, otherwise empty.
+     */
+    Optional<Theater> findByName(String name);
+
+    /**
+     * Checks whether a theater with the given name exists.
+     *
+     * @param name The name of the theater.
+     * @return True if a theater with that name exists.
+     */
+    boolean existsByName(String name);
+}
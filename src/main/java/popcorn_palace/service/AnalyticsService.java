@@ -0,0 +1,290 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.BookingRollup;
+import popcorn_palace.model.BookingRollupId;
+import popcorn_palace.model.RevenueReport;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.repository.BookingRollupRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revenue and occupancy reports per movie, theater and day, served from the booking_rollup table.
+ *
+ * Committed seat changes and showtime changes are added to in-memory deltas per day, movie and theater; a
+ * background flush applies all pending deltas to the rollup rows in one short transaction. The booking path
+ * therefore only pays for a map update, and reports never read the booking or showtime tables. Deltas not
+ * flushed yet are lost if the instance dies; rebuild() recomputes the rollups from the bookings.
+ *
+ * Bookings removed by the bulk showtime cleanup of past showtimes or moved to the archive stay counted: the
+ * rollups are the sales history. Deleting a single showtime, or a showtime that has not started (a cancelled
+ * show), removes its seats and revenue.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private final BookingRollupRepository rollupRepository;
+    private final ShowtimeRepository showtimeRepository;
+    private final ShardedBookingRepository shardedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCachedShowtimes;
+
+    // What a seat change of a showtime adds to, loaded once per showtime and refreshed when it changes.
+    private final Map<Long, ShowtimeFacts> facts = new ConcurrentHashMap<>();
+    // Changes not flushed yet. Only updated through compute(), so a flush that removes a delta owns it.
+    private final Map<BookingRollupId, Delta> deltas = new ConcurrentHashMap<>();
+
+    public AnalyticsService(BookingRollupRepository rollupRepository, ShowtimeRepository showtimeRepository,
+                            ShardedBookingRepository shardedBookingRepository, PlatformTransactionManager transactionManager,
+                            @Value("${popcorn.analytics.max-cached-showtimes:10000}") int maxCachedShowtimes) {
+        this.rollupRepository = rollupRepository;
+        this.showtimeRepository = showtimeRepository;
+        this.shardedBookingRepository = shardedBookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxCachedShowtimes = maxCachedShowtimes;
+    }
+
+    /**
+     * Counts a committed booking or cancellation. Only touches the showtime table the first time a showtime is seen.
+     * @param event The seat change published by the booking paths.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatChanged(SeatChangedEvent event) {
+        ShowtimeFacts showtime = facts.get(event.showtimeId());
+        if (showtime == null) {
+            showtime = showtimeRepository.findById(event.showtimeId()).map(ShowtimeFacts::of).orElse(null);
+            if (showtime == null) {
+                return; // Deleted in the meantime; its rollup was corrected by onShowtimeDeleted
+            }
+            cacheFacts(event.showtimeId(), showtime);
+        }
+        int seats = event.taken() ? 1 : -1;
+        add(showtime.key(), 0, 0, seats, seats * showtime.priceCents());
+    }
+
+    /**
+     * Captures what a showtime currently contributes to the rollups, to be passed to onShowtimeUpdated.
+     * @param showtime The showtime before it is modified.
+     * @return Its rollup key, capacity and price.
+     */
+    public ShowtimeFacts factsOf(Showtime showtime) {
+        return ShowtimeFacts.of(showtime);
+    }
+
+    /**
+     * Counts a new showtime's seats as offered. Applied after commit when called inside a transaction.
+     * @param showtime The saved showtime.
+     */
+    public void onShowtimeAdded(Showtime showtime) {
+        ShowtimeFacts added = ShowtimeFacts.of(showtime);
+        Long id = showtime.getId();
+        afterCommit(() -> {
+            cacheFacts(id, added);
+            add(added.key(), 1, added.capacity(), 0, 0);
+        });
+    }
+
+    /**
+     * Moves a showtime's contribution when its day, movie or theater changed.
+     * The seats already sold move with it, valued at the price they were counted with.
+     * @param before The showtime as it was before the update.
+     * @param showtime The updated showtime.
+     * @param seatsSold The number of bookings of the showtime.
+     */
+    public void onShowtimeUpdated(ShowtimeFacts before, Showtime showtime, long seatsSold) {
+        ShowtimeFacts after = ShowtimeFacts.of(showtime);
+        Long id = showtime.getId();
+        afterCommit(() -> {
+            cacheFacts(id, after);
+            if (!before.key().equals(after.key()) || before.capacity() != after.capacity()) {
+                add(before.key(), -1, -before.capacity(), -seatsSold, -seatsSold * before.priceCents());
+                add(after.key(), 1, after.capacity(), seatsSold, seatsSold * before.priceCents());
+            }
+        });
+    }
+
+    /**
+     * Removes a deleted showtime's seats and the revenue of its bookings.
+     * @param showtime The showtime, as loaded before deletion.
+     * @param seatsSold The number of bookings deleted with it.
+     */
+    public void onShowtimeDeleted(Showtime showtime, long seatsSold) {
+        ShowtimeFacts deleted = ShowtimeFacts.of(showtime);
+        Long id = showtime.getId();
+        afterCommit(() -> {
+            facts.remove(id);
+            add(deleted.key(), -1, -deleted.capacity(), -seatsSold, -seatsSold * deleted.priceCents());
+        });
+    }
+
+    /**
+     * Applies all pending deltas to the rollup table in one transaction.
+     * If the transaction fails, the deltas are put back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${popcorn.analytics.flush-interval-ms:5000}")
+    public void flush() {
+        List<Map.Entry<BookingRollupId, Delta>> pending = new ArrayList<>();
+        for (BookingRollupId key : deltas.keySet()) {
+            Delta delta = deltas.remove(key);
+            if (delta != null) {
+                pending.add(Map.entry(key, delta));
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> pending.forEach(entry -> apply(entry.getKey(), entry.getValue())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} booking rollups, will retry", pending.size(), e);
+            pending.forEach(entry -> {
+                Delta delta = entry.getValue();
+                add(entry.getKey(), delta.showtimes, delta.capacity, delta.seats, delta.revenueCents);
+            });
+        }
+    }
+
+    /**
+     * Builds a revenue and occupancy report from the rollups.
+     * @param groupBy movie, theater or day.
+     * @param from The first showtime day, inclusive.
+     * @param to The last showtime day, inclusive.
+     * @return The report lines.
+     * @throws InvalidDataException if the grouping is unknown or the range is empty.
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueReport> getRevenueReport(String groupBy, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new InvalidDataException("The report range ends before it starts.");
+        }
+        return switch (groupBy) {
+            case "movie" -> rollupRepository.sumByMovie(from, to);
+            case "theater" -> rollupRepository.sumByTheater(from, to);
+            case "day" -> rollupRepository.sumByDay(from, to);
+            default -> throw new InvalidDataException("Unknown grouping '" + groupBy + "'; use movie, theater or day.");
+        };
+    }
+
+    /**
+     * Recomputes all rollups from the showtime, booking and archived booking tables, discarding pending deltas.
+     * With booking shards, the bookings counted on the shards are added to the rebuilt rows afterwards.
+     * Showtimes purged by the cleanup are gone from the source tables and drop out of the rebuilt rollups.
+     * Scans all three tables, so run it once after installing and afterwards only to repair the rollups,
+     * in a quiet period: bookings committed while it runs may be counted twice or not at all.
+     * @return The number of rollup rows.
+     */
+    public int rebuild() {
+        deltas.clear();
+        facts.clear();
+        Map<Long, Long> shardCounts = shardedBookingRepository.isEnabled() ? shardedBookingRepository.countByShowtime() : Map.of();
+        return transactionTemplate.execute(status -> {
+            rollupRepository.deleteAllInBatch();
+            int rows = rollupRepository.rebuildFromBookings();
+            Map<BookingRollupId, Delta> sold = new HashMap<>();
+            for (Showtime showtime : showtimeRepository.findAllById(shardCounts.keySet())) {
+                ShowtimeFacts counted = ShowtimeFacts.of(showtime);
+                long seats = shardCounts.get(showtime.getId());
+                Delta delta = sold.computeIfAbsent(counted.key(), key -> new Delta());
+                delta.seats += seats;
+                delta.revenueCents += seats * counted.priceCents();
+            }
+            sold.forEach(this::apply); // Every showtime already has its rebuilt row
+            return rows;
+        });
+    }
+
+    /**
+     * Forgets the cached showtime facts, so they are reloaded with the next seat change of each showtime.
+     * Used when another instance changed showtimes or theaters.
+     */
+    public void evictFacts() {
+        facts.clear();
+    }
+
+    int pendingDeltas() {
+        return deltas.size();
+    }
+
+    private void add(BookingRollupId key, int showtimes, long capacity, long seats, long revenueCents) {
+        deltas.compute(key, (k, delta) -> {
+            Delta target = delta != null ? delta : new Delta();
+            target.showtimes += showtimes;
+            target.capacity += capacity;
+            target.seats += seats;
+            target.revenueCents += revenueCents;
+            return target;
+        });
+    }
+
+    private void apply(BookingRollupId key, Delta delta) {
+        BookingRollup rollup = rollupRepository.findByIdForUpdate(key).orElseGet(() -> new BookingRollup(key));
+        rollup.setShowtimeCount(rollup.getShowtimeCount() + delta.showtimes);
+        rollup.setCapacity(rollup.getCapacity() + delta.capacity);
+        rollup.setSeatsSold(rollup.getSeatsSold() + delta.seats);
+        rollup.setRevenue(rollup.getRevenue().add(BigDecimal.valueOf(delta.revenueCents, 2)));
+        rollupRepository.save(rollup);
+    }
+
+    private void cacheFacts(Long showtimeId, ShowtimeFacts showtime) {
+        if (facts.size() >= maxCachedShowtimes) {
+            facts.clear(); // Crude but bounded; entries are reloaded with one query per showtime
+        }
+        facts.put(showtimeId, showtime);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The attributes of a showtime that decide which rollup row its bookings count towards, and by how much.
+     */
+    public record ShowtimeFacts(BookingRollupId key, long capacity, long priceCents) {
+
+        public static ShowtimeFacts of(Showtime showtime) {
+            BookingRollupId key = new BookingRollupId(showtime.getStartTime().toLocalDate(),
+                    showtime.getMovie().getId(), showtime.getAuditorium().getId());
+            return new ShowtimeFacts(key, showtime.getAuditorium().getCapacity(),
+                    showtime.getPriceCents());
+        }
+    }
+
+    private static final class Delta {
+        int showtimes;
+        long capacity;
+        long seats;
+        long revenueCents;
+    }
+}
@@ -0,0 +1,126 @@
+package popcorn_palace.service;
+
+import popcorn_palace.model.ArchivedBooking;
+import popcorn_palace.repository.ArchivedBookingRepository;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves bookings of past showtimes from the hot booking table to booking_archive.
+ *
+ * The booking table then only holds bookings of recent and upcoming showtimes, which keeps the seat checks and
+ * user lookups of the booking path small. On PostgreSQL, where booking is partitioned by showtime date
+ * (db/postgres/booking_partitions.sql), this empties the old monthly partitions so they can be dropped.
+ * Bookings are moved in chunks, each copied and deleted in its own short transaction.
+ *
+ * With booking shards the archive stays on the primary: each chunk is read from the shards, committed to
+ * booking_archive and only then deleted from the shards. If the instance dies in between, the next run finds
+ * the same bookings again and saves them over their archived copies.
+ */
+@Service
+public class BookingArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingArchiveService.class);
+
+    private final BookingRepository bookingRepository;
+    private final ShardedBookingRepository shardedBookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int hotDays;
+    private final Clock clock;
+
+    @Autowired
+    public BookingArchiveService(BookingRepository bookingRepository, ShardedBookingRepository shardedBookingRepository,
+                                 ArchivedBookingRepository archivedBookingRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${popcorn.archive.chunk:5000}") int chunkSize,
+                                 @Value("${popcorn.archive.hot-days:2}") int hotDays) {
+        this(bookingRepository, shardedBookingRepository, archivedBookingRepository, transactionManager, chunkSize,
+                hotDays, Clock.systemDefaultZone());
+    }
+
+    BookingArchiveService(BookingRepository bookingRepository, ShardedBookingRepository shardedBookingRepository,
+                          ArchivedBookingRepository archivedBookingRepository,
+                          PlatformTransactionManager transactionManager, int chunkSize, int hotDays, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.shardedBookingRepository = shardedBookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.hotDays = hotDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Moves the bookings of all showtimes on dates before a cutoff to the archive.
+     * @param cutoff Bookings of showtimes on earlier dates are archived.
+     * @return The number of archived bookings.
+     */
+    public long archiveBookingsBefore(LocalDate cutoff) {
+        if (shardedBookingRepository.isEnabled()) {
+            return archiveShardedBookingsBefore(cutoff);
+        }
+        long archived = 0;
+        PageRequest chunk = PageRequest.of(0, chunkSize); // Always the first page: archived rows drop out
+        List<UUID> ids;
+        while (!(ids = bookingRepository.findIdsByShowtimeDateBefore(cutoff, chunk)).isEmpty()) {
+            List<UUID> bookingIds = ids;
+            archived += transactionTemplate.execute(status -> {
+                int copied = archivedBookingRepository.archiveAllByIdIn(bookingIds, Instant.now(clock));
+                bookingRepository.deleteAllByIdInBatch(bookingIds);
+                return copied;
+            });
+        }
+        return archived;
+    }
+
+    private long archiveShardedBookingsBefore(LocalDate cutoff) {
+        long archived = 0;
+        List<ArchivedBooking> chunk;
+        while (!(chunk = shardedBookingRepository.findByShowtimeDateBefore(cutoff, chunkSize)).isEmpty()) {
+            List<ArchivedBooking> bookings = chunk;
+            Instant archivedAt = Instant.now(clock);
+            bookings.forEach(booking -> booking.setArchivedAt(archivedAt));
+            transactionTemplate.executeWithoutResult(status -> archivedBookingRepository.saveAll(bookings));
+            shardedBookingRepository.deleteArchived(bookings);
+            archived += bookings.size();
+        }
+        return archived;
+    }
+
+    /**
+     * Retrieves the archived bookings of a user, most recent showtime first.
+     * @param userId The ID of the user.
+     * @return The bookings of past showtimes that were moved to the archive.
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedBooking> getArchivedBookingsByUserId(String userId) {
+        return archivedBookingRepository.findByUserIdOrderByShowtimeDateDesc(userId);
+    }
+
+    /**
+     * Nightly job archiving the bookings of showtimes older than popcorn.archive.hot-days.
+     */
+    @Scheduled(cron = "${popcorn.archive.cron:0 0 4 * * *}")
+    public void archivePastBookings() {
+        long archived = archiveBookingsBefore(LocalDate.now(clock).minusDays(hotDays));
+        log.info("Nightly archive moved {} bookings to cold storage", archived);
+    }
+}
@@ -0,0 +1,238 @@
+package popcorn_palace.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import popcorn_palace.repository.ShardedBookingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams all bookings, joined to their showtime's price, as CSV or NDJSON. Bookings already moved to
+ * booking_archive are included; an archived booking whose showtime was purged since has no price, which is
+ * written as an empty field (CSV) or null (NDJSON).
+ *
+ * Rows are read through a forward-only JDBC cursor with a fixed fetch size and written to the output as they
+ * arrive; nothing is collected in between, so heap use does not depend on the number of bookings. The query
+ * runs in a read-only transaction, which PostgreSQL needs to honour the fetch size instead of materializing
+ * the whole result set in the driver.
+ *
+ * With booking shards, the bookings still on the shards follow the primary's rows, one shard after the other,
+ * each sorted on its own. Their prices come from a map of all showtime prices read up front, so heap use then
+ * grows with the number of showtimes, still not with the number of bookings.
+ */
+@Service
+public class BookingExportService {
+
+    static final String EXPORT_SQL = "SELECT b.booking_id, b.showtime_id, b.showtime_date, b.seat_number, b.user_id, s.price "
+            + "FROM (SELECT booking_id, showtime_id, showtime_date, seat_number, user_id FROM booking "
+            + "UNION ALL SELECT booking_id, showtime_id, showtime_date, seat_number, user_id FROM booking_archive) b "
+            + "LEFT JOIN showtime s ON s.id = b.showtime_id "
+            + "ORDER BY b.showtime_id, b.seat_number";
+
+    private static final String CSV_HEADER = "booking_id,showtime_id,showtime_date,seat_number,user_id,price";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Output formats of the export.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ShardedBookingRepository shardedBookingRepository;
+    private final int fetchSize;
+
+    public BookingExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                ShardedBookingRepository shardedBookingRepository,
+                                @Value("${popcorn.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.shardedBookingRepository = shardedBookingRepository;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes all bookings to an output stream. The stream is flushed but not closed.
+     * @param format The output format.
+     * @param gzip Whether to gzip the output.
+     * @param out The stream to write to, typically the HTTP response body.
+     * @return The number of exported bookings.
+     * @throws IOException if writing to the stream fails.
+     */
+    public long export(Format format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+        long[] rows = new long[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+                write(rowWriter, rs, rs.getBigDecimal(6));
+                rows[0]++;
+            }));
+            if (shardedBookingRepository.isEnabled()) {
+                Map<Long, BigDecimal> prices = new HashMap<>();
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query("SELECT id, price FROM showtime", rs -> {
+                    prices.put(rs.getLong(1), rs.getBigDecimal(2));
+                }));
+                shardedBookingRepository.streamAll(fetchSize, rs -> {
+                    write(rowWriter, rs, prices.get(rs.getLong(2)));
+                    rows[0]++;
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        writer.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        out.flush();
+        return rows[0];
+    }
+
+    private static void write(RowWriter rowWriter, ResultSet rs, BigDecimal price) throws SQLException {
+        try {
+            rowWriter.write(rs, price);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Aborts the query; the client went away
+        }
+    }
+
+    /**
+     * Writes one row of booking_id, showtime_id, showtime_date, seat_number and user_id with the showtime's price.
+     */
+    private interface RowWriter {
+        void write(ResultSet rs, BigDecimal price) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private boolean headerWritten;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ResultSet rs, BigDecimal price) throws SQLException, IOException {
+            if (!headerWritten) {
+                writeHeader();
+            }
+            writer.write(rs.getString(1));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(2)));
+            writer.write(',');
+            writer.write(rs.getDate(3).toLocalDate().toString());
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt(4)));
+            writer.write(',');
+            writeField(rs.getString(5));
+            writer.write(',');
+            if (price != null) {
+                writer.write(price.toPlainString());
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!headerWritten) {
+                writeHeader(); // An empty export still has its header
+            }
+        }
+
+        private void writeHeader() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            headerWritten = true;
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(null); // Lines are separated explicitly below
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ResultSet rs, BigDecimal price) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("bookingId", rs.getString(1));
+            generator.writeNumberField("showtimeId", rs.getLong(2));
+            generator.writeStringField("showtimeDate", rs.getDate(3).toLocalDate().toString());
+            generator.writeNumberField("seatNumber", rs.getInt(4));
+            generator.writeStringField("userId", rs.getString(5));
+            if (price != null) {
+                generator.writeNumberField("price", price);
+            } else {
+                generator.writeNullField("price");
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.BookingOutcomeUnknownException;
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.RateLimitExceededException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.exception.SeatAlreadyBookedException;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.SeatMap;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional group-commit booking mode (popcorn.booking.mode=group-commit).
+ *
+ * Concurrent booking requests are collected for a short window (up to max-batch requests or window-micros,
+ * whichever comes first) and written by one flusher thread as a single batched insert in a single transaction,
+ * so a burst of bookings costs one commit instead of one per booking. Each caller is completed individually:
+ * a taken or invalid seat fails only its own request. If the batch cannot be committed (e.g. a seat was booked
+ * concurrently outside the batch), its requests, including the ones it rejected, are retried one by one
+ * through BookingService.
+ *
+ * All bookings of a batch are persisted and flushed before their outbox and idempotency rows are written, so
+ * the booking inserts leave as one JDBC batch rather than being split by the outbox's identity inserts.
+ * At most queue-capacity requests wait for the flusher; more are rejected. A caller that times out withdraws
+ * its request if the flusher has not taken it yet, and otherwise reports that the outcome is unknown.
+ */
+@Service
+public class BookingGroupCommitter {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingGroupCommitter.class);
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ShowtimeRepository showtimeRepository;
+    private final OutboxService outboxService;
+    private final IdempotencyService idempotencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final long timeoutMillis;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BlockingQueue<Request> queue;
+    private final Thread flusher = new Thread(this::run, "booking-group-commit");
+    private volatile boolean running = true;
+
+    public BookingGroupCommitter(BookingService bookingService, BookingRepository bookingRepository,
+                                 ShowtimeRepository showtimeRepository, OutboxService outboxService,
+                                 IdempotencyService idempotencyService, ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${popcorn.booking.mode:direct}") String mode,
+                                 @Value("${popcorn.booking.group-commit.max-batch:64}") int maxBatch,
+                                 @Value("${popcorn.booking.group-commit.window-micros:1000}") long windowMicros,
+                                 @Value("${popcorn.booking.group-commit.timeout-ms:5000}") long timeoutMillis,
+                                 @Value("${popcorn.booking.group-commit.queue-capacity:4096}") int queueCapacity) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.showtimeRepository = showtimeRepository;
+        this.outboxService = outboxService;
+        this.idempotencyService = idempotencyService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = "group-commit".equalsIgnoreCase(mode);
+        this.maxBatch = maxBatch;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flusher.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            flusher.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        flusher.interrupt();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Books a seat as part of the next group commit. Same contract as BookingService.bookTicket.
+     * @param showtimeId The ID of the showtime.
+     * @param seatNumber The seat number to book.
+     * @param userId The ID of the user making the booking.
+     * @param idempotencyKey The client's Idempotency-Key, or null.
+     * @return The created Booking object, once its batch committed.
+     * @throws RateLimitExceededException if too many requests are waiting, or the request was not taken in time.
+     * @throws BookingOutcomeUnknownException if the request was taken but its batch did not finish in time.
+     */
+    public Booking book(Long showtimeId, int seatNumber, String userId, String idempotencyKey) {
+        if (showtimeId == null || seatNumber <= 0 || userId == null || userId.isEmpty()) {
+            throw new InvalidDataException("Invalid data provided for the booking.");
+        }
+        Request request = new Request(showtimeId, seatNumber, userId, idempotencyKey);
+        if (!queue.offer(request)) {
+            throw new RateLimitExceededException("Too many pending bookings.", 1);
+        }
+        try {
+            return request.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw timedOut(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut(request);
+        }
+    }
+
+    /**
+     * Withdraws a request the caller stopped waiting for, or reports that its outcome is unknown if the flusher
+     * already took it. The booking ID is not reported, since a failed batch retries through BookingService.
+     */
+    private RuntimeException timedOut(Request request) {
+        if (request.abandon()) {
+            return new RateLimitExceededException("Booking was not processed within " + timeoutMillis
+                    + " ms and was withdrawn.", 1);
+        }
+        return new BookingOutcomeUnknownException("Booking of seat " + request.seatNumber + " for showtime "
+                + request.showtimeId + " is still in progress; check the user's bookings before booking again.", null);
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                // Collect whatever else arrives within the window, up to the batch size.
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit failed", e);
+                batch.forEach(request -> request.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Validates the batch against the current seats of its showtimes, inserts the accepted bookings in one
+     * transaction and completes every request. Requests withdrawn by their caller are skipped. Rejections are
+     * only reported once the batch committed, since a rolled back batch frees the seats that turned them away.
+     */
+    void commit(List<Request> batch) {
+        List<Request> claimed = new ArrayList<>(batch.size());
+        List<Request> accepted = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Seats> seats = new HashMap<>();
+                for (Request request : batch) {
+                    if (!request.claim()) {
+                        continue; // The caller gave up waiting
+                    }
+                    claimed.add(request);
+                    try {
+                        request.booking = reserve(seats, request);
+                        accepted.add(request);
+                    } catch (RuntimeException e) {
+                        request.rejection = e;
+                    }
+                }
+                for (Request request : accepted) {
+                    entityManager.persist(request.booking); // Plain INSERT, batched by hibernate.jdbc.batch_size
+                }
+                // Sent before any outbox insert, whose identity key would make Hibernate execute inserts one by one.
+                entityManager.flush();
+                for (Request request : accepted) {
+                    outboxService.recordBookingEvent(BookingEvent.BOOKING_CREATED, request.booking);
+                    if (request.idempotencyKey != null) {
+                        idempotencyService.remember(request.idempotencyKey, IdempotencyService.bookingFingerprint(
+                                request.showtimeId, request.seatNumber, request.userId), 201, request.booking);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} bookings failed, retrying individually", accepted.size(), e);
+            for (Request request : claimed) {
+                try {
+                    request.result.complete(bookingService.bookTicket(
+                            request.showtimeId, request.seatNumber, request.userId, request.idempotencyKey));
+                } catch (RuntimeException retryFailure) {
+                    request.result.completeExceptionally(retryFailure);
+                }
+            }
+            return;
+        }
+        for (Request request : claimed) {
+            if (request.rejection != null) {
+                request.result.completeExceptionally(request.rejection);
+                continue;
+            }
+            eventPublisher.publishEvent(new SeatChangedEvent(request.showtimeId, request.seatNumber, true));
+            request.result.complete(request.booking);
+        }
+    }
+
+    private Booking reserve(Map<Long, Seats> seats, Request request) {
+        Seats state = seats.get(request.showtimeId);
+        if (state == null) {
+            // One showtime and one seat query per showtime and batch, not per booking.
+            Showtime showtime = showtimeRepository.findById(request.showtimeId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + request.showtimeId));
+            SeatMap map = SeatMap.forTheater(showtime.getAuditorium());
+            for (int seatNumber : bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(
+                    request.showtimeId, showtime.getStartTime().toLocalDate())) {
+                map.take(seatNumber);
+            }
+            state = new Seats(showtime, map);
+            seats.put(request.showtimeId, state);
+        }
+        Theater theater = state.showtime.getAuditorium();
+        if (!theater.hasSeat(request.seatNumber)) {
+            throw new InvalidDataException("Seat " + request.seatNumber + " does not exist in " + theater.getName()
+                    + " (seats 1-" + theater.getCapacity() + ").");
+        }
+        if (!state.map.take(request.seatNumber)) {
+            throw new SeatAlreadyBookedException("Seat " + request.seatNumber + " is already booked for this showtime.");
+        }
+        Booking booking = new Booking();
+        booking.setShowtime(state.showtime);
+        booking.setSeatNumber(request.seatNumber);
+        booking.setUserId(request.userId);
+        booking.setBookingId(UUID.randomUUID());
+        return booking;
+    }
+
+    /**
+     * A booking request waiting for the next group commit.
+     * Either the flusher claims it or the caller abandons it, whichever comes first.
+     */
+    static final class Request {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int ABANDONED = 2;
+
+        final Long showtimeId;
+        final int seatNumber;
+        final String userId;
+        final String idempotencyKey;
+        final CompletableFuture<Booking> result = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        Booking booking; // Set by the flusher
+        RuntimeException rejection; // Set by the flusher until the batch commits
+
+        Request(Long showtimeId, int seatNumber, String userId, String idempotencyKey) {
+            this.showtimeId = showtimeId;
+            this.seatNumber = seatNumber;
+            this.userId = userId;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+
+    private record Seats(Showtime showtime, SeatMap map) {
+    }
+}
@@ -0,0 +1,114 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process rate limiter for the booking path, with one token bucket per user and one per showtime.
+ * Called before any repository access so excess requests never take a database connection.
+ * Rejections are counted in the "popcorn.booking.rate_limited" metric, tagged by scope (user or showtime).
+ */
+@Service
+public class BookingRateLimiter {
+
+    private final boolean enabled;
+    private final double userRate;
+    private final int userBurst;
+    private final double showtimeRate;
+    private final int showtimeBurst;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<Long, TokenBucket> showtimeBuckets = new ConcurrentHashMap<>();
+    private final Counter userRejections;
+    private final Counter showtimeRejections;
+
+    @Autowired
+    public BookingRateLimiter(MeterRegistry meterRegistry,
+                              @Value("${popcorn.rate-limit.enabled:true}") boolean enabled,
+                              @Value("${popcorn.rate-limit.user.per-second:2}") double userRate,
+                              @Value("${popcorn.rate-limit.user.burst:5}") int userBurst,
+                              @Value("${popcorn.rate-limit.showtime.per-second:200}") double showtimeRate,
+                              @Value("${popcorn.rate-limit.showtime.burst:400}") int showtimeBurst) {
+        this(meterRegistry, enabled, userRate, userBurst, showtimeRate, showtimeBurst, System::nanoTime);
+    }
+
+    BookingRateLimiter(MeterRegistry meterRegistry, boolean enabled, double userRate, int userBurst,
+                       double showtimeRate, int showtimeBurst, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.userRate = userRate;
+        this.userBurst = userBurst;
+        this.showtimeRate = showtimeRate;
+        this.showtimeBurst = showtimeBurst;
+        this.nanoClock = nanoClock;
+        this.userRejections = Counter.builder("popcorn.booking.rate_limited")
+                .description("Booking requests rejected by the rate limiter")
+                .tag("scope", "user")
+                .register(meterRegistry);
+        this.showtimeRejections = Counter.builder("popcorn.booking.rate_limited")
+                .description("Booking requests rejected by the rate limiter")
+                .tag("scope", "showtime")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the user's and the showtime's bucket, or from neither: a request the showtime's
+     * bucket rejects gets the user's token back, so a busy showtime does not throttle its users' next requests.
+     * @param showtimeId The ID of the showtime being booked.
+     * @param userId The ID of the user making the booking.
+     * @throws RateLimitExceededException if either bucket is empty.
+     */
+    public void acquire(Long showtimeId, String userId) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        TokenBucket user = null;
+        if (userId != null) {
+            user = userBuckets.computeIfAbsent(userId, id -> new TokenBucket(userRate, userBurst, now));
+            long wait = user.tryTake(now);
+            if (wait > 0) {
+                userRejections.increment();
+                throw new RateLimitExceededException("Too many booking requests for user " + userId + ".", toRetrySeconds(wait));
+            }
+        }
+        if (showtimeId != null) {
+            long wait = showtimeBuckets.computeIfAbsent(showtimeId, id -> new TokenBucket(showtimeRate, showtimeBurst, now)).tryTake(now);
+            if (wait > 0) {
+                if (user != null) {
+                    user.giveBack();
+                }
+                showtimeRejections.increment();
+                throw new RateLimitExceededException("Too many booking requests for showtime " + showtimeId + ".", toRetrySeconds(wait));
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; a new bucket behaves the same, so this only bounds memory.
+     */
+    @Scheduled(fixedDelayString = "${popcorn.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        userBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        showtimeBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int bucketCount() {
+        return userBuckets.size() + showtimeBuckets.size();
+    }
+
+    private static long toRetrySeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
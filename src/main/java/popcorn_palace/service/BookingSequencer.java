@@ -0,0 +1,493 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.ClusterMembershipChangedEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.BookingOutcomeUnknownException;
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.RateLimitExceededException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.exception.SeatAlreadyBookedException;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.SeatMap;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional single-writer booking engine (popcorn.booking.mode=sequenced).
+ *
+ * Booking, best available block and cancel commands are partitioned by showtime id onto a fixed number of ring buffers, each drained
+ * by exactly one writer thread. The writer owns the seat maps of its showtimes, so seat conflicts are decided
+ * in memory without races or constraint violations, and commits everything it drained in one transaction.
+ * Throughput per showtime is then bounded by the writer, not by row locks.
+ *
+ * The seat maps are authoritative only while every booking change of a showtime goes through this
+ * instance: run the sequenced mode on a single application instance, or in cluster mode, where booking
+ * requests are forwarded to the showtime's owner. When the cluster membership changes, all seat maps are
+ * dropped and reloaded from the database, since showtimes may have been booked on another node meanwhile.
+ *
+ * A caller that times out withdraws its command if the writer has not taken it yet, so the command is never
+ * applied and the caller can safely report failure. Once the writer has taken it the outcome is unknown
+ * until the transaction ends, and the caller reports that instead, with the booking ID the command will use.
+ */
+@Service
+public class BookingSequencer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSequencer.class);
+
+    private final BookingRepository bookingRepository;
+    private final ShowtimeRepository showtimeRepository;
+    private final OutboxService outboxService;
+    private final IdempotencyService idempotencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final int ringSize;
+    private final int maxBatch;
+    private final long timeoutMillis;
+
+    private Partition[] partitions = new Partition[0];
+    private volatile long seatStateEpoch; // Bumped when the seat maps must be reloaded
+
+    public BookingSequencer(BookingRepository bookingRepository, ShowtimeRepository showtimeRepository,
+                            OutboxService outboxService, IdempotencyService idempotencyService,
+                            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                            @Value("${popcorn.booking.mode:direct}") String mode,
+                            @Value("${popcorn.booking.sequencer.partitions:4}") int partitionCount,
+                            @Value("${popcorn.booking.sequencer.ring-size:4096}") int ringSize,
+                            @Value("${popcorn.booking.sequencer.max-batch:256}") int maxBatch,
+                            @Value("${popcorn.booking.sequencer.timeout-ms:5000}") long timeoutMillis) {
+        this.bookingRepository = bookingRepository;
+        this.showtimeRepository = showtimeRepository;
+        this.outboxService = outboxService;
+        this.idempotencyService = idempotencyService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = "sequenced".equalsIgnoreCase(mode);
+        this.partitionCount = partitionCount;
+        this.ringSize = ringSize;
+        this.maxBatch = maxBatch;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+            partitions[i].writer.start();
+        }
+        log.info("Booking sequencer started with {} partitions", partitionCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        for (Partition partition : partitions) {
+            partition.running = false;
+            LockSupport.unpark(partition.writer);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drops all seat maps after the cluster membership changed; each writer clears its own before its next batch.
+     * @param event The membership change.
+     */
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        seatStateEpoch = event.epoch();
+    }
+
+    /**
+     * Books a seat through the writer of the showtime's partition. Same contract as BookingService.bookTicket.
+     * @param showtimeId The ID of the showtime.
+     * @param seatNumber The seat number to book.
+     * @param userId The ID of the user making the booking.
+     * @param idempotencyKey The client's Idempotency-Key, or null.
+     * @return The created Booking object.
+     * @throws RateLimitExceededException if the partition's ring buffer is full, or the writer did not get to
+     *                                    the booking in time.
+     * @throws BookingOutcomeUnknownException if the writer took the booking but did not finish it in time.
+     */
+    public Booking book(Long showtimeId, int seatNumber, String userId, String idempotencyKey) {
+        if (showtimeId == null || seatNumber <= 0 || userId == null || userId.isEmpty()) {
+            throw new InvalidDataException("Invalid data provided for the booking.");
+        }
+        return submit(new Command(showtimeId, seatNumber, 0, userId, idempotencyKey, null));
+    }
+
+    /**
+     * Books the best available block of adjacent seats through the writer of the showtime's partition, which
+     * picks it from its seat map. Same contract as BookingService.bookBestAvailable.
+     * @param showtimeId The ID of the showtime.
+     * @param seatCount The number of adjacent seats.
+     * @param userId The ID of the user making the booking.
+     * @return The created bookings, in seat order.
+     * @throws RateLimitExceededException if the partition's ring buffer is full, or the writer did not get to
+     *                                    the block in time.
+     * @throws BookingOutcomeUnknownException if the writer took the block but did not finish it in time.
+     */
+    public List<Booking> bookBestAvailable(Long showtimeId, int seatCount, String userId) {
+        if (showtimeId == null || seatCount <= 0 || userId == null || userId.isEmpty()) {
+            throw new InvalidDataException("Invalid data provided for the booking.");
+        }
+        Command command = new Command(showtimeId, 0, seatCount, userId, null, null);
+        submit(command);
+        return command.block;
+    }
+
+    /**
+     * Cancels a booking through the writer of its showtime's partition. Same contract as BookingService.cancelBooking.
+     * @param bookingId The unique ID of the booking.
+     * @return The cancelled Booking object.
+     * @throws ResourceNotFoundException if the booking does not exist.
+     * @throws BookingOutcomeUnknownException if the writer took the cancellation but did not finish it in time.
+     */
+    public Booking cancel(UUID bookingId) {
+        Booking booking;
+        try (ReadYourWrites.Pin pin = ReadYourWrites.pinPrimary()) {
+            booking = bookingRepository.findByBookingId(bookingId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id " + bookingId));
+        }
+        submit(new Command(booking.getShowtime().getId(), booking.getSeatNumber(), 0, booking.getUserId(), null, booking));
+        return booking;
+    }
+
+    private Booking submit(Command command) {
+        Partition partition = partitions[Math.floorMod(command.showtimeId.hashCode(), partitions.length)];
+        if (!partition.ring.offer(command)) {
+            throw new RateLimitExceededException("Too many pending bookings for showtime " + command.showtimeId + ".", 1);
+        }
+        partition.wake();
+        try {
+            return command.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw timedOut(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut(command);
+        }
+    }
+
+    /**
+     * Withdraws a command the caller stopped waiting for, or reports that its outcome is unknown if the writer
+     * already took it.
+     */
+    private RuntimeException timedOut(Command command) {
+        if (command.abandon()) {
+            return new RateLimitExceededException("Booking for showtime " + command.showtimeId + " was not processed within "
+                    + timeoutMillis + " ms and was withdrawn.", 1);
+        }
+        if (command.cancelled != null) {
+            return new BookingOutcomeUnknownException("Cancellation of booking " + command.bookingId
+                    + " is still in progress.", command.bookingId);
+        }
+        if (command.isBlock()) {
+            return new BookingOutcomeUnknownException("Booking of " + command.seatCount + " seats starting with booking "
+                    + command.bookingId + " is still in progress; check it before booking again.", command.bookingId);
+        }
+        return new BookingOutcomeUnknownException("Booking " + command.bookingId + " is still in progress; check it before "
+                + "booking again.", command.bookingId);
+    }
+
+    /**
+     * One ring buffer with its writer thread and the seat state it owns.
+     */
+    private final class Partition {
+        final CommandRing<Command> ring = new CommandRing<>(ringSize);
+        final Thread writer;
+        volatile boolean running = true;
+        volatile boolean parked;
+        private long seenEpoch; // The seat state epoch the seat maps were loaded in
+
+        // Owned by the writer thread only. Bounded; evicted showtimes are reloaded from the database.
+        private final Map<Long, Seats> seats = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Seats> eldest) {
+                return size() > 1024;
+            }
+        };
+
+        Partition(int index) {
+            this.writer = new Thread(this::run, "booking-sequencer-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        void wake() {
+            if (parked) {
+                LockSupport.unpark(writer);
+            }
+        }
+
+        private void run() {
+            List<Command> batch = new ArrayList<>(maxBatch);
+            while (running) {
+                if (ring.drainTo(batch, maxBatch) == 0) {
+                    parked = true;
+                    if (ring.isEmpty()) {
+                        LockSupport.parkNanos(1_000_000L);
+                    }
+                    parked = false;
+                    continue;
+                }
+                if (seenEpoch != seatStateEpoch) {
+                    seenEpoch = seatStateEpoch;
+                    seats.clear();
+                }
+                try {
+                    process(batch);
+                } catch (RuntimeException e) {
+                    log.error("Booking sequencer batch failed", e);
+                    batch.forEach(command -> command.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        /**
+         * Applies a batch to the seat maps, commits the accepted commands in one transaction and completes them.
+         * Rejections are only reported once the batch committed: a seat taken by a command that gets rolled back
+         * is free again, so the commands it turned away are re-evaluated with the rest.
+         */
+        private void process(List<Command> batch) {
+            List<Command> claimed = new ArrayList<>(batch.size());
+            List<Command> accepted = new ArrayList<>(batch.size());
+            for (Command command : batch) {
+                if (!command.claim()) {
+                    continue; // The caller gave up waiting
+                }
+                claimed.add(command);
+                try {
+                    apply(command);
+                    accepted.add(command);
+                } catch (RuntimeException e) {
+                    command.rejection = e;
+                }
+            }
+            if (!accepted.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> accepted.forEach(this::write));
+                } catch (RuntimeException e) {
+                    // E.g. a row written outside the sequencer; forget the seat state and retry one by one.
+                    log.warn("Batch commit of {} booking commands failed, retrying individually", accepted.size(), e);
+                    claimed.forEach(command -> seats.remove(command.showtimeId));
+                    for (Command command : claimed) {
+                        command.rejection = null;
+                        retryAlone(command);
+                    }
+                    return;
+                }
+            }
+            for (Command command : claimed) {
+                if (command.rejection != null) {
+                    command.result.completeExceptionally(command.rejection);
+                } else {
+                    complete(command);
+                }
+            }
+        }
+
+        private void retryAlone(Command command) {
+            try {
+                apply(command);
+                transactionTemplate.executeWithoutResult(status -> write(command));
+                complete(command);
+            } catch (RuntimeException e) {
+                seats.remove(command.showtimeId);
+                command.result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Validates a command against the seat map and updates the map. Nothing is written yet.
+         */
+        private void apply(Command command) {
+            Seats state = seats.get(command.showtimeId);
+            if (state == null) {
+                state = load(command.showtimeId);
+                seats.put(command.showtimeId, state);
+            }
+            if (command.cancelled != null) {
+                if (!state.map.release(command.seatNumber)) {
+                    throw new ResourceNotFoundException("Booking not found with id " + command.cancelled.getBookingId());
+                }
+                return;
+            }
+            if (command.isBlock()) {
+                applyBlock(command, state);
+                return;
+            }
+            Theater theater = state.showtime.getAuditorium();
+            if (!theater.hasSeat(command.seatNumber)) {
+                throw new InvalidDataException("Seat " + command.seatNumber + " does not exist in " + theater.getName()
+                        + " (seats 1-" + theater.getCapacity() + ").");
+            }
+            if (!state.map.take(command.seatNumber)) {
+                throw new SeatAlreadyBookedException("Seat " + command.seatNumber + " is already booked for this showtime.");
+            }
+            Booking booking = new Booking();
+            booking.setShowtime(state.showtime);
+            booking.setSeatNumber(command.seatNumber);
+            booking.setUserId(command.userId);
+            booking.setBookingId(command.bookingId);
+            command.booking = booking;
+        }
+
+        private void applyBlock(Command command, Seats state) {
+            int seatCount = command.seatCount;
+            int firstSeat = state.map.findBestBlock(seatCount);
+            if (firstSeat < 0) {
+                throw new SeatAlreadyBookedException("No " + seatCount + " adjacent seats are available for this showtime.");
+            }
+            List<Booking> block = new ArrayList<>(seatCount);
+            for (int seatNumber = firstSeat; seatNumber < firstSeat + seatCount; seatNumber++) {
+                state.map.take(seatNumber);
+                Booking booking = new Booking(state.showtime, seatNumber, command.userId);
+                if (seatNumber == firstSeat) {
+                    booking.setBookingId(command.bookingId);
+                }
+                block.add(booking);
+            }
+            command.block = block;
+            command.booking = block.get(0);
+        }
+
+        /**
+         * Loads a showtime's seat map. The repository reads run in read-only transactions, so they are pinned
+         * to the primary: a seat map built from a lagging replica would accept seats that are already booked.
+         */
+        private Seats load(Long showtimeId) {
+            try (ReadYourWrites.Pin pin = ReadYourWrites.pinPrimary()) {
+                Showtime showtime = showtimeRepository.findById(showtimeId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + showtimeId));
+                SeatMap map = SeatMap.forTheater(showtime.getAuditorium());
+                for (int seatNumber : bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(
+                        showtimeId, showtime.getStartTime().toLocalDate())) {
+                    map.take(seatNumber);
+                }
+                return new Seats(showtime, map);
+            }
+        }
+
+        /**
+         * Writes one command inside the batch transaction.
+         */
+        private void write(Command command) {
+            if (command.isBlock()) {
+                command.block.replaceAll(bookingRepository::save);
+                command.block.forEach(booking -> outboxService.recordBookingEvent(BookingEvent.BOOKING_CREATED, booking));
+                command.booking = command.block.get(0);
+                return;
+            }
+            if (command.cancelled != null) {
+                bookingRepository.delete(command.cancelled);
+                outboxService.recordBookingEvent(BookingEvent.BOOKING_CANCELLED, command.cancelled);
+                return;
+            }
+            Booking saved = bookingRepository.save(command.booking);
+            command.booking = saved;
+            outboxService.recordBookingEvent(BookingEvent.BOOKING_CREATED, saved);
+            if (command.idempotencyKey != null) {
+                idempotencyService.remember(command.idempotencyKey,
+                        IdempotencyService.bookingFingerprint(command.showtimeId, command.seatNumber, command.userId), 201, saved);
+            }
+        }
+
+        private void complete(Command command) {
+            if (command.isBlock()) {
+                command.block.forEach(booking ->
+                        eventPublisher.publishEvent(new SeatChangedEvent(command.showtimeId, booking.getSeatNumber(), true)));
+                command.result.complete(command.booking);
+                return;
+            }
+            eventPublisher.publishEvent(new SeatChangedEvent(command.showtimeId, command.seatNumber, command.cancelled == null));
+            command.result.complete(command.booking);
+        }
+    }
+
+    /**
+     * A booking, best available block (seatCount > 0) or cancel (cancelled != null) command waiting in a ring buffer.
+     * Either the writer claims it or the caller abandons it, whichever comes first.
+     */
+    private static final class Command {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int ABANDONED = 2;
+
+        final Long showtimeId;
+        final int seatNumber;
+        final int seatCount; // Adjacent seats of a best available block, 0 otherwise
+        final String userId;
+        final String idempotencyKey;
+        final Booking cancelled;
+        final UUID bookingId; // Chosen up front so a caller that times out can report it
+        final CompletableFuture<Booking> result = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+        Booking booking; // Set by the writer; the first booking of a block
+        List<Booking> block; // Set by the writer for a block
+        RuntimeException rejection; // Set by the writer until the batch commits
+
+        Command(Long showtimeId, int seatNumber, int seatCount, String userId, String idempotencyKey, Booking cancelled) {
+            this.showtimeId = showtimeId;
+            this.seatNumber = seatNumber;
+            this.seatCount = seatCount;
+            this.userId = userId;
+            this.idempotencyKey = idempotencyKey;
+            this.cancelled = cancelled;
+            this.bookingId = cancelled == null ? UUID.randomUUID() : cancelled.getBookingId();
+        }
+
+        boolean isBlock() {
+            return seatCount > 0;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+
+    private record Seats(Showtime showtime, SeatMap map) {
+    }
+}
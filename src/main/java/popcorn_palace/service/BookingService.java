@@ -1,53 +1,102 @@
 package popcorn_palace.service;
 
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
 import popcorn_palace.exception.SeatAlreadyBookedException;
 import popcorn_palace.model.Booking;
+import popcorn_palace.model.SeatMap;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
 import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
 import popcorn_palace.repository.ShowtimeRepository;
 import popcorn_palace.exception.ResourceNotFoundException;
 import popcorn_palace.exception.InvalidDataException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Service layer for handling booking-related operations.
  * Manages seat reservations, booking retrieval, and cancellations.
+ * When booking shards are configured, bookings are stored through ShardedBookingRepository instead of the
+ * primary booking table; showtimes and outbox events stay on the primary.
  */
 @Service
 public class BookingService {
 
     private final BookingRepository bookingRepository;
     private final ShowtimeRepository showtimeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final IdempotencyService idempotencyService;
+    private final ShardedBookingRepository shardedBookingRepository;
 
     @Autowired
-    public BookingService(BookingRepository bookingRepository, ShowtimeRepository showtimeRepository) {
+    public BookingService(BookingRepository bookingRepository, ShowtimeRepository showtimeRepository,
+                          ApplicationEventPublisher eventPublisher, OutboxService outboxService,
+                          IdempotencyService idempotencyService, ShardedBookingRepository shardedBookingRepository) {
         this.bookingRepository = bookingRepository;
         this.showtimeRepository = showtimeRepository;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.idempotencyService = idempotencyService;
+        this.shardedBookingRepository = shardedBookingRepository;
     }
 
     /**
      * Books a seat for a given showtime.
      * Ensures that the seat is available before confirming the booking.
+     * A BOOKING_CREATED outbox event is written in the same transaction.
      * @param showtimeId The ID of the showtime.
      * @param seatNumber The seat number to book.
      * @param userId The ID of the user making the booking.
      * @return The created Booking object.
      * @throws ResourceNotFoundException if the showtime does not exist.
+     * @throws InvalidDataException if the input is invalid or the seat does not exist in the theater.
      * @throws SeatAlreadyBookedException if the seat is already booked.
      */
+    @Transactional
     public Booking bookTicket(Long showtimeId, int seatNumber, String userId) {
-        Showtime showtime = showtimeRepository.findById(showtimeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + showtimeId));
+        return bookTicket(showtimeId, seatNumber, userId, null);
+    }
+
+    /**
+     * Books a seat for a given showtime and remembers the response under an idempotency key.
+     * The response is stored in the same transaction, so a retry with the same key can be answered
+     * by IdempotencyService exactly when this booking committed.
+     * @param showtimeId The ID of the showtime.
+     * @param seatNumber The seat number to book.
+     * @param userId The ID of the user making the booking.
+     * @param idempotencyKey The client's Idempotency-Key, or null.
+     * @return The created Booking object.
+     */
+    @Transactional
+    public Booking bookTicket(Long showtimeId, int seatNumber, String userId, String idempotencyKey) {
         // Validate inputs
         if (showtimeId == null || seatNumber <= 0 || userId == null || userId.isEmpty()) {
             throw new InvalidDataException("Invalid data provided for the booking.");
         }
-        // Check if the seat is already booked
-        if (bookingRepository.findByShowtimeIdAndSeatNumber(showtimeId, seatNumber).isPresent()) {
+        Showtime showtime = showtimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + showtimeId));
+        // Reject seats outside the theater's layout before looking at existing bookings
+        Theater theater = showtime.getAuditorium();
+        if (!theater.hasSeat(seatNumber)) {
+            throw new InvalidDataException("Seat " + seatNumber + " does not exist in " + theater.getName()
+                    + " (seats 1-" + theater.getCapacity() + ").");
+        }
+        // Check if the seat is already booked; the date restricts the lookup to the showtime's partition.
+        // A shard checks it with its unique constraint when the booking is inserted.
+        if (!shardedBookingRepository.isEnabled() && bookingRepository.findByShowtimeIdAndShowtimeDateAndSeatNumber(
+                showtimeId, showtime.getStartTime().toLocalDate(), seatNumber).isPresent()) {
             throw new SeatAlreadyBookedException("Seat " + seatNumber + " is already booked for this showtime.");
         }
 
@@ -58,19 +107,88 @@ public class BookingService {
         booking.setUserId(userId);
         booking.setBookingId(UUID.randomUUID());
 
-        return bookingRepository.save(booking);
+        Booking savedBooking = shardedBookingRepository.isEnabled() ? insertSharded(List.of(booking)).get(0)
+                : bookingRepository.save(booking);
+        outboxService.recordBookingEvent(BookingEvent.BOOKING_CREATED, savedBooking);
+        if (idempotencyKey != null) {
+            idempotencyService.remember(idempotencyKey,
+                    IdempotencyService.bookingFingerprint(showtimeId, seatNumber, userId), 201, savedBooking);
+        }
+        eventPublisher.publishEvent(new SeatChangedEvent(showtimeId, seatNumber, true));
+        return savedBooking;
+    }
+
+    /**
+     * Books the best available block of adjacent seats for a given showtime.
+     * The showtime row is locked while the block is chosen and inserted, so concurrent allocations for the
+     * same showtime cannot pick overlapping blocks; the block is booked completely or not at all.
+     * @param showtimeId The ID of the showtime.
+     * @param seatCount The number of adjacent seats.
+     * @param userId The ID of the user making the booking.
+     * @return The created bookings, in seat order.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     * @throws InvalidDataException if the input is invalid.
+     * @throws SeatAlreadyBookedException if no row has enough adjacent free seats, or one of the seats was booked
+     *                                    concurrently by a single seat booking.
+     */
+    @Transactional
+    public List<Booking> bookBestAvailable(Long showtimeId, int seatCount, String userId) {
+        if (showtimeId == null || seatCount <= 0 || userId == null || userId.isEmpty()) {
+            throw new InvalidDataException("Invalid data provided for the booking.");
+        }
+        Showtime showtime = showtimeRepository.findByIdForUpdate(showtimeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + showtimeId));
+        SeatMap seatMap = SeatMap.forTheater(showtime.getAuditorium());
+        for (int seatNumber : findSeatNumbers(showtime)) {
+            seatMap.take(seatNumber);
+        }
+        int firstSeat = seatMap.findBestBlock(seatCount);
+        if (firstSeat < 0) {
+            throw new SeatAlreadyBookedException("No " + seatCount + " adjacent seats are available for this showtime.");
+        }
+
+        List<Booking> bookings = new ArrayList<>(seatCount);
+        for (int seatNumber = firstSeat; seatNumber < firstSeat + seatCount; seatNumber++) {
+            bookings.add(new Booking(showtime, seatNumber, userId));
+        }
+        if (shardedBookingRepository.isEnabled()) {
+            insertSharded(bookings); // One shard transaction, so the block is stored completely or not at all
+        } else {
+            try {
+                bookings.replaceAll(bookingRepository::save);
+                // Single seat bookings do not take the showtime lock; one of them may have taken a seat meanwhile.
+                bookingRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw new SeatAlreadyBookedException("Some of the seats were booked in the meantime.");
+            }
+        }
+        for (Booking booking : bookings) {
+            outboxService.recordBookingEvent(BookingEvent.BOOKING_CREATED, booking);
+            eventPublisher.publishEvent(new SeatChangedEvent(showtimeId, booking.getSeatNumber(), true));
+        }
+        return bookings;
     }
 
     /**
      * Cancels an existing booking by its unique booking ID.
+     * A BOOKING_CANCELLED outbox event is written in the same transaction.
      * @param bookingId The unique ID of the booking.
+     * @return The cancelled Booking object.
      * @throws ResourceNotFoundException if the booking does not exist.
      */
-    public void cancelBooking(UUID bookingId) {
-        Booking booking = bookingRepository.findByBookingId(bookingId)
+    @Transactional
+    public Booking cancelBooking(UUID bookingId) {
+        Booking booking = findByBookingId(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id " + bookingId));
 
-        bookingRepository.delete(booking);
+        if (shardedBookingRepository.isEnabled()) {
+            shardedBookingRepository.delete(booking);
+        } else {
+            bookingRepository.delete(booking);
+        }
+        outboxService.recordBookingEvent(BookingEvent.BOOKING_CANCELLED, booking);
+        eventPublisher.publishEvent(new SeatChangedEvent(booking.getShowtime().getId(), booking.getSeatNumber(), false));
+        return booking;
     }
 
     /**
@@ -79,8 +197,9 @@ public class BookingService {
      * @return The matching Booking object.
      * @throws ResourceNotFoundException if the booking is not found.
      */
+    @Transactional(readOnly = true)
     public Booking getBookingById(UUID bookingId) {
-        return bookingRepository.findByBookingId(bookingId)
+        return findByBookingId(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id " + bookingId));
     }
 
@@ -89,7 +208,50 @@ public class BookingService {
      * @param userId The ID of the user.
      * @return A list of bookings associated with the given user.
      */
+    @Transactional(readOnly = true)
     public List<Booking> getBookingsByUserId(String userId) {
-        return bookingRepository.findByUserId(userId);
+        return shardedBookingRepository.isEnabled() ? shardedBookingRepository.findByUserId(userId)
+                : bookingRepository.findByUserId(userId);
+    }
+
+    /**
+     * Builds the seat map of a showtime, sized exactly from its theater's layout.
+     * @param showtimeId The ID of the showtime.
+     * @return The seat map with all booked seats marked as taken.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     */
+    @Transactional(readOnly = true)
+    public SeatMap getSeatMap(Long showtimeId) {
+        Showtime showtime = showtimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + showtimeId));
+        SeatMap seatMap = SeatMap.forTheater(showtime.getAuditorium());
+        for (int seatNumber : findSeatNumbers(showtime)) {
+            seatMap.take(seatNumber);
+        }
+        return seatMap;
+    }
+
+    private List<Integer> findSeatNumbers(Showtime showtime) {
+        if (shardedBookingRepository.isEnabled()) {
+            return shardedBookingRepository.findSeatNumbers(showtime.getId());
+        }
+        return bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(
+                showtime.getId(), showtime.getStartTime().toLocalDate());
+    }
+
+    private Optional<Booking> findByBookingId(UUID bookingId) {
+        return shardedBookingRepository.isEnabled() ? shardedBookingRepository.findByBookingId(bookingId)
+                : bookingRepository.findByBookingId(bookingId);
+    }
+
+    private List<Booking> insertSharded(List<Booking> bookings) {
+        try {
+            shardedBookingRepository.insertAll(bookings);
+            return bookings;
+        } catch (DuplicateKeyException e) {
+            throw new SeatAlreadyBookedException(bookings.size() == 1
+                    ? "Seat " + bookings.get(0).getSeatNumber() + " is already booked for this showtime."
+                    : "Some of the seats were booked in the meantime.");
+        }
     }
 }
@@ -0,0 +1,219 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.BucketMove;
+import popcorn_palace.repository.BookingShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Moves buckets of showtimes between booking shards, e.g. after a shard was added.
+ *
+ * A bucket is moved in three steps. Its bookings are copied to the new shard in chunks while bookings continue
+ * on the old one. Then, holding the bucket's write lock, bookings made or cancelled during the copy are
+ * reconciled and the bucket is switched to the new shard; only this short step blocks bookings of the bucket.
+ * Finally the old copies are deleted in chunks. An interrupted move leaves the bucket on its old shard and can
+ * simply be repeated.
+ *
+ * The bucket lock only covers bookings made by this instance: run moves on a single instance, or pause the
+ * booking traffic of the other instances while rebalancing.
+ */
+@Service
+public class BookingShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingShardRebalancer.class);
+
+    private static final String INSERT = "INSERT INTO booking (booking_id, showtime_id, showtime_date, seat_number, user_id, bucket) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_CHUNK = "SELECT booking_id, showtime_id, showtime_date, seat_number, user_id, bucket "
+            + "FROM booking WHERE bucket = ? AND booking_id > ? ORDER BY booking_id LIMIT ?";
+    private static final String SELECT_ONE = "SELECT booking_id, showtime_id, showtime_date, seat_number, user_id, bucket "
+            + "FROM booking WHERE booking_id = ?";
+    // A shard row as INSERT parameters
+    private static final RowMapper<Object[]> COPY_ROW = (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class),
+            rs.getLong(2), rs.getDate(3), rs.getInt(4), rs.getString(5), rs.getInt(6)};
+
+    private final BookingShards shards;
+    private final int chunk;
+
+    public BookingShardRebalancer(BookingShards shards, @Value("${popcorn.booking.shards.move-chunk:1000}") int chunk) {
+        this.shards = shards;
+        this.chunk = chunk;
+    }
+
+    /**
+     * Counts the bookings of every bucket on every shard.
+     * @return The booking count per bucket, by shard index.
+     */
+    public List<Map<Integer, Long>> bucketCounts() {
+        List<Map<Integer, Long>> counts = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Map<Integer, Long> perBucket = new HashMap<>();
+            shards.jdbc(shard).query("SELECT bucket, COUNT(*) FROM booking GROUP BY bucket",
+                    (RowCallbackHandler) rs -> perBucket.put(rs.getInt(1), rs.getLong(2)));
+            counts.add(perBucket);
+        }
+        return counts;
+    }
+
+    /**
+     * Moves buckets from the shard with the most bookings to the one with the fewest, as long as that narrows
+     * the gap between them.
+     * @param maxMoves The maximum number of buckets to move.
+     * @return The buckets moved, in order.
+     */
+    public List<BucketMove> rebalance(int maxMoves) {
+        requireEnabled();
+        int[] assignment = shards.assignment();
+        long[] bucketSizes = new long[shards.bucketCount()];
+        for (Map<Integer, Long> perBucket : bucketCounts()) {
+            perBucket.forEach((bucket, count) -> {
+                if (bucket < bucketSizes.length) {
+                    bucketSizes[bucket] += count;
+                }
+            });
+        }
+        long[] load = new long[shards.size()];
+        for (int bucket = 0; bucket < assignment.length; bucket++) {
+            load[assignment[bucket]] += bucketSizes[bucket];
+        }
+
+        List<BucketMove> moves = new ArrayList<>();
+        while (moves.size() < maxMoves) {
+            int fullest = 0;
+            int emptiest = 0;
+            for (int shard = 1; shard < load.length; shard++) {
+                if (load[shard] > load[fullest]) {
+                    fullest = shard;
+                }
+                if (load[shard] < load[emptiest]) {
+                    emptiest = shard;
+                }
+            }
+            long gap = load[fullest] - load[emptiest];
+            // The bucket closest to half the gap narrows it most; any bucket smaller than the gap narrows it.
+            int best = -1;
+            for (int bucket = 0; bucket < assignment.length; bucket++) {
+                long size = bucketSizes[bucket];
+                if (assignment[bucket] == fullest && size > 0 && size < gap
+                        && (best < 0 || Math.abs(2 * size - gap) < Math.abs(2 * bucketSizes[best] - gap))) {
+                    best = bucket;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            moves.add(moveBucket(best, emptiest));
+            assignment[best] = emptiest;
+            load[fullest] -= bucketSizes[best];
+            load[emptiest] += bucketSizes[best];
+        }
+        return moves;
+    }
+
+    /**
+     * Moves one bucket, with its bookings, to another shard.
+     * @param bucket The bucket.
+     * @param target The index of the new shard.
+     * @return The move; moves no bookings if the bucket already is on the target shard.
+     * @throws InvalidDataException if the bucket or the shard does not exist.
+     */
+    public BucketMove moveBucket(int bucket, int target) {
+        requireEnabled();
+        if (bucket < 0 || bucket >= shards.bucketCount() || target < 0 || target >= shards.size()) {
+            throw new InvalidDataException("Bucket " + bucket + " or shard " + target + " does not exist.");
+        }
+        int source = shards.shardOfBucket(bucket);
+        if (source == target) {
+            return new BucketMove(bucket, source, target, 0);
+        }
+        JdbcTemplate from = shards.jdbc(source);
+        JdbcTemplate to = shards.jdbc(target);
+
+        // 1. Copy while bookings continue on the source shard, after dropping what an interrupted move left behind.
+        deleteBucket(to, bucket);
+        long copied = 0;
+        UUID after = new UUID(0, 0); // Databases order UUIDs by their unsigned bytes
+        List<Object[]> rows;
+        do {
+            rows = from.query(SELECT_CHUNK, COPY_ROW, bucket, after, chunk);
+            if (!rows.isEmpty()) {
+                after = (UUID) rows.get(rows.size() - 1)[0];
+                copy(target, rows);
+                copied += rows.size();
+            }
+        } while (rows.size() == chunk);
+
+        // 2. Catch up with the changes made meanwhile and switch the bucket, with its bookings paused.
+        Lock lock = shards.lock(bucket).writeLock();
+        lock.lock();
+        try {
+            Set<UUID> sourceIds = ids(from, bucket);
+            Set<UUID> targetIds = ids(to, bucket);
+            List<Object[]> cancelled = new ArrayList<>();
+            for (UUID id : targetIds) {
+                if (!sourceIds.contains(id)) {
+                    cancelled.add(new Object[]{id});
+                }
+            }
+            if (!cancelled.isEmpty()) { // First, as a cancelled seat may have been booked again
+                to.batchUpdate("DELETE FROM booking WHERE booking_id = ?", cancelled);
+            }
+            List<Object[]> added = new ArrayList<>();
+            for (UUID id : sourceIds) {
+                if (!targetIds.contains(id)) {
+                    added.addAll(from.query(SELECT_ONE, COPY_ROW, id));
+                }
+            }
+            copy(target, added);
+            shards.assign(bucket, target);
+            copied += added.size() - cancelled.size();
+        } finally {
+            lock.unlock();
+        }
+
+        // 3. Drop the old copies.
+        deleteBucket(from, bucket);
+
+        log.info("Moved bucket {} with {} bookings from shard {} to shard {}", bucket, copied, source, target);
+        return new BucketMove(bucket, source, target, copied);
+    }
+
+    private void copy(int target, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            shards.transaction(target).executeWithoutResult(status -> shards.jdbc(target).batchUpdate(INSERT, rows));
+        }
+    }
+
+    private void deleteBucket(JdbcTemplate shard, int bucket) {
+        int deleted;
+        do {
+            deleted = shard.update("DELETE FROM booking WHERE booking_id IN "
+                    + "(SELECT booking_id FROM booking WHERE bucket = ? LIMIT ?)", bucket, chunk);
+        } while (deleted == chunk);
+    }
+
+    private static Set<UUID> ids(JdbcTemplate shard, int bucket) {
+        return new HashSet<>(shard.queryForList("SELECT booking_id FROM booking WHERE bucket = ?", UUID.class, bucket));
+    }
+
+    private void requireEnabled() {
+        if (!shards.isEnabled()) {
+            throw new InvalidDataException("Booking shards are not configured (popcorn.booking.shards.urls).");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.InvalidationTransport;
+import popcorn_palace.service.CatalogVersions.Catalog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory catalog caches of several application instances in step
+ * (popcorn.invalidation.transport = loopback, multicast or postgres; none by default).
+ *
+ * Committed catalog changes reported by CatalogVersions are collected for window-ms and then broadcast
+ * as one message naming the changed catalogs, such as "6f1c... 42 MOVIES,SHOWTIMES", so a burst of
+ * admin writes costs one message. The other instances move their catalog versions (which retires their
+ * ETags and cached snapshots), drop the now showing read model and forget cached showtime facts.
+ *
+ * Messages are numbered per instance. A receiver that sees a gap in the numbers, after a lost datagram
+ * or a dropped LISTEN connection, invalidates every catalog rather than guessing which ones it missed.
+ * So does the first message from an instance that numbered changes before this one started listening.
+ * Every heartbeat-ms each instance also sends the number of its last message, such as "6f1c... 42 -", so a
+ * lost last message is noticed within one heartbeat instead of whenever the next change happens.
+ */
+@Service
+public class CatalogInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogInvalidationBus.class);
+    private static final String HEARTBEAT = "-";
+
+    private final CatalogVersions catalogVersions;
+    private final NowShowingService nowShowingService;
+    private final AnalyticsService analyticsService;
+    private final InvalidationTransport transport;
+    private final long windowMillis;
+
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong(); // Numbered and sent under this lock, so heartbeats never run ahead
+    private final Set<Catalog> pending = EnumSet.noneOf(Catalog.class); // Guarded by this
+    private final Map<String, Long> lastReceived = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-invalidation-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public CatalogInvalidationBus(CatalogVersions catalogVersions, NowShowingService nowShowingService,
+                                  AnalyticsService analyticsService, ObjectProvider<InvalidationTransport> transport,
+                                  @Value("${popcorn.invalidation.window-ms:5}") long windowMillis,
+                                  @Value("${popcorn.invalidation.heartbeat-ms:5000}") long heartbeatMillis) {
+        this(catalogVersions, nowShowingService, analyticsService, transport.getIfAvailable(), windowMillis, heartbeatMillis);
+    }
+
+    CatalogInvalidationBus(CatalogVersions catalogVersions, NowShowingService nowShowingService,
+                           AnalyticsService analyticsService, InvalidationTransport transport, long windowMillis,
+                           long heartbeatMillis) {
+        this.catalogVersions = catalogVersions;
+        this.nowShowingService = nowShowingService;
+        this.analyticsService = analyticsService;
+        this.transport = transport;
+        this.windowMillis = windowMillis;
+        if (transport != null) {
+            catalogVersions.addListener(this::changed);
+            transport.subscribe(this::receive);
+            flusher.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the random ID this instance signs its messages with.
+     */
+    public String node() {
+        return node;
+    }
+
+    private void changed(Catalog catalog) {
+        synchronized (this) {
+            if (!pending.add(catalog) || pending.size() > 1) {
+                return; // A flush is already scheduled
+            }
+        }
+        flusher.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Broadcasts the catalogs changed since the last flush, if any.
+     */
+    void flush() {
+        Set<Catalog> changed;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changed = EnumSet.copyOf(pending);
+            pending.clear();
+        }
+        synchronized (sequence) {
+            // Numbered even if sending fails, so the receivers notice the gap with the next message or heartbeat.
+            publish(node + " " + sequence.incrementAndGet() + " "
+                    + changed.stream().map(Catalog::name).collect(Collectors.joining(",")));
+        }
+    }
+
+    /**
+     * Broadcasts the number of the last message sent, so receivers that missed it invalidate their caches.
+     */
+    void heartbeat() {
+        synchronized (sequence) {
+            publish(node + " " + sequence.get() + " " + HEARTBEAT);
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            transport.publish(message);
+        } catch (Exception e) {
+            log.warn("Could not broadcast catalog invalidation {}: {}", message, e.toString());
+        }
+    }
+
+    /**
+     * Applies a message from the transport. The instance's own messages are ignored.
+     */
+    void receive(String message) {
+        String[] parts = message.split(" ");
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed catalog invalidation {}", message);
+            return;
+        }
+        String origin = parts[0];
+        if (origin.equals(node)) {
+            return;
+        }
+        long number;
+        boolean heartbeat = parts[2].equals(HEARTBEAT);
+        Set<Catalog> changed = EnumSet.noneOf(Catalog.class);
+        try {
+            number = Long.parseLong(parts[1]);
+            if (!heartbeat) {
+                for (String name : parts[2].split(",")) {
+                    changed.add(Catalog.valueOf(name));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed catalog invalidation {}", message);
+            return;
+        }
+        Long previous = lastReceived.get(origin);
+        lastReceived.merge(origin, number, Math::max);
+        // A heartbeat repeats the last number sent; a change message carries the next one. Numbering starts at 1,
+        // so an instance heard from for the first time with a higher number sent changes this one never received.
+        long missed = number - (previous == null ? 0 : previous) - (heartbeat ? 0 : 1);
+        if (missed > 0) {
+            log.warn("Missed {} catalog invalidations from {}, invalidating all catalogs", missed, origin);
+            changed = EnumSet.allOf(Catalog.class);
+        }
+        if (!changed.isEmpty()) {
+            invalidate(changed);
+        }
+    }
+
+    private void invalidate(Set<Catalog> changed) {
+        changed.forEach(catalogVersions::changedElsewhere);
+        nowShowingService.invalidate(); // Built from showtimes with their movie titles and theater names
+        if (changed.contains(Catalog.SHOWTIMES) || changed.contains(Catalog.THEATERS)) {
+            analyticsService.evictFacts(); // Prices, start times and capacities
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        if (transport != null) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package popcorn_palace.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Change counters of the movie, showtime and theater catalogs, used as HTTP validators.
+ *
+ * Every committed write to a catalog increments its counter and records the time, so a GET can be answered
+ * with 304 Not Modified by comparing the client's ETag with the counter, without reading the catalog.
+ * Counters start over on every restart; the instance's start time is part of the ETag so old validators
+ * simply stop matching.
+ *
+ * Local changes are passed on to the registered listeners, so CatalogInvalidationBus can tell the other
+ * instances; their changes come back in through changedElsewhere.
+ */
+@Service
+public class CatalogVersions {
+
+    /**
+     * The independently versioned parts of the catalog.
+     */
+    public enum Catalog {
+        MOVIES, SHOWTIMES, THEATERS
+    }
+
+    private final Clock clock;
+    private final long epoch;
+    private final Map<Catalog, AtomicReference<Version>> versions = new EnumMap<>(Catalog.class);
+    private final List<Consumer<Catalog>> listeners = new CopyOnWriteArrayList<>();
+
+    public CatalogVersions() {
+        this(Clock.systemUTC());
+    }
+
+    CatalogVersions(Clock clock) {
+        this.clock = clock;
+        Instant start = now();
+        this.epoch = start.toEpochMilli();
+        for (Catalog catalog : Catalog.values()) {
+            versions.put(catalog, new AtomicReference<>(new Version(0, start)));
+        }
+    }
+
+    /**
+     * Records a change of a catalog. Inside a transaction the counter only moves once it has committed,
+     * so a client can never be handed a new ETag together with old content.
+     * @param catalog The catalog that changed.
+     */
+    public void changed(Catalog catalog) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(catalog);
+                    listeners.forEach(listener -> listener.accept(catalog));
+                }
+            });
+        } else {
+            increment(catalog);
+            listeners.forEach(listener -> listener.accept(catalog));
+        }
+    }
+
+    /**
+     * Records a change of a catalog committed by another instance. Not passed on to the listeners.
+     * @param catalog The catalog that changed.
+     */
+    public void changedElsewhere(Catalog catalog) {
+        increment(catalog);
+    }
+
+    /**
+     * Registers a listener called with every committed local change, on the committing thread.
+     * @param listener The listener.
+     */
+    public void addListener(Consumer<Catalog> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the strong ETag of a response built from the given catalogs, such as "c1718000000000-m3-t1".
+     * @param catalogs The catalogs the response is built from.
+     */
+    public String etag(Catalog... catalogs) {
+        StringBuilder etag = new StringBuilder("\"c").append(epoch);
+        for (Catalog catalog : catalogs) {
+            etag.append('-').append(Character.toLowerCase(catalog.name().charAt(0))).append(versions.get(catalog).get().counter);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Returns the time of the most recent change of any of the given catalogs, in whole seconds.
+     * @param catalogs The catalogs the response is built from.
+     */
+    public Instant lastModified(Catalog... catalogs) {
+        Instant latest = Instant.EPOCH;
+        for (Catalog catalog : catalogs) {
+            Instant modified = versions.get(catalog).get().modified;
+            if (modified.isAfter(latest)) {
+                latest = modified;
+            }
+        }
+        return latest;
+    }
+
+    private void increment(Catalog catalog) {
+        Instant now = now();
+        versions.get(catalog).updateAndGet(v -> new Version(v.counter + 1, now.isAfter(v.modified) ? now : v.modified));
+    }
+
+    private Instant now() {
+        return clock.instant().truncatedTo(ChronoUnit.SECONDS); // HTTP dates have second precision
+    }
+
+    private record Version(long counter, Instant modified) {
+    }
+}
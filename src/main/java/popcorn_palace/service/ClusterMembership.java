@@ -0,0 +1,197 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.ClusterMembershipChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Cluster mode (popcorn.cluster.enabled): which application instances are alive and which one owns a showtime.
+ *
+ * The members are configured as base URLs (popcorn.cluster.members), the same list on every node. Each node
+ * pings the others every heartbeat interval; a member that misses failure-threshold pings in a row leaves the
+ * ring, and joins again with its next answered ping. Showtimes are assigned to the live members by a
+ * ConsistentHashRing, so all showtime-scoped requests can be sent to one owner whose in-memory seat state is
+ * then authoritative. Every change is published as a ClusterMembershipChangedEvent.
+ *
+ * Nodes may disagree about the members for up to a few heartbeats after a change. A forwarded request is
+ * never forwarded again, and the database's unique seat constraint still rejects double bookings made by two
+ * nodes during such a window.
+ */
+@Service
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final boolean enabled;
+    private final String self;
+    private final List<String> configured;
+    private final int virtualNodes;
+    private final int failureThreshold;
+    private final Predicate<String> probe;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final Set<String> live = new TreeSet<>(); // Guarded by this
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile ConsistentHashRing ring;
+
+    @Autowired
+    public ClusterMembership(@Value("${popcorn.cluster.enabled:false}") boolean enabled,
+                             @Value("${popcorn.cluster.self:}") String self,
+                             @Value("${popcorn.cluster.members:}") List<String> members,
+                             @Value("${popcorn.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${popcorn.cluster.failure-threshold:3}") int failureThreshold,
+                             @Value("${popcorn.cluster.probe-timeout:PT0.5S}") Duration probeTimeout,
+                             ApplicationEventPublisher eventPublisher) {
+        this(enabled, self, members, virtualNodes, failureThreshold, httpProbe(probeTimeout), eventPublisher);
+    }
+
+    ClusterMembership(boolean enabled, String self, List<String> members, int virtualNodes, int failureThreshold,
+                      Predicate<String> probe, ApplicationEventPublisher eventPublisher) {
+        this.enabled = enabled;
+        this.self = normalize(self);
+        Set<String> all = new LinkedHashSet<>();
+        members.stream().filter(member -> !member.isBlank()).map(ClusterMembership::normalize).forEach(all::add);
+        all.add(this.self);
+        this.configured = List.copyOf(all);
+        this.virtualNodes = virtualNodes;
+        this.failureThreshold = failureThreshold;
+        this.probe = probe;
+        this.eventPublisher = eventPublisher;
+        if (enabled && this.self.isEmpty()) {
+            throw new IllegalStateException("popcorn.cluster.self must be set to this node's base URL in cluster mode");
+        }
+        // Start optimistic: assume every member is up rather than owning everything until the first heartbeat.
+        live.addAll(configured);
+        ring = new ConsistentHashRing(live, virtualNodes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the base URL of this node.
+     */
+    public String self() {
+        return self;
+    }
+
+    /**
+     * Returns the base URL of the node owning a showtime; this node when cluster mode is off.
+     */
+    public String ownerOf(Long showtimeId) {
+        if (!enabled) {
+            return self;
+        }
+        String owner = ring.ownerOf(showtimeId);
+        return owner != null ? owner : self;
+    }
+
+    public boolean isLocal(Long showtimeId) {
+        return self.equals(ownerOf(showtimeId));
+    }
+
+    /**
+     * Returns the base URLs of the live members, sorted.
+     */
+    public List<String> members() {
+        return ring.members();
+    }
+
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Pings every other member and updates the ring when one joined or left.
+     */
+    @Scheduled(fixedDelayString = "${popcorn.cluster.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        for (String member : configured) {
+            if (!member.equals(self)) {
+                boolean up = probe.test(member);
+                if (up) {
+                    failures.remove(member);
+                    join(member);
+                } else if (failures.merge(member, 1, Integer::sum) >= failureThreshold) {
+                    leave(member);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a member out of the ring at once, e.g. after a request forwarded to it failed to connect.
+     * It joins again with its next answered ping.
+     * @param member The base URL of the member.
+     */
+    public void markDown(String member) {
+        if (!member.equals(self)) {
+            failures.put(member, failureThreshold);
+            leave(member);
+        }
+    }
+
+    private synchronized void join(String member) {
+        if (live.add(member)) {
+            changed(member + " joined");
+        }
+    }
+
+    private synchronized void leave(String member) {
+        if (live.remove(member)) {
+            changed(member + " left");
+        }
+    }
+
+    private void changed(String reason) {
+        ring = new ConsistentHashRing(live, virtualNodes);
+        long current = epoch.incrementAndGet();
+        log.info("Cluster membership changed ({}), epoch {}: {}", reason, current, live);
+        eventPublisher.publishEvent(new ClusterMembershipChangedEvent(current, ring.members()));
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private static Predicate<String> httpProbe(Duration timeout) {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(timeout).build();
+        return member -> {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(member + "/cluster/ping")).timeout(timeout).GET().build();
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (IOException | IllegalArgumentException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package popcorn_palace.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer in the style of the LMAX Disruptor.
+ *
+ * Producers claim a sequence with one compare-and-set, write the slot and then publish it by storing the
+ * sequence into the slot's availability marker; the single consumer reads published slots in sequence order
+ * without any locking. The capacity must be a power of two so slots are found with a mask.
+ */
+final class CommandRing<T> {
+
+    private final Object[] slots;
+    private final AtomicLongArray published; // Sequence last published into each slot
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1; // Written by the consumer only
+
+    CommandRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Appends an element.
+     * @return false if the ring is full.
+     */
+    boolean offer(T element) {
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            if (sequence - consumed > slots.length) {
+                return false; // Would overwrite a slot the consumer has not read yet
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+        int index = (int) sequence & mask;
+        slots[index] = element;
+        published.set(index, sequence); // Volatile write makes the slot visible to the consumer
+        return true;
+    }
+
+    /**
+     * Moves up to max published elements, in sequence order, into the given list. Consumer thread only.
+     * @return The number of elements moved.
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<T> target, int max) {
+        long next = consumed + 1;
+        int count = 0;
+        while (count < max) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                break; // Not published yet
+            }
+            target.add((T) slots[index]);
+            slots[index] = null;
+            next++;
+            count++;
+        }
+        consumed = next - 1;
+        return count;
+    }
+
+    boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+}
@@ -0,0 +1,64 @@
+package popcorn_palace.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent hash ring assigning showtimes to cluster members.
+ *
+ * Every member is placed on the ring at a number of pseudo-random points (virtual nodes); a showtime belongs to
+ * the member owning the first point at or after the showtime's hash. Adding or removing a member therefore only
+ * moves the showtimes of the points it gains or loses, about 1/N of all showtimes, and every node that sees the
+ * same members computes the same owners.
+ */
+public final class ConsistentHashRing {
+
+    private final TreeMap<Long, String> points = new TreeMap<>();
+    private final List<String> members;
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        this.members = members.stream().sorted().distinct().toList();
+        for (String member : this.members) {
+            long seed = hash(member);
+            for (int i = 0; i < virtualNodes; i++) {
+                // Collisions between members are vanishingly rare; the sorted order makes them deterministic anyway.
+                points.putIfAbsent(mix(seed + i * 0x9E3779B97F4A7C15L), member);
+            }
+        }
+    }
+
+    /**
+     * Returns the member owning a showtime, or null if the ring has no members.
+     */
+    public String ownerOf(long showtimeId) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(mix(showtimeId));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    private static long hash(String member) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a; String.hashCode() clusters similar URLs
+        for (byte b : member.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizer of MurmurHash3: spreads consecutive inputs over the whole ring.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,151 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.IdempotencyRecord;
+import popcorn_palace.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores the responses of requests sent with an Idempotency-Key so retries can be answered without
+ * executing them again.
+ *
+ * Records are persisted in the transaction of the original request (so a response is remembered exactly when its
+ * booking committed, and survives a restart) and kept in a bounded, least-recently-used in-memory cache, so a
+ * retry of a recent request does not touch the database at all. Records expire after the configured time to live.
+ */
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Clock clock;
+
+    // Guarded by itself; access-ordered so the least recently used entry is evicted first.
+    private final Map<String, IdempotencyRecord> cache;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              @Value("${popcorn.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${popcorn.idempotency.max-cached-entries:10000}") int maxCachedEntries) {
+        this(idempotencyRecordRepository, objectMapper, ttl, maxCachedEntries, Clock.systemUTC());
+    }
+
+    IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                       Duration ttl, int maxCachedEntries, Clock clock) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > maxCachedEntries;
+            }
+        };
+    }
+
+    /**
+     * Builds the fingerprint of a booking request.
+     */
+    public static String bookingFingerprint(Long showtimeId, int seatNumber, String userId) {
+        return "booking:" + showtimeId + ":" + seatNumber + ":" + userId;
+    }
+
+    /**
+     * Looks up the stored response for an idempotency key.
+     * @param key The Idempotency-Key header value.
+     * @return The stored response, or empty if the key is unknown or expired.
+     */
+    public Optional<IdempotencyRecord> find(String key) {
+        Instant now = clock.instant();
+        IdempotencyRecord record;
+        synchronized (cache) {
+            record = cache.get(key);
+        }
+        if (record == null) {
+            // Not cached, e.g. after a restart or eviction: fall back to the persisted record.
+            record = idempotencyRecordRepository.findById(key).orElse(null);
+            if (record == null) {
+                return Optional.empty();
+            }
+            cache(record);
+        }
+        if (record.isExpired(now)) {
+            synchronized (cache) {
+                cache.remove(key);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(record);
+    }
+
+    /**
+     * Stores the response of a request. Must be called inside the transaction that performs the request,
+     * so the response is only remembered if that transaction commits.
+     * @param key The Idempotency-Key header value.
+     * @param fingerprint Identifies the request, see bookingFingerprint.
+     * @param statusCode The HTTP status of the response.
+     * @param body The response body; stored as JSON.
+     * @throws InvalidDataException if the key is already stored and not expired, so its transaction rolls back
+     *                              instead of overwriting the response of another request.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remember(String key, String fingerprint, int statusCode, Object body) {
+        Instant now = clock.instant();
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(key).orElse(null);
+        if (existing != null && !existing.isExpired(now)) {
+            throw new InvalidDataException("Idempotency-Key " + key + " was already used.");
+        }
+        // An expired record not purged yet is overwritten. Two transactions inserting the same new key
+        // concurrently both pass the check; the primary key rejects the second one at commit.
+        IdempotencyRecord record = new IdempotencyRecord(key, fingerprint, statusCode, toJson(body), now.plus(ttl));
+        idempotencyRecordRepository.save(record);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache(record);
+            }
+        });
+    }
+
+    /**
+     * Deletes expired records from the database.
+     * @return The number of deleted records.
+     */
+    @Scheduled(fixedDelayString = "${popcorn.idempotency.purge-interval-ms:600000}")
+    @Transactional
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteExpired(clock.instant());
+    }
+
+    private void cache(IdempotencyRecord record) {
+        synchronized (cache) {
+            cache.put(record.getIdempotencyKey(), record);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for idempotency key", e);
+        }
+    }
+}
@@ -3,10 +3,12 @@ package popcorn_palace.service;
 import popcorn_palace.exception.DuplicateMovieException;
 import popcorn_palace.exception.InvalidDataException;
 import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.CleanupResult;
 import popcorn_palace.model.Movie;
 import popcorn_palace.repository.MovieRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,16 +21,22 @@ import java.util.Optional;
 public class MovieService {
 
     private final MovieRepository movieRepository;
+    private final ShowtimeCleanupService showtimeCleanupService;
+    private final CatalogVersions catalogVersions;
 
     @Autowired
-    public MovieService(MovieRepository movieRepository) {
+    public MovieService(MovieRepository movieRepository, ShowtimeCleanupService showtimeCleanupService,
+                        CatalogVersions catalogVersions) {
         this.movieRepository = movieRepository;
+        this.showtimeCleanupService = showtimeCleanupService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
      * Retrieves all movies from the database.
      * @return List of all movies.
      */
+    @Transactional(readOnly = true)
     public List<Movie> getAllMovies() {
         return movieRepository.findAll();
     }
@@ -39,6 +47,7 @@ public class MovieService {
      * @return The matching Movie object.
      * @throws ResourceNotFoundException if the movie is not found.
      */
+    @Transactional(readOnly = true)
     public Movie getMovieByTitle(String title) {
         return movieRepository.findByTitle(title)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with title: " + title));
@@ -64,7 +73,9 @@ public class MovieService {
             throw new DuplicateMovieException("A movie with the same title, release year, genre, duration, and rating already exists.");
         }
 
-        return movieRepository.save(movie);
+        Movie savedMovie = movieRepository.save(movie);
+        catalogVersions.changed(CatalogVersions.Catalog.MOVIES);
+        return savedMovie;
     }
 
     /**
@@ -83,18 +94,34 @@ public class MovieService {
         existingMovie.setRating(updatedMovie.getRating());
         existingMovie.setReleaseYear(updatedMovie.getReleaseYear());
 
-        return movieRepository.save(existingMovie);
+        Movie savedMovie = movieRepository.save(existingMovie);
+        catalogVersions.changed(CatalogVersions.Catalog.MOVIES);
+        return savedMovie;
     }
 
     /**
-     * Deletes a movie by its title.
+     * Deletes a movie by its title, together with its showtimes and their bookings.
      * @param title The title of the movie to delete.
      * @throws ResourceNotFoundException if the movie is not found.
      */
     public void deleteMovie(String title) {
+        retireMovie(title);
+    }
+
+    /**
+     * Retires a movie: deletes its showtimes and their bookings in chunks, then the movie itself.
+     * Bookings of showtimes that have not started are cancelled, with outbox and seat change events.
+     * @param title The title of the movie to retire.
+     * @return The number of deleted showtimes and bookings.
+     * @throws ResourceNotFoundException if the movie is not found.
+     */
+    public CleanupResult retireMovie(String title) {
         Movie movie = movieRepository.findByTitle(title)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with title: " + title));
 
+        CleanupResult result = showtimeCleanupService.deleteShowtimesOfMovie(movie.getId());
         movieRepository.delete(movie);
+        catalogVersions.changed(CatalogVersions.Catalog.MOVIES);
+        return result;
     }
 }
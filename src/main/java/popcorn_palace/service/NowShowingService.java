@@ -0,0 +1,199 @@
+package popcorn_palace.service;
+
+import popcorn_palace.model.NowShowingMovie;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Maintains the "now showing" read model: which movies have showtimes starting within the next
+ * seven days, together with their cheapest price and the theaters they play in.
+ * The model is loaded from the database once and then kept up to date incrementally by
+ * ShowtimeService, so serving the home page never touches the movie or showtime tables.
+ */
+@Service
+public class NowShowingService {
+
+    static final Duration WINDOW = Duration.ofDays(7);
+
+    private final ShowtimeRepository showtimeRepository;
+    private final Clock clock;
+
+    // Upcoming showtimes keyed by showtime id. Guarded by "this"; writes are rare admin operations.
+    private final Map<Long, Slot> slots = new HashMap<>();
+    private boolean loaded;
+
+    // Published listing, rebuilt lazily when the slots change or the window slides past a boundary.
+    private volatile Snapshot snapshot = Snapshot.EXPIRED;
+
+    @Autowired
+    public NowShowingService(ShowtimeRepository showtimeRepository) {
+        this(showtimeRepository, Clock.systemDefaultZone());
+    }
+
+    NowShowingService(ShowtimeRepository showtimeRepository, Clock clock) {
+        this.showtimeRepository = showtimeRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Retrieves the movies that have at least one showtime starting within the next seven days.
+     * Served from the in-memory snapshot; only rebuilt after a change or when a showtime enters or leaves the window.
+     * @return The now showing listing, ordered by next showtime.
+     */
+    public List<NowShowingMovie> getNowShowing() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Snapshot current = snapshot;
+        if (now.isBefore(current.validUntil)) {
+            return current.movies;
+        }
+        return rebuild(now);
+    }
+
+    /**
+     * Records a newly added or updated showtime in the read model.
+     * When called inside a transaction the change is applied only after commit.
+     * @param showtime The saved showtime.
+     */
+    public void onShowtimeSaved(Showtime showtime) {
+        Slot slot = new Slot(showtime.getMovieTitle(), showtime.getTheater(),
+                showtime.getStartTime(), showtime.getPrice());
+        Long id = showtime.getId();
+        afterCommit(() -> apply(id, slot));
+    }
+
+    /**
+     * Removes a deleted showtime from the read model.
+     * When called inside a transaction the change is applied only after commit.
+     * @param showtimeId The ID of the deleted showtime.
+     */
+    public void onShowtimeDeleted(Long showtimeId) {
+        afterCommit(() -> apply(showtimeId, null));
+    }
+
+    /**
+     * Drops the read model, so the next request loads it from the database again.
+     * Used when another instance changed the showtimes, movies or theaters.
+     */
+    public synchronized void invalidate() {
+        slots.clear();
+        loaded = false;
+        snapshot = Snapshot.EXPIRED;
+    }
+
+    private synchronized void apply(Long showtimeId, Slot slot) {
+        if (!loaded) {
+            // The initial load will pick the change up from the database.
+            return;
+        }
+        if (slot == null) {
+            slots.remove(showtimeId);
+        } else {
+            slots.put(showtimeId, slot);
+        }
+        snapshot = Snapshot.EXPIRED;
+    }
+
+    private synchronized List<NowShowingMovie> rebuild(LocalDateTime now) {
+        Snapshot current = snapshot;
+        if (now.isBefore(current.validUntil)) {
+            return current.movies; // Another thread rebuilt it while we waited
+        }
+        if (!loaded) {
+            for (Showtime showtime : showtimeRepository.findByStartTimeAfter(now)) {
+                slots.put(showtime.getId(), new Slot(showtime.getMovieTitle(), showtime.getTheater(),
+                        showtime.getStartTime(), showtime.getPrice()));
+            }
+            loaded = true;
+        }
+
+        LocalDateTime horizon = now.plus(WINDOW);
+        LocalDateTime validUntil = LocalDateTime.MAX;
+        Map<String, Aggregate> byMovie = new HashMap<>();
+
+        Iterator<Slot> it = slots.values().iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next();
+            if (!slot.startTime.isAfter(now)) {
+                it.remove(); // Already started; it can never come back into the window
+                continue;
+            }
+            if (slot.startTime.isAfter(horizon)) {
+                // Not yet in the window; the listing must be rebuilt once it slides in.
+                LocalDateTime entersAt = slot.startTime.minus(WINDOW);
+                if (entersAt.isBefore(validUntil)) {
+                    validUntil = entersAt;
+                }
+                continue;
+            }
+            // In the window until it starts.
+            if (slot.startTime.isBefore(validUntil)) {
+                validUntil = slot.startTime;
+            }
+            byMovie.computeIfAbsent(slot.movieTitle, title -> new Aggregate()).add(slot);
+        }
+
+        List<NowShowingMovie> movies = new ArrayList<>(byMovie.size());
+        byMovie.forEach((title, agg) -> movies.add(new NowShowingMovie(
+                title, agg.minPrice, List.copyOf(agg.theaters), agg.nextShowtime, agg.count)));
+        movies.sort(Comparator.comparing(NowShowingMovie::getNextShowtime)
+                .thenComparing(NowShowingMovie::getMovieTitle));
+
+        List<NowShowingMovie> listing = List.copyOf(movies);
+        snapshot = new Snapshot(listing, validUntil);
+        return listing;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Slot(String movieTitle, String theater, LocalDateTime startTime, BigDecimal price) {
+    }
+
+    private record Snapshot(List<NowShowingMovie> movies, LocalDateTime validUntil) {
+        static final Snapshot EXPIRED = new Snapshot(List.of(), LocalDateTime.MIN);
+    }
+
+    private static final class Aggregate {
+        BigDecimal minPrice;
+        final TreeSet<String> theaters = new TreeSet<>();
+        LocalDateTime nextShowtime;
+        int count;
+
+        void add(Slot slot) {
+            if (minPrice == null || slot.price.compareTo(minPrice) < 0) {
+                minPrice = slot.price;
+            }
+            if (nextShowtime == null || slot.startTime.isBefore(nextShowtime)) {
+                nextShowtime = slot.startTime;
+            }
+            theaters.add(slot.theater);
+            count++;
+        }
+    }
+}
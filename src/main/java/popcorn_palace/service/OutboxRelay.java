@@ -0,0 +1,82 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.OutboxSink;
+import popcorn_palace.model.OutboxEvent;
+import popcorn_palace.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Background relay that drains the transactional outbox to the configured OutboxSink.
+ *
+ * Each batch is read (locked), published and deleted in one transaction, so a batch is removed only after the
+ * sink accepted it. If the sink fails, the transaction rolls back and the same batch is retried on the next
+ * run; delivery is therefore at-least-once. Runs on the scheduler thread only, never on a request thread.
+ *
+ * Each batch is published in outbox order, but there is no order across batches: with several instances, each
+ * relay skips the rows another one has locked, so their batches go out at the same time, and a batch that
+ * failed is published again after later ones. Consumers that care about order use the event ID.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${popcorn.outbox.batch-size:100}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Publishes pending events until the outbox is empty or the sink fails.
+     * @return The number of events published.
+     */
+    @Scheduled(fixedDelayString = "${popcorn.outbox.poll-interval-ms:500}")
+    public int drain() {
+        int published = 0;
+        try {
+            int batch;
+            do {
+                batch = publishBatch();
+                published += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox publishing failed after {} events; will retry", published, e);
+        }
+        return published;
+    }
+
+    private int publishBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(events);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink rejected batch starting at event " + events.get(0).getId(), e);
+            }
+            outboxEventRepository.deleteAllInBatch(events);
+            return events.size();
+        });
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,60 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.OutboxEvent;
+import popcorn_palace.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Writes events for downstream systems into the transactional outbox.
+ * Events are only inserted as rows in the caller's transaction, so they are committed or rolled back
+ * together with the change they describe; OutboxRelay publishes them in the background.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this(outboxEventRepository, objectMapper, Clock.systemUTC());
+    }
+
+    OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper, Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a booking event. Must be called inside the transaction that creates or deletes the booking.
+     * @param type BookingEvent.BOOKING_CREATED or BookingEvent.BOOKING_CANCELLED.
+     * @param booking The affected booking.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBookingEvent(String type, Booking booking) {
+        Instant now = clock.instant();
+        BookingEvent event = new BookingEvent(type, booking.getBookingId(), booking.getShowtime().getId(),
+                booking.getSeatNumber(), booking.getUserId(), booking.getShowtime().getPrice(), now);
+        outboxEventRepository.save(new OutboxEvent(type, booking.getBookingId().toString(), toJson(event), now));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event", e);
+        }
+    }
+}
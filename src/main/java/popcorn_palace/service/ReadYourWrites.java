@@ -0,0 +1,109 @@
+package popcorn_palace.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes stickiness for deployments with read replicas.
+ *
+ * Read-only transactions normally go to a replica, which may lag behind the primary. After a user books,
+ * their own reads are pinned to the primary for a short window, so they always see the booking they just
+ * made. Pinning is per thread and must happen before the read transaction opens its connection; it has no
+ * effect when no replicas are configured.
+ */
+@Service
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+    private static final Pin NOT_PINNED = () -> { };
+
+    private final Duration window;
+    private final int maxTrackedUsers;
+    private final Clock clock;
+
+    // When each user last wrote; entries older than the window are ignored and swept when the map grows.
+    private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReadYourWrites(@Value("${popcorn.datasource.read-your-writes.window:PT5S}") Duration window,
+                          @Value("${popcorn.datasource.read-your-writes.max-users:100000}") int maxTrackedUsers) {
+        this(window, maxTrackedUsers, Clock.systemUTC());
+    }
+
+    ReadYourWrites(Duration window, int maxTrackedUsers, Clock clock) {
+        this.window = window;
+        this.maxTrackedUsers = maxTrackedUsers;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that a user just changed data, so their reads go to the primary for the window.
+     * @param userId The user who booked.
+     */
+    public void recordWrite(String userId) {
+        Instant now = clock.instant();
+        if (lastWrites.size() >= maxTrackedUsers) {
+            Instant cutoff = now.minus(window);
+            lastWrites.values().removeIf(written -> written.isBefore(cutoff));
+            if (lastWrites.size() >= maxTrackedUsers) {
+                lastWrites.clear(); // Crude but bounded; at worst a few reads see replica lag
+            }
+        }
+        lastWrites.put(userId, now);
+    }
+
+    /**
+     * @return true if the user wrote within the window.
+     */
+    public boolean recentlyWrote(String userId) {
+        Instant written = lastWrites.get(userId);
+        return written != null && written.isAfter(clock.instant().minus(window));
+    }
+
+    /**
+     * Pins the current thread to the primary if the user wrote within the window.
+     * Use with try-with-resources around the read.
+     * @param userId The user whose data is read.
+     * @return The pin to close after the read.
+     */
+    public Pin pinIfRecentWriter(String userId) {
+        return recentlyWrote(userId) ? pinPrimary() : NOT_PINNED;
+    }
+
+    /**
+     * Pins the current thread to the primary until the returned pin is closed. Pins may be nested.
+     */
+    public static Pin pinPrimary() {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            } else {
+                PRIMARY_PINNED.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return true if read-only transactions on the current thread must use the primary.
+     */
+    public static boolean isPrimaryPinned() {
+        return PRIMARY_PINNED.get() != null;
+    }
+
+    /**
+     * An active pin to the primary.
+     */
+    public interface Pin extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,293 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.model.SeatMap;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes seat-taken and seat-released deltas to server-sent event subscribers of a showtime.
+ *
+ * Committed seat changes are only recorded in a per-showtime pending set, so the booking thread never waits
+ * on a client. Every flush interval the pending changes of a showtime are coalesced into one frame (the last
+ * change of a seat wins), serialized once and offered to each subscriber's bounded queue. Subscribers are
+ * drained on their own virtual threads; a subscriber whose queue overflows is told to resync instead of
+ * being sent every intermediate delta.
+ */
+@Service
+public class SeatEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatEventBroadcaster.class);
+
+    private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final int maxPendingChanges;
+    private final int subscriberBuffer;
+    private final long emitterTimeoutMillis;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "seat-events-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public SeatEventBroadcaster(BookingService bookingService, ObjectMapper objectMapper,
+                                @Value("${popcorn.seat-events.flush-interval-ms:100}") long flushIntervalMillis,
+                                @Value("${popcorn.seat-events.max-pending-changes:1024}") int maxPendingChanges,
+                                @Value("${popcorn.seat-events.subscriber-buffer:16}") int subscriberBuffer,
+                                @Value("${popcorn.seat-events.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+        this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
+        this.maxPendingChanges = maxPendingChanges;
+        this.subscriberBuffer = subscriberBuffer;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        ticker.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a seat event stream for a showtime.
+     * The first frame is a "snapshot" with the full seat map, followed by "seats" delta frames.
+     * @param showtimeId The ID of the showtime.
+     * @return The emitter to return from the controller.
+     * @throws popcorn_palace.exception.ResourceNotFoundException if the showtime does not exist.
+     */
+    public SseEmitter subscribe(Long showtimeId) {
+        return subscribe(showtimeId, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter subscribe(Long showtimeId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, subscriberBuffer);
+        // Register before reading the snapshot so no committed change can fall in between;
+        // deltas queued meanwhile are sent after the snapshot and end in the same state.
+        channels.compute(showtimeId, (id, channel) -> {
+            Channel target = channel != null ? channel : new Channel(id);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        emitter.onCompletion(() -> unsubscribe(showtimeId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(showtimeId, subscriber));
+        emitter.onError(e -> unsubscribe(showtimeId, subscriber));
+
+        // A lagging replica could miss changes whose deltas were already published, so the snapshot is read from the primary
+        try (ReadYourWrites.Pin pin = ReadYourWrites.pinPrimary()) {
+            SeatMap seatMap = bookingService.getSeatMap(showtimeId);
+            subscriber.offerFirst(new Frame("snapshot", toJson(seatMap)));
+        } catch (RuntimeException e) {
+            unsubscribe(showtimeId, subscriber);
+            throw e;
+        }
+        subscriber.ready = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Records a committed seat change. Only touches in-memory state of showtimes that have subscribers.
+     * @param event The seat change published by BookingService.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatChanged(SeatChangedEvent event) {
+        Channel channel = channels.get(event.showtimeId());
+        if (channel != null) {
+            channel.record(event.seatNumber(), event.taken(), maxPendingChanges);
+        }
+    }
+
+    /**
+     * Coalesces the pending changes of every showtime into one frame and hands it to the subscribers.
+     */
+    void flush() {
+        for (Channel channel : channels.values()) {
+            try {
+                SeatDelta delta = channel.drain();
+                if (delta == null) {
+                    continue;
+                }
+                // Serialized once per showtime and tick, however many subscribers there are.
+                Frame frame = delta == SeatDelta.RESYNC ? Frame.RESYNC : new Frame("seats", toJson(delta));
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.offer(frame);
+                    schedule(subscriber);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush seat events for showtime {}", channel.showtimeId, e);
+            }
+        }
+    }
+
+    int subscriberCount(Long showtimeId) {
+        Channel channel = channels.get(showtimeId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.ready && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Frame frame;
+            while ((frame = subscriber.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event().name(frame.name()).data(frame.data(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the completion callback removes the subscriber.
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (subscriber.hasFrames()) {
+            schedule(subscriber); // A frame arrived after the last poll
+        }
+    }
+
+    private void unsubscribe(Long showtimeId, Subscriber subscriber) {
+        channels.computeIfPresent(showtimeId, (id, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * Subscribers and not yet flushed seat changes of one showtime.
+     */
+    private static final class Channel {
+        final Long showtimeId;
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Map<Integer, Boolean> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+
+        Channel(Long showtimeId) {
+            this.showtimeId = showtimeId;
+        }
+
+        synchronized void record(int seatNumber, boolean taken, int maxPendingChanges) {
+            if (overflowed) {
+                return;
+            }
+            pending.put(seatNumber, taken);
+            if (pending.size() > maxPendingChanges) {
+                pending.clear();
+                overflowed = true;
+            }
+        }
+
+        synchronized SeatDelta drain() {
+            if (overflowed) {
+                overflowed = false;
+                return SeatDelta.RESYNC;
+            }
+            if (pending.isEmpty()) {
+                return null;
+            }
+            List<Integer> taken = new ArrayList<>();
+            List<Integer> released = new ArrayList<>();
+            pending.forEach((seat, isTaken) -> (isTaken ? taken : released).add(seat));
+            pending.clear();
+            return new SeatDelta(showtimeId, taken, released);
+        }
+    }
+
+    /**
+     * One SSE client with a bounded queue of frames waiting to be written.
+     */
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean ready; // Set once the snapshot is queued; nothing is sent before that
+        private final LinkedBlockingDeque<Frame> frames;
+        private boolean resyncQueued;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.frames = new LinkedBlockingDeque<>(capacity + 1); // One extra slot for the snapshot
+        }
+
+        synchronized void offerFirst(Frame frame) {
+            frames.offerFirst(frame);
+        }
+
+        synchronized void offer(Frame frame) {
+            if (resyncQueued) {
+                return; // The client will refetch everything anyway
+            }
+            if (!frames.offerLast(frame)) {
+                // Too slow to keep up: replace the backlog with a single resync instruction.
+                frames.clear();
+                frames.offerLast(Frame.RESYNC);
+                resyncQueued = true;
+            }
+        }
+
+        synchronized Frame poll() {
+            Frame frame = frames.pollFirst();
+            if (frames.isEmpty()) {
+                resyncQueued = false;
+            }
+            return frame;
+        }
+
+        synchronized boolean hasFrames() {
+            return !frames.isEmpty();
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat event", e);
+        }
+    }
+
+    /**
+     * A serialized SSE frame. Immutable, so one instance is shared by all subscribers of a showtime.
+     * A "resync" frame tells the client to drop its state and refetch the seat map.
+     */
+    record Frame(String name, String data) {
+        static final Frame RESYNC = new Frame("resync", "{}");
+    }
+
+    /**
+     * Payload of a "seats" frame.
+     */
+    record SeatDelta(Long showtimeId, List<Integer> taken, List<Integer> released) {
+        static final SeatDelta RESYNC = new SeatDelta(null, List.of(), List.of());
+    }
+}
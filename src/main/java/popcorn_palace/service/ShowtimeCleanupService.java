@@ -0,0 +1,188 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.CleanupResult;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk deletion of showtimes together with their bookings.
+ *
+ * Showtime IDs are selected in chunks of showtime-chunk. Each chunk is handled in its own transaction, which
+ * locks the showtime rows, deletes their bookings with one statement and then the showtimes, so no booking can
+ * slip in between, cleaning up millions of rows never holds locks for long, and an interrupted run can simply
+ * be repeated.
+ *
+ * Bookings of showtimes that have not started yet are cancelled rather than purged: each gets a BOOKING_CANCELLED
+ * outbox event and a SeatChangedEvent, and the showtime leaves the analytics rollups. Bookings of showtimes that
+ * already started are past sales and are removed without events. With booking shards, the bookings are loaded
+ * from the shards owning the chunk's showtimes and deleted there, one batch per bucket.
+ */
+@Service
+public class ShowtimeCleanupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowtimeCleanupService.class);
+
+    private final ShowtimeRepository showtimeRepository;
+    private final BookingRepository bookingRepository;
+    private final ShardedBookingRepository shardedBookingRepository;
+    private final NowShowingService nowShowingService;
+    private final CatalogVersions catalogVersions;
+    private final AnalyticsService analyticsService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int showtimeChunk;
+    private final int retentionDays;
+    private final Clock clock;
+
+    public ShowtimeCleanupService(ShowtimeRepository showtimeRepository, BookingRepository bookingRepository,
+                                  ShardedBookingRepository shardedBookingRepository,
+                                  NowShowingService nowShowingService, CatalogVersions catalogVersions,
+                                  AnalyticsService analyticsService, OutboxService outboxService,
+                                  ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                                  @Value("${popcorn.cleanup.showtime-chunk:200}") int showtimeChunk,
+                                  @Value("${popcorn.cleanup.showtime-retention-days:365}") int retentionDays) {
+        this(showtimeRepository, bookingRepository, shardedBookingRepository, nowShowingService, catalogVersions,
+                analyticsService, outboxService, eventPublisher, transactionManager, showtimeChunk, retentionDays,
+                Clock.systemDefaultZone());
+    }
+
+    ShowtimeCleanupService(ShowtimeRepository showtimeRepository, BookingRepository bookingRepository,
+                           ShardedBookingRepository shardedBookingRepository,
+                           NowShowingService nowShowingService, CatalogVersions catalogVersions,
+                           AnalyticsService analyticsService, OutboxService outboxService,
+                           ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                           int showtimeChunk, int retentionDays, Clock clock) {
+        this.showtimeRepository = showtimeRepository;
+        this.bookingRepository = bookingRepository;
+        this.shardedBookingRepository = shardedBookingRepository;
+        this.nowShowingService = nowShowingService;
+        this.catalogVersions = catalogVersions;
+        this.analyticsService = analyticsService;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.showtimeChunk = showtimeChunk;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Deletes all showtimes that ended before a cutoff, with their bookings.
+     * @param cutoff Showtimes ending before this time are deleted.
+     * @return The number of deleted showtimes and bookings.
+     */
+    public CleanupResult deleteShowtimesEndingBefore(LocalDateTime cutoff) {
+        return deleteInChunks(chunk -> showtimeRepository.findIdsEndingBefore(cutoff, chunk));
+    }
+
+    /**
+     * Deletes all showtimes of a movie, with their bookings. The movie itself is left to the caller.
+     * @param movieId The ID of the movie.
+     * @return The number of deleted showtimes and bookings.
+     */
+    public CleanupResult deleteShowtimesOfMovie(Long movieId) {
+        return deleteInChunks(chunk -> showtimeRepository.findIdsByMovieId(movieId, chunk));
+    }
+
+    /**
+     * Nightly cleanup of showtimes older than the retention period (popcorn.cleanup.showtime-retention-days).
+     */
+    @Scheduled(cron = "${popcorn.cleanup.cron:0 30 3 * * *}")
+    public void purgeOldShowtimes() {
+        CleanupResult result = deleteShowtimesEndingBefore(LocalDateTime.now(clock).minusDays(retentionDays));
+        log.info("Nightly cleanup deleted {} showtimes and {} bookings",
+                result.getShowtimesDeleted(), result.getBookingsDeleted());
+    }
+
+    /**
+     * Deletes showtimes locked by the caller's transaction, together with their bookings.
+     * Bookings of the cancelled showtimes are announced as cancellations and the showtimes leave the analytics
+     * rollups; the bookings of the others are removed silently.
+     * @param showtimes The showtimes, locked with ShowtimeRepository.findAllByIdInForUpdate or findByIdForUpdate.
+     * @param cancelled Which of the showtimes are cancelled shows rather than past ones.
+     * @return The number of deleted bookings.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long deleteLocked(List<Showtime> showtimes, Predicate<Showtime> cancelled) {
+        List<Long> ids = showtimes.stream().map(Showtime::getId).toList();
+        List<Long> cancelledIds = showtimes.stream().filter(cancelled).map(Showtime::getId).toList();
+        List<Booking> cancelledBookings;
+        long bookings;
+        if (shardedBookingRepository.isEnabled()) {
+            // Loaded before the showtimes are deleted, which the shard rows are matched against.
+            List<Booking> all = shardedBookingRepository.findByShowtimeIdIn(ids);
+            cancelledBookings = all.stream().filter(booking -> cancelledIds.contains(booking.getShowtime().getId())).toList();
+            shardedBookingRepository.deleteAll(all);
+            bookings = all.size();
+        } else {
+            cancelledBookings = cancelledIds.isEmpty() ? List.of() : bookingRepository.findByShowtimeIdIn(cancelledIds);
+            bookings = bookingRepository.deleteByShowtimeIdIn(ids);
+        }
+        Map<Long, Long> seatsSold = cancelledBookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getShowtime().getId(), Collectors.counting()));
+
+        showtimeRepository.deleteAllByIdIn(ids);
+        for (Showtime showtime : showtimes) {
+            nowShowingService.onShowtimeDeleted(showtime.getId());
+            if (cancelled.test(showtime)) {
+                analyticsService.onShowtimeDeleted(showtime, seatsSold.getOrDefault(showtime.getId(), 0L));
+            }
+        }
+        // After onShowtimeDeleted, whose after-commit callback runs first: the analytics listener then finds
+        // the showtime gone and leaves the seats to it instead of subtracting them twice.
+        for (Booking booking : cancelledBookings) {
+            outboxService.recordBookingEvent(BookingEvent.BOOKING_CANCELLED, booking);
+            eventPublisher.publishEvent(new SeatChangedEvent(booking.getShowtime().getId(), booking.getSeatNumber(), false));
+        }
+        return bookings;
+    }
+
+    private CleanupResult deleteInChunks(Function<PageRequest, List<Long>> nextChunk) {
+        long showtimes = 0;
+        long bookings = 0;
+        PageRequest chunk = PageRequest.of(0, showtimeChunk); // Always the first page: deleted rows drop out
+        while (true) {
+            CleanupResult deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = nextChunk.apply(chunk);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                List<Showtime> locked = showtimeRepository.findAllByIdInForUpdate(ids);
+                LocalDateTime now = LocalDateTime.now(clock);
+                long deletedBookings = deleteLocked(locked, showtime -> showtime.getStartTime().isAfter(now));
+                return new CleanupResult(locked.size(), deletedBookings);
+            });
+            if (deleted == null) {
+                return new CleanupResult(showtimes, bookings);
+            }
+            showtimes += deleted.getShowtimesDeleted();
+            bookings += deleted.getBookingsDeleted();
+            catalogVersions.changed(CatalogVersions.Catalog.SHOWTIMES);
+        }
+    }
+}
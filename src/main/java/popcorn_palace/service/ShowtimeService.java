@@ -1,7 +1,14 @@
 package popcorn_palace.service;
 
+import popcorn_palace.model.CleanupResult;
+import popcorn_palace.model.Movie;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.MovieRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
 import popcorn_palace.repository.ShowtimeRepository;
+import popcorn_palace.repository.TheaterRepository;
 import popcorn_palace.exception.ResourceNotFoundException;
 import popcorn_palace.exception.InvalidDataException;
 import popcorn_palace.exception.OverlappingShowtimeException;
@@ -9,8 +16,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service layer for managing showtimes.
@@ -21,16 +30,37 @@ import java.util.List;
 public class ShowtimeService {
 
     private final ShowtimeRepository showtimeRepository;
+    private final MovieRepository movieRepository;
+    private final TheaterRepository theaterRepository;
+    private final NowShowingService nowShowingService;
+    private final BookingRepository bookingRepository;
+    private final ShardedBookingRepository shardedBookingRepository;
+    private final ShowtimeCleanupService showtimeCleanupService;
+    private final AnalyticsService analyticsService;
+    private final CatalogVersions catalogVersions;
 
     @Autowired
-    public ShowtimeService(ShowtimeRepository showtimeRepository) {
+    public ShowtimeService(ShowtimeRepository showtimeRepository, MovieRepository movieRepository,
+                           TheaterRepository theaterRepository, NowShowingService nowShowingService,
+                           BookingRepository bookingRepository, ShardedBookingRepository shardedBookingRepository,
+                           ShowtimeCleanupService showtimeCleanupService, AnalyticsService analyticsService,
+                           CatalogVersions catalogVersions) {
         this.showtimeRepository = showtimeRepository;
+        this.movieRepository = movieRepository;
+        this.theaterRepository = theaterRepository;
+        this.nowShowingService = nowShowingService;
+        this.bookingRepository = bookingRepository;
+        this.shardedBookingRepository = shardedBookingRepository;
+        this.showtimeCleanupService = showtimeCleanupService;
+        this.analyticsService = analyticsService;
+        this.catalogVersions = catalogVersions;
     }
 
     /**
      * Retrieves all showtimes.
      * @return List of all showtimes.
      */
+    @Transactional(readOnly = true)
     public List<Showtime> getAllShowtimes() {
         return showtimeRepository.findAll();
     }
@@ -41,6 +71,7 @@ public class ShowtimeService {
      * @return The matching Showtime object.
      * @throws ResourceNotFoundException if the showtime is not found.
      */
+    @Transactional(readOnly = true)
     public Showtime getShowtimeById(Long id) {
         return showtimeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + id));
@@ -48,12 +79,19 @@ public class ShowtimeService {
 
     /**
      * Retrieves all showtimes for a given movie and theater.
-     * @param movieTitle The movie title. Again using title rather than id for the movie as I believe it lends to a better visualization
+     * The title and name are resolved once, and showtimes are then looked up by movie_id and theater_id.
+     * @param movieTitle The movie title.
      * @param theaterName The theater name.
-     * @return List of matching showtimes.
+     * @return List of matching showtimes, empty if no such movie or theater exists.
      */
+    @Transactional(readOnly = true)
     public List<Showtime> getShowtimesByMovieAndTheater(String movieTitle, String theaterName) {
-        return showtimeRepository.findByMovieTitleAndTheater(movieTitle, theaterName);
+        Optional<Movie> movie = movieRepository.findByTitle(movieTitle);
+        Optional<Theater> theater = theaterRepository.findByName(theaterName);
+        if (movie.isEmpty() || theater.isEmpty()) {
+            return List.of();
+        }
+        return showtimeRepository.findByMovieIdAndAuditoriumId(movie.get().getId(), theater.get().getId());
     }
 
     /**
@@ -61,10 +99,17 @@ public class ShowtimeService {
      * @param showtime The showtime to be added.
      * @return The saved Showtime object.
      * @throws OverlappingShowtimeException if the showtime overlaps with another.
+     * @throws ResourceNotFoundException if no movie or theater exists with the given title or name.
      */
     public Showtime addShowtime(Showtime showtime) {
+        showtime.setAuditorium(resolveTheater(showtime.getTheater()));
         validateShowtime(showtime);
-        return showtimeRepository.save(showtime);
+        showtime.setMovie(resolveMovie(showtime.getMovieTitle()));
+        Showtime savedShowtime = showtimeRepository.save(showtime);
+        nowShowingService.onShowtimeSaved(savedShowtime);
+        analyticsService.onShowtimeAdded(savedShowtime);
+        catalogVersions.changed(CatalogVersions.Catalog.SHOWTIMES);
+        return savedShowtime;
     }
 
     /**
@@ -72,30 +117,86 @@ public class ShowtimeService {
      * @param id The showtime ID.
      * @param updatedShowtime The updated showtime details.
      * @return The updated Showtime object.
-     * @throws ResourceNotFoundException if the showtime is not found.
+     * @throws ResourceNotFoundException if the showtime, the movie or the theater is not found.
      */
+    @Transactional
     public Showtime updateShowtime(Long id, Showtime updatedShowtime) {
         Showtime existingShowtime = getShowtimeById(id);
+        LocalDate previousDate = existingShowtime.getStartTime().toLocalDate();
+        AnalyticsService.ShowtimeFacts previousFacts = analyticsService.factsOf(existingShowtime);
 
-        existingShowtime.setMovieTitle(updatedShowtime.getMovieTitle());
-        existingShowtime.setTheater(updatedShowtime.getTheater());
+        existingShowtime.setAuditorium(resolveTheater(updatedShowtime.getTheater()));
         existingShowtime.setStartTime(updatedShowtime.getStartTime());
         existingShowtime.setEndTime(updatedShowtime.getEndTime());
-        existingShowtime.setPrice(updatedShowtime.getPrice());
+        existingShowtime.setPriceCents(updatedShowtime.getPriceCents());
 
         validateShowtime(existingShowtime);
-        return showtimeRepository.save(existingShowtime);
+        existingShowtime.setMovie(resolveMovie(updatedShowtime.getMovieTitle()));
+        Showtime savedShowtime = showtimeRepository.save(existingShowtime);
+        LocalDate newDate = existingShowtime.getStartTime().toLocalDate();
+        boolean sharded = shardedBookingRepository.isEnabled();
+        if (!newDate.equals(previousDate)) {
+            // Moved to another day: its bookings follow it into the matching partition
+            if (sharded) {
+                shardedBookingRepository.updateShowtimeDate(id, previousDate, newDate);
+            } else {
+                bookingRepository.updateShowtimeDate(id, newDate);
+            }
+        }
+        long seatsSold = sharded ? shardedBookingRepository.countByShowtimeId(id) : bookingRepository.countByShowtimeId(id);
+        nowShowingService.onShowtimeSaved(savedShowtime);
+        analyticsService.onShowtimeUpdated(previousFacts, savedShowtime, seatsSold);
+        catalogVersions.changed(CatalogVersions.Catalog.SHOWTIMES);
+        return savedShowtime;
     }
 
     /**
-     * Deletes a showtime by its ID.
+     * Deletes a showtime by its ID, together with its bookings, as a cancelled show: every booking is announced
+     * as cancelled and the showtime's seats and revenue leave the analytics rollups.
+     * The showtime is locked first, so no booking can be added while it is deleted.
      * @param id The showtime ID.
      * @throws ResourceNotFoundException if the showtime is not found.
      */
     @Transactional
     public void deleteShowtime(Long id) {
-        Showtime showtime = getShowtimeById(id);
-        showtimeRepository.delete(showtime);
+        Showtime showtime = showtimeRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id " + id));
+        showtimeCleanupService.deleteLocked(List.of(showtime), cancelled -> true);
+        catalogVersions.changed(CatalogVersions.Catalog.SHOWTIMES);
+    }
+
+    /**
+     * Deletes all showtimes that ended before a cutoff, with their bookings, in chunks.
+     * @param cutoff Showtimes ending before this time are deleted.
+     * @return The number of deleted showtimes and bookings.
+     */
+    public CleanupResult deleteShowtimesEndingBefore(LocalDateTime cutoff) {
+        if (cutoff == null) {
+            throw new InvalidDataException("A cutoff time is required.");
+        }
+        return showtimeCleanupService.deleteShowtimesEndingBefore(cutoff);
+    }
+
+    /**
+     * Resolves a movie title to the movie a showtime should reference.
+     * @param movieTitle The title of the movie.
+     * @return The matching Movie.
+     * @throws ResourceNotFoundException if no movie exists with the given title.
+     */
+    private Movie resolveMovie(String movieTitle) {
+        return movieRepository.findByTitle(movieTitle)
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with title: " + movieTitle));
+    }
+
+    /**
+     * Resolves a theater name to the theater a showtime should reference.
+     * @param theaterName The name of the theater.
+     * @return The matching Theater.
+     * @throws ResourceNotFoundException if no theater exists with the given name.
+     */
+    private Theater resolveTheater(String theaterName) {
+        return theaterRepository.findByName(theaterName)
+                .orElseThrow(() -> new ResourceNotFoundException("Theater not found with name: " + theaterName));
     }
 
     /**
@@ -105,12 +206,15 @@ public class ShowtimeService {
      * @throws OverlappingShowtimeException if there is an overlapping showtime.
      */
     private void validateShowtime(Showtime showtime) {
+        if (showtime.getPriceCents() <= 0) {
+            throw new InvalidDataException("Price must be positive.");
+        }
         // Validate that the end time is after the start time
         if (showtime.getEndTime().isBefore(showtime.getStartTime())) {
             throw new InvalidDataException("End time must be after start time.");
         }
         boolean overlaps = showtimeRepository.existsByTheaterAndTimeOverlap(
-                showtime.getTheater(), showtime.getStartTime(), showtime.getEndTime());
+                showtime.getAuditorium().getId(), showtime.getStartTime(), showtime.getEndTime());
 
         if (overlaps) {
             throw new OverlappingShowtimeException("There is an overlapping showtime in theater: " + showtime.getTheater());
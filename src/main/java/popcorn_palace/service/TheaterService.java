@@ -0,0 +1,67 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.TheaterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service layer for handling theater-related operations.
+ * Provides functionality to retrieve and add theaters and their seat layouts.
+ */
+@Service
+public class TheaterService {
+
+    private final TheaterRepository theaterRepository;
+    private final CatalogVersions catalogVersions;
+
+    @Autowired
+    public TheaterService(TheaterRepository theaterRepository, CatalogVersions catalogVersions) {
+        this.theaterRepository = theaterRepository;
+        this.catalogVersions = catalogVersions;
+    }
+
+    /**
+     * Retrieves all theaters from the database.
+     * @return List of all theaters.
+     */
+    @Transactional(readOnly = true)
+    public List<Theater> getAllTheaters() {
+        return theaterRepository.findAll();
+    }
+
+    /**
+     * Retrieves a theater by its name.
+     * @param name The name of the theater.
+     * @return The matching Theater object.
+     * @throws ResourceNotFoundException if the theater is not found.
+     */
+    @Transactional(readOnly = true)
+    public Theater getTheaterByName(String name) {
+        return theaterRepository.findByName(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Theater not found with name: " + name));
+    }
+
+    /**
+     * Adds a new theater to the database.
+     * @param theater The theater to be added.
+     * @return The saved Theater object.
+     * @throws InvalidDataException if the name is missing or already taken.
+     */
+    public Theater addTheater(Theater theater) {
+        if (theater.getName() == null || theater.getName().isEmpty()) {
+            throw new InvalidDataException("Theater name is required.");
+        }
+        if (theaterRepository.existsByName(theater.getName())) {
+            throw new InvalidDataException("A theater named " + theater.getName() + " already exists.");
+        }
+        Theater savedTheater = theaterRepository.save(theater);
+        catalogVersions.changed(CatalogVersions.Catalog.THEATERS);
+        return savedTheater;
+    }
+}
@@ -0,0 +1,56 @@
+package popcorn_palace.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Instead of a token count and a refill timestamp, the bucket keeps a single "theoretical arrival time"
+ * (the generic cell rate algorithm): the time at which the bucket would be full again. Taking a token
+ * moves it one emission interval into the future; the request is rejected if that would put it more than
+ * one burst ahead of now. One compare-and-set per request, no locks and no refill thread.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;   // Time to earn one token
+    private final long burstNanos;      // How far ahead of now the arrival time may run
+    private final AtomicLong arrivalTime;
+
+    TokenBucket(double tokensPerSecond, int burst, long nowNanos) {
+        this.intervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.arrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token if available.
+     * @return 0 if the token was taken, otherwise the nanoseconds until one becomes available.
+     */
+    long tryTake(long nowNanos) {
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a token taken by tryTake, for a request that was rejected for another reason after all.
+     */
+    void giveBack() {
+        arrivalTime.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Whether the bucket is full, i.e. it can be dropped and recreated without changing behavior.
+     */
+    boolean isFull(long nowNanos) {
+        return arrivalTime.get() <= nowNanos;
+    }
+}
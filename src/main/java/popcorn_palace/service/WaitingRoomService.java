@@ -0,0 +1,265 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.NotAdmittedException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.exception.SoldOutException;
+import popcorn_palace.model.QueueTicket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room for high-demand showtimes.
+ *
+ * For showtimes with an open waiting room, users first take a queue ticket and may only book once the ticket
+ * has been admitted. Tickets are admitted in arrival order at a fixed rate per showtime, so the booking path
+ * (and the database behind it) sees a steady, bounded load however many users arrive at once. Once the showtime
+ * has no seats left, new tickets and bookings are answered with "sold out" without touching the database.
+ * Showtimes without a waiting room are not affected.
+ *
+ * Seat availability is kept current from seat change events and only re-read from the database every
+ * availability-refresh, to correct for changes made elsewhere. A ticket stays valid for ticket-ttl after
+ * it was admitted, however long its holder waited in the queue.
+ */
+@Service
+public class WaitingRoomService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitingRoomService.class);
+
+    private final BookingService bookingService;
+    private final int admitPerTick;
+    private final Duration ticketTtl;
+    private final Duration availabilityRefresh;
+    private final Clock clock;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WaitingRoomService(BookingService bookingService,
+                              @Value("${popcorn.waiting-room.admit-per-second:50}") int admitPerSecond,
+                              @Value("${popcorn.waiting-room.ticket-ttl:PT1H}") Duration ticketTtl,
+                              @Value("${popcorn.waiting-room.availability-refresh:PT30S}") Duration availabilityRefresh) {
+        this(bookingService, admitPerSecond, ticketTtl, availabilityRefresh, Clock.systemUTC());
+    }
+
+    WaitingRoomService(BookingService bookingService, int admitPerTick, Duration ticketTtl,
+                       Duration availabilityRefresh, Clock clock) {
+        this.bookingService = bookingService;
+        this.admitPerTick = admitPerTick;
+        this.ticketTtl = ticketTtl;
+        this.availabilityRefresh = availabilityRefresh;
+        this.clock = clock;
+    }
+
+    /**
+     * Opens the waiting room of a showtime. Has no effect if it is already open.
+     * @param showtimeId The ID of the showtime.
+     * @throws ResourceNotFoundException if the showtime does not exist.
+     */
+    public void open(Long showtimeId) {
+        int available = availableSeats(showtimeId);
+        rooms.computeIfAbsent(showtimeId, id -> new Room(available, clock.instant()));
+    }
+
+    /**
+     * Counts the free seats on the primary; a lagging replica would keep a sold out room admitting users.
+     */
+    private int availableSeats(Long showtimeId) {
+        try (ReadYourWrites.Pin pin = ReadYourWrites.pinPrimary()) {
+            return bookingService.getSeatMap(showtimeId).getAvailableCount();
+        }
+    }
+
+    /**
+     * Closes the waiting room of a showtime; bookings are accepted without a queue ticket again.
+     * @param showtimeId The ID of the showtime.
+     */
+    public void close(Long showtimeId) {
+        rooms.remove(showtimeId);
+    }
+
+    public boolean isOpen(Long showtimeId) {
+        return rooms.containsKey(showtimeId);
+    }
+
+    /**
+     * Gives the user a place in the queue, or returns the place they already hold.
+     * @param showtimeId The ID of the showtime.
+     * @param userId The ID of the user.
+     * @return The queue ticket, marked sold out if no seats are left.
+     * @throws ResourceNotFoundException if the showtime has no open waiting room.
+     */
+    public QueueTicket join(Long showtimeId, String userId) {
+        Room room = room(showtimeId);
+        if (room.isSoldOut()) {
+            return new QueueTicket(null, showtimeId, userId, 0, false, true);
+        }
+        Ticket ticket = room.ticketsByUser.computeIfAbsent(userId, id -> {
+            Ticket created = new Ticket(UUID.randomUUID(), id, room.issued.incrementAndGet());
+            room.tickets.put(created.id(), created);
+            return created;
+        });
+        return status(showtimeId, room, ticket);
+    }
+
+    /**
+     * Returns the current queue position of a ticket.
+     * @param showtimeId The ID of the showtime.
+     * @param ticketId The ID of the queue ticket.
+     * @return The queue ticket status.
+     * @throws ResourceNotFoundException if the room is not open or the ticket is unknown or expired.
+     */
+    public QueueTicket getTicket(Long showtimeId, UUID ticketId) {
+        Room room = room(showtimeId);
+        Ticket ticket = room.tickets.get(ticketId);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Queue ticket not found with id " + ticketId);
+        }
+        return status(showtimeId, room, ticket);
+    }
+
+    /**
+     * Checks that a booking request may proceed. Called before any repository access.
+     * @param showtimeId The ID of the showtime being booked.
+     * @param userId The ID of the user making the booking.
+     * @param ticketId The Queue-Ticket header value, or null.
+     * @throws SoldOutException if the showtime has a waiting room and no seats left.
+     * @throws NotAdmittedException if the showtime has a waiting room and the ticket is missing, not the user's, or not admitted yet.
+     */
+    public void checkAdmission(Long showtimeId, String userId, UUID ticketId) {
+        Room room = showtimeId == null ? null : rooms.get(showtimeId);
+        if (room == null) {
+            return;
+        }
+        if (room.isSoldOut()) {
+            throw new SoldOutException("Showtime " + showtimeId + " is sold out.");
+        }
+        Ticket ticket = ticketId == null ? null : room.tickets.get(ticketId);
+        if (ticket == null || !ticket.userId().equals(userId)) {
+            throw new NotAdmittedException("Showtime " + showtimeId + " has a waiting room; join the queue first.");
+        }
+        long ahead = ticket.sequence() - room.admitted.get();
+        if (ahead > 0) {
+            throw new NotAdmittedException("Not admitted yet; " + ahead + " users ahead in the queue.");
+        }
+    }
+
+    /**
+     * Keeps the seat availability of open rooms current between refreshes.
+     * @param event The seat change published by BookingService.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatChanged(SeatChangedEvent event) {
+        Room room = rooms.get(event.showtimeId());
+        if (room != null) {
+            room.available.addAndGet(event.taken() ? -1 : 1);
+        }
+    }
+
+    /**
+     * Admits the next users of every open room, refreshes seat availability when due and drops tickets
+     * admitted longer than ticket-ttl ago.
+     * Runs once per second, so admit-per-second users are admitted per showtime and second.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        Instant now = clock.instant();
+        Instant expiredBefore = now.minus(ticketTtl);
+        rooms.forEach((showtimeId, room) -> {
+            long before = room.admitted.get();
+            long admitted = room.admitted.updateAndGet(current -> Math.min(room.issued.get(), current + admitPerTick));
+            if (admitted > before) {
+                room.admissions.put(admitted, now);
+            }
+            if (!now.isBefore(room.refreshedAt.plus(availabilityRefresh))) {
+                try {
+                    room.available.set(availableSeats(showtimeId));
+                } catch (ResourceNotFoundException e) {
+                    log.info("Closing waiting room of deleted showtime {}", showtimeId);
+                    rooms.remove(showtimeId);
+                    return;
+                }
+                room.refreshedAt = now;
+            }
+            // Admission times only grow with the sequence, so the expired tickets are a prefix of the queue.
+            long expiredThrough = 0;
+            Iterator<Map.Entry<Long, Instant>> admissions = room.admissions.entrySet().iterator();
+            while (admissions.hasNext()) {
+                Map.Entry<Long, Instant> admission = admissions.next();
+                if (!admission.getValue().isBefore(expiredBefore)) {
+                    break;
+                }
+                expiredThrough = admission.getKey();
+                admissions.remove();
+            }
+            long through = expiredThrough;
+            if (through > 0) {
+                room.tickets.values().removeIf(ticket -> {
+                    boolean expired = ticket.sequence() <= through;
+                    if (expired) {
+                        room.ticketsByUser.remove(ticket.userId(), ticket);
+                    }
+                    return expired;
+                });
+            }
+        });
+    }
+
+    private Room room(Long showtimeId) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            throw new ResourceNotFoundException("No waiting room open for showtime " + showtimeId);
+        }
+        return room;
+    }
+
+    private static QueueTicket status(Long showtimeId, Room room, Ticket ticket) {
+        long ahead = Math.max(0, ticket.sequence() - room.admitted.get());
+        return new QueueTicket(ticket.id(), showtimeId, ticket.userId(), ahead, ahead == 0, room.isSoldOut());
+    }
+
+    /**
+     * Queue state of one showtime. Sequence numbers are issued in arrival order; every ticket with a
+     * sequence number up to "admitted" may book.
+     */
+    private static final class Room {
+        final AtomicLong issued = new AtomicLong();
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicInteger available;
+        final Map<UUID, Ticket> tickets = new ConcurrentHashMap<>();
+        final Map<String, Ticket> ticketsByUser = new ConcurrentHashMap<>();
+        // Only used by tick(): when the tickets up to each sequence number were admitted, and when the
+        // seat availability was last read from the database.
+        final NavigableMap<Long, Instant> admissions = new TreeMap<>();
+        Instant refreshedAt;
+
+        Room(int available, Instant refreshedAt) {
+            this.available = new AtomicInteger(available);
+            this.refreshedAt = refreshedAt;
+        }
+
+        boolean isSoldOut() {
+            return available.get() <= 0;
+        }
+    }
+
+    private record Ticket(UUID id, String userId, long sequence) {
+    }
+}
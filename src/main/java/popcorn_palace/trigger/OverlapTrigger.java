@@ -42,26 +42,26 @@ public class OverlapTrigger implements Trigger {
     public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
         if (newRow != null) {
             // Column order based on the database schema:
-            // 0: id, 1: movie_title, 2: theater, 3: start_time, 4: end_time, 5: price
-            String theater = (String) newRow[2];
+            // 0: id, 1: movie_id, 2: theater_id, 3: start_time, 4: end_time, 5: price
+            long theaterId = ((Number) newRow[2]).longValue();
             Timestamp tsStart = getTimestamp(newRow[3]);
             Timestamp tsEnd = getTimestamp(newRow[4]);
 
             // SQL query to check if an existing showtime overlaps with the new one.
             String sql = "SELECT COUNT(*) FROM showtime " +
-                    "WHERE theater = ? " +
+                    "WHERE theater_id = ? " +
                     "AND start_time < ? " +  // Existing start time is before the new end time
                     "AND end_time > ?";     // Existing end time is after the new start time
 
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, theater);
+                stmt.setLong(1, theaterId);
                 stmt.setTimestamp(2, tsEnd);
                 stmt.setTimestamp(3, tsStart);
 
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next() && rs.getInt(1) > 0) {
                         // If any overlapping showtimes exist, prevent the insert/update
-                        throw new SQLException("Overlapping showtime exists in theater: " + theater);
+                        throw new SQLException("Overlapping showtime exists in theater: " + theaterId);
                     }
                 }
             }
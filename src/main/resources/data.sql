@@ -3,11 +3,25 @@ INSERT INTO movie (title, genre, duration, rating, release_year) VALUES
                                                                      ('Interstellar', 'Sci-Fi', 169, 8.7, 2014),
                                                                      ('The Godfather', 'Mafia', 175, 9.2, 1972);
 
--- Insert sample showtimes (using movie titles)
-INSERT INTO showtime (movie_title, theater, start_time, end_time, price) VALUES
-                                                                             ('Interstellar', 'Theater 1', TIMESTAMP '2025-02-14 11:30:00', TIMESTAMP '2025-02-14 14:45:00', 12.50),
-                                                                             ('The Godfather', 'Theater 2', TIMESTAMP '2025-02-14 15:00:00', TIMESTAMP '2025-02-14 18:15:00', 15.00);
+-- Insert sample theaters (capacity = seat_rows * seats_per_row)
+INSERT INTO theater (name, seat_rows, seats_per_row) VALUES
+                                                         ('Theater 1', 10, 20),
+                                                         ('Theater 2', 8, 15);
+
+-- Insert sample showtimes (movies and theaters are referenced by id, looked up by title and name)
+INSERT INTO showtime (movie_id, theater_id, start_time, end_time, price) VALUES
+                                                                             ((SELECT id FROM movie WHERE title = 'Interstellar'), (SELECT id FROM theater WHERE name = 'Theater 1'), TIMESTAMP '2025-02-14 11:30:00', TIMESTAMP '2025-02-14 14:45:00', 12.50),
+                                                                             ((SELECT id FROM movie WHERE title = 'The Godfather'), (SELECT id FROM theater WHERE name = 'Theater 2'), TIMESTAMP '2025-02-14 15:00:00', TIMESTAMP '2025-02-14 18:15:00', 15.00);
 
 -- Insert sample booking (using a fixed UUID for illustration)
-INSERT INTO booking (booking_id, showtime_id, seat_number, user_id) VALUES
-    ('d1a6423b-4469-4b00-8c5f-e3cfc42eacae', 1, 15, 'user-1234');
+INSERT INTO booking (booking_id, showtime_id, seat_number, user_id, showtime_date) VALUES
+    ('d1a6423b-4469-4b00-8c5f-e3cfc42eacae', 1, 15, 'user-1234', DATE '2025-02-14');
+
+-- Revenue rollups of the sample data (kept up to date by AnalyticsService from here on)
+INSERT INTO booking_rollup (show_date, movie_id, theater_id, showtime_count, capacity, seats_sold, revenue)
+SELECT CAST(s.start_time AS DATE), s.movie_id, s.theater_id, COUNT(*), SUM(t.seat_rows * t.seats_per_row),
+       SUM(COALESCE(b.sold, 0)), SUM(COALESCE(b.sold, 0) * s.price)
+FROM showtime s
+JOIN theater t ON t.id = s.theater_id
+LEFT JOIN (SELECT showtime_id, COUNT(*) AS sold FROM booking GROUP BY showtime_id) b ON b.showtime_id = s.id
+GROUP BY CAST(s.start_time AS DATE), s.movie_id, s.theater_id;
@@ -0,0 +1,22 @@
+-- One-off migration for databases created before the revenue rollups existed.
+-- Creates booking_rollup and fills it from the existing showtimes and bookings
+-- (the same statement as POST /analytics/rollups/rebuild).
+
+CREATE TABLE booking_rollup (
+    show_date DATE NOT NULL,
+    movie_id BIGINT NOT NULL,
+    theater_id BIGINT NOT NULL,
+    showtime_count INT NOT NULL,
+    capacity BIGINT NOT NULL,
+    seats_sold BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (show_date, movie_id, theater_id)
+);
+
+INSERT INTO booking_rollup (show_date, movie_id, theater_id, showtime_count, capacity, seats_sold, revenue)
+SELECT CAST(s.start_time AS DATE), s.movie_id, s.theater_id, COUNT(*), SUM(t.seat_rows * t.seats_per_row),
+       SUM(COALESCE(b.sold, 0)), SUM(COALESCE(b.sold, 0) * s.price)
+FROM showtime s
+JOIN theater t ON t.id = s.theater_id
+LEFT JOIN (SELECT showtime_id, COUNT(*) AS sold FROM booking GROUP BY showtime_id) b ON b.showtime_id = s.id
+GROUP BY CAST(s.start_time AS DATE), s.movie_id, s.theater_id;
@@ -0,0 +1,18 @@
+-- One-off migration for databases created before bookings carried their showtime's date.
+-- Adds and backfills booking.showtime_date and creates the booking_archive cold storage table.
+-- Fresh databases get the new layout from schema.sql.
+
+ALTER TABLE booking ADD COLUMN showtime_date DATE;
+UPDATE booking b SET showtime_date = (SELECT CAST(s.start_time AS DATE) FROM showtime s WHERE s.id = b.showtime_id);
+ALTER TABLE booking ALTER COLUMN showtime_date SET NOT NULL;
+CREATE INDEX idx_booking_showtime_date ON booking (showtime_date);
+
+CREATE TABLE booking_archive (
+    booking_id UUID PRIMARY KEY,
+    showtime_id BIGINT NOT NULL,
+    seat_number INT NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    showtime_date DATE NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX idx_booking_archive_user ON booking_archive (user_id);
@@ -0,0 +1,21 @@
+-- One-off migration for databases created before showtime referenced movies by id.
+-- Replaces the free-text showtime.movie_title column with a movie_id foreign key.
+-- Fresh databases get the new layout from schema.sql and do not need this script.
+
+ALTER TABLE showtime ADD COLUMN movie_id BIGINT;
+
+-- Link each showtime to its movie by title (lowest id wins if a title is duplicated).
+UPDATE showtime s
+SET movie_id = (SELECT MIN(m.id) FROM movie m WHERE m.title = s.movie_title)
+WHERE s.movie_id IS NULL;
+
+-- Showtimes whose title matches no movie cannot be migrated and must be fixed or removed first:
+-- SELECT * FROM showtime WHERE movie_id IS NULL;
+
+ALTER TABLE showtime ALTER COLUMN movie_id SET NOT NULL;
+ALTER TABLE showtime ADD CONSTRAINT fk_showtime_movie FOREIGN KEY (movie_id) REFERENCES movie(id);
+CREATE INDEX idx_showtime_movie ON showtime (movie_id);
+
+ALTER TABLE showtime DROP CONSTRAINT unique_showtime;
+ALTER TABLE showtime ADD CONSTRAINT unique_showtime UNIQUE (movie_id, theater, start_time);
+ALTER TABLE showtime DROP COLUMN movie_title;
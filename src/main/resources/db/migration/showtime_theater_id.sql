@@ -0,0 +1,30 @@
+-- One-off migration for databases created before theaters were a table of their own.
+-- Creates a theater row per distinct showtime.theater name and replaces that column
+-- with a theater_id foreign key. Fresh databases get the new layout from schema.sql.
+
+CREATE TABLE theater (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE CHECK (name <> ''),
+    seat_rows INT NOT NULL CHECK (seat_rows > 0),
+    seats_per_row INT NOT NULL CHECK (seats_per_row > 0 AND seats_per_row <= 64)
+);
+
+-- The real layouts are unknown at this point; start every theater at 20 rows of 25 seats
+-- (or more rows if bookings already use higher seat numbers) and correct them afterwards.
+INSERT INTO theater (name, seat_rows, seats_per_row)
+SELECT s.theater,
+       GREATEST(20, (COALESCE(MAX(b.seat_number), 0) + 24) / 25),
+       25
+FROM showtime s
+LEFT JOIN booking b ON b.showtime_id = s.id
+GROUP BY s.theater;
+
+ALTER TABLE showtime ADD COLUMN theater_id BIGINT;
+UPDATE showtime s SET theater_id = (SELECT t.id FROM theater t WHERE t.name = s.theater);
+ALTER TABLE showtime ALTER COLUMN theater_id SET NOT NULL;
+ALTER TABLE showtime ADD CONSTRAINT fk_showtime_theater FOREIGN KEY (theater_id) REFERENCES theater(id);
+CREATE INDEX idx_showtime_theater_time ON showtime (theater_id, start_time);
+
+ALTER TABLE showtime DROP CONSTRAINT unique_showtime;
+ALTER TABLE showtime ADD CONSTRAINT unique_showtime UNIQUE (movie_id, theater_id, start_time);
+ALTER TABLE showtime DROP COLUMN theater;
@@ -0,0 +1,86 @@
+-- PostgreSQL only: turns booking into a table partitioned by showtime_date, one partition per month.
+-- Run once after db/migration/booking_showtime_date.sql, in a maintenance window (the table is copied).
+--
+-- Bookings of current and upcoming showtimes live in the few newest partitions. Lookups that filter on
+-- showtime_date are pruned to those partitions, and old partitions stay small because
+-- BookingArchiveService moves their rows to booking_archive every night; once a month is empty it can be
+-- dropped without touching the hot partitions (see drop_empty_booking_partitions below).
+--
+-- Primary and unique keys of a partitioned table must include the partition key. showtime_date follows
+-- from showtime_id, so (showtime_id, seat_number, showtime_date) still forbids double booking a seat.
+
+BEGIN;
+
+ALTER TABLE booking RENAME TO booking_unpartitioned;
+
+CREATE TABLE booking (
+    booking_id UUID NOT NULL,
+    showtime_id BIGINT NOT NULL REFERENCES showtime(id),
+    seat_number INT NOT NULL CHECK (seat_number > 0),
+    user_id VARCHAR(255) NOT NULL CHECK (user_id <> ''),
+    showtime_date DATE NOT NULL,
+    PRIMARY KEY (booking_id, showtime_date),
+    CONSTRAINT unique_seat_booking_p UNIQUE (showtime_id, seat_number, showtime_date)
+) PARTITION BY RANGE (showtime_date);
+
+CREATE INDEX idx_booking_user_p ON booking (user_id);
+CREATE INDEX idx_booking_showtime_p ON booking (showtime_id);
+
+-- Catches dates no monthly partition was created for yet; should stay empty.
+CREATE TABLE booking_default PARTITION OF booking DEFAULT;
+
+-- Creates the partition of the month containing the given date, if it does not exist yet.
+CREATE OR REPLACE FUNCTION create_booking_partition(month DATE) RETURNS VOID AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month)::DATE;
+    name TEXT := 'booking_' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF booking FOR VALUES FROM (%L) TO (%L)',
+                   name, first_day, (first_day + INTERVAL '1 month')::DATE);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month that already has bookings, plus the next twelve months.
+SELECT create_booking_partition(m::DATE)
+FROM generate_series(
+        date_trunc('month', LEAST(COALESCE((SELECT MIN(showtime_date) FROM booking_unpartitioned), CURRENT_DATE),
+                                  CURRENT_DATE)),
+        date_trunc('month', CURRENT_DATE) + INTERVAL '12 months',
+        INTERVAL '1 month') AS m;
+
+INSERT INTO booking (booking_id, showtime_id, seat_number, user_id, showtime_date)
+SELECT booking_id, showtime_id, seat_number, user_id, showtime_date FROM booking_unpartitioned;
+
+DROP TABLE booking_unpartitioned;
+
+-- Drops monthly partitions that ended before the given date and hold no rows any more
+-- (their bookings were moved to booking_archive). Returns the number of dropped partitions.
+CREATE OR REPLACE FUNCTION drop_empty_booking_partitions(before DATE) RETURNS INT AS $$
+DECLARE
+    part RECORD;
+    dropped INT := 0;
+    empty BOOLEAN;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'booking'::regclass AND c.relname ~ '^booking_\d{4}_\d{2}$'
+    LOOP
+        IF (to_date(substring(part.relname FROM 9), 'YYYY_MM') + INTERVAL '1 month')::DATE <= before THEN
+            EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', part.relname) INTO empty;
+            IF empty THEN
+                EXECUTE format('DROP TABLE %I', part.relname);
+                dropped := dropped + 1;
+            END IF;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
+
+-- Monthly maintenance (e.g. pg_cron):
+--   SELECT create_booking_partition((CURRENT_DATE + INTERVAL '12 months')::DATE);
+--   SELECT drop_empty_booking_partitions(CURRENT_DATE - 1);
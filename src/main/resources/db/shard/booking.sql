@@ -0,0 +1,15 @@
+-- Booking table of one booking shard (popcorn.booking.shards.urls), created on startup by BookingShards.
+-- Showtimes live on the primary database, so there is no foreign key; bucket is the showtime's shard bucket
+-- and lets BookingShardRebalancer move a bucket's bookings to another shard.
+CREATE TABLE IF NOT EXISTS booking (
+    booking_id UUID PRIMARY KEY,
+    showtime_id BIGINT NOT NULL,
+    showtime_date DATE NOT NULL,
+    seat_number INT NOT NULL CHECK (seat_number > 0),
+    user_id VARCHAR(255) NOT NULL CHECK (user_id <> ''),
+    bucket INT NOT NULL,
+    CONSTRAINT unique_seat_booking UNIQUE (showtime_id, seat_number)
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_user ON booking (user_id);
+CREATE INDEX IF NOT EXISTS idx_booking_bucket ON booking (bucket);
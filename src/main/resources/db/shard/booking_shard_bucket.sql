@@ -0,0 +1,6 @@
+-- Which booking shard each bucket of showtimes lives on. Kept on the primary database,
+-- created on startup by BookingShards when sharding is enabled, changed by BookingShardRebalancer.
+CREATE TABLE IF NOT EXISTS booking_shard_bucket (
+    bucket INT PRIMARY KEY,
+    shard INT NOT NULL
+);
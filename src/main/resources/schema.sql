@@ -8,27 +8,87 @@ CREATE TABLE IF NOT EXISTS movie (
     CONSTRAINT unique_movie UNIQUE (title, genre, duration, rating, release_year)
     );
 
+CREATE TABLE IF NOT EXISTS theater (
+                                       id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                       name VARCHAR(255) NOT NULL UNIQUE CHECK (name <> ''),
+    seat_rows INT NOT NULL CHECK (seat_rows > 0),  -- Number of seat rows
+    seats_per_row INT NOT NULL CHECK (seats_per_row > 0 AND seats_per_row <= 64)  -- Seats are numbered row by row
+    );
+
 CREATE TABLE IF NOT EXISTS showtime (
                                         id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                                        movie_title VARCHAR(255) NOT NULL CHECK (movie_title <> ''),
-    theater VARCHAR(255) NOT NULL CHECK (theater <> ''),
+                                        movie_id BIGINT NOT NULL,
+    theater_id BIGINT NOT NULL,
     start_time TIMESTAMP NOT NULL,
     end_time TIMESTAMP NOT NULL,
     price DECIMAL(10, 2) NOT NULL CHECK (price > 0),  -- Price must be positive
-    CONSTRAINT unique_showtime UNIQUE (movie_title, theater, start_time),  -- To ensure no overlapping showtimes
+    CONSTRAINT fk_showtime_movie FOREIGN KEY (movie_id) REFERENCES movie(id),  -- No orphaned showtimes
+    CONSTRAINT fk_showtime_theater FOREIGN KEY (theater_id) REFERENCES theater(id),
+    CONSTRAINT unique_showtime UNIQUE (movie_id, theater_id, start_time),  -- To ensure no overlapping showtimes
     CONSTRAINT check_end_time CHECK (end_time > start_time)  -- Ensure end_time is after start_time
     );
 
+CREATE INDEX IF NOT EXISTS idx_showtime_movie ON showtime (movie_id);
+CREATE INDEX IF NOT EXISTS idx_showtime_theater_time ON showtime (theater_id, start_time);
+
 CREATE TABLE IF NOT EXISTS booking (
                                        booking_id UUID PRIMARY KEY,
                                        showtime_id BIGINT NOT NULL,
                                        seat_number INT NOT NULL CHECK (seat_number > 0),  -- Seat number must be positive
     user_id VARCHAR(255) NOT NULL CHECK (user_id <> ''),  -- User ID must not be empty
+    showtime_date DATE NOT NULL,  -- Date of the showtime; partition key on PostgreSQL (db/postgres/booking_partitions.sql)
     CONSTRAINT fk_showtime FOREIGN KEY (showtime_id) REFERENCES showtime(id),
     CONSTRAINT unique_seat_booking UNIQUE (showtime_id, seat_number)  -- No double booking of seats for a showtime
     );
 
+CREATE INDEX IF NOT EXISTS idx_booking_showtime_date ON booking (showtime_date);
+
+-- Cold storage for bookings of past showtimes, filled by BookingArchiveService.
+-- No foreign key: archived bookings outlive the showtimes they belonged to.
+CREATE TABLE IF NOT EXISTS booking_archive (
+                                               booking_id UUID PRIMARY KEY,
+                                               showtime_id BIGINT NOT NULL,
+                                               seat_number INT NOT NULL,
+                                               user_id VARCHAR(255) NOT NULL,
+    showtime_date DATE NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS idx_booking_archive_user ON booking_archive (user_id);
+
 -- Trigger to prevent overlapping showtimes in the same theater (This can be customized as per your logic)
 CREATE TRIGGER IF NOT EXISTS CHECK_OVERLAP_TRIGGER
 BEFORE INSERT ON showtime
 FOR EACH ROW CALL "com.att.tdp.popcorn_palace.trigger.OverlapTrigger";
+
+-- Transactional outbox: written in the same transaction as the booking change, drained by OutboxRelay
+CREATE TABLE IF NOT EXISTS outbox_event (
+                                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                            event_type VARCHAR(64) NOT NULL,
+    aggregate_id VARCHAR(64) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+
+-- Stored responses of POST /bookings requests sent with an Idempotency-Key header
+CREATE TABLE IF NOT EXISTS idempotency_record (
+                                                  idempotency_key VARCHAR(255) PRIMARY KEY,
+                                                  request_fingerprint VARCHAR(255) NOT NULL,
+    status_code INT NOT NULL,
+    response_body VARCHAR(4000) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_expires ON idempotency_record (expires_at);
+
+-- Sales per day, movie and theater, maintained incrementally by AnalyticsService for the revenue reports
+CREATE TABLE IF NOT EXISTS booking_rollup (
+                                              show_date DATE NOT NULL,
+                                              movie_id BIGINT NOT NULL,
+                                              theater_id BIGINT NOT NULL,
+                                              showtime_count INT NOT NULL,
+                                              capacity BIGINT NOT NULL,  -- Seats offered by the showtimes
+    seats_sold BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (show_date, movie_id, theater_id)
+    );
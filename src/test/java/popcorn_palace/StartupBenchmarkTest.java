@@ -0,0 +1,115 @@
+package popcorn_palace;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup benchmark: the time from launching the application until its first GET /movies/all is answered,
+ * with eager and with lazy initialization. Every run is a fresh JVM, so class loading, Hibernate bootstrap
+ * and JIT warm-up count as they do on a newly scaled-out instance.
+ *
+ * By default the application runs from the test class path. To measure the -Pstartup build, point
+ * startup.benchmark.jar at target/cds/popcorn-palace-0.0.1-SNAPSHOT.jar and pass
+ * "-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true" in startup.benchmark.jvm-args;
+ * startup.benchmark.runs sets the runs per mode (1) and startup.benchmark.budget-ms the time each mode must
+ * answer within (30000). Both best times are published as report entries, which surefire prints with the test
+ * output. Tagged "benchmark", so it only runs with mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final List<String> LAZY = List.of("--spring.main.lazy-initialization=true",
+            "--spring.data.jpa.repositories.bootstrap-mode=deferred");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    /**
+     * The best time to first request out of the configured runs must stay within the budget, eager and lazy.
+     */
+    @Test
+    void firstRequest_ShouldBeAnsweredWithinBudget_WithEagerAndLazyInitialization(TestReporter reporter) throws Exception {
+        int runs = Integer.getInteger("startup.benchmark.runs", 1);
+        long budget = Long.getLong("startup.benchmark.budget-ms", 30_000);
+        long eager = best(runs, List.of());
+        long lazy = best(runs, LAZY);
+        reporter.publishEntry(Map.of("eagerTimeToFirstRequestMs", String.valueOf(eager),
+                "lazyTimeToFirstRequestMs", String.valueOf(lazy)));
+
+        assertThat(eager).as("eager time to first request in ms").isLessThanOrEqualTo(budget);
+        assertThat(lazy).as("lazy time to first request in ms (eager %d)", eager).isLessThanOrEqualTo(budget);
+    }
+
+    private long best(int runs, List<String> arguments) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            best = Math.min(best, timeToFirstRequest(arguments));
+        }
+        return best;
+    }
+
+    private long timeToFirstRequest(List<String> arguments) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        Arrays.stream(System.getProperty("startup.benchmark.jvm-args", "").split("\\s+"))
+                .filter(arg -> !arg.isBlank()).forEach(command::add);
+        ProcessBuilder builder = new ProcessBuilder(command);
+        String jar = System.getProperty("startup.benchmark.jar", "");
+        if (jar.isBlank()) {
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), PopcornPalaceApplication.class.getName()));
+        } else {
+            // Started from the jar's directory, where the training run recorded the CDS archive.
+            Path path = Path.of(jar).toAbsolutePath();
+            builder.directory(path.getParent().toFile());
+            command.addAll(List.of("-jar", path.getFileName().toString()));
+        }
+        command.add("--server.port=" + port);
+        command.addAll(arguments);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/movies/all"))
+                .timeout(Duration.ofSeconds(10)).GET().build();
+
+        long start = System.nanoTime();
+        Process process = builder.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (System.nanoTime() - start < START_TIMEOUT.toNanos()) {
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    return millis;
+                } catch (IOException e) {
+                    // Not listening yet
+                    assertThat(process.isAlive()).as("application exited during startup").isTrue();
+                    Thread.sleep(10);
+                }
+            }
+            throw new AssertionError("No response within " + START_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
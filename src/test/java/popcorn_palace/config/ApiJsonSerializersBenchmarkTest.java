@@ -0,0 +1,79 @@
+package popcorn_palace.config;
+
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation benchmark for ApiJsonSerializers: bytes allocated per serialized listing of 100 bookings, bean
+ * serializers versus the hand-written ones, measured on the calling thread after warming up both paths.
+ * Both numbers are published as report entries, which surefire prints with the test output.
+ * Tagged "benchmark", so it only runs with mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class ApiJsonSerializersBenchmarkTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 10, 19, 30);
+
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper tunedMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new SimpleModule()
+            .addSerializer(Booking.class, new ApiJsonSerializers.BookingSerializer())
+            .addSerializer(Showtime.class, new ApiJsonSerializers.ShowtimeSerializer())
+            .addSerializer(Movie.class, new ApiJsonSerializers.MovieSerializer())).build();
+
+    private List<Booking> bookings;
+
+    @BeforeEach
+    void setUp() {
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Showtime showtime = new Showtime((long) i, "Interstellar", "Theater " + i, START.plusMinutes(i),
+                    START.plusMinutes(i + 169), new BigDecimal("12.50"));
+            bookings.add(new Booking(showtime, i + 1, "user-" + i));
+        }
+    }
+
+    /**
+     * The hand-written serializers must allocate less per response than the bean serializers.
+     */
+    @Test
+    void serializers_ShouldAllocateLessThanBeanSerializers(TestReporter reporter) throws Exception {
+        long bean = allocatedPerResponse(beanMapper);
+        long tuned = allocatedPerResponse(tunedMapper);
+        reporter.publishEntry(Map.of("beanSerializersBytesPerResponse", String.valueOf(bean),
+                "handWrittenSerializersBytesPerResponse", String.valueOf(tuned)));
+
+        assertThat(tuned).as("bytes per response, hand-written vs. bean serializers (%d)", bean).isLessThan(bean);
+    }
+
+    private long allocatedPerResponse(ObjectMapper mapper) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        OutputStream sink = OutputStream.nullOutputStream();
+        for (int i = 0; i < 2_000; i++) {
+            mapper.writeValue(sink, bookings);
+        }
+        int rounds = 500;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < rounds; i++) {
+            mapper.writeValue(sink, bookings);
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / rounds;
+    }
+}
@@ -0,0 +1,65 @@
+package popcorn_palace.config;
+
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for ApiJsonSerializers: the output must match Jackson's bean serializers exactly.
+ * ApiJsonSerializersBenchmarkTest compares their allocation.
+ */
+class ApiJsonSerializersTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 10, 19, 30);
+
+    // Configured like Spring Boot's ObjectMapper, once without and once with the hand-written serializers.
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper tunedMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new SimpleModule()
+            .addSerializer(Booking.class, new ApiJsonSerializers.BookingSerializer())
+            .addSerializer(Showtime.class, new ApiJsonSerializers.ShowtimeSerializer())
+            .addSerializer(Movie.class, new ApiJsonSerializers.MovieSerializer())).build();
+
+    private List<Booking> bookings;
+
+    @BeforeEach
+    void setUp() {
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Showtime showtime = new Showtime((long) i, "Interstellar", "Theater " + i, START.plusMinutes(i),
+                    START.plusMinutes(i + 169), new BigDecimal("12.50"));
+            bookings.add(new Booking(showtime, i + 1, "user-" + i));
+        }
+    }
+
+    /**
+     * Tests that bookings, showtimes and movies are written exactly as the bean serializers write them,
+     * including null values and fractional seconds.
+     */
+    @Test
+    void serializers_ShouldMatchBeanSerializers() throws Exception {
+        Showtime unlinked = new Showtime(null, null, "Theater 1", LocalDateTime.of(2025, 1, 2, 3, 4, 5, 120_000_000),
+                null, new BigDecimal("9.5"));
+        Booking bare = new Booking(null, 7, null);
+        Showtime cheap = new Showtime(2L, "Up", "Theater 2", START, START.plusHours(2), new BigDecimal("0.05"));
+        Movie movie = new Movie(1L, "The \"Godfather\"", "Crime", 175, 9.2, 1972);
+
+        for (Object value : List.of(bookings, unlinked, cheap, bare, movie, new Movie())) {
+            assertThat(tunedMapper.writeValueAsString(value)).isEqualTo(beanMapper.writeValueAsString(value));
+        }
+        assertThat(tunedMapper.writeValueAsString(new Booking())).isEqualTo(beanMapper.writeValueAsString(new Booking()));
+        assertThat(tunedMapper.writeValueAsString(cheap)).contains("\"price\":0.05").doesNotContain("priceCents");
+    }
+}
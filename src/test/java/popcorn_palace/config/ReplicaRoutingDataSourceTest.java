@@ -0,0 +1,95 @@
+package popcorn_palace.config;
+
+import popcorn_palace.service.ReadYourWrites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the replica routing set up by ReplicaDataSourceConfig, with three in-memory H2 databases
+ * standing in for the primary and two replicas. Each database names itself in a one-row table.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        List<DataSource> replicas = List.of(database("replica1"), database("replica2"));
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicas));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Tests that read-write transactions use the primary and read-only ones alternate between the replicas.
+     */
+    @Test
+    void transactions_ShouldRouteByReadOnlyFlag() {
+        assertThat(readWrite.execute(status -> whoAmI())).isEqualTo("primary");
+
+        List<String> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(readOnly.execute(status -> whoAmI()));
+        }
+        assertThat(reads).containsExactly("replica1", "replica2", "replica1", "replica2");
+    }
+
+    /**
+     * Tests that a read-only transaction uses the primary while the thread is pinned to it.
+     */
+    @Test
+    void readOnlyTransaction_ShouldUsePrimary_WhenPinned() {
+        try (ReadYourWrites.Pin pin = ReadYourWrites.pinPrimary()) {
+            assertThat(readOnly.execute(status -> whoAmI())).isEqualTo("primary");
+        }
+        assertThat(readOnly.execute(status -> whoAmI())).startsWith("replica");
+    }
+
+    /**
+     * Tests that without replicas every connection comes from the primary.
+     */
+    @Test
+    void readOnlyTransaction_ShouldUsePrimary_WhenNoReplicas() {
+        DataSource primary = database("primary");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, List.of()));
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.setReadOnly(true);
+
+        assertThat(template.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM whoami", String.class)))
+                .isEqualTo("primary");
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        jdbc.update("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
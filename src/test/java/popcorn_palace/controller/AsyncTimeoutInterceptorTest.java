@@ -0,0 +1,47 @@
+package popcorn_palace.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for AsyncTimeoutInterceptor.
+ */
+class AsyncTimeoutInterceptorTest {
+
+    private final AsyncTimeoutInterceptor interceptor = new AsyncTimeoutInterceptor();
+    private final Callable<Void> task = () -> null;
+
+    /**
+     * Tests that a request marked by its handler gets the handler's timeout.
+     */
+    @Test
+    void beforeConcurrentHandling_ShouldApplyTimeout_WhenRequestIsMarked() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/export");
+        StandardServletAsyncWebRequest asyncRequest = spy(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        AsyncTimeoutInterceptor.extendTimeout(request, Duration.ofMinutes(30));
+
+        interceptor.beforeConcurrentHandling(asyncRequest, task);
+
+        verify(asyncRequest).setTimeout(1_800_000L);
+    }
+
+    /**
+     * Tests that other requests keep the configured default timeout.
+     */
+    @Test
+    void beforeConcurrentHandling_ShouldKeepDefaultTimeout_WhenRequestIsNotMarked() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/showtime/1/seats/stream");
+        StandardServletAsyncWebRequest asyncRequest = spy(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+
+        interceptor.beforeConcurrentHandling(asyncRequest, task);
+
+        verify(asyncRequest, never()).setTimeout(anyLong());
+    }
+}
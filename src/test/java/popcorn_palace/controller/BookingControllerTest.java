@@ -1,11 +1,24 @@
 package popcorn_palace.controller;
 
+import popcorn_palace.exception.BookingOutcomeUnknownException;
 import popcorn_palace.exception.SeatAlreadyBookedException;
 import popcorn_palace.exception.ResourceNotFoundException;
 import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.RateLimitExceededException;
+import popcorn_palace.exception.SoldOutException;
+import popcorn_palace.exception.GlobalExceptionHandler;
+import popcorn_palace.model.ArchivedBooking;
 import popcorn_palace.model.Booking;
+import popcorn_palace.model.IdempotencyRecord;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.service.BookingArchiveService;
+import popcorn_palace.service.BookingGroupCommitter;
+import popcorn_palace.service.BookingRateLimiter;
+import popcorn_palace.service.BookingSequencer;
 import popcorn_palace.service.BookingService;
+import popcorn_palace.service.IdempotencyService;
+import popcorn_palace.service.ReadYourWrites;
+import popcorn_palace.service.WaitingRoomService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,9 +31,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -42,6 +58,27 @@ public class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private BookingRateLimiter bookingRateLimiter;
+
+    @Mock
+    private WaitingRoomService waitingRoomService;
+
+    @Mock
+    private BookingSequencer bookingSequencer;
+
+    @Mock
+    private BookingGroupCommitter bookingGroupCommitter;
+
+    @Mock
+    private BookingArchiveService bookingArchiveService;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
     private MockMvc mockMvc;
     private Showtime showtime;
     private Booking booking;
@@ -72,11 +109,147 @@ public class BookingControllerTest {
         when(bookingService.bookTicket(any(Long.class), anyInt(), anyString())).thenReturn(booking);
 
         // Act: Call the controller method
-        ResponseEntity<?> response = bookingController.bookTicket(booking);
+        ResponseEntity<?> response = bookingController.bookTicket(null, null, booking);
 
         // Assert: Check that the response is correct
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(booking, response.getBody());
+        verify(readYourWrites).recordWrite(userId);
+    }
+
+    /**
+     * Tests that a retry with a known idempotency key returns the stored 201 response without booking again.
+     */
+    @Test
+    void bookTicket_ShouldReplayStoredResponse_WhenIdempotencyKeyIsKnown() throws Exception {
+        String fingerprint = IdempotencyService.bookingFingerprint(1L, 5, userId);
+        when(idempotencyService.find("retry-key-1")).thenReturn(Optional.of(new IdempotencyRecord(
+                "retry-key-1", fingerprint, 201, "{\"seatNumber\":5}", Instant.now().plusSeconds(60))));
+
+        mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", "retry-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showtime\": {\"id\": 1}, \"seatNumber\": 5, \"userId\": \"user123\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(content().json("{\"seatNumber\":5}"));
+
+        verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Tests that a new idempotency key is passed on to the service so the response is stored.
+     */
+    @Test
+    void bookTicket_ShouldPassIdempotencyKey_WhenKeyIsNew() {
+        when(idempotencyService.find("new-key")).thenReturn(Optional.empty());
+        when(bookingService.bookTicket(1L, 5, userId, "new-key")).thenReturn(booking);
+
+        ResponseEntity<?> response = bookingController.bookTicket("new-key", null, booking);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(booking, response.getBody());
+    }
+
+    /**
+     * Tests that a throttled request is answered with 429 and Retry-After without calling the booking service.
+     */
+    @Test
+    void bookTicket_ShouldReturnTooManyRequests_WhenRateLimited() throws Exception {
+        MockMvc mockMvcWithHandler = MockMvcBuilders.standaloneSetup(bookingController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+        doThrow(new RateLimitExceededException("Too many booking requests for user user123.", 2))
+                .when(bookingRateLimiter).acquire(1L, userId);
+
+        mockMvcWithHandler.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showtime\": {\"id\": 1}, \"seatNumber\": 5, \"userId\": \"user123\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Tests that a booking the sequencer did not finish in time is answered with 202 and the booking's location.
+     */
+    @Test
+    void bookTicket_ShouldReturnAccepted_WhenOutcomeIsUnknown() throws Exception {
+        MockMvc mockMvcWithHandler = MockMvcBuilders.standaloneSetup(bookingController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+        UUID bookingId = UUID.randomUUID();
+        when(bookingSequencer.isEnabled()).thenReturn(true);
+        when(bookingSequencer.book(1L, 5, userId, "key-1"))
+                .thenThrow(new BookingOutcomeUnknownException("Booking " + bookingId + " is still in progress.", bookingId));
+
+        mockMvcWithHandler.perform(post("/bookings")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showtime\": {\"id\": 1}, \"seatNumber\": 5, \"userId\": \"user123\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/bookings/" + bookingId));
+
+        verify(readYourWrites).recordWrite(userId);
+    }
+
+    /**
+     * Tests that in sequenced mode a best available block is chosen by the sequencer, which owns the seat maps.
+     */
+    @Test
+    void bookBestAvailable_ShouldGoThroughSequencer_WhenEnabled() throws Exception {
+        when(bookingSequencer.isEnabled()).thenReturn(true);
+        when(bookingSequencer.bookBestAvailable(1L, 2, userId))
+                .thenReturn(List.of(new Booking(null, 7, userId), new Booking(null, 8, userId)));
+
+        mockMvc.perform(post("/bookings/best-available")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showtimeId\": 1, \"seatCount\": 2, \"userId\": \"user123\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[1].seatNumber").value(8));
+
+        verifyNoInteractions(bookingService);
+        verify(readYourWrites).recordWrite(userId);
+    }
+
+    /**
+     * Tests that a sold out showtime with a waiting room is answered with 409 without calling the booking service.
+     */
+    @Test
+    void bookTicket_ShouldReturnConflict_WhenWaitingRoomReportsSoldOut() throws Exception {
+        MockMvc mockMvcWithHandler = MockMvcBuilders.standaloneSetup(bookingController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+        doThrow(new SoldOutException("Showtime 1 is sold out."))
+                .when(waitingRoomService).checkAdmission(1L, userId, null);
+
+        mockMvcWithHandler.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showtime\": {\"id\": 1}, \"seatNumber\": 5, \"userId\": \"user123\"}"))
+                .andExpect(status().isConflict());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Tests that a retry of a booking that took the last seat replays its 201 even though the waiting room now reports sold out.
+     */
+    @Test
+    void bookTicket_ShouldReplayStoredResponse_WhenRetriedAfterSoldOut() throws Exception {
+        MockMvc mockMvcWithHandler = MockMvcBuilders.standaloneSetup(bookingController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+        String fingerprint = IdempotencyService.bookingFingerprint(1L, 5, userId);
+        when(idempotencyService.find("last-seat-key")).thenReturn(Optional.of(new IdempotencyRecord(
+                "last-seat-key", fingerprint, 201, "{\"seatNumber\":5}", Instant.now().plusSeconds(60))));
+        // The room would reject a new booking; the retry must never reach it
+        lenient().doThrow(new SoldOutException("Showtime 1 is sold out."))
+                .when(waitingRoomService).checkAdmission(eq(1L), eq(userId), any());
+
+        mockMvcWithHandler.perform(post("/bookings")
+                        .header("Idempotency-Key", "last-seat-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"showtime\": {\"id\": 1}, \"seatNumber\": 5, \"userId\": \"user123\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(content().json("{\"seatNumber\":5}"));
+
+        verifyNoInteractions(bookingRateLimiter, waitingRoomService, bookingService);
     }
 
     /**
@@ -91,7 +264,7 @@ public class BookingControllerTest {
 
         // Act & Assert: Ensure the exception is thrown with the expected message
         try {
-            bookingController.bookTicket(booking);
+            bookingController.bookTicket(null, null, booking);
         } catch (SeatAlreadyBookedException e) {
             assertEquals("Seat already booked", e.getMessage());
         }
@@ -154,6 +327,24 @@ public class BookingControllerTest {
         verify(bookingService, times(1)).getBookingsByUserId(userId);
     }
 
+    /**
+     * Tests retrieving the archived bookings of a user.
+     * Expects HTTP 200 Ok and the bookings from the archive.
+     */
+    @Test
+    void getArchivedBookingsByUserId_ShouldReturnArchivedBookings() throws Exception {
+        ArchivedBooking archived = new ArchivedBooking(UUID.randomUUID(), 1L, 7, userId,
+                LocalDate.of(2025, 2, 14), Instant.parse("2025-03-01T04:00:00Z"));
+        when(bookingArchiveService.getArchivedBookingsByUserId(userId)).thenReturn(List.of(archived));
+
+        mockMvc.perform(get("/bookings/user/{userId}/archive", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].seatNumber").value(7));
+
+        verify(bookingService, never()).getBookingsByUserId(anyString());
+    }
+
     /**
      * Tests retrieving a booking by its ID when the booking exists.
      * Expects HTTP 200 Ok and the correct booking in the response.
@@ -191,18 +382,19 @@ public class BookingControllerTest {
 
     /**
      * Tests canceling a booking when the booking exists.
-     * Expects HTTP 204 No content.
+     * Expects HTTP 204 No content, with the user's reads pinned to the primary.
      */
     @Test
     void cancelBooking_ShouldReturnNoContent_WhenCancellationIsSuccessful() {
-        // Arrange: Mock the service to do nothing when canceling
-        doNothing().when(bookingService).cancelBooking(any(UUID.class));
+        // Arrange: Mock the service to return the cancelled booking
+        when(bookingService.cancelBooking(any(UUID.class))).thenReturn(booking);
 
         // Act: Call the controller method
         ResponseEntity<Void> response = bookingController.cancelBooking(booking.getBookingId());
 
         // Assert: Verify the response
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(readYourWrites).recordWrite(booking.getUserId());
     }
 
     /**
@@ -0,0 +1,78 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.model.Movie;
+import popcorn_palace.service.CatalogVersions;
+import popcorn_palace.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for CatalogCacheInterceptor, mounted in front of MovieController.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheInterceptorTest {
+
+    @Mock
+    private MovieService movieService;
+
+    private final CatalogVersions catalogVersions = new CatalogVersions();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new MovieController(movieService))
+                .addMappedInterceptors(new String[]{"/movies/**"},
+                        new CatalogCacheInterceptor(catalogVersions, "max-age=0, must-revalidate, public",
+                                CatalogVersions.Catalog.MOVIES))
+                .build();
+    }
+
+    /**
+     * Tests that a GET carries the version-based validators, and that repeating it with the ETag
+     * gets a 304 without calling the service.
+     */
+    @Test
+    void get_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(List.of(new Movie(1L, "The Godfather", "Mafia", 148, 8.8, 2010)));
+        String etag = catalogVersions.etag(CatalogVersions.Catalog.MOVIES);
+
+        mockMvc.perform(get("/movies/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "max-age=0, must-revalidate, public"));
+
+        mockMvc.perform(get("/movies/all").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(movieService, times(1)).getAllMovies();
+    }
+
+    /**
+     * Tests that a change of the catalog invalidates the old ETag.
+     */
+    @Test
+    void get_ShouldReturnContent_AfterCatalogChanged() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(List.of());
+        String etag = catalogVersions.etag(CatalogVersions.Catalog.MOVIES);
+
+        catalogVersions.changed(CatalogVersions.Catalog.MOVIES);
+
+        mockMvc.perform(get("/movies/all").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersions.etag(CatalogVersions.Catalog.MOVIES)));
+        verify(movieService).getAllMovies();
+    }
+}
@@ -0,0 +1,136 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.model.Movie;
+import popcorn_palace.service.CatalogVersions;
+import popcorn_palace.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for CatalogSnapshotFilter, mounted in front of MovieController together with the conditional GET interceptor.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotFilterTest {
+
+    private static final String CACHE_CONTROL = "max-age=0, must-revalidate, public";
+
+    @Mock
+    private MovieService movieService;
+
+    private final CatalogVersions catalogVersions = new CatalogVersions();
+    private CatalogSnapshotFilter filter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        filter = new CatalogSnapshotFilter(catalogVersions, CACHE_CONTROL, 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MovieController(movieService))
+                .addMappedInterceptors(new String[]{"/movies/**"},
+                        new CatalogCacheInterceptor(catalogVersions, CACHE_CONTROL, CatalogVersions.Catalog.MOVIES))
+                .addFilters(filter)
+                .build();
+    }
+
+    /**
+     * Tests that a repeated GET is answered from the snapshot, with the same body and validators,
+     * without calling the service again.
+     */
+    @Test
+    void get_ShouldServeSnapshot_WhenCatalogUnchanged() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(List.of(new Movie(1L, "The Godfather", "Mafia", 148, 8.8, 2010)));
+
+        String first = mockMvc.perform(get("/movies/all"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/movies/all"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(first))
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(header().string("ETag", catalogVersions.etag(CatalogVersions.Catalog.MOVIES)))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", CACHE_CONTROL))
+                .andExpect(jsonPath("$[0].title").value("The Godfather"));
+
+        verify(movieService, times(1)).getAllMovies();
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a client accepting gzip gets the pre-compressed copy of the snapshot.
+     */
+    @Test
+    void get_ShouldServeGzippedSnapshot_WhenClientAcceptsGzip() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(List.of(new Movie(1L, "The Godfather", "Mafia", 148, 8.8, 2010)));
+        String plain = mockMvc.perform(get("/movies/all")).andReturn().getResponse().getContentAsString();
+
+        MvcResult result = mockMvc.perform(get("/movies/all").header("Accept-Encoding", "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+
+        byte[] gzipped = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+    }
+
+    /**
+     * Tests that a snapshot is rebuilt once the catalog changed.
+     */
+    @Test
+    void get_ShouldRebuildSnapshot_AfterCatalogChanged() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(List.of());
+        mockMvc.perform(get("/movies/all")).andExpect(status().isOk());
+
+        catalogVersions.changed(CatalogVersions.Catalog.MOVIES);
+        mockMvc.perform(get("/movies/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersions.etag(CatalogVersions.Catalog.MOVIES)));
+
+        verify(movieService, times(2)).getAllMovies();
+    }
+
+    /**
+     * Tests that a matching If-None-Match is still answered with 304 when a snapshot exists.
+     */
+    @Test
+    void get_ShouldReturnNotModified_WhenSnapshotEtagMatches() throws Exception {
+        when(movieService.getAllMovies()).thenReturn(List.of());
+        mockMvc.perform(get("/movies/all")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/movies/all").header("If-None-Match", catalogVersions.etag(CatalogVersions.Catalog.MOVIES)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(movieService, times(1)).getAllMovies();
+    }
+
+    /**
+     * Tests the Accept-Encoding parsing, including an explicit refusal of gzip.
+     */
+    @Test
+    void acceptsGzip_ShouldHonourQualityZero() {
+        assertThat(CatalogSnapshotFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CatalogSnapshotFilter.acceptsGzip("br;q=1.0, gzip;q=0.5")).isTrue();
+        assertThat(CatalogSnapshotFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CatalogSnapshotFilter.acceptsGzip("identity")).isFalse();
+        assertThat(CatalogSnapshotFilter.acceptsGzip(null)).isFalse();
+    }
+}
@@ -0,0 +1,210 @@
+package popcorn_palace.controller;
+
+import popcorn_palace.service.BookingService;
+import popcorn_palace.service.ClusterMembership;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for ClusterForwardingFilter. The owner node is a JDK HTTP server on a free local port
+ * that records what it received and answers like the booking endpoint.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClusterForwardingFilterTest {
+
+    private static final String SELF = "http://localhost:8081";
+    private static final String BOOKING = "{\"showtime\": {\"id\": 7}, \"seatNumber\": 5, \"userId\": \"user123\"}";
+
+    @Mock
+    private ClusterMembership membership;
+
+    @Mock
+    private BookingService bookingService;
+
+    private HttpServer owner;
+    private String ownerUrl;
+    private final List<String> received = new ArrayList<>();
+    private ClusterForwardingFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/", exchange -> {
+            received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " "
+                    + exchange.getRequestHeaders().getFirst("X-Popcorn-Forwarded-By") + " "
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = "{\"bookingId\":\"d1a6423b-4469-4b00-8c5f-e3cfc42eacae\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(201, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        owner.start();
+        ownerUrl = "http://localhost:" + owner.getAddress().getPort();
+        filter = new ClusterForwardingFilter(membership, bookingService, new ObjectMapper(), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.stop(0);
+    }
+
+    /**
+     * Tests that a booking for a showtime owned by another node is proxied there, marked as forwarded,
+     * and that the owner's response is passed back unchanged.
+     */
+    @Test
+    void booking_ShouldBeForwardedToOwner() throws Exception {
+        when(membership.isEnabled()).thenReturn(true);
+        when(membership.self()).thenReturn(SELF);
+        when(membership.ownerOf(7L)).thenReturn(ownerUrl);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(post("/bookings", BOOKING), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(received).containsExactly("POST /bookings " + SELF + " " + BOOKING);
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsString()).contains("d1a6423b-4469-4b00-8c5f-e3cfc42eacae");
+    }
+
+    /**
+     * Tests that a request for a showtime owned here reaches the controller with its body intact.
+     */
+    @Test
+    void booking_ShouldBeHandledLocally_WhenOwnedHere() throws Exception {
+        when(membership.isEnabled()).thenReturn(true);
+        when(membership.self()).thenReturn(SELF);
+        when(membership.ownerOf(7L)).thenReturn(SELF);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(post("/bookings", BOOKING), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BOOKING);
+        assertThatThrownBy(() -> chain.getRequest().getInputStream().setReadListener(null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(received).isEmpty();
+    }
+
+    /**
+     * Tests that a request forwarded by another node is never forwarded again.
+     */
+    @Test
+    void forwardedRequest_ShouldNotBeForwardedAgain() throws Exception {
+        when(membership.isEnabled()).thenReturn(true);
+        MockHttpServletRequest request = post("/bookings", BOOKING);
+        request.addHeader("X-Popcorn-Forwarded-By", "http://localhost:8082");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        verify(membership, never()).ownerOf(anyLong());
+    }
+
+    /**
+     * Tests that an unreachable owner is taken out of the ring and the request routed again.
+     */
+    @Test
+    void unreachableOwner_ShouldBeMarkedDown() throws Exception {
+        String deadUrl;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadUrl = "http://localhost:" + socket.getLocalPort(); // Closed again, so nothing listens there
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/showtime/7/seats");
+        when(membership.isEnabled()).thenReturn(true);
+        when(membership.self()).thenReturn(SELF);
+        when(membership.ownerOf(7L)).thenReturn(deadUrl, SELF);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(membership).markDown(deadUrl);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    /**
+     * Tests that a forwarded booking the owner received but did not answer in time is reported as 202 Accepted,
+     * since it may still commit there, and that the slow owner stays in the ring.
+     */
+    @Test
+    void unansweredBooking_ShouldBeReportedAsAccepted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        owner.createContext("/bookings", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        ClusterForwardingFilter impatient = new ClusterForwardingFilter(membership, bookingService, new ObjectMapper(),
+                Duration.ofMillis(100));
+        when(membership.isEnabled()).thenReturn(true);
+        when(membership.self()).thenReturn(SELF);
+        when(membership.ownerOf(7L)).thenReturn(ownerUrl);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        try {
+            impatient.doFilter(post("/bookings", BOOKING), response, chain);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(response.getStatus()).isEqualTo(202);
+        assertThat(response.getContentAsString()).contains("\"statusCode\":202").contains("showtime 7");
+        assertThat(chain.getRequest()).isNull();
+        verify(membership, never()).markDown(any());
+    }
+
+    /**
+     * Tests which requests are showtime-scoped.
+     */
+    @Test
+    void showtimeOf_ShouldFindShowtimeInPathOrBody() {
+        assertThat(filter.showtimeOf("GET", "/bookings/showtime/12/seats/stream", new byte[0])).isEqualTo(12L);
+        assertThat(filter.showtimeOf("POST", "/waiting-room/3/tickets", new byte[0])).isEqualTo(3L);
+        assertThat(filter.showtimeOf("POST", "/bookings/best-available",
+                "{\"showtimeId\": 9, \"seatCount\": 2, \"userId\": \"u\"}".getBytes(StandardCharsets.UTF_8))).isEqualTo(9L);
+        assertThat(filter.showtimeOf("POST", "/bookings", "{\"showtime\": {\"id\":}".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(filter.showtimeOf("GET", "/bookings/user/user123", new byte[0])).isNull();
+    }
+
+    private static MockHttpServletRequest post(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
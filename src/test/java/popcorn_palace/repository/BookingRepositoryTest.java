@@ -1,14 +1,19 @@
 package popcorn_palace.repository;
 
 import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +31,15 @@ public class BookingRepositoryTest {
     @Autowired
     private ShowtimeRepository showtimeRepository;
 
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
     private Showtime showtime;
     private Booking booking;
 
@@ -36,9 +50,11 @@ public class BookingRepositoryTest {
     @BeforeEach
     void setUp() {
         // Create and persist a showtime
+        Movie movie = movieRepository.save(new Movie(null, "Inception", "Sci-Fi", 148, 8.8, 2010));
+
         showtime = new Showtime();
-        showtime.setMovieTitle("Inception");
-        showtime.setTheater("IMAX Theater");
+        showtime.setMovie(movie);
+        showtime.setAuditorium(theaterRepository.save(new Theater(null, "IMAX Theater", 12, 30)));
         showtime.setStartTime(LocalDateTime.of(2025, 4, 10, 19, 30));
         showtime.setEndTime(LocalDateTime.of(2025, 4, 10, 21, 45));
         showtime.setPrice(new BigDecimal("15.50"));
@@ -121,6 +137,17 @@ public class BookingRepositoryTest {
         assertThat(foundBooking).isEmpty();
     }
 
+    /**
+     * Tests that only the seat numbers of the given showtime are returned.
+     */
+    @Test
+    void findSeatNumbersByShowtimeId_ShouldReturnBookedSeats() {
+        List<Integer> seats = bookingRepository.findSeatNumbersByShowtimeId(showtime.getId());
+
+        assertThat(seats).containsExactly(10);
+        assertThat(bookingRepository.findSeatNumbersByShowtimeId(999L)).isEmpty();
+    }
+
     /**
      * Tests deletion of a booking when it exists.
      * Ensures the booking is removed from the repository.
@@ -132,4 +159,56 @@ public class BookingRepositoryTest {
 
         assertThat(deletedBooking).isEmpty();
     }
+
+    /**
+     * Tests that the bookings of several showtimes are found with their showtimes and deleted in one statement.
+     */
+    @Test
+    void deleteByShowtimeIdIn_ShouldDeleteBookingsOfShowtimes() {
+        bookingRepository.save(new Booking(showtime, 11, "user456"));
+
+        List<Booking> found = bookingRepository.findByShowtimeIdIn(List.of(showtime.getId()));
+        int deleted = bookingRepository.deleteByShowtimeIdIn(List.of(showtime.getId()));
+
+        assertThat(found).extracting(Booking::getSeatNumber).containsExactlyInAnyOrder(10, 11);
+        assertThat(found).allSatisfy(b -> assertThat(b.getShowtime().getId()).isEqualTo(showtime.getId()));
+        assertThat(deleted).isEqualTo(2);
+        assertThat(bookingRepository.findSeatNumbersByShowtimeId(showtime.getId())).isEmpty();
+    }
+
+    /**
+     * Tests that a saved booking carries its showtime's date and that the date-restricted lookups find it.
+     */
+    @Test
+    void save_ShouldCopyShowtimeDate_ForDateRestrictedLookups() {
+        LocalDate showDate = LocalDate.of(2025, 4, 10);
+
+        assertThat(bookingRepository.findByBookingId(booking.getBookingId()).get().getShowtimeDate()).isEqualTo(showDate);
+        assertThat(bookingRepository.findByShowtimeIdAndShowtimeDateAndSeatNumber(showtime.getId(), showDate, 10)).isPresent();
+        assertThat(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtime.getId(), showDate)).containsExactly(10);
+        assertThat(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtime.getId(), showDate.plusDays(1))).isEmpty();
+    }
+
+    /**
+     * Tests that bookings are copied to the archive by ID and can then be deleted from the hot table.
+     */
+    @Test
+    void archiveAllByIdIn_ShouldCopyBookingsToArchive() {
+        List<UUID> ids = bookingRepository.findIdsByShowtimeDateBefore(LocalDate.of(2025, 4, 11), PageRequest.of(0, 10));
+        assertThat(ids).containsExactly(booking.getBookingId());
+        assertThat(bookingRepository.findIdsByShowtimeDateBefore(LocalDate.of(2025, 4, 10), PageRequest.of(0, 10))).isEmpty();
+
+        int archived = archivedBookingRepository.archiveAllByIdIn(ids, Instant.parse("2025-04-12T04:00:00Z"));
+        bookingRepository.deleteAllByIdInBatch(ids);
+
+        assertThat(archived).isEqualTo(1);
+        assertThat(bookingRepository.findByUserId("user123")).isEmpty();
+        assertThat(archivedBookingRepository.findByUserIdOrderByShowtimeDateDesc("user123"))
+                .singleElement()
+                .satisfies(archivedBooking -> {
+                    assertThat(archivedBooking.getShowtimeId()).isEqualTo(showtime.getId());
+                    assertThat(archivedBooking.getSeatNumber()).isEqualTo(10);
+                    assertThat(archivedBooking.getShowtimeDate()).isEqualTo(LocalDate.of(2025, 4, 10));
+                });
+    }
 }
@@ -0,0 +1,114 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.ArchivedBooking;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.BookingRollup;
+import popcorn_palace.model.BookingRollupId;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.RevenueReport;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+public class BookingRollupRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 4, 10);
+
+    @Autowired
+    private BookingRollupRepository rollupRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    private Movie movie;
+    private Theater theater;
+
+    /**
+     * Creates a movie and a 100 seat theater.
+     */
+    @BeforeEach
+    void setUp() {
+        movie = movieRepository.save(new Movie(null, "Inception", "Sci-Fi", 148, 8.8, 2010));
+        theater = theaterRepository.save(new Theater(null, "IMAX Theater", 10, 10));
+    }
+
+    /**
+     * Tests that rollup rows of two days are summed per movie and per day within the range.
+     */
+    @Test
+    void sumByMovieAndDay_ShouldAggregateRollups() {
+        rollupRepository.save(new BookingRollup(new BookingRollupId(DAY, movie.getId(), theater.getId()),
+                2, 200, 50, new BigDecimal("625.00")));
+        rollupRepository.save(new BookingRollup(new BookingRollupId(DAY.plusDays(1), movie.getId(), theater.getId()),
+                1, 100, 25, new BigDecimal("312.50")));
+
+        List<RevenueReport> byMovie = rollupRepository.sumByMovie(DAY, DAY.plusDays(1));
+        List<RevenueReport> byDay = rollupRepository.sumByDay(DAY, DAY);
+
+        assertThat(byMovie).singleElement().satisfies(report -> {
+            assertThat(report.getKey()).isEqualTo("Inception");
+            assertThat(report.getSeatsSold()).isEqualTo(75);
+            assertThat(report.getRevenue()).isEqualByComparingTo("937.50");
+            assertThat(report.getOccupancyPercent()).isEqualTo(25.0);
+        });
+        assertThat(byDay).singleElement().satisfies(report -> {
+            assertThat(report.getKey()).isEqualTo("2025-04-10");
+            assertThat(report.getShowtimes()).isEqualTo(2);
+        });
+    }
+
+    /**
+     * Tests that the rollups can be recomputed from the showtime, booking and archived booking tables.
+     */
+    @Test
+    void rebuildFromBookings_ShouldAggregateShowtimesAndBookings() {
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movie);
+        showtime.setAuditorium(theater);
+        showtime.setStartTime(DAY.atTime(19, 30));
+        showtime.setEndTime(LocalDateTime.of(2025, 4, 10, 21, 45));
+        showtime.setPrice(new BigDecimal("12.50"));
+        showtime = showtimeRepository.save(showtime);
+        bookingRepository.save(new Booking(showtime, 1, "user1"));
+        bookingRepository.save(new Booking(showtime, 2, "user2"));
+        archivedBookingRepository.save(new ArchivedBooking(UUID.randomUUID(), showtime.getId(), 3, "user3", DAY, Instant.now()));
+        archivedBookingRepository.flush();
+
+        int rows = rollupRepository.rebuildFromBookings();
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(rollupRepository.sumByTheater(DAY, DAY)).singleElement().satisfies(report -> {
+            assertThat(report.getKey()).isEqualTo("IMAX Theater");
+            assertThat(report.getCapacity()).isEqualTo(100);
+            assertThat(report.getSeatsSold()).isEqualTo(3);
+            assertThat(report.getRevenue()).isEqualByComparingTo("37.50");
+        });
+    }
+}
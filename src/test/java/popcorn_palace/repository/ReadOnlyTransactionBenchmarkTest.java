@@ -0,0 +1,121 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation benchmark for read-only transactions: bytes allocated per listing of BOOKINGS bookings, loaded and
+ * committed in a read-write versus a read-only transaction, on the calling thread after warming up both paths.
+ * Both numbers are published as report entries, which surefire prints with the test output.
+ * Tagged "benchmark", so it only runs with mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadOnlyTransactionBenchmarkTest {
+
+    private static final String USER = "heavy-reader";
+    private static final int BOOKINGS = 2_000;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    /**
+     * Stores one showtime with BOOKINGS bookings of the same user.
+     */
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readWrite.executeWithoutResult(status -> {
+            Showtime showtime = new Showtime();
+            showtime.setMovie(movieRepository.save(new Movie(null, "Heat", "Crime", 170, 8.3, 1995)));
+            showtime.setAuditorium(theaterRepository.save(new Theater(null, "Hall 9", 40, 50)));
+            showtime.setStartTime(LocalDateTime.of(2025, 4, 10, 19, 30));
+            showtime.setEndTime(LocalDateTime.of(2025, 4, 10, 22, 30));
+            showtime.setPrice(new BigDecimal("11.00"));
+            Showtime saved = showtimeRepository.save(showtime);
+            List<Booking> bookings = new ArrayList<>();
+            for (int seat = 1; seat <= BOOKINGS; seat++) {
+                bookings.add(new Booking(saved, seat, USER));
+            }
+            bookingRepository.saveAll(bookings);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        readWrite.executeWithoutResult(status -> {
+            bookingRepository.deleteAllInBatch();
+            showtimeRepository.deleteAllInBatch();
+            theaterRepository.deleteAllInBatch();
+            movieRepository.deleteAllInBatch();
+        });
+    }
+
+    /**
+     * A read-only listing must allocate less than the same listing in a read-write transaction.
+     */
+    @Test
+    void readOnlyTransaction_ShouldAllocateLess_ThanReadWriteTransaction(TestReporter reporter) {
+        long readWriteBytes = allocatedPerListing(readWrite);
+        long readOnlyBytes = allocatedPerListing(readOnly);
+        reporter.publishEntry(Map.of("readWriteBytesPerListing", String.valueOf(readWriteBytes),
+                "readOnlyBytesPerListing", String.valueOf(readOnlyBytes)));
+
+        assertThat(readOnlyBytes).as("bytes per listing, read-only vs. read-write (%d)", readWriteBytes)
+                .isLessThan(readWriteBytes);
+    }
+
+    private long allocatedPerListing(TransactionTemplate template) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 20; i++) {
+            template.execute(status -> bookingRepository.findByUserId(USER));
+        }
+        int rounds = 20;
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < rounds; i++) {
+            template.execute(status -> bookingRepository.findByUserId(USER));
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - bytes) / rounds;
+    }
+}
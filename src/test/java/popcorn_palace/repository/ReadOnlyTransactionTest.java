@@ -0,0 +1,114 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks what a read-only transaction saves on a large listing: entities are loaded read-only, nothing is
+ * flushed, and the commit does no dirty checking. Transactions are managed by the test itself.
+ * ReadOnlyTransactionBenchmarkTest measures the allocation saved.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadOnlyTransactionTest {
+
+    private static final String USER = "heavy-reader";
+    private static final int BOOKINGS = 2_000;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    /**
+     * Stores one showtime with BOOKINGS bookings of the same user.
+     */
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readWrite.executeWithoutResult(status -> {
+            Showtime showtime = new Showtime();
+            showtime.setMovie(movieRepository.save(new Movie(null, "Heat", "Crime", 170, 8.3, 1995)));
+            showtime.setAuditorium(theaterRepository.save(new Theater(null, "Hall 9", 40, 50)));
+            showtime.setStartTime(LocalDateTime.of(2025, 4, 10, 19, 30));
+            showtime.setEndTime(LocalDateTime.of(2025, 4, 10, 22, 30));
+            showtime.setPrice(new BigDecimal("11.00"));
+            Showtime saved = showtimeRepository.save(showtime);
+            List<Booking> bookings = new ArrayList<>();
+            for (int seat = 1; seat <= BOOKINGS; seat++) {
+                bookings.add(new Booking(saved, seat, USER));
+            }
+            bookingRepository.saveAll(bookings);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        readWrite.executeWithoutResult(status -> {
+            bookingRepository.deleteAllInBatch();
+            showtimeRepository.deleteAllInBatch();
+            theaterRepository.deleteAllInBatch();
+            movieRepository.deleteAllInBatch();
+        });
+    }
+
+    /**
+     * Tests that entities loaded in a read-only transaction are read-only and the session never flushes.
+     */
+    @Test
+    void readOnlyTransaction_ShouldLoadReadOnlyEntities_WithManualFlush() {
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            List<Booking> bookings = bookingRepository.findByUserId(USER);
+
+            assertThat(bookings).hasSize(BOOKINGS);
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+            assertThat(bookings).allMatch(session::isReadOnly);
+            assertThat(session.isReadOnly(bookings.get(0).getShowtime())).isTrue();
+        });
+        readWrite.executeWithoutResult(status -> {
+            Booking booking = bookingRepository.findByUserId(USER).get(0);
+            assertThat(entityManager.unwrap(Session.class).isReadOnly(booking)).isFalse();
+        });
+    }
+}
@@ -0,0 +1,207 @@
+package popcorn_palace.repository;
+
+import popcorn_palace.model.ArchivedBooking;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Showtime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for ShardedBookingRepository, with in-memory H2 databases standing in for the primary
+ * and three booking shards. Showtimes come from a mocked ShowtimeRepository.
+ */
+class ShardedBookingRepositoryTest {
+
+    private static final int BUCKETS = 16;
+
+    private final Map<Long, Showtime> showtimes = new HashMap<>();
+    private DataSource primary;
+    private List<DataSource> shardDatabases;
+    private BookingShards shards;
+    private ShardedBookingRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        primary = database(run + "_primary");
+        shardDatabases = List.of(database(run + "_0"), database(run + "_1"), database(run + "_2"));
+        shards = new BookingShards(primary, shardDatabases, BUCKETS);
+
+        ShowtimeRepository showtimeRepository = mock(ShowtimeRepository.class);
+        when(showtimeRepository.findAllById(any())).thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0))
+                .stream().map(showtimes::get).toList());
+        repository = new ShardedBookingRepository(shards, showtimeRepository);
+        for (long id = 1; id <= 12; id++) {
+            Showtime showtime = new Showtime();
+            showtime.setId(id);
+            showtime.setStartTime(LocalDateTime.of(2025, 4, (int) id, 19, 30));
+            showtimes.put(id, showtime);
+        }
+    }
+
+    /**
+     * Tests that a booking is stored only on the shard owning its showtime's bucket, that seat lookups read
+     * that shard, and that booking the same seat twice violates the shard's unique constraint.
+     */
+    @Test
+    void insert_ShouldStoreOnOwningShard() {
+        Booking booking = repository.insert(new Booking(showtimes.get(3L), 7, "user1"));
+
+        int owner = shards.shardOf(3L);
+        for (int shard = 0; shard < shards.size(); shard++) {
+            assertThat(count(shard)).isEqualTo(shard == owner ? 1 : 0);
+        }
+        assertThat(repository.findSeatNumbers(3L)).containsExactly(7);
+        assertThat(repository.findByBookingId(booking.getBookingId())).get()
+                .extracting(Booking::getSeatNumber, Booking::getUserId, Booking::getShowtimeDate)
+                .containsExactly(7, "user1", showtimes.get(3L).getStartTime().toLocalDate());
+
+        assertThatThrownBy(() -> repository.insert(new Booking(showtimes.get(3L), 7, "user2")))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    /**
+     * Tests that a user's bookings are collected from all shards and merged in showtime order.
+     */
+    @Test
+    void findByUserId_ShouldMergeAllShards() {
+        for (long id = 12; id >= 1; id--) {
+            repository.insert(new Booking(showtimes.get(id), 1, "user1"));
+            repository.insert(new Booking(showtimes.get(id), 2, "user2"));
+        }
+        assertThat(repository.countPerShard()).allSatisfy(count -> assertThat(count).isPositive());
+
+        List<Booking> bookings = repository.findByUserId("user1");
+
+        assertThat(bookings).extracting(booking -> booking.getShowtime().getId())
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L);
+        assertThat(bookings).allSatisfy(booking -> assertThat(booking.getUserId()).isEqualTo("user1"));
+        assertThat(repository.findByUserId("nobody")).isEmpty();
+    }
+
+    /**
+     * Tests that a block of seats is stored in one shard transaction: a taken seat rejects the whole block.
+     */
+    @Test
+    void insertAll_ShouldStoreNothing_WhenOneSeatTaken() {
+        repository.insert(new Booking(showtimes.get(5L), 3, "user1"));
+
+        assertThatThrownBy(() -> repository.insertAll(List.of(new Booking(showtimes.get(5L), 2, "user2"),
+                new Booking(showtimes.get(5L), 3, "user2"), new Booking(showtimes.get(5L), 4, "user2"))))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(repository.findSeatNumbers(5L)).containsExactly(3);
+    }
+
+    /**
+     * Tests that shard writes made in a primary transaction are undone when that transaction rolls back.
+     */
+    @Test
+    void insertAndDelete_ShouldBeUndone_WhenPrimaryTransactionRollsBack() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        Booking kept = repository.insert(new Booking(showtimes.get(8L), 1, "user1"));
+
+        transaction.executeWithoutResult(status -> {
+            repository.insert(new Booking(showtimes.get(8L), 2, "user1"));
+            repository.delete(kept);
+            status.setRollbackOnly();
+        });
+
+        assertThat(repository.findSeatNumbers(8L)).containsExactly(1);
+        assertThat(repository.findByBookingId(kept.getBookingId())).isPresent();
+    }
+
+    /**
+     * Tests that moving a showtime to another day and deleting its bookings work on its shard, and are undone
+     * when the primary transaction rolls back.
+     */
+    @Test
+    void showtimeChanges_ShouldUseOwningShardAndBeUndone_WhenPrimaryTransactionRollsBack() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        repository.insertAll(List.of(new Booking(showtimes.get(2L), 1, "user1"), new Booking(showtimes.get(2L), 2, "user2")));
+        repository.insert(new Booking(showtimes.get(9L), 1, "user1"));
+        LocalDate april = LocalDate.of(2025, 4, 2);
+        LocalDate may = LocalDate.of(2025, 5, 2);
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(repository.updateShowtimeDate(2L, april, may)).isEqualTo(2);
+            repository.deleteAll(repository.findByShowtimeIdIn(List.of(2L, 9L)));
+            status.setRollbackOnly();
+        });
+
+        assertThat(repository.countByShowtimeId(2L)).isEqualTo(2);
+        assertThat(repository.countByShowtimeId(9L)).isEqualTo(1);
+        assertThat(repository.findByShowtimeIdIn(List.of(2L))).extracting(Booking::getShowtimeDate).containsOnly(april);
+
+        repository.updateShowtimeDate(2L, april, may);
+        assertThat(repository.findByShowtimeIdIn(List.of(2L))).extracting(Booking::getShowtimeDate).containsOnly(may);
+        repository.deleteAll(repository.findByShowtimeIdIn(List.of(2L, 9L)));
+        assertThat(repository.countByShowtimeId(2L)).isZero();
+        assertThat(repository.countByShowtimeId(9L)).isZero();
+    }
+
+    /**
+     * Tests that archiving, rollup counts and the export stream see the bookings of every shard.
+     */
+    @Test
+    void bulkReads_ShouldCoverAllShards() {
+        for (long id = 1; id <= 12; id++) {
+            repository.insert(new Booking(showtimes.get(id), 1, "user1"));
+        }
+        repository.insert(new Booking(showtimes.get(1L), 2, "user2"));
+        assertThat(repository.countByShowtime()).hasSize(12).containsEntry(1L, 2L).containsEntry(12L, 1L);
+
+        List<ArchivedBooking> archivable = repository.findByShowtimeDateBefore(LocalDate.of(2025, 4, 4), 10);
+        assertThat(archivable).extracting(ArchivedBooking::getShowtimeId).containsExactlyInAnyOrder(1L, 1L, 2L, 3L);
+        repository.deleteArchived(archivable);
+
+        assertThat(repository.findByShowtimeDateBefore(LocalDate.of(2025, 4, 4), 10)).isEmpty();
+        List<Long> streamed = new ArrayList<>();
+        repository.streamAll(1, rs -> {
+            streamed.add(rs.getLong(2));
+        });
+        assertThat(streamed).containsExactlyInAnyOrder(4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L);
+    }
+
+    /**
+     * Tests that a bucket assignment is stored on the primary and picked up by the next instance.
+     */
+    @Test
+    void assign_ShouldBePersisted() {
+        int bucket = shards.bucketOf(4L);
+        int target = (shards.shardOfBucket(bucket) + 1) % shards.size();
+
+        shards.assign(bucket, target);
+
+        assertThat(new BookingShards(primary, shardDatabases, BUCKETS).shardOfBucket(bucket)).isEqualTo(target);
+        assertThat(shards.shardOf(4L)).isEqualTo(target);
+    }
+
+    private long count(int shard) {
+        return shards.jdbc(shard).queryForObject("SELECT COUNT(*) FROM booking", Long.class);
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:shard_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
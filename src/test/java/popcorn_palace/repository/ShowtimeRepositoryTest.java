@@ -1,6 +1,8 @@
 package popcorn_palace.repository;
 
+import popcorn_palace.model.Movie;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +10,8 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
@@ -24,6 +28,20 @@ class ShowtimeRepositoryTest {
     @Autowired
     private ShowtimeRepository showtimeRepository;
 
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Movie godfather;
+    private Movie interstellar;
+    private Theater theater1;
+    private Theater theater2;
+
     private Showtime showtime1;
     private Showtime showtime2;
     private Showtime showtime3;
@@ -34,12 +52,19 @@ class ShowtimeRepositoryTest {
      */
     @BeforeEach
     void setUp() {
+        godfather = movieRepository.save(new Movie(null, "The Godfather", "Mafia", 175, 9.2, 1972));
+        interstellar = movieRepository.save(new Movie(null, "Interstellar", "Sci-Fi", 169, 8.7, 2014));
+        theater1 = theaterRepository.save(new Theater(null, "Theater 1", 10, 20));
+        theater2 = theaterRepository.save(new Theater(null, "Theater 2", 8, 15));
+
         showtime1 = new Showtime(
                 null, "The Godfather", "Theater 1",
                 LocalDateTime.of(2025, 3, 20, 18, 0, 0),
                 LocalDateTime.of(2025, 3, 20, 20, 30, 0),
                 new BigDecimal("30.50")
         );
+        showtime1.setMovie(godfather);
+        showtime1.setAuditorium(theater1);
 
         showtime2 = new Showtime(
                 null, "Interstellar", "Theater 2",
@@ -47,6 +72,8 @@ class ShowtimeRepositoryTest {
                 LocalDateTime.of(2025, 3, 21, 20, 30, 0),
                 new BigDecimal("35.00")
         );
+        showtime2.setMovie(interstellar);
+        showtime2.setAuditorium(theater2);
 
         showtime3 = new Showtime(
                 null, "The Godfather", "Theater 1",
@@ -54,6 +81,8 @@ class ShowtimeRepositoryTest {
                 LocalDateTime.of(2025, 3, 20, 23, 30, 0),
                 new BigDecimal("30.50")
         );
+        showtime3.setMovie(godfather);
+        showtime3.setAuditorium(theater1);
     }
 
     /**
@@ -94,15 +123,15 @@ class ShowtimeRepositoryTest {
     }
 
     /**
-     * Tests retrieving showtimes based on movie title and theater.
+     * Tests retrieving showtimes based on movie id and theater id.
      * Ensures the correct showtimes are returned.
      */
     @Test
-    void findByMovieTitleAndTheater_ShouldReturnShowtimes_WhenShowtimesExist() {
+    void findByMovieIdAndAuditoriumId_ShouldReturnShowtimes_WhenShowtimesExist() {
         showtimeRepository.save(showtime1);
         showtimeRepository.save(showtime2);
 
-        List<Showtime> foundShowtimes = showtimeRepository.findByMovieTitleAndTheater("The Godfather", "Theater 1");
+        List<Showtime> foundShowtimes = showtimeRepository.findByMovieIdAndAuditoriumId(godfather.getId(), theater1.getId());
 
         assertThat(foundShowtimes).hasSize(1);
         assertThat(foundShowtimes.get(0).getMovieTitle()).isEqualTo("The Godfather");
@@ -114,8 +143,8 @@ class ShowtimeRepositoryTest {
      * Ensures an empty list is returned.
      */
     @Test
-    void findByMovieTitleAndTheater_ShouldReturnEmpty_WhenNoShowtimesExist() {
-        List<Showtime> foundShowtimes = showtimeRepository.findByMovieTitleAndTheater("Unknown Movie", "Unknown Theater");
+    void findByMovieIdAndAuditoriumId_ShouldReturnEmpty_WhenNoShowtimesExist() {
+        List<Showtime> foundShowtimes = showtimeRepository.findByMovieIdAndAuditoriumId(999L, 999L);
 
         assertThat(foundShowtimes).isEmpty();
     }
@@ -129,7 +158,7 @@ class ShowtimeRepositoryTest {
         showtimeRepository.save(showtime1);
         showtimeRepository.save(showtime3); // Overlapping showtime in the same theater
 
-        boolean overlaps = showtimeRepository.existsByTheaterAndTimeOverlap("Theater 1",
+        boolean overlaps = showtimeRepository.existsByTheaterAndTimeOverlap(theater1.getId(),
                 LocalDateTime.of(2025, 3, 20, 19, 0, 0),
                 LocalDateTime.of(2025, 3, 20, 22, 0, 0));
 
@@ -146,7 +175,7 @@ class ShowtimeRepositoryTest {
         showtimeRepository.save(showtime2); // Interstellar: 18:00 - 20:30 (different theater)
 
         boolean overlaps = showtimeRepository.existsByTheaterAndTimeOverlap(
-                "Theater 1",
+                theater1.getId(),
                 LocalDateTime.of(2025, 3, 20, 21, 0, 0), // Outside of showtime1's time range
                 LocalDateTime.of(2025, 3, 20, 23, 0, 0)
         );
@@ -184,14 +213,46 @@ class ShowtimeRepositoryTest {
      * Ensures the correct showtimes are returned.
      */
     @Test
-    void findByTheater_ShouldReturnAllShowtimesInTheater() {
+    void findByAuditoriumId_ShouldReturnAllShowtimesInTheater() {
         showtimeRepository.save(showtime1);
         showtimeRepository.save(showtime2);
         showtimeRepository.save(showtime3);
 
-        List<Showtime> foundShowtimes = showtimeRepository.findByTheater("Theater 1");
+        List<Showtime> foundShowtimes = showtimeRepository.findByAuditoriumId(theater1.getId());
 
         assertThat(foundShowtimes).hasSize(2);
         assertThat(foundShowtimes.get(0).getTheater()).isEqualTo("Theater 1");
     }
+
+    /**
+     * Tests that IDs of showtimes ending before a cutoff can be selected in chunks and deleted in one statement.
+     */
+    @Test
+    void findIdsEndingBefore_AndDeleteAllByIdIn_ShouldRemoveOldShowtimes() {
+        showtimeRepository.save(showtime1);
+        showtimeRepository.save(showtime2);
+        showtimeRepository.save(showtime3);
+
+        List<Long> ids = showtimeRepository.findIdsEndingBefore(LocalDateTime.of(2025, 3, 21, 0, 0), PageRequest.of(0, 10));
+        assertThat(ids).containsExactly(showtime1.getId(), showtime3.getId());
+
+        assertThat(showtimeRepository.deleteAllByIdIn(ids)).isEqualTo(2);
+        assertThat(showtimeRepository.findIdsByMovieId(godfather.getId(), PageRequest.of(0, 10))).isEmpty();
+        assertThat(showtimeRepository.findIdsByMovieId(interstellar.getId(), PageRequest.of(0, 10))).containsExactly(showtime2.getId());
+    }
+
+    /**
+     * Tests that the price is rounded to cents once when set and survives a round trip through the price column.
+     */
+    @Test
+    void save_ShouldStorePriceInCents() {
+        showtime1.setPrice(new BigDecimal("12.345"));
+        Long id = showtimeRepository.save(showtime1).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Showtime loaded = showtimeRepository.findById(id).orElseThrow();
+        assertThat(loaded.getPriceCents()).isEqualTo(1235);
+        assertThat(loaded.getPrice()).isEqualTo(new BigDecimal("12.35"));
+    }
 }
@@ -0,0 +1,163 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.BookingRollup;
+import popcorn_palace.model.BookingRollupId;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRollupRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    private static final BookingRollupId KEY = new BookingRollupId(LocalDate.of(2025, 4, 10), 7L, 3L);
+
+    @Mock
+    private BookingRollupRepository rollupRepository;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AnalyticsService analyticsService;
+    private Showtime showtime;
+
+    /**
+     * Creates the service and a 12.50 showtime of movie 7 in a 100 seat theater 3.
+     */
+    @BeforeEach
+    void setUp() {
+        analyticsService = new AnalyticsService(rollupRepository, showtimeRepository, shardedBookingRepository,
+                transactionManager, 100);
+
+        showtime = new Showtime();
+        showtime.setId(1L);
+        showtime.setMovie(new Movie(7L, "Inception", "Sci-Fi", 148, 8.8, 2010));
+        showtime.setAuditorium(new Theater(3L, "Theater 1", 10, 10));
+        showtime.setStartTime(LocalDateTime.of(2025, 4, 10, 19, 30));
+        showtime.setPrice(new BigDecimal("12.50"));
+    }
+
+    /**
+     * Tests that seat changes are summed in memory, loading the showtime once,
+     * and written to the rollup row in one flush.
+     */
+    @Test
+    void flush_ShouldApplySummedSeatChanges() {
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(rollupRepository.findByIdForUpdate(KEY)).thenReturn(Optional.of(
+                new BookingRollup(KEY, 1, 100, 4, new BigDecimal("50.00"))));
+
+        analyticsService.onSeatChanged(new SeatChangedEvent(1L, 1, true));
+        analyticsService.onSeatChanged(new SeatChangedEvent(1L, 2, true));
+        analyticsService.onSeatChanged(new SeatChangedEvent(1L, 3, true));
+        analyticsService.onSeatChanged(new SeatChangedEvent(1L, 2, false));
+        analyticsService.flush();
+
+        ArgumentCaptor<BookingRollup> saved = ArgumentCaptor.forClass(BookingRollup.class);
+        verify(rollupRepository).save(saved.capture());
+        assertThat(saved.getValue().getSeatsSold()).isEqualTo(6);
+        assertThat(saved.getValue().getRevenue()).isEqualByComparingTo("75.00");
+        assertThat(saved.getValue().getCapacity()).isEqualTo(100);
+        verify(showtimeRepository, times(1)).findById(1L);
+        verify(transactionManager, times(1)).commit(any());
+        assertThat(analyticsService.pendingDeltas()).isZero();
+    }
+
+    /**
+     * Tests that a new showtime creates its rollup row with its capacity.
+     */
+    @Test
+    void onShowtimeAdded_ShouldCountCapacity() {
+        when(rollupRepository.findByIdForUpdate(KEY)).thenReturn(Optional.empty());
+
+        analyticsService.onShowtimeAdded(showtime);
+        analyticsService.flush();
+
+        ArgumentCaptor<BookingRollup> saved = ArgumentCaptor.forClass(BookingRollup.class);
+        verify(rollupRepository).save(saved.capture());
+        assertThat(saved.getValue().getShowtimeCount()).isEqualTo(1);
+        assertThat(saved.getValue().getCapacity()).isEqualTo(100);
+        assertThat(saved.getValue().getSeatsSold()).isZero();
+    }
+
+    /**
+     * Tests that deltas are kept for the next flush when writing them fails.
+     */
+    @Test
+    void flush_ShouldKeepDeltas_WhenTransactionFails() {
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(rollupRepository.findByIdForUpdate(KEY)).thenThrow(new IllegalStateException("lock timeout"));
+
+        analyticsService.onSeatChanged(new SeatChangedEvent(1L, 1, true));
+        analyticsService.flush();
+
+        assertThat(analyticsService.pendingDeltas()).isEqualTo(1);
+        verify(transactionManager).rollback(any());
+    }
+
+    /**
+     * Tests that a rebuild adds the bookings counted on the booking shards to the rebuilt rows.
+     */
+    @Test
+    void rebuild_ShouldAddShardedBookings_WhenShardsEnabled() {
+        when(shardedBookingRepository.isEnabled()).thenReturn(true);
+        when(shardedBookingRepository.countByShowtime()).thenReturn(Map.of(1L, 3L));
+        when(rollupRepository.rebuildFromBookings()).thenReturn(1);
+        when(showtimeRepository.findAllById(Set.of(1L))).thenReturn(List.of(showtime));
+        when(rollupRepository.findByIdForUpdate(KEY)).thenReturn(Optional.of(
+                new BookingRollup(KEY, 1, 100, 0, new BigDecimal("0.00"))));
+
+        assertThat(analyticsService.rebuild()).isEqualTo(1);
+
+        ArgumentCaptor<BookingRollup> saved = ArgumentCaptor.forClass(BookingRollup.class);
+        InOrder order = inOrder(rollupRepository);
+        order.verify(rollupRepository).deleteAllInBatch();
+        order.verify(rollupRepository).rebuildFromBookings();
+        order.verify(rollupRepository).save(saved.capture());
+        assertThat(saved.getValue().getSeatsSold()).isEqualTo(3);
+        assertThat(saved.getValue().getRevenue()).isEqualByComparingTo("37.50");
+        assertThat(saved.getValue().getShowtimeCount()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that an unknown grouping is rejected.
+     */
+    @Test
+    void getRevenueReport_ShouldRejectUnknownGrouping() {
+        LocalDate day = LocalDate.of(2025, 4, 10);
+
+        assertThatThrownBy(() -> analyticsService.getRevenueReport("genre", day, day))
+                .isInstanceOf(InvalidDataException.class);
+        verifyNoInteractions(rollupRepository);
+    }
+}
@@ -0,0 +1,85 @@
+package popcorn_palace.service;
+
+import popcorn_palace.repository.ArchivedBookingRepository;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiveServiceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+    private static final Instant NOW = Instant.parse("2025-04-12T04:00:00Z");
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingArchiveService archiveService;
+
+    /**
+     * Creates the service with chunks of two bookings, two hot days and a clock fixed at NOW.
+     */
+    @BeforeEach
+    void setUp() {
+        archiveService = new BookingArchiveService(bookingRepository, shardedBookingRepository, archivedBookingRepository, transactionManager,
+                2, 2, Clock.fixed(NOW, ZONE));
+    }
+
+    /**
+     * Tests that bookings are copied and deleted chunk by chunk, one transaction per chunk,
+     * and that the nightly job keeps the bookings of the last two days hot.
+     */
+    @Test
+    void archivePastBookings_ShouldMoveBookingsInChunks() {
+        LocalDate cutoff = LocalDate.of(2025, 4, 10);
+        PageRequest chunk = PageRequest.of(0, 2);
+        List<UUID> first = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> second = List.of(UUID.randomUUID());
+        when(bookingRepository.findIdsByShowtimeDateBefore(cutoff, chunk)).thenReturn(first, second, List.of());
+        when(archivedBookingRepository.archiveAllByIdIn(first, NOW)).thenReturn(2);
+        when(archivedBookingRepository.archiveAllByIdIn(second, NOW)).thenReturn(1);
+
+        archiveService.archivePastBookings();
+
+        verify(bookingRepository).deleteAllByIdInBatch(first);
+        verify(bookingRepository).deleteAllByIdInBatch(second);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    /**
+     * Tests that nothing is written when no booking is old enough.
+     */
+    @Test
+    void archiveBookingsBefore_ShouldReturnZero_WhenNothingToArchive() {
+        LocalDate cutoff = LocalDate.of(2025, 1, 1);
+        when(bookingRepository.findIdsByShowtimeDateBefore(cutoff, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        assertThat(archiveService.archiveBookingsBefore(cutoff)).isZero();
+        verifyNoInteractions(archivedBookingRepository, transactionManager);
+    }
+}
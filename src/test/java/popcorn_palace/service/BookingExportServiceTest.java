@@ -0,0 +1,147 @@
+package popcorn_palace.service;
+
+import popcorn_palace.model.ArchivedBooking;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Movie;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.ArchivedBookingRepository;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.MovieRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import popcorn_palace.repository.TheaterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the export against the test database, since the cursor query and the row writers are what is under test.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class BookingExportServiceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    private BookingExportService exportService;
+    private Booking first;
+    private Booking second;
+
+    /**
+     * Creates a showtime priced at 15.50 with two bookings, one of them by a user ID that needs CSV quoting.
+     */
+    @BeforeEach
+    void setUp() {
+        exportService = new BookingExportService(dataSource, transactionManager, new ObjectMapper(),
+                mock(ShardedBookingRepository.class), 1);
+
+        Showtime showtime = new Showtime();
+        showtime.setMovie(movieRepository.save(new Movie(null, "Inception", "Sci-Fi", 148, 8.8, 2010)));
+        showtime.setAuditorium(theaterRepository.save(new Theater(null, "IMAX Theater", 12, 30)));
+        showtime.setStartTime(LocalDateTime.of(2025, 4, 10, 19, 30));
+        showtime.setEndTime(LocalDateTime.of(2025, 4, 10, 21, 45));
+        showtime.setPrice(new BigDecimal("15.50"));
+        showtime = showtimeRepository.save(showtime);
+
+        first = bookingRepository.save(new Booking(showtime, 1, "user1"));
+        second = bookingRepository.save(new Booking(showtime, 2, "smith, \"js\""));
+        bookingRepository.flush();
+    }
+
+    /**
+     * Tests the CSV export: a header, one line per booking in seat order, and quoted fields where needed.
+     */
+    @Test
+    void export_ShouldWriteCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(BookingExportService.Format.CSV, false, out);
+
+        assertThat(rows).isEqualTo(2);
+        Long showtimeId = first.getShowtime().getId();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "booking_id,showtime_id,showtime_date,seat_number,user_id,price\n"
+                        + first.getBookingId() + "," + showtimeId + ",2025-04-10,1,user1,15.50\n"
+                        + second.getBookingId() + "," + showtimeId + ",2025-04-10,2,\"smith, \"\"js\"\"\",15.50\n");
+    }
+
+    /**
+     * Tests the gzipped NDJSON export: one JSON object per line.
+     */
+    @Test
+    void export_ShouldWriteGzippedNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(BookingExportService.Format.NDJSON, true, out);
+
+        String[] lines;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("{\"bookingId\":\"" + first.getBookingId() + "\",\"showtimeId\":"
+                + first.getShowtime().getId() + ",\"showtimeDate\":\"2025-04-10\",\"seatNumber\":1,\"userId\":\"user1\",\"price\":15.50}");
+        assertThat(lines[1]).contains("\"userId\":\"smith, \\\"js\\\"\"");
+    }
+
+    /**
+     * Tests that archived bookings are exported too, priced from their showtime, and with an empty price once
+     * their showtime was purged.
+     */
+    @Test
+    void export_ShouldIncludeArchivedBookings() throws IOException {
+        Long showtimeId = first.getShowtime().getId();
+        ArchivedBooking archived = archivedBookingRepository.save(new ArchivedBooking(UUID.randomUUID(), showtimeId, 3,
+                "user3", LocalDate.of(2025, 4, 10), Instant.now()));
+        ArchivedBooking orphan = archivedBookingRepository.save(new ArchivedBooking(UUID.randomUUID(), showtimeId + 1000, 1,
+                "user4", LocalDate.of(2024, 1, 5), Instant.now()));
+        archivedBookingRepository.flush();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(BookingExportService.Format.CSV, false, out);
+
+        assertThat(rows).isEqualTo(4);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).endsWith(
+                archived.getBookingId() + "," + showtimeId + ",2025-04-10,3,user3,15.50",
+                orphan.getBookingId() + "," + (showtimeId + 1000) + ",2024-01-05,1,user4,");
+    }
+}
@@ -0,0 +1,183 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.RateLimitExceededException;
+import popcorn_palace.exception.SeatAlreadyBookedException;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingGroupCommitterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 10, 19, 30);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private BookingGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        committer = new BookingGroupCommitter(bookingService, bookingRepository, showtimeRepository, outboxService,
+                idempotencyService, eventPublisher, transactionManager, "group-commit", 64, 1000, 5000, 4096);
+        ReflectionTestUtils.setField(committer, "entityManager", entityManager);
+    }
+
+    /**
+     * Tests that a batch is validated with one seat query per showtime, inserted in one transaction,
+     * and that a conflicting request fails on its own.
+     */
+    @Test
+    void commit_ShouldInsertBatchInOneTransaction_AndFailConflictsIndividually() {
+        Showtime showtime = new Showtime();
+        showtime.setId(1L);
+        showtime.setAuditorium(new Theater(1L, "Theater 1", 2, 5));
+        showtime.setStartTime(START);
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(1L, START.toLocalDate())).thenReturn(List.of(3));
+
+        BookingGroupCommitter.Request first = new BookingGroupCommitter.Request(1L, 1, "user1", null);
+        BookingGroupCommitter.Request second = new BookingGroupCommitter.Request(1L, 2, "user2", null);
+        BookingGroupCommitter.Request duplicate = new BookingGroupCommitter.Request(1L, 2, "user3", null);
+        BookingGroupCommitter.Request taken = new BookingGroupCommitter.Request(1L, 3, "user4", null);
+
+        committer.commit(List.of(first, second, duplicate, taken));
+
+        assertThat(first.result.join().getSeatNumber()).isEqualTo(1);
+        assertThat(second.result.join().getSeatNumber()).isEqualTo(2);
+        assertThat(duplicate.result).isCompletedExceptionally();
+        assertThat(taken.result).isCompletedExceptionally();
+        assertThat(duplicate.result.exceptionNow()).isInstanceOf(SeatAlreadyBookedException.class);
+
+        InOrder order = inOrder(entityManager, outboxService);
+        order.verify(entityManager, times(2)).persist(any(Booking.class));
+        order.verify(entityManager).flush();
+        order.verify(outboxService, times(2)).recordBookingEvent(eq(BookingEvent.BOOKING_CREATED), any(Booking.class));
+        verify(bookingRepository, times(1)).findSeatNumbersByShowtimeIdAndShowtimeDate(1L, START.toLocalDate());
+        verify(transactionManager, times(1)).commit(any());
+        verify(eventPublisher).publishEvent(new SeatChangedEvent(1L, 1, true));
+        verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Tests that when the batch cannot be committed its requests are retried one by one.
+     */
+    @Test
+    void commit_ShouldRetryIndividually_WhenBatchFails() {
+        Showtime showtime = new Showtime();
+        showtime.setId(1L);
+        showtime.setAuditorium(new Theater(1L, "Theater 1", 2, 5));
+        showtime.setStartTime(START);
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(1L, START.toLocalDate())).thenReturn(List.of());
+        doThrow(new IllegalStateException("unique_seat_booking")).when(entityManager).persist(any(Booking.class));
+        Booking retried = new Booking(showtime, 1, "user1");
+        when(bookingService.bookTicket(1L, 1, "user1", null)).thenReturn(retried);
+
+        BookingGroupCommitter.Request request = new BookingGroupCommitter.Request(1L, 1, "user1", null);
+        committer.commit(List.of(request));
+
+        assertThat(request.result.join()).isSameAs(retried);
+    }
+
+    /**
+     * Tests that a request turned away by a sibling in a batch that then fails is retried as well,
+     * since the sibling's seat was rolled back with the batch.
+     */
+    @Test
+    void commit_ShouldRetryRejectedRequests_WhenBatchFails() {
+        Showtime showtime = new Showtime();
+        showtime.setId(1L);
+        showtime.setAuditorium(new Theater(1L, "Theater 1", 2, 5));
+        showtime.setStartTime(START);
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(1L, START.toLocalDate())).thenReturn(List.of());
+        doThrow(new IllegalStateException("Write failed")).when(entityManager).persist(any(Booking.class));
+        when(bookingService.bookTicket(1L, 2, "user1", null)).thenThrow(new IllegalStateException("Write failed"));
+        Booking retried = new Booking(showtime, 2, "user2");
+        when(bookingService.bookTicket(1L, 2, "user2", null)).thenReturn(retried);
+
+        BookingGroupCommitter.Request first = new BookingGroupCommitter.Request(1L, 2, "user1", null);
+        BookingGroupCommitter.Request second = new BookingGroupCommitter.Request(1L, 2, "user2", null);
+        committer.commit(List.of(first, second));
+
+        assertThat(first.result).isCompletedExceptionally();
+        assertThat(second.result.join()).isSameAs(retried);
+    }
+
+    /**
+     * Tests that a request withdrawn by its caller is neither written nor completed.
+     */
+    @Test
+    void commit_ShouldSkipAbandonedRequest() {
+        BookingGroupCommitter.Request request = new BookingGroupCommitter.Request(1L, 1, "user1", null);
+        assertThat(request.abandon()).isTrue();
+
+        committer.commit(List.of(request));
+
+        assertThat(request.result).isNotDone();
+        verifyNoInteractions(showtimeRepository, entityManager, outboxService, eventPublisher);
+    }
+
+    /**
+     * Tests that a request that is not taken in time is withdrawn, and that requests beyond the queue capacity
+     * are rejected right away.
+     */
+    @Test
+    void book_ShouldRejectRequests_WhenQueueIsFullOrTimedOut() {
+        // Not started, so nothing drains the queue
+        BookingGroupCommitter idle = new BookingGroupCommitter(bookingService, bookingRepository, showtimeRepository,
+                outboxService, idempotencyService, eventPublisher, transactionManager, "group-commit", 64, 1000, 50, 1);
+
+        assertThatThrownBy(() -> idle.book(1L, 1, "user1", null))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("withdrawn");
+        assertThatThrownBy(() -> idle.book(1L, 2, "user2", null))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessage("Too many pending bookings.");
+    }
+}
@@ -0,0 +1,96 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+    private SimpleMeterRegistry meterRegistry;
+    private BookingRateLimiter rateLimiter;
+
+    /**
+     * Creates a limiter allowing 1 request per second with a burst of 2 per user, and 10 per second with a burst of 3 per showtime.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new BookingRateLimiter(meterRegistry, true, 1, 2, 10, 3, now::get);
+    }
+
+    /**
+     * Tests that a user can burst up to the limit, is then rejected, and is admitted again after the refill.
+     */
+    @Test
+    void acquire_ShouldRejectUser_AfterBurst() {
+        rateLimiter.acquire(1L, "user1");
+        rateLimiter.acquire(2L, "user1");
+
+        assertThatThrownBy(() -> rateLimiter.acquire(3L, "user1"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("user user1");
+        assertThat(meterRegistry.counter("popcorn.booking.rate_limited", "scope", "user").count()).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.acquire(3L, "user1");
+    }
+
+    /**
+     * Tests that a showtime is throttled across users.
+     */
+    @Test
+    void acquire_ShouldRejectShowtime_AcrossUsers() {
+        rateLimiter.acquire(1L, "user1");
+        rateLimiter.acquire(1L, "user2");
+        rateLimiter.acquire(1L, "user3");
+
+        assertThatThrownBy(() -> rateLimiter.acquire(1L, "user4"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("showtime 1");
+        assertThat(meterRegistry.counter("popcorn.booking.rate_limited", "scope", "showtime").count()).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a request rejected by the showtime's bucket does not cost the user a token.
+     */
+    @Test
+    void acquire_ShouldKeepUserToken_WhenShowtimeRejects() {
+        rateLimiter.acquire(1L, "user1");
+        rateLimiter.acquire(1L, "user2");
+        rateLimiter.acquire(1L, "user3");
+
+        assertThatThrownBy(() -> rateLimiter.acquire(1L, "user4"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("showtime 1");
+        assertThatThrownBy(() -> rateLimiter.acquire(1L, "user4"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("showtime 1");
+
+        // Both user4 tokens are still there for other showtimes.
+        rateLimiter.acquire(2L, "user4");
+        rateLimiter.acquire(3L, "user4");
+        assertThat(meterRegistry.counter("popcorn.booking.rate_limited", "scope", "user").count()).isZero();
+    }
+
+    /**
+     * Tests that refilled buckets are evicted.
+     */
+    @Test
+    void evictIdleBuckets_ShouldDropFullBuckets() {
+        rateLimiter.acquire(1L, "user1");
+        assertThat(rateLimiter.bucketCount()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        rateLimiter.evictIdleBuckets();
+
+        assertThat(rateLimiter.bucketCount()).isZero();
+    }
+}
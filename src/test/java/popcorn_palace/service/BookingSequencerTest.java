@@ -0,0 +1,272 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.BookingOutcomeUnknownException;
+import popcorn_palace.exception.RateLimitExceededException;
+import popcorn_palace.exception.SeatAlreadyBookedException;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingSequencerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 10, 19, 30);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingSequencer sequencer;
+
+    /**
+     * Starts a sequencer with two partitions over a showtime in a 2x5 theater where seat 3 is already booked.
+     */
+    @BeforeEach
+    void setUp() {
+        Showtime showtime = new Showtime();
+        showtime.setId(1L);
+        showtime.setAuditorium(new Theater(1L, "Theater 1", 2, 5));
+        showtime.setStartTime(START);
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(1L, START.toLocalDate())).thenReturn(List.of(3));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        sequencer = new BookingSequencer(bookingRepository, showtimeRepository, outboxService, idempotencyService,
+                eventPublisher, transactionManager, "sequenced", 2, 64, 16, 5_000L);
+        sequencer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.stop();
+    }
+
+    /**
+     * Tests that a free seat is booked, written with its outbox event and published after the commit.
+     */
+    @Test
+    void book_ShouldCreateBooking_WhenSeatFree() {
+        Booking booking = sequencer.book(1L, 4, "user1", null);
+
+        assertThat(booking.getSeatNumber()).isEqualTo(4);
+        assertThat(booking.getBookingId()).isNotNull();
+        verify(outboxService).recordBookingEvent(BookingEvent.BOOKING_CREATED, booking);
+        verify(eventPublisher).publishEvent(new SeatChangedEvent(1L, 4, true));
+    }
+
+    /**
+     * Tests that seat conflicts are decided from the writer's seat map, including seats booked before start.
+     */
+    @Test
+    void book_ShouldRejectTakenSeat() {
+        sequencer.book(1L, 4, "user1", null);
+
+        assertThatThrownBy(() -> sequencer.book(1L, 4, "user2", null)).isInstanceOf(SeatAlreadyBookedException.class);
+        assertThatThrownBy(() -> sequencer.book(1L, 3, "user2", null)).isInstanceOf(SeatAlreadyBookedException.class);
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+    }
+
+    /**
+     * Tests that a best available block is picked from the writer's seat map, which then owns its seats.
+     */
+    @Test
+    void bookBestAvailable_ShouldTakeBlockFromSeatMap() {
+        List<Booking> block = sequencer.bookBestAvailable(1L, 2, "user1");
+
+        int firstSeat = block.get(0).getSeatNumber();
+        assertThat(block).extracting(Booking::getSeatNumber).containsExactly(firstSeat, firstSeat + 1).doesNotContain(3);
+        assertThatThrownBy(() -> sequencer.book(1L, firstSeat, "user2", null)).isInstanceOf(SeatAlreadyBookedException.class);
+        verify(outboxService, times(2)).recordBookingEvent(eq(BookingEvent.BOOKING_CREATED), any(Booking.class));
+        verify(eventPublisher).publishEvent(new SeatChangedEvent(1L, firstSeat + 1, true));
+    }
+
+    /**
+     * Tests that the writer loads its seat maps from the primary, since a lagging replica would miss booked seats.
+     */
+    @Test
+    void book_ShouldLoadSeatMapFromPrimary() {
+        boolean[] pinned = new boolean[1];
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(1L, START.toLocalDate())).thenAnswer(invocation -> {
+            pinned[0] = ReadYourWrites.isPrimaryPinned();
+            return List.of(3);
+        });
+
+        sequencer.book(1L, 4, "user1", null);
+
+        assertThat(pinned[0]).isTrue();
+    }
+
+    /**
+     * Tests that concurrent requests for the same seat produce exactly one booking.
+     */
+    @Test
+    void book_ShouldAllowOneWinner_UnderContention() throws InterruptedException {
+        int[] winners = new int[1];
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            String userId = "user" + i;
+            threads[i] = new Thread(() -> {
+                try {
+                    sequencer.book(1L, 7, userId, null);
+                    synchronized (winners) {
+                        winners[0]++;
+                    }
+                } catch (SeatAlreadyBookedException ignored) {
+                    // Expected for all but one
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(winners[0]).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a caller that times out reports an unknown outcome with the booking ID once the writer took its
+     * command, and withdraws a command the writer has not taken, which is then never written.
+     */
+    @Test
+    void book_ShouldWithdrawOrReportUnknownOutcome_WhenTimedOut() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Showtime showtime = showtimeRepository.findById(1L).orElseThrow();
+        when(showtimeRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(showtime);
+        });
+        BookingSequencer slow = new BookingSequencer(bookingRepository, showtimeRepository, outboxService, idempotencyService,
+                eventPublisher, transactionManager, "sequenced", 1, 64, 16, 100L);
+        slow.start();
+        try {
+            BookingOutcomeUnknownException unknown = catchThrowableOfType(
+                    () -> slow.book(1L, 4, "user1", null), BookingOutcomeUnknownException.class);
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThatThrownBy(() -> slow.book(1L, 5, "user2", null))
+                    .isInstanceOf(RateLimitExceededException.class);
+            release.countDown();
+
+            Booking later = slow.book(1L, 6, "user3", null);
+
+            ArgumentCaptor<Booking> saved = ArgumentCaptor.forClass(Booking.class);
+            verify(bookingRepository, times(2)).save(saved.capture());
+            assertThat(saved.getAllValues()).extracting(Booking::getSeatNumber).containsExactly(4, 6);
+            assertThat(saved.getAllValues().get(0).getBookingId()).isEqualTo(unknown.getBookingId());
+            assertThat(later.getSeatNumber()).isEqualTo(6);
+        } finally {
+            release.countDown();
+            slow.stop();
+        }
+    }
+
+    /**
+     * Tests that a booking turned away by a sibling in the same batch gets the seat when the sibling's write fails
+     * and the batch is retried command by command.
+     */
+    @Test
+    void book_ShouldReevaluateRejectedCommand_WhenBatchRollsBack() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Showtime other = new Showtime();
+        other.setId(2L);
+        other.setAuditorium(new Theater(1L, "Theater 1", 2, 5));
+        other.setStartTime(START);
+        when(showtimeRepository.findById(2L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(other);
+        });
+        doThrow(new IllegalStateException("Write failed"))
+                .when(bookingRepository).save(argThat(booking -> booking != null && "user1".equals(booking.getUserId())));
+        BookingSequencer single = new BookingSequencer(bookingRepository, showtimeRepository, outboxService, idempotencyService,
+                eventPublisher, transactionManager, "sequenced", 1, 64, 16, 5_000L);
+        single.start();
+        try {
+            // Hold the writer on another showtime so both bookings for seat 4 land in the next batch
+            Thread blocker = new Thread(() -> single.book(2L, 1, "user0", null));
+            blocker.start();
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            AtomicReference<Object> first = new AtomicReference<>();
+            AtomicReference<Object> second = new AtomicReference<>();
+            Thread firstCaller = bookInBackground(single, "user1", first);
+            Thread secondCaller = bookInBackground(single, "user2", second);
+            release.countDown();
+            blocker.join();
+            firstCaller.join();
+            secondCaller.join();
+
+            assertThat(first.get()).isInstanceOf(IllegalStateException.class);
+            assertThat(second.get()).isInstanceOfSatisfying(Booking.class,
+                    booking -> assertThat(booking.getUserId()).isEqualTo("user2"));
+        } finally {
+            release.countDown();
+            single.stop();
+        }
+    }
+
+    /**
+     * Books seat 4 of showtime 1 on a new thread and returns once the booking is queued.
+     */
+    private static Thread bookInBackground(BookingSequencer sequencer, String userId, AtomicReference<Object> outcome)
+            throws InterruptedException {
+        Thread caller = new Thread(() -> {
+            try {
+                outcome.set(sequencer.book(1L, 4, userId, null));
+            } catch (RuntimeException e) {
+                outcome.set(e);
+            }
+        });
+        caller.start();
+        while (caller.isAlive() && caller.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1); // Waiting for its result
+        }
+        return caller;
+    }
+}
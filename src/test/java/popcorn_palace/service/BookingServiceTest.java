@@ -1,10 +1,16 @@
 package popcorn_palace.service;
 
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.InvalidDataException;
 import popcorn_palace.exception.ResourceNotFoundException;
 import popcorn_palace.exception.SeatAlreadyBookedException;
 import popcorn_palace.model.Booking;
+import popcorn_palace.model.SeatMap;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
 import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
 import popcorn_palace.repository.ShowtimeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,7 +18,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
@@ -21,12 +32,26 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class BookingServiceTest {
 
+    private static final LocalDate SHOW_DATE = LocalDate.of(2025, 4, 10);
+
     @Mock
     private BookingRepository bookingRepository;
 
     @Mock
     private ShowtimeRepository showtimeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private ShardedBookingRepository shardedBookingRepository;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -50,6 +75,8 @@ class BookingServiceTest {
 
         sampleShowtime = new Showtime();
         sampleShowtime.setId(showtimeId);
+        sampleShowtime.setAuditorium(new Theater(1L, "Theater 1", 10, 20));
+        sampleShowtime.setStartTime(LocalDateTime.of(2025, 4, 10, 19, 30));
 
         sampleBooking = new Booking();
         sampleBooking.setBookingId(bookingId);
@@ -65,7 +92,7 @@ class BookingServiceTest {
     void bookTicket_ShouldCreateBooking_WhenValid() {
         // Simulate that the showtime exists and the seat is not already booked.
         when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(sampleShowtime));
-        when(bookingRepository.findByShowtimeIdAndSeatNumber(showtimeId, seatNumber)).thenReturn(Optional.empty());
+        when(bookingRepository.findByShowtimeIdAndShowtimeDateAndSeatNumber(showtimeId, SHOW_DATE, seatNumber)).thenReturn(Optional.empty());
         when(bookingRepository.save(any(Booking.class))).thenReturn(sampleBooking);
 
         // Call the service method to book the ticket.
@@ -77,6 +104,24 @@ class BookingServiceTest {
         assertThat(createdBooking.getSeatNumber()).isEqualTo(seatNumber);
         assertThat(createdBooking.getUserId()).isEqualTo(userId);
         assertThat(createdBooking.getBookingId()).isNotNull();
+        verify(eventPublisher).publishEvent(new SeatChangedEvent(showtimeId, seatNumber, true));
+        verify(outboxService).recordBookingEvent(BookingEvent.BOOKING_CREATED, sampleBooking);
+        verifyNoInteractions(idempotencyService);
+    }
+
+    /**
+     * Tests that a booking made with an idempotency key stores its response for retries.
+     */
+    @Test
+    void bookTicket_ShouldRememberResponse_WhenIdempotencyKeyGiven() {
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+        when(bookingRepository.findByShowtimeIdAndShowtimeDateAndSeatNumber(showtimeId, SHOW_DATE, seatNumber)).thenReturn(Optional.empty());
+        when(bookingRepository.save(any(Booking.class))).thenReturn(sampleBooking);
+
+        bookingService.bookTicket(showtimeId, seatNumber, userId, "retry-key-1");
+
+        verify(idempotencyService).remember("retry-key-1",
+                IdempotencyService.bookingFingerprint(showtimeId, seatNumber, userId), 201, sampleBooking);
     }
 
     /**
@@ -100,7 +145,7 @@ class BookingServiceTest {
     void bookTicket_ShouldThrowException_WhenSeatAlreadyBooked() {
         // Simulate that the seat is already booked for the given showtime.
         when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(sampleShowtime));
-        when(bookingRepository.findByShowtimeIdAndSeatNumber(showtimeId, seatNumber)).thenReturn(Optional.of(sampleBooking));
+        when(bookingRepository.findByShowtimeIdAndShowtimeDateAndSeatNumber(showtimeId, SHOW_DATE, seatNumber)).thenReturn(Optional.of(sampleBooking));
 
         // Verify that a SeatAlreadyBookedException is thrown.
         assertThatThrownBy(() -> bookingService.bookTicket(showtimeId, seatNumber, userId))
@@ -108,6 +153,128 @@ class BookingServiceTest {
                 .hasMessage("Seat " + seatNumber + " is already booked for this showtime.");
     }
 
+    /**
+     * Tests that with booking shards the seat is inserted on the shard, and a unique key violation
+     * there is reported as an already booked seat.
+     */
+    @Test
+    void bookTicket_ShouldUseShards_WhenEnabled() {
+        when(shardedBookingRepository.isEnabled()).thenReturn(true);
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+
+        Booking createdBooking = bookingService.bookTicket(showtimeId, seatNumber, userId);
+
+        verify(shardedBookingRepository).insertAll(List.of(createdBooking));
+        verify(outboxService).recordBookingEvent(BookingEvent.BOOKING_CREATED, createdBooking);
+        verifyNoInteractions(bookingRepository);
+
+        doThrow(new DuplicateKeyException("unique_seat_booking")).when(shardedBookingRepository).insertAll(anyList());
+        assertThatThrownBy(() -> bookingService.bookTicket(showtimeId, seatNumber, userId))
+                .isInstanceOf(SeatAlreadyBookedException.class)
+                .hasMessage("Seat " + seatNumber + " is already booked for this showtime.");
+    }
+
+    /**
+     * Tests that a seat outside the theater's layout is rejected without looking up existing bookings.
+     */
+    @Test
+    void bookTicket_ShouldThrowException_WhenSeatOutsideTheater() {
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+
+        assertThatThrownBy(() -> bookingService.bookTicket(showtimeId, 201, userId))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessageContaining("Seat 201 does not exist");
+        verify(bookingRepository, never()).findByShowtimeIdAndShowtimeDateAndSeatNumber(anyLong(), any(), anyInt());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(outboxService);
+    }
+
+    /**
+     * Tests that the seat map is sized from the theater and marks the booked seats.
+     */
+    @Test
+    void getSeatMap_ShouldMarkBookedSeats() {
+        when(showtimeRepository.findById(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtimeId, SHOW_DATE)).thenReturn(List.of(5, 64, 200));
+
+        SeatMap seatMap = bookingService.getSeatMap(showtimeId);
+
+        assertThat(seatMap.getCapacity()).isEqualTo(200);
+        assertThat(seatMap.getTakenSeats()).containsExactly(5, 64, 200);
+        assertThat(seatMap.getAvailableCount()).isEqualTo(197);
+        assertThat(seatMap.isTaken(6)).isFalse();
+    }
+
+    /**
+     * Tests that the best block is taken from the middle row, as close to its center as possible.
+     */
+    @Test
+    void bookBestAvailable_ShouldBookCenteredBlockInMiddleRow() {
+        sampleShowtime.setAuditorium(new Theater(1L, "Theater 1", 3, 5));
+        when(showtimeRepository.findByIdForUpdate(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtimeId, SHOW_DATE)).thenReturn(List.of());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Booking> bookings = bookingService.bookBestAvailable(showtimeId, 2, userId);
+
+        assertThat(bookings).extracting(Booking::getSeatNumber).containsExactly(7, 8);
+        verify(outboxService, times(2)).recordBookingEvent(eq(BookingEvent.BOOKING_CREATED), any(Booking.class));
+    }
+
+    /**
+     * Tests the search on a row that straddles two words of the seat map, with its center taken.
+     */
+    @Test
+    void bookBestAvailable_ShouldFindBlockNextToTakenCenter_InRowAcrossWords() {
+        sampleShowtime.setAuditorium(new Theater(1L, "Theater 1", 3, 50));
+        List<Integer> taken = new ArrayList<>();
+        for (int seat = 1; seat <= 50; seat++) {
+            taken.add(seat);       // Row 1
+            taken.add(seat + 100); // Row 3
+        }
+        for (int seat = 73; seat <= 78; seat++) {
+            taken.add(seat);       // Center of row 2 (seats 51-100, bits 50-99)
+        }
+        when(showtimeRepository.findByIdForUpdate(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtimeId, SHOW_DATE)).thenReturn(taken);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Booking> bookings = bookingService.bookBestAvailable(showtimeId, 4, userId);
+
+        assertThat(bookings).extracting(Booking::getSeatNumber).containsExactly(69, 70, 71, 72);
+    }
+
+    /**
+     * Tests that nothing is booked when no row has enough adjacent free seats.
+     */
+    @Test
+    void bookBestAvailable_ShouldThrowException_WhenNoBlockAvailable() {
+        sampleShowtime.setAuditorium(new Theater(1L, "Theater 1", 1, 5));
+        when(showtimeRepository.findByIdForUpdate(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtimeId, SHOW_DATE)).thenReturn(List.of(2, 4));
+
+        assertThatThrownBy(() -> bookingService.bookBestAvailable(showtimeId, 2, userId))
+                .isInstanceOf(SeatAlreadyBookedException.class);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    /**
+     * Tests that a seat booked concurrently by a single seat booking, which does not lock the showtime,
+     * fails the block as a conflict instead of a constraint violation.
+     */
+    @Test
+    void bookBestAvailable_ShouldThrowSeatAlreadyBooked_WhenSeatTakenConcurrently() {
+        sampleShowtime.setAuditorium(new Theater(1L, "Theater 1", 1, 5));
+        when(showtimeRepository.findByIdForUpdate(showtimeId)).thenReturn(Optional.of(sampleShowtime));
+        when(bookingRepository.findSeatNumbersByShowtimeIdAndShowtimeDate(showtimeId, SHOW_DATE)).thenReturn(List.of());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataIntegrityViolationException("unique_seat_booking")).when(bookingRepository).flush();
+
+        assertThatThrownBy(() -> bookingService.bookBestAvailable(showtimeId, 2, userId))
+                .isInstanceOf(SeatAlreadyBookedException.class);
+        verifyNoInteractions(outboxService);
+    }
+
     /**
      * Tests that a booking is retrieved correctly when it exists.
      */
@@ -178,6 +345,8 @@ class BookingServiceTest {
         bookingService.cancelBooking(bookingId);
 
         verify(bookingRepository, times(1)).delete(sampleBooking);
+        verify(eventPublisher).publishEvent(new SeatChangedEvent(showtimeId, seatNumber, false));
+        verify(outboxService).recordBookingEvent(BookingEvent.BOOKING_CANCELLED, sampleBooking);
     }
 
     /**
@@ -0,0 +1,122 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.BucketMove;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.repository.BookingShards;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for BookingShardRebalancer, with in-memory H2 databases standing in for the primary and the
+ * booking shards. Bookings are written on one shard, then a second shard is added and the buckets spread.
+ */
+class BookingShardRebalancerTest {
+
+    private static final int BUCKETS = 16;
+    private static final int SHOWTIMES = 40;
+    private static final int SEATS = 5;
+
+    private DataSource primary;
+    private List<DataSource> shardDatabases;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        primary = database(run + "_primary");
+        shardDatabases = List.of(database(run + "_0"), database(run + "_1"));
+
+        // Book while there is only the first shard.
+        BookingShards oneShard = new BookingShards(primary, shardDatabases.subList(0, 1), BUCKETS);
+        ShardedBookingRepository repository = new ShardedBookingRepository(oneShard, mock(ShowtimeRepository.class));
+        for (long id = 1; id <= SHOWTIMES; id++) {
+            for (int seat = 1; seat <= SEATS; seat++) {
+                repository.insert(new Booking(showtime(id), seat, "user" + seat));
+            }
+        }
+    }
+
+    /**
+     * Tests that a bucket's bookings are moved to the target shard, the bucket is switched over and
+     * new bookings of its showtimes go to the new shard.
+     */
+    @Test
+    void moveBucket_ShouldMoveBookingsAndAssignment() {
+        BookingShards shards = new BookingShards(primary, shardDatabases, BUCKETS);
+        ShardedBookingRepository repository = new ShardedBookingRepository(shards, mock(ShowtimeRepository.class));
+        BookingShardRebalancer rebalancer = new BookingShardRebalancer(shards, 3);
+        int bucket = shards.bucketOf(1L);
+        long bucketSize = rebalancer.bucketCounts().get(0).get(bucket);
+
+        BucketMove move = rebalancer.moveBucket(bucket, 1);
+
+        assertThat(move.getFromShard()).isZero();
+        assertThat(move.getBookingsMoved()).isEqualTo(bucketSize);
+        assertThat(shards.shardOfBucket(bucket)).isEqualTo(1);
+        assertThat(rebalancer.bucketCounts().get(0)).doesNotContainKey(bucket);
+        assertThat(rebalancer.bucketCounts().get(1)).containsEntry(bucket, bucketSize);
+        assertThat(repository.findSeatNumbers(1L)).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+
+        repository.insert(new Booking(showtime(1L), 6, "user6"));
+        assertThat(shards.jdbc(1).queryForObject("SELECT COUNT(*) FROM booking WHERE showtime_id = 1", Long.class))
+                .isEqualTo(SEATS + 1);
+    }
+
+    /**
+     * Tests that rebalancing after adding a shard spreads the bookings over both shards without losing any,
+     * and that a second run has nothing left to move.
+     */
+    @Test
+    void rebalance_ShouldSpreadBookingsOverNewShard() {
+        BookingShards shards = new BookingShards(primary, shardDatabases, BUCKETS);
+        ShardedBookingRepository repository = new ShardedBookingRepository(shards, mock(ShowtimeRepository.class));
+        BookingShardRebalancer rebalancer = new BookingShardRebalancer(shards, 1000);
+        assertThat(repository.countPerShard()).containsExactly((long) SHOWTIMES * SEATS, 0L);
+
+        List<BucketMove> moves = rebalancer.rebalance(BUCKETS);
+
+        List<Long> counts = repository.countPerShard();
+        assertThat(moves).isNotEmpty().allSatisfy(move -> assertThat(move.getToShard()).isEqualTo(1));
+        assertThat(counts.get(0) + counts.get(1)).isEqualTo((long) SHOWTIMES * SEATS);
+        // No single bucket move could narrow the remaining gap any further.
+        long largestBucket = rebalancer.bucketCounts().stream()
+                .flatMap(perBucket -> perBucket.values().stream()).max(Long::compare).orElseThrow();
+        assertThat(Math.abs(counts.get(0) - counts.get(1))).isLessThanOrEqualTo(largestBucket);
+        assertThat(rebalancer.rebalance(BUCKETS)).isEmpty();
+    }
+
+    /**
+     * Tests that moving a bucket to a shard that does not exist is rejected.
+     */
+    @Test
+    void moveBucket_ShouldThrowException_WhenShardUnknown() {
+        BookingShardRebalancer rebalancer = new BookingShardRebalancer(new BookingShards(primary, shardDatabases, BUCKETS), 100);
+
+        assertThatThrownBy(() -> rebalancer.moveBucket(0, 2))
+                .isInstanceOf(InvalidDataException.class);
+    }
+
+    private static Showtime showtime(long id) {
+        Showtime showtime = new Showtime();
+        showtime.setId(id);
+        showtime.setStartTime(LocalDateTime.of(2025, 5, 1, 18, 0).plusHours(id));
+        return showtime;
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:rebalance_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
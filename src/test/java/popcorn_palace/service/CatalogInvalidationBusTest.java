@@ -0,0 +1,171 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.LoopbackInvalidationTransport;
+import popcorn_palace.service.CatalogVersions.Catalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for CatalogInvalidationBus: two instances, each with its own CatalogVersions, connected
+ * by a LoopbackInvalidationTransport. The coalescing window and the heartbeat interval are long so the tests
+ * flush and send heartbeats by hand.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogInvalidationBusTest {
+
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final long HEARTBEAT_MILLIS = 60_000;
+
+    @Mock
+    private NowShowingService nowShowingA;
+
+    @Mock
+    private NowShowingService nowShowingB;
+
+    @Mock
+    private AnalyticsService analyticsA;
+
+    @Mock
+    private AnalyticsService analyticsB;
+
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+    private final List<String> messages = new ArrayList<>();
+    private final CatalogVersions versionsA = new CatalogVersions();
+    private final CatalogVersions versionsB = new CatalogVersions();
+    private CatalogInvalidationBus busA;
+    private CatalogInvalidationBus busB;
+
+    @BeforeEach
+    void setUp() {
+        transport.subscribe(messages::add);
+        busA = new CatalogInvalidationBus(versionsA, nowShowingA, analyticsA, transport, WINDOW_MILLIS, HEARTBEAT_MILLIS);
+        busB = new CatalogInvalidationBus(versionsB, nowShowingB, analyticsB, transport, WINDOW_MILLIS, HEARTBEAT_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        busA.shutdown();
+        busB.shutdown();
+    }
+
+    /**
+     * Tests that changes within one window go out as a single message, which moves the other instance's
+     * versions of exactly those catalogs and drops its caches, while the sender ignores its own message.
+     */
+    @Test
+    void changes_ShouldBeCoalescedAndInvalidateOtherInstance() {
+        String moviesB = versionsB.etag(Catalog.MOVIES);
+        String showtimesB = versionsB.etag(Catalog.SHOWTIMES);
+        String theatersB = versionsB.etag(Catalog.THEATERS);
+
+        versionsA.changed(Catalog.MOVIES);
+        versionsA.changed(Catalog.SHOWTIMES);
+        versionsA.changed(Catalog.MOVIES);
+        assertThat(messages).isEmpty();
+        busA.flush();
+        busA.flush();
+
+        assertThat(messages).containsExactly(busA.node() + " 1 MOVIES,SHOWTIMES");
+        assertThat(versionsB.etag(Catalog.MOVIES)).isNotEqualTo(moviesB);
+        assertThat(versionsB.etag(Catalog.SHOWTIMES)).isNotEqualTo(showtimesB);
+        assertThat(versionsB.etag(Catalog.THEATERS)).isEqualTo(theatersB);
+        verify(nowShowingB).invalidate();
+        verify(analyticsB).evictFacts();
+        // Versions moved by remote changes are not broadcast again.
+        busB.flush();
+        assertThat(messages).hasSize(1);
+        assertThat(versionsA.etag(Catalog.MOVIES)).endsWith("-m2\"");
+        verifyNoInteractions(nowShowingA, analyticsA);
+    }
+
+    /**
+     * Tests that a movie change leaves the cached showtime facts alone.
+     */
+    @Test
+    void movieChange_ShouldKeepShowtimeFacts() {
+        versionsA.changed(Catalog.MOVIES);
+        busA.flush();
+
+        verify(nowShowingB).invalidate();
+        verify(analyticsB, never()).evictFacts();
+    }
+
+    /**
+     * Tests that a gap in an instance's message numbers invalidates every catalog.
+     */
+    @Test
+    void missedMessage_ShouldInvalidateAllCatalogs() {
+        String theatersB = versionsB.etag(Catalog.THEATERS);
+
+        busB.receive("node-a 1 MOVIES");
+        assertThat(versionsB.etag(Catalog.THEATERS)).isEqualTo(theatersB);
+        busB.receive("node-a 3 MOVIES");
+
+        assertThat(versionsB.etag(Catalog.THEATERS)).isNotEqualTo(theatersB);
+        verify(analyticsB).evictFacts();
+    }
+
+    /**
+     * Tests that the first message from an instance that already sent others, before this one listened,
+     * invalidates every catalog, while an instance's very first message and heartbeat do not.
+     */
+    @Test
+    void firstMessage_ShouldInvalidateAllCatalogs_WhenEarlierMessagesWereSent() {
+        String theatersB = versionsB.etag(Catalog.THEATERS);
+        busB.receive("node-a 0 -");
+        busB.receive("node-a 1 MOVIES");
+        assertThat(versionsB.etag(Catalog.THEATERS)).isEqualTo(theatersB);
+
+        busB.receive("node-c 7 MOVIES");
+
+        assertThat(versionsB.etag(Catalog.THEATERS)).isNotEqualTo(theatersB);
+        verify(analyticsB).evictFacts();
+    }
+
+    /**
+     * Tests that a heartbeat repeating the last number changes nothing, while one ahead of the last message
+     * received reveals that the sender's last message was lost.
+     */
+    @Test
+    void heartbeat_ShouldInvalidateAllCatalogs_WhenLastMessageWasMissed() {
+        busA.heartbeat();
+        assertThat(messages).containsExactly(busA.node() + " 0 -");
+        verifyNoInteractions(nowShowingB, analyticsB);
+
+        String theatersB = versionsB.etag(Catalog.THEATERS);
+        busB.receive("node-a 1 MOVIES");
+        busB.receive("node-a 1 -");
+        assertThat(versionsB.etag(Catalog.THEATERS)).isEqualTo(theatersB);
+        verify(analyticsB, never()).evictFacts();
+
+        busB.receive("node-a 2 -");
+
+        assertThat(versionsB.etag(Catalog.THEATERS)).isNotEqualTo(theatersB);
+        verify(analyticsB).evictFacts();
+    }
+
+    /**
+     * Tests that malformed messages are ignored.
+     */
+    @Test
+    void malformedMessage_ShouldBeIgnored() {
+        String etag = versionsB.etag(Catalog.values());
+
+        busB.receive("node-a 1 POPCORN");
+        busB.receive("node-a x MOVIES");
+        busB.receive("hello");
+
+        assertThat(versionsB.etag(Catalog.values())).isEqualTo(etag);
+        verifyNoInteractions(nowShowingB, analyticsB);
+    }
+}
@@ -0,0 +1,87 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.ClusterMembershipChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterMembershipTest {
+
+    private static final String SELF = "http://localhost:8081";
+    private static final String PEER = "http://localhost:8082";
+    private static final String OTHER = "http://localhost:8083";
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Set<String> down = new HashSet<>();
+    private ClusterMembership membership;
+
+    @BeforeEach
+    void setUp() {
+        membership = new ClusterMembership(true, SELF + "/", List.of(SELF, PEER, OTHER), 128, 2,
+                member -> !down.contains(member), eventPublisher);
+    }
+
+    /**
+     * Tests that a member leaves the ring after missing failure-threshold pings, its showtimes move
+     * to the remaining nodes, and it joins again when it answers.
+     */
+    @Test
+    void heartbeat_ShouldMoveOwnershipWhenMemberLeavesAndJoins() {
+        Long peerShowtime = LongStream.rangeClosed(1, 1000).filter(id -> membership.ownerOf(id).equals(PEER))
+                .boxed().findFirst().orElseThrow();
+        down.add(PEER);
+
+        membership.heartbeat();
+        assertThat(membership.members()).containsExactly(SELF, PEER, OTHER);
+        verifyNoInteractions(eventPublisher);
+
+        membership.heartbeat();
+        assertThat(membership.members()).containsExactly(SELF, OTHER);
+        assertThat(membership.ownerOf(peerShowtime)).isIn(SELF, OTHER);
+        verify(eventPublisher).publishEvent(new ClusterMembershipChangedEvent(1, List.of(SELF, OTHER)));
+
+        down.clear();
+        membership.heartbeat();
+        assertThat(membership.ownerOf(peerShowtime)).isEqualTo(PEER);
+        assertThat(membership.epoch()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that a member reported unreachable leaves at once, and this node never leaves its own ring.
+     */
+    @Test
+    void markDown_ShouldRemoveMemberImmediately() {
+        membership.markDown(OTHER);
+        membership.markDown(SELF);
+
+        assertThat(membership.members()).containsExactly(SELF, PEER);
+        verify(eventPublisher, times(1)).publishEvent(any(ClusterMembershipChangedEvent.class));
+    }
+
+    /**
+     * Tests that without cluster mode every showtime is local, and that cluster mode needs this node's URL.
+     */
+    @Test
+    void ownerOf_ShouldBeSelf_WhenDisabled() {
+        ClusterMembership disabled = new ClusterMembership(false, "", List.of(), 128, 3, member -> true, eventPublisher);
+
+        assertThat(disabled.isLocal(42L)).isTrue();
+        assertThatThrownBy(() -> new ClusterMembership(true, " ", List.of(PEER), 128, 3, member -> true, eventPublisher))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package popcorn_palace.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandRingTest {
+
+    /**
+     * Tests that elements are drained in order and that a full ring rejects new elements until drained.
+     */
+    @Test
+    void offer_ShouldRejectWhenFull_AndDrainInOrder() {
+        CommandRing<Integer> ring = new CommandRing<>(4);
+        for (int i = 1; i <= 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(5)).isFalse();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(ring.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(ring.offer(5)).isTrue();
+        ring.drainTo(drained, 10);
+
+        assertThat(drained).containsExactly(1, 2, 3, 4, 5);
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    /**
+     * Tests that concurrent producers never lose or duplicate elements.
+     */
+    @Test
+    void offer_ShouldKeepAllElements_WithConcurrentProducers() throws InterruptedException {
+        CommandRing<Integer> ring = new CommandRing<>(1024);
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            int base = p * 200;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    ring.offer(base + i);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        ring.drainTo(drained, 1000);
+        assertThat(drained).hasSize(800).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void constructor_ShouldRequirePowerOfTwo() {
+        assertThatThrownBy(() -> new CommandRing<Integer>(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
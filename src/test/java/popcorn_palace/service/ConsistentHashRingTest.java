@@ -0,0 +1,69 @@
+package popcorn_palace.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> NODES = List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+    private static final int SHOWTIMES = 30_000;
+
+    /**
+     * Tests that every node computes the same owners, whatever order it lists the members in.
+     */
+    @Test
+    void ownerOf_ShouldNotDependOnMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing reversed = new ConsistentHashRing(NODES.reversed(), 128);
+
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(reversed.ownerOf(id)).isEqualTo(ring.ownerOf(id));
+        }
+        assertThat(new ConsistentHashRing(List.of(), 128).ownerOf(1L)).isNull();
+    }
+
+    /**
+     * Tests that consecutive showtime IDs are spread roughly evenly over the nodes.
+     */
+    @Test
+    void ownerOf_ShouldSpreadShowtimesEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (long id = 1; id <= SHOWTIMES; id++) {
+            owned.merge(ring.ownerOf(id), 1, Integer::sum);
+        }
+
+        assertThat(owned).hasSize(3);
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(SHOWTIMES / 5, SHOWTIMES / 2));
+    }
+
+    /**
+     * Tests that when a node leaves only its own showtimes move, and that a joining node takes over
+     * about its share from the others and nothing else changes hands.
+     */
+    @Test
+    void membershipChange_ShouldMoveOnlyAffectedShowtimes() {
+        ConsistentHashRing three = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing two = new ConsistentHashRing(NODES.subList(0, 2), 128);
+
+        int moved = 0;
+        for (long id = 1; id <= SHOWTIMES; id++) {
+            String before = three.ownerOf(id);
+            if (!before.equals(NODES.get(2))) {
+                assertThat(two.ownerOf(id)).isEqualTo(before);
+            }
+            // Seen the other way round, the node joining: showtimes only ever move to it.
+            if (!two.ownerOf(id).equals(before)) {
+                assertThat(before).isEqualTo(NODES.get(2));
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(SHOWTIMES / 5, SHOWTIMES / 2);
+    }
+}
@@ -0,0 +1,112 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.model.IdempotencyRecord;
+import popcorn_palace.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-20T12:00:00Z");
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService service(int maxCachedEntries) {
+        return new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(), Duration.ofHours(1),
+                maxCachedEntries, Clock.fixed(NOW, ZoneId.of("UTC")));
+    }
+
+    /**
+     * Tests that a persisted record is loaded once and then served from memory.
+     */
+    @Test
+    void find_ShouldCachePersistedRecord() {
+        IdempotencyService service = service(10);
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenReturn(Optional.of(record("key-1", NOW.plusSeconds(60))));
+
+        assertThat(service.find("key-1")).isPresent();
+        assertThat(service.find("key-1")).isPresent();
+
+        verify(idempotencyRecordRepository, times(1)).findById("key-1");
+    }
+
+    /**
+     * Tests that expired records are not replayed.
+     */
+    @Test
+    void find_ShouldIgnoreExpiredRecord() {
+        IdempotencyService service = service(10);
+        when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", NOW)));
+
+        assertThat(service.find("key-1")).isEmpty();
+    }
+
+    /**
+     * Tests that the in-memory cache is bounded and evicts the least recently used key.
+     */
+    @Test
+    void find_ShouldEvictLeastRecentlyUsed_WhenCacheIsFull() {
+        IdempotencyService service = service(1);
+        when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", NOW.plusSeconds(60))));
+        when(idempotencyRecordRepository.findById("key-2")).thenReturn(Optional.of(record("key-2", NOW.plusSeconds(60))));
+
+        service.find("key-1");
+        service.find("key-2");
+        service.find("key-1");
+
+        verify(idempotencyRecordRepository, times(2)).findById("key-1");
+    }
+
+    /**
+     * Tests that a key that is still valid cannot be stored again for another response.
+     */
+    @Test
+    void remember_ShouldThrowException_WhenKeyAlreadyUsed() {
+        IdempotencyService service = service(10);
+        when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", NOW.plusSeconds(60))));
+
+        assertThatThrownBy(() -> service.remember("key-1", IdempotencyService.bookingFingerprint(1L, 6, "user123"), 201, "{}"))
+                .isInstanceOf(InvalidDataException.class);
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that an expired record that was not purged yet is replaced.
+     */
+    @Test
+    void remember_ShouldReplaceExpiredRecord() {
+        IdempotencyService service = service(10);
+        when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", NOW)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.remember("key-1", IdempotencyService.bookingFingerprint(1L, 6, "user123"), 201, "{}");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(idempotencyRecordRepository).save(argThat(record -> record.getExpiresAt().equals(NOW.plusSeconds(3600))
+                && record.getRequestFingerprint().endsWith(":6:user123")));
+    }
+
+    private static IdempotencyRecord record(String key, Instant expiresAt) {
+        return new IdempotencyRecord(key, IdempotencyService.bookingFingerprint(1L, 5, "user123"), 201, "{}", expiresAt);
+    }
+}
@@ -25,6 +25,12 @@ class MovieServiceTest {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private ShowtimeCleanupService showtimeCleanupService;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
     @InjectMocks
     private MovieService movieService;
 
@@ -170,6 +176,7 @@ class MovieServiceTest {
         doNothing().when(movieRepository).delete(movie);
 
         assertDoesNotThrow(() -> movieService.deleteMovie("The Godfather"));
+        verify(showtimeCleanupService, times(1)).deleteShowtimesOfMovie(movie.getId());
         verify(movieRepository, times(1)).delete(movie);
     }
 
@@ -183,5 +190,6 @@ class MovieServiceTest {
 
         assertThrows(ResourceNotFoundException.class, () -> movieService.deleteMovie("Unknown"));
         verify(movieRepository, never()).delete(any(Movie.class));
+        verifyNoInteractions(showtimeCleanupService);
     }
 }
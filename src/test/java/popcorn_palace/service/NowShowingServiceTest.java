@@ -0,0 +1,120 @@
+package popcorn_palace.service;
+
+import popcorn_palace.model.NowShowingMovie;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NowShowingServiceTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 20, 12, 0, 0);
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    private NowShowingService nowShowingService;
+
+    /**
+     * Creates the service with a clock fixed at NOW so the seven day window is deterministic.
+     */
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.atZone(ZONE).toInstant(), ZONE);
+        nowShowingService = new NowShowingService(showtimeRepository, clock);
+    }
+
+    /**
+     * Tests that showtimes in the window are grouped per movie with the cheapest price and distinct theaters,
+     * and that showtimes beyond the window are left out.
+     */
+    @Test
+    void getNowShowing_ShouldAggregatePerMovie_WithinWindow() {
+        when(showtimeRepository.findByStartTimeAfter(NOW)).thenReturn(List.of(
+                showtime(1L, "Interstellar", "Theater 1", NOW.plusHours(2), "12.50"),
+                showtime(2L, "Interstellar", "Theater 2", NOW.plusDays(1), "9.00"),
+                showtime(3L, "The Godfather", "Theater 1", NOW.plusDays(3), "15.00"),
+                showtime(4L, "Pulp Fiction", "Theater 3", NOW.plusDays(8), "11.00")
+        ));
+
+        List<NowShowingMovie> result = nowShowingService.getNowShowing();
+
+        assertThat(result).extracting(NowShowingMovie::getMovieTitle)
+                .containsExactly("Interstellar", "The Godfather");
+        NowShowingMovie interstellar = result.get(0);
+        assertThat(interstellar.getMinPrice()).isEqualByComparingTo("9.00");
+        assertThat(interstellar.getTheaters()).containsExactly("Theater 1", "Theater 2");
+        assertThat(interstellar.getNextShowtime()).isEqualTo(NOW.plusHours(2));
+        assertThat(interstellar.getShowtimeCount()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that repeated reads are served from the snapshot without touching the repository again.
+     */
+    @Test
+    void getNowShowing_ShouldLoadFromRepositoryOnlyOnce() {
+        when(showtimeRepository.findByStartTimeAfter(NOW)).thenReturn(List.of(
+                showtime(1L, "Interstellar", "Theater 1", NOW.plusHours(2), "12.50")));
+
+        nowShowingService.getNowShowing();
+        nowShowingService.getNowShowing();
+
+        verify(showtimeRepository, times(1)).findByStartTimeAfter(any(LocalDateTime.class));
+    }
+
+    /**
+     * Tests that added, updated and deleted showtimes are reflected incrementally.
+     */
+    @Test
+    void getNowShowing_ShouldApplyIncrementalChanges() {
+        when(showtimeRepository.findByStartTimeAfter(NOW)).thenReturn(List.of(
+                showtime(1L, "Interstellar", "Theater 1", NOW.plusHours(2), "12.50")));
+        nowShowingService.getNowShowing();
+
+        nowShowingService.onShowtimeSaved(showtime(2L, "The Godfather", "Theater 2", NOW.plusDays(1), "15.00"));
+        nowShowingService.onShowtimeSaved(showtime(1L, "Interstellar", "Theater 1", NOW.plusHours(2), "8.00"));
+        assertThat(nowShowingService.getNowShowing()).hasSize(2);
+        assertThat(nowShowingService.getNowShowing().get(0).getMinPrice()).isEqualByComparingTo("8.00");
+
+        nowShowingService.onShowtimeDeleted(2L);
+        assertThat(nowShowingService.getNowShowing()).extracting(NowShowingMovie::getMovieTitle)
+                .containsExactly("Interstellar");
+        verify(showtimeRepository, times(1)).findByStartTimeAfter(any(LocalDateTime.class));
+    }
+
+    /**
+     * Tests that an invalidated read model is loaded from the repository again.
+     */
+    @Test
+    void invalidate_ShouldReloadFromRepository() {
+        when(showtimeRepository.findByStartTimeAfter(NOW)).thenReturn(
+                List.of(showtime(1L, "Interstellar", "Theater 1", NOW.plusHours(2), "12.50")),
+                List.of(showtime(2L, "The Godfather", "Theater 2", NOW.plusHours(3), "15.00")));
+        nowShowingService.getNowShowing();
+
+        nowShowingService.invalidate();
+
+        assertThat(nowShowingService.getNowShowing()).extracting(NowShowingMovie::getMovieTitle)
+                .containsExactly("The Godfather");
+        verify(showtimeRepository, times(2)).findByStartTimeAfter(any(LocalDateTime.class));
+    }
+
+    private static Showtime showtime(Long id, String movieTitle, String theater, LocalDateTime start, String price) {
+        return new Showtime(id, movieTitle, theater, start, start.plusHours(2), new BigDecimal(price));
+    }
+}
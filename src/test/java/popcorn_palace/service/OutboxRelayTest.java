@@ -0,0 +1,81 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.InMemoryOutboxSink;
+import popcorn_palace.event.OutboxSink;
+import popcorn_palace.model.OutboxEvent;
+import popcorn_palace.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryOutboxSink sink;
+
+    @BeforeEach
+    void setUp() {
+        sink = new InMemoryOutboxSink();
+    }
+
+    /**
+     * Tests that pending events are published in batches until the outbox is empty, and deleted afterwards.
+     */
+    @Test
+    void drain_ShouldPublishAndDeleteInBatches() {
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, sink, transactionManager, 2);
+        List<OutboxEvent> first = List.of(event(1L), event(2L));
+        List<OutboxEvent> second = List.of(event(3L));
+        when(outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, 2))).thenReturn(first, second);
+
+        int published = relay.drain();
+
+        assertThat(published).isEqualTo(3);
+        assertThat(sink.getPublished()).extracting(OutboxEvent::getId).containsExactly(1L, 2L, 3L);
+        verify(outboxEventRepository).deleteAllInBatch(first);
+        verify(outboxEventRepository).deleteAllInBatch(second);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    /**
+     * Tests that a failing sink leaves the batch in the outbox and rolls the transaction back.
+     */
+    @Test
+    void drain_ShouldKeepBatch_WhenSinkFails() throws Exception {
+        OutboxSink failingSink = mock(OutboxSink.class);
+        doThrow(new java.io.IOException("disk full")).when(failingSink).publish(anyList());
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, failingSink, transactionManager, 10);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(event(1L)));
+
+        int published = relay.drain();
+
+        assertThat(published).isZero();
+        verify(outboxEventRepository, never()).deleteAllInBatch(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent("BOOKING_CREATED", "booking-" + id, "{}", Instant.EPOCH);
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,102 @@
+package popcorn_palace.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for ReadYourWrites: the per-user window after a write and the thread-bound pin to the primary.
+ */
+class ReadYourWritesTest {
+
+    private static final Instant NOW = Instant.parse("2025-04-10T18:00:00Z");
+
+    private MutableClock clock;
+    private ReadYourWrites readYourWrites;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 2, clock);
+    }
+
+    /**
+     * Tests that a user's reads are pinned to the primary only within the window after their write.
+     */
+    @Test
+    void pinIfRecentWriter_ShouldPinOnlyWithinWindow() {
+        readYourWrites.recordWrite("alice");
+
+        try (ReadYourWrites.Pin pin = readYourWrites.pinIfRecentWriter("alice")) {
+            assertThat(ReadYourWrites.isPrimaryPinned()).isTrue();
+        }
+        assertThat(ReadYourWrites.isPrimaryPinned()).isFalse();
+        try (ReadYourWrites.Pin pin = readYourWrites.pinIfRecentWriter("bob")) {
+            assertThat(ReadYourWrites.isPrimaryPinned()).isFalse();
+        }
+
+        clock.instant = NOW.plusSeconds(6);
+        assertThat(readYourWrites.recentlyWrote("alice")).isFalse();
+    }
+
+    /**
+     * Tests that closing a nested pin keeps the outer one.
+     */
+    @Test
+    void pinPrimary_ShouldRestoreOuterPin_WhenNestedPinCloses() {
+        try (ReadYourWrites.Pin outer = ReadYourWrites.pinPrimary()) {
+            try (ReadYourWrites.Pin inner = ReadYourWrites.pinPrimary()) {
+                assertThat(ReadYourWrites.isPrimaryPinned()).isTrue();
+            }
+            assertThat(ReadYourWrites.isPrimaryPinned()).isTrue();
+        }
+        assertThat(ReadYourWrites.isPrimaryPinned()).isFalse();
+    }
+
+    /**
+     * Tests that expired writers are swept once the tracked users reach the limit.
+     */
+    @Test
+    void recordWrite_ShouldSweepExpiredUsers_WhenFull() {
+        readYourWrites.recordWrite("alice");
+        clock.instant = NOW.plusSeconds(3);
+        readYourWrites.recordWrite("bob");
+        clock.instant = NOW.plusSeconds(6);
+
+        readYourWrites.recordWrite("carol");
+
+        assertThat(readYourWrites.recentlyWrote("alice")).isFalse();
+        assertThat(readYourWrites.recentlyWrote("bob")).isTrue();
+        assertThat(readYourWrites.recentlyWrote("carol")).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.SeatMap;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatEventBroadcasterTest {
+
+    @Mock
+    private BookingService bookingService;
+
+    private SeatEventBroadcaster broadcaster;
+
+    /**
+     * Creates a broadcaster whose background flush effectively never runs, so tests drive flush() themselves.
+     */
+    @BeforeEach
+    void setUp() {
+        broadcaster = new SeatEventBroadcaster(bookingService, new ObjectMapper(), 3_600_000L, 4, 2, 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    /**
+     * Tests that subscribing reads the seat map once and registers the subscriber.
+     */
+    @Test
+    void subscribe_ShouldRegisterSubscriber_AndReadSnapshot() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(2, 10));
+
+        assertThat(broadcaster.subscribe(1L)).isNotNull();
+        assertThat(broadcaster.subscribe(1L)).isNotNull();
+
+        assertThat(broadcaster.subscriberCount(1L)).isEqualTo(2);
+        verify(bookingService, times(2)).getSeatMap(1L);
+    }
+
+    /**
+     * Tests that the snapshot is read from the primary, so it cannot miss changes a replica has not applied yet.
+     */
+    @Test
+    void subscribe_ShouldReadSnapshotFromPrimary() {
+        when(bookingService.getSeatMap(1L)).thenAnswer(invocation -> {
+            assertThat(ReadYourWrites.isPrimaryPinned()).isTrue();
+            return new SeatMap(2, 10);
+        });
+
+        broadcaster.subscribe(1L);
+
+        verify(bookingService).getSeatMap(1L);
+        assertThat(ReadYourWrites.isPrimaryPinned()).isFalse();
+    }
+
+    /**
+     * Tests that a subscription to an unknown showtime fails and leaves no subscriber behind.
+     */
+    @Test
+    void subscribe_ShouldNotRegister_WhenShowtimeDoesNotExist() {
+        when(bookingService.getSeatMap(9L)).thenThrow(new ResourceNotFoundException("Showtime not found with id 9"));
+
+        assertThatThrownBy(() -> broadcaster.subscribe(9L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(broadcaster.subscriberCount(9L)).isZero();
+    }
+
+    /**
+     * Tests that the changes of one tick reach a subscriber as a single delta frame after the snapshot,
+     * with the last state of each seat, and that changes of showtimes nobody watches are ignored.
+     */
+    @Test
+    void onSeatChanged_ShouldCoalesceChangesIntoOneDeltaFrame() throws InterruptedException {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(2, 10));
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(1L, emitter);
+        emitter.await(1);
+
+        broadcaster.onSeatChanged(new SeatChangedEvent(2L, 1, true));
+        broadcaster.onSeatChanged(new SeatChangedEvent(1L, 3, true));
+        broadcaster.onSeatChanged(new SeatChangedEvent(1L, 4, true));
+        broadcaster.onSeatChanged(new SeatChangedEvent(1L, 3, false));
+        broadcaster.flush();
+        broadcaster.flush();
+
+        List<String> events = emitter.await(2);
+        assertThat(events.get(0)).startsWith("event:snapshot\n");
+        assertThat(events.get(1)).startsWith("event:seats\n")
+                .contains("{\"showtimeId\":1,\"taken\":[4],\"released\":[3]}");
+        assertThat(broadcaster.subscriberCount(2L)).isZero();
+        Thread.sleep(50);
+        assertThat(emitter.events).hasSize(2);
+    }
+
+    /**
+     * Tests that a burst larger than the pending limit collapses into a single resync frame.
+     */
+    @Test
+    void onSeatChanged_ShouldSendResync_WhenBurstExceedsPendingLimit() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(2, 10));
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(1L, emitter);
+
+        for (int seat = 1; seat <= 10; seat++) {
+            broadcaster.onSeatChanged(new SeatChangedEvent(1L, seat, true));
+        }
+        broadcaster.flush();
+
+        assertThat(emitter.await(2).get(1)).startsWith("event:resync\n");
+        assertThat(broadcaster.subscriberCount(1L)).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a subscriber too slow to take its frames has its backlog replaced by one resync frame.
+     */
+    @Test
+    void slowSubscriber_ShouldReceiveResync_WhenBufferOverflows() throws InterruptedException {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(2, 10));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release); // Stuck sending the snapshot
+        broadcaster.subscribe(1L, emitter);
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int seat = 1; seat <= 5; seat++) {
+            broadcaster.onSeatChanged(new SeatChangedEvent(1L, seat, true));
+            broadcaster.flush();
+        }
+        release.countDown();
+
+        List<String> events = emitter.await(2);
+        assertThat(events.get(0)).startsWith("event:snapshot\n");
+        assertThat(events.get(1)).startsWith("event:resync\n");
+    }
+
+    /**
+     * An emitter that records what is sent to it instead of writing to a response.
+     * Every send waits until the given latch is released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch released;
+
+        RecordingEmitter(CountDownLatch released) {
+            super(60_000L);
+            this.released = released;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        List<String> await(int count) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+            assertThat(events).hasSizeGreaterThanOrEqualTo(count);
+            return events;
+        }
+    }
+}
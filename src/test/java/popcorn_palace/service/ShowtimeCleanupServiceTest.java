@@ -0,0 +1,164 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.BookingEvent;
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.model.Booking;
+import popcorn_palace.model.CleanupResult;
+import popcorn_palace.model.Showtime;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
+import popcorn_palace.repository.ShowtimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShowtimeCleanupServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 4, 10, 12, 0);
+
+    @Mock
+    private ShowtimeRepository showtimeRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Mock
+    private NowShowingService nowShowingService;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShowtimeCleanupService cleanupService;
+
+    /**
+     * Creates the service with chunks of two showtimes and a clock fixed at NOW.
+     */
+    @BeforeEach
+    void setUp() {
+        cleanupService = new ShowtimeCleanupService(showtimeRepository, bookingRepository, shardedBookingRepository,
+                nowShowingService, catalogVersions, analyticsService, outboxService, eventPublisher, transactionManager, 2, 365,
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    /**
+     * Tests that past showtimes are deleted chunk by chunk, each locked and deleted with its bookings in one
+     * transaction, without announcing the bookings as cancelled.
+     */
+    @Test
+    void deleteShowtimesEndingBefore_ShouldDeleteInChunks() {
+        PageRequest chunk = PageRequest.of(0, 2);
+        Showtime first = showtime(1L, CUTOFF.minusDays(2));
+        Showtime second = showtime(2L, CUTOFF.minusDays(1));
+        Showtime third = showtime(3L, CUTOFF.minusHours(5));
+        when(showtimeRepository.findIdsEndingBefore(CUTOFF, chunk))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(showtimeRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(showtimeRepository.findAllByIdInForUpdate(List.of(3L))).thenReturn(List.of(third));
+        when(bookingRepository.deleteByShowtimeIdIn(List.of(1L, 2L))).thenReturn(4);
+        when(bookingRepository.deleteByShowtimeIdIn(List.of(3L))).thenReturn(0);
+
+        CleanupResult result = cleanupService.deleteShowtimesEndingBefore(CUTOFF);
+
+        assertThat(result.getShowtimesDeleted()).isEqualTo(3);
+        assertThat(result.getBookingsDeleted()).isEqualTo(4);
+        InOrder order = inOrder(bookingRepository, showtimeRepository);
+        order.verify(bookingRepository).deleteByShowtimeIdIn(List.of(1L, 2L));
+        order.verify(showtimeRepository).deleteAllByIdIn(List.of(1L, 2L));
+        verify(transactionManager, times(3)).commit(any());
+        verify(nowShowingService).onShowtimeDeleted(1L);
+        verify(nowShowingService).onShowtimeDeleted(3L);
+        verify(catalogVersions, times(2)).changed(CatalogVersions.Catalog.SHOWTIMES);
+        verify(bookingRepository, never()).findByShowtimeIdIn(any());
+        verifyNoInteractions(analyticsService, outboxService, eventPublisher);
+    }
+
+    /**
+     * Tests that the bookings of a showtime that has not started are cancelled: an outbox event and a seat change
+     * each, published after the showtime left the analytics rollups, while a past showtime is purged silently.
+     */
+    @Test
+    void deleteShowtimesOfMovie_ShouldCancelBookingsOfUpcomingShowtimes() {
+        PageRequest chunk = PageRequest.of(0, 2);
+        Showtime past = showtime(1L, NOW.minusDays(1));
+        Showtime upcoming = showtime(2L, NOW.plusDays(1));
+        Booking booking = new Booking(upcoming, 5, "user1");
+        when(showtimeRepository.findIdsByMovieId(7L, chunk)).thenReturn(List.of(1L, 2L), List.of());
+        when(showtimeRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(past, upcoming));
+        when(bookingRepository.findByShowtimeIdIn(List.of(2L))).thenReturn(List.of(booking));
+        when(bookingRepository.deleteByShowtimeIdIn(List.of(1L, 2L))).thenReturn(3);
+
+        CleanupResult result = cleanupService.deleteShowtimesOfMovie(7L);
+
+        assertThat(result.getBookingsDeleted()).isEqualTo(3);
+        InOrder order = inOrder(analyticsService, outboxService, eventPublisher);
+        order.verify(analyticsService).onShowtimeDeleted(upcoming, 1L);
+        order.verify(outboxService).recordBookingEvent(BookingEvent.BOOKING_CANCELLED, booking);
+        order.verify(eventPublisher).publishEvent(new SeatChangedEvent(2L, 5, false));
+        verify(analyticsService, never()).onShowtimeDeleted(eq(past), anyLong());
+    }
+
+    /**
+     * Tests that with booking shards the bookings are loaded from and deleted on the shards, never the primary table.
+     */
+    @Test
+    void deleteShowtimesOfMovie_ShouldDeleteShardedBookings_WhenShardsEnabled() {
+        PageRequest chunk = PageRequest.of(0, 2);
+        Showtime past = showtime(1L, NOW.minusDays(1));
+        Showtime upcoming = showtime(2L, NOW.plusDays(1));
+        List<Booking> bookings = List.of(new Booking(past, 1, "user1"), new Booking(upcoming, 5, "user1"));
+        when(shardedBookingRepository.isEnabled()).thenReturn(true);
+        when(showtimeRepository.findIdsByMovieId(7L, chunk)).thenReturn(List.of(1L, 2L), List.of());
+        when(showtimeRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(past, upcoming));
+        when(shardedBookingRepository.findByShowtimeIdIn(List.of(1L, 2L))).thenReturn(bookings);
+
+        CleanupResult result = cleanupService.deleteShowtimesOfMovie(7L);
+
+        assertThat(result.getBookingsDeleted()).isEqualTo(2);
+        InOrder order = inOrder(shardedBookingRepository, showtimeRepository);
+        order.verify(shardedBookingRepository).deleteAll(bookings);
+        order.verify(showtimeRepository).deleteAllByIdIn(List.of(1L, 2L));
+        verify(analyticsService).onShowtimeDeleted(upcoming, 1L);
+        verify(eventPublisher).publishEvent(new SeatChangedEvent(2L, 5, false));
+        verify(eventPublisher, never()).publishEvent(new SeatChangedEvent(1L, 1, false));
+        verify(bookingRepository, never()).deleteByShowtimeIdIn(any());
+    }
+
+    private static Showtime showtime(Long id, LocalDateTime startTime) {
+        Showtime showtime = new Showtime();
+        showtime.setId(id);
+        showtime.setStartTime(startTime);
+        showtime.setEndTime(startTime.plusHours(2));
+        return showtime;
+    }
+}
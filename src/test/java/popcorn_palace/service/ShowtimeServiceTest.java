@@ -1,21 +1,31 @@
 package popcorn_palace.service;
 
+import popcorn_palace.exception.InvalidDataException;
 import popcorn_palace.exception.OverlappingShowtimeException;
 import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.Movie;
 import popcorn_palace.model.Showtime;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.BookingRepository;
+import popcorn_palace.repository.MovieRepository;
+import popcorn_palace.repository.ShardedBookingRepository;
 import popcorn_palace.repository.ShowtimeRepository;
+import popcorn_palace.repository.TheaterRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,10 +36,36 @@ class ShowtimeServiceTest {
     @Mock
     private ShowtimeRepository showtimeRepository;
 
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private TheaterRepository theaterRepository;
+
+    @Mock
+    private NowShowingService nowShowingService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ShardedBookingRepository shardedBookingRepository;
+
+    @Mock
+    private ShowtimeCleanupService showtimeCleanupService;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
     @InjectMocks
     private ShowtimeService showtimeService;
 
     private Showtime showtime;
+    private Movie movie;
+    private Theater theater;
 
     /**
      * Initializes test data before each test.
@@ -37,6 +73,9 @@ class ShowtimeServiceTest {
      */
     @BeforeEach
     void setUp() {
+        movie = new Movie(7L, "Pulp Fiction", "Crime", 154, 8.9, 1994);
+        theater = new Theater(3L, "Theater 1", 10, 20);
+
         showtime = new Showtime(
                 1L,
                 "Pulp Fiction",                      // movie title stored directly
@@ -102,12 +141,28 @@ class ShowtimeServiceTest {
     @Test
     void getShowtimesByMovieAndTheater_ShouldReturnList() {
         List<Showtime> list = Arrays.asList(showtime);
-        when(showtimeRepository.findByMovieTitleAndTheater("Pulp Fiction", "Theater 1")).thenReturn(list);
+        when(movieRepository.findByTitle("Pulp Fiction")).thenReturn(Optional.of(movie));
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.findByMovieIdAndAuditoriumId(7L, 3L)).thenReturn(list);
 
         List<Showtime> result = showtimeService.getShowtimesByMovieAndTheater("Pulp Fiction", "Theater 1");
 
         assertEquals(1, result.size());
-        verify(showtimeRepository, times(1)).findByMovieTitleAndTheater("Pulp Fiction", "Theater 1");
+        verify(showtimeRepository, times(1)).findByMovieIdAndAuditoriumId(7L, 3L);
+    }
+
+    /**
+     * Tests retrieving showtimes for a movie title that does not exist.
+     * Verifies that an empty list is returned without querying showtimes.
+     */
+    @Test
+    void getShowtimesByMovieAndTheater_ShouldReturnEmpty_WhenMovieDoesNotExist() {
+        when(movieRepository.findByTitle("Unknown")).thenReturn(Optional.empty());
+
+        List<Showtime> result = showtimeService.getShowtimesByMovieAndTheater("Unknown", "Theater 1");
+
+        assertTrue(result.isEmpty());
+        verify(showtimeRepository, never()).findByMovieIdAndAuditoriumId(any(), any());
     }
 
     /**
@@ -117,14 +172,47 @@ class ShowtimeServiceTest {
     @Test
     void addShowtime_ShouldSaveShowtime_WhenNoOverlap() {
         // Simulate no overlapping showtimes.
-        when(showtimeRepository.existsByTheaterAndTimeOverlap("Theater 1", showtime.getStartTime(), showtime.getEndTime()))
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, showtime.getStartTime(), showtime.getEndTime()))
                 .thenReturn(false);
+        when(movieRepository.findByTitle("Pulp Fiction")).thenReturn(Optional.of(movie));
         when(showtimeRepository.save(showtime)).thenReturn(showtime);
 
         Showtime result = showtimeService.addShowtime(showtime);
         assertNotNull(result);
         assertEquals("Pulp Fiction", result.getMovieTitle());
+        assertEquals(movie, result.getMovie());
         verify(showtimeRepository, times(1)).save(showtime);
+        verify(nowShowingService, times(1)).onShowtimeSaved(showtime);
+        verify(analyticsService, times(1)).onShowtimeAdded(showtime);
+    }
+
+    /**
+     * Tests adding a showtime for a movie title that does not exist.
+     * Verifies that a ResourceNotFoundException is thrown and nothing is saved.
+     */
+    @Test
+    void addShowtime_ShouldThrowResourceNotFoundException_WhenMovieDoesNotExist() {
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, showtime.getStartTime(), showtime.getEndTime()))
+                .thenReturn(false);
+        when(movieRepository.findByTitle("Pulp Fiction")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> showtimeService.addShowtime(showtime));
+        verify(showtimeRepository, never()).save(any(Showtime.class));
+    }
+
+    /**
+     * Tests adding a showtime for a theater that does not exist.
+     * Verifies that a ResourceNotFoundException is thrown before any overlap check.
+     */
+    @Test
+    void addShowtime_ShouldThrowResourceNotFoundException_WhenTheaterDoesNotExist() {
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> showtimeService.addShowtime(showtime));
+        verify(showtimeRepository, never()).existsByTheaterAndTimeOverlap(any(), any(), any());
+        verify(showtimeRepository, never()).save(any(Showtime.class));
     }
 
     /**
@@ -133,7 +221,8 @@ class ShowtimeServiceTest {
      */
     @Test
     void addShowtime_ShouldThrowOverlappingShowtimeException_WhenOverlapExists() {
-        when(showtimeRepository.existsByTheaterAndTimeOverlap("Theater 1", showtime.getStartTime(), showtime.getEndTime()))
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, showtime.getStartTime(), showtime.getEndTime()))
                 .thenReturn(true);
 
         assertThrows(OverlappingShowtimeException.class, () -> showtimeService.addShowtime(showtime));
@@ -157,8 +246,10 @@ class ShowtimeServiceTest {
         );
         when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
         // Assume no overlap for the updated timing.
-        when(showtimeRepository.existsByTheaterAndTimeOverlap("Theater 1", updatedShowtime.getStartTime(), updatedShowtime.getEndTime()))
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, updatedShowtime.getStartTime(), updatedShowtime.getEndTime()))
                 .thenReturn(false);
+        when(movieRepository.findByTitle("Pulp Fiction")).thenReturn(Optional.of(movie));
         when(showtimeRepository.save(any(Showtime.class))).thenReturn(updatedShowtime);
 
         Showtime result = showtimeService.updateShowtime(1L, updatedShowtime);
@@ -166,6 +257,82 @@ class ShowtimeServiceTest {
         assertEquals(updatedShowtime.getStartTime(), result.getStartTime());
         assertEquals(updatedShowtime.getPrice(), result.getPrice());
         verify(showtimeRepository, times(1)).save(any(Showtime.class));
+        verify(bookingRepository, never()).updateShowtimeDate(anyLong(), any());
+    }
+
+    /**
+     * Tests that moving a showtime to another day moves the showtime date of its bookings too.
+     */
+    @Test
+    void updateShowtime_ShouldMoveBookingDates_WhenDateChanges() {
+        Showtime updatedShowtime = new Showtime(
+                1L,
+                "Pulp Fiction",
+                "Theater 1",
+                LocalDateTime.of(2025, 3, 22, 19, 0, 0),
+                LocalDateTime.of(2025, 3, 22, 21, 0, 0),
+                new BigDecimal("35.00")
+        );
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, updatedShowtime.getStartTime(), updatedShowtime.getEndTime()))
+                .thenReturn(false);
+        when(movieRepository.findByTitle("Pulp Fiction")).thenReturn(Optional.of(movie));
+        when(showtimeRepository.save(any(Showtime.class))).thenReturn(updatedShowtime);
+
+        showtimeService.updateShowtime(1L, updatedShowtime);
+
+        verify(bookingRepository).updateShowtimeDate(1L, LocalDate.of(2025, 3, 22));
+    }
+
+    /**
+     * Tests that with booking shards the bookings are moved and counted on the shards instead of the primary table.
+     */
+    @Test
+    void updateShowtime_ShouldMoveShardedBookingDates_WhenShardsEnabled() {
+        Showtime updatedShowtime = new Showtime(
+                1L,
+                "Pulp Fiction",
+                "Theater 1",
+                LocalDateTime.of(2025, 3, 22, 19, 0, 0),
+                LocalDateTime.of(2025, 3, 22, 21, 0, 0),
+                new BigDecimal("35.00")
+        );
+        when(shardedBookingRepository.isEnabled()).thenReturn(true);
+        when(shardedBookingRepository.countByShowtimeId(1L)).thenReturn(4L);
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, updatedShowtime.getStartTime(), updatedShowtime.getEndTime()))
+                .thenReturn(false);
+        when(movieRepository.findByTitle("Pulp Fiction")).thenReturn(Optional.of(movie));
+        when(showtimeRepository.save(any(Showtime.class))).thenReturn(updatedShowtime);
+
+        showtimeService.updateShowtime(1L, updatedShowtime);
+
+        verify(shardedBookingRepository).updateShowtimeDate(1L, LocalDate.of(2025, 3, 20), LocalDate.of(2025, 3, 22));
+        verify(analyticsService).onShowtimeUpdated(any(), eq(updatedShowtime), eq(4L));
+        verify(bookingRepository, never()).updateShowtimeDate(anyLong(), any());
+        verify(bookingRepository, never()).countByShowtimeId(anyLong());
+    }
+
+    /**
+     * Tests that an update without a price is rejected instead of storing a free showtime.
+     */
+    @Test
+    void updateShowtime_ShouldThrowInvalidDataException_WhenPriceMissing() {
+        Showtime updatedShowtime = new Showtime(
+                1L,
+                "Pulp Fiction",
+                "Theater 1",
+                LocalDateTime.of(2025, 3, 20, 19, 0, 0),
+                LocalDateTime.of(2025, 3, 20, 21, 0, 0),
+                null
+        );
+        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+
+        assertThrows(InvalidDataException.class, () -> showtimeService.updateShowtime(1L, updatedShowtime));
+        verify(showtimeRepository, never()).save(any(Showtime.class));
     }
 
     /**
@@ -195,7 +362,8 @@ class ShowtimeServiceTest {
                 new BigDecimal("35.00")
         );
         when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
-        when(showtimeRepository.existsByTheaterAndTimeOverlap("Theater 1", updatedShowtime.getStartTime(), updatedShowtime.getEndTime()))
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+        when(showtimeRepository.existsByTheaterAndTimeOverlap(3L, updatedShowtime.getStartTime(), updatedShowtime.getEndTime()))
                 .thenReturn(true);
 
         assertThrows(OverlappingShowtimeException.class, () -> showtimeService.updateShowtime(1L, updatedShowtime));
@@ -204,15 +372,18 @@ class ShowtimeServiceTest {
 
     /**
      * Tests deleting a showtime by ID.
-     * Verifies that the showtime is deleted successfully if the ID exists.
+     * Verifies that the showtime is locked and deleted with its bookings as a cancelled show.
      */
     @Test
+    @SuppressWarnings("unchecked")
     void deleteShowtime_ShouldDeleteShowtime_WhenExists() {
-        when(showtimeRepository.findById(1L)).thenReturn(Optional.of(showtime));
-        doNothing().when(showtimeRepository).delete(showtime);
+        when(showtimeRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(showtime));
 
         assertDoesNotThrow(() -> showtimeService.deleteShowtime(1L));
-        verify(showtimeRepository, times(1)).delete(showtime);
+        ArgumentCaptor<Predicate<Showtime>> cancelled = ArgumentCaptor.forClass(Predicate.class);
+        verify(showtimeCleanupService, times(1)).deleteLocked(eq(List.of(showtime)), cancelled.capture());
+        assertTrue(cancelled.getValue().test(showtime));
+        verify(catalogVersions).changed(CatalogVersions.Catalog.SHOWTIMES);
     }
 
     /**
@@ -221,9 +392,9 @@ class ShowtimeServiceTest {
      */
     @Test
     void deleteShowtime_ShouldThrowResourceNotFoundException_WhenNotFound() {
-        when(showtimeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(showtimeRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> showtimeService.deleteShowtime(1L));
-        verify(showtimeRepository, never()).delete(any(Showtime.class));
+        verifyNoInteractions(showtimeCleanupService);
     }
 }
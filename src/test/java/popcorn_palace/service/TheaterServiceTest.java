@@ -0,0 +1,108 @@
+package popcorn_palace.service;
+
+import popcorn_palace.exception.InvalidDataException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.model.Theater;
+import popcorn_palace.repository.TheaterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TheaterServiceTest {
+
+    @Mock
+    private TheaterRepository theaterRepository;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @InjectMocks
+    private TheaterService theaterService;
+
+    private Theater theater;
+
+    /**
+     * Initializes a sample theater with 10 rows of 20 seats before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        theater = new Theater(1L, "Theater 1", 10, 20);
+    }
+
+    /**
+     * Tests that the capacity and seat range are derived from the layout.
+     */
+    @Test
+    void theater_ShouldDeriveCapacityFromLayout() {
+        assertThat(theater.getCapacity()).isEqualTo(200);
+        assertThat(theater.hasSeat(1)).isTrue();
+        assertThat(theater.hasSeat(200)).isTrue();
+        assertThat(theater.hasSeat(0)).isFalse();
+        assertThat(theater.hasSeat(201)).isFalse();
+    }
+
+    /**
+     * Tests that all theaters are returned.
+     */
+    @Test
+    void getAllTheaters_ShouldReturnAllTheaters() {
+        when(theaterRepository.findAll()).thenReturn(List.of(theater));
+
+        assertThat(theaterService.getAllTheaters()).containsExactly(theater);
+    }
+
+    /**
+     * Tests that a theater is found by name.
+     */
+    @Test
+    void getTheaterByName_ShouldReturnTheater_WhenExists() {
+        when(theaterRepository.findByName("Theater 1")).thenReturn(Optional.of(theater));
+
+        assertThat(theaterService.getTheaterByName("Theater 1")).isEqualTo(theater);
+    }
+
+    /**
+     * Tests that a missing theater results in a ResourceNotFoundException.
+     */
+    @Test
+    void getTheaterByName_ShouldThrowException_WhenNotFound() {
+        when(theaterRepository.findByName("Nowhere")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> theaterService.getTheaterByName("Nowhere"))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Theater not found with name: Nowhere");
+    }
+
+    /**
+     * Tests that a new theater is saved.
+     */
+    @Test
+    void addTheater_ShouldSaveTheater_WhenNameIsFree() {
+        when(theaterRepository.existsByName("Theater 1")).thenReturn(false);
+        when(theaterRepository.save(theater)).thenReturn(theater);
+
+        assertThat(theaterService.addTheater(theater)).isEqualTo(theater);
+    }
+
+    /**
+     * Tests that a theater with an existing name is rejected.
+     */
+    @Test
+    void addTheater_ShouldThrowException_WhenNameIsTaken() {
+        when(theaterRepository.existsByName("Theater 1")).thenReturn(true);
+
+        assertThatThrownBy(() -> theaterService.addTheater(theater))
+                .isInstanceOf(InvalidDataException.class);
+        verify(theaterRepository, never()).save(any(Theater.class));
+    }
+}
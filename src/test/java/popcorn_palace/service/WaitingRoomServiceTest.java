@@ -0,0 +1,193 @@
+package popcorn_palace.service;
+
+import popcorn_palace.event.SeatChangedEvent;
+import popcorn_palace.exception.NotAdmittedException;
+import popcorn_palace.exception.ResourceNotFoundException;
+import popcorn_palace.exception.SoldOutException;
+import popcorn_palace.model.QueueTicket;
+import popcorn_palace.model.SeatMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitingRoomServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-20T12:00:00Z");
+
+    @Mock
+    private BookingService bookingService;
+
+    private MutableClock clock;
+    private WaitingRoomService waitingRoomService;
+
+    /**
+     * Creates a waiting room service admitting two users per tick, with one hour tickets and
+     * seat availability re-read every 30 seconds.
+     */
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        waitingRoomService = new WaitingRoomService(bookingService, 2, Duration.ofHours(1), Duration.ofSeconds(30), clock);
+    }
+
+    /**
+     * Tests that users are admitted in arrival order at the configured rate, and can book once admitted.
+     */
+    @Test
+    void tick_ShouldAdmitUsersInArrivalOrder() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(10, 10));
+        waitingRoomService.open(1L);
+
+        QueueTicket first = waitingRoomService.join(1L, "user1");
+        waitingRoomService.join(1L, "user2");
+        QueueTicket third = waitingRoomService.join(1L, "user3");
+        assertThat(third.getPosition()).isEqualTo(3);
+        assertThatThrownBy(() -> waitingRoomService.checkAdmission(1L, "user1", first.getTicketId()))
+                .isInstanceOf(NotAdmittedException.class);
+
+        waitingRoomService.tick();
+
+        waitingRoomService.checkAdmission(1L, "user1", first.getTicketId());
+        QueueTicket thirdAfterTick = waitingRoomService.getTicket(1L, third.getTicketId());
+        assertThat(thirdAfterTick.getPosition()).isEqualTo(1);
+        assertThat(thirdAfterTick.isAdmitted()).isFalse();
+    }
+
+    /**
+     * Tests that seat availability is read from the primary, when opening and when refreshing.
+     */
+    @Test
+    void availability_ShouldBeReadFromPrimary() {
+        when(bookingService.getSeatMap(1L)).thenAnswer(invocation -> {
+            assertThat(ReadYourWrites.isPrimaryPinned()).isTrue();
+            return new SeatMap(10, 10);
+        });
+        waitingRoomService.open(1L);
+        clock.instant = NOW.plusSeconds(30);
+
+        waitingRoomService.tick();
+
+        verify(bookingService, times(2)).getSeatMap(1L);
+        assertThat(ReadYourWrites.isPrimaryPinned()).isFalse();
+    }
+
+    /**
+     * Tests that joining twice keeps the user's place, and that a ticket cannot be used by another user.
+     */
+    @Test
+    void join_ShouldReturnExistingTicket_AndRejectForeignUse() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(10, 10));
+        waitingRoomService.open(1L);
+
+        QueueTicket ticket = waitingRoomService.join(1L, "user1");
+        assertThat(waitingRoomService.join(1L, "user1").getTicketId()).isEqualTo(ticket.getTicketId());
+
+        waitingRoomService.tick();
+        assertThatThrownBy(() -> waitingRoomService.checkAdmission(1L, "user2", ticket.getTicketId()))
+                .isInstanceOf(NotAdmittedException.class);
+    }
+
+    /**
+     * Tests that once the last seat is taken bookings short-circuit with sold out.
+     */
+    @Test
+    void checkAdmission_ShouldReportSoldOut_WhenNoSeatsLeft() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(1, 1));
+        waitingRoomService.open(1L);
+
+        waitingRoomService.onSeatChanged(new SeatChangedEvent(1L, 1, true));
+
+        assertThatThrownBy(() -> waitingRoomService.checkAdmission(1L, "user1", null))
+                .isInstanceOf(SoldOutException.class);
+        assertThat(waitingRoomService.join(1L, "user1").isSoldOut()).isTrue();
+    }
+
+    /**
+     * Tests that the ticket time to live starts at admission, so a user who waited longer than it can still book,
+     * and that the ticket expires one time to live after being admitted.
+     */
+    @Test
+    void tick_ShouldExpireTickets_TicketTtlAfterAdmission() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(10, 10));
+        waitingRoomService.open(1L);
+        QueueTicket first = waitingRoomService.join(1L, "user1");
+        waitingRoomService.join(1L, "user2");
+        QueueTicket third = waitingRoomService.join(1L, "user3");
+        waitingRoomService.tick();
+
+        clock.instant = NOW.plus(Duration.ofHours(2));
+        waitingRoomService.tick();
+
+        waitingRoomService.checkAdmission(1L, "user3", third.getTicketId());
+        assertThatThrownBy(() -> waitingRoomService.getTicket(1L, first.getTicketId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        clock.instant = NOW.plus(Duration.ofHours(3)).plusSeconds(1);
+        waitingRoomService.tick();
+
+        assertThatThrownBy(() -> waitingRoomService.getTicket(1L, third.getTicketId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Tests that seat availability is tracked from events between refreshes and only re-read when the refresh is due.
+     */
+    @Test
+    void tick_ShouldReadSeatMapOnlyWhenRefreshIsDue() {
+        when(bookingService.getSeatMap(1L)).thenReturn(new SeatMap(1, 1));
+        waitingRoomService.open(1L);
+
+        clock.instant = NOW.plusSeconds(1);
+        waitingRoomService.tick();
+        verify(bookingService, times(1)).getSeatMap(1L);
+
+        clock.instant = NOW.plusSeconds(30);
+        waitingRoomService.tick();
+        verify(bookingService, times(2)).getSeatMap(1L);
+    }
+
+    /**
+     * Tests that showtimes without a waiting room are not affected.
+     */
+    @Test
+    void checkAdmission_ShouldAllow_WhenNoWaitingRoom() {
+        waitingRoomService.checkAdmission(2L, "user1", null);
+        verifyNoInteractions(bookingService);
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}